@@ -30,6 +30,11 @@ public class AuthInterceptor implements HandlerInterceptor {
      */
     public static final String ATTR_SESSION = "authSession";
 
+    /**
+     * The only device key accepted on device endpoints.
+     */
+    static final String DEVICE_KEY = "demo-device-key";
+
     private final AuthTokenService tokenService;
 
     /**
@@ -64,7 +69,7 @@ public class AuthInterceptor implements HandlerInterceptor {
         if (path.startsWith("/api/device")) {
             String deviceKey = request.getHeader("X-Device-Key");
             String qpKey = request.getParameter("key");
-            if ("demo-device-key".equals(deviceKey) || "demo-device-key".equals(qpKey)) {
+            if (isValidDeviceKey(deviceKey) || isValidDeviceKey(qpKey)) {
                 return true;
             }
             response.setStatus(HttpStatus.UNAUTHORIZED.value());
@@ -92,5 +97,15 @@ public class AuthInterceptor implements HandlerInterceptor {
         request.setAttribute(ATTR_SESSION, session);
         return true;
     }
+
+    /**
+     * Checks whether a device key may access the device endpoints.
+     *
+     * @param deviceKey the key sent by the device, may be null
+     * @return true if the key is accepted
+     */
+    static boolean isValidDeviceKey(String deviceKey) {
+        return DEVICE_KEY.equals(deviceKey);
+    }
 }
 
@@ -0,0 +1,69 @@
+package com.ecoguard.ecoguard.config;
+
+import com.ecoguard.ecoguard.controller.DeviceWebSocketHandler;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * Handshake interceptor authenticating device WebSocket connections.
+ * <p>
+ * Accepts the same device keys as {@link AuthInterceptor}, from the X-Device-Key
+ * header or the {@code key} query parameter for clients that cannot set handshake
+ * headers, and stores the key in the session attributes under
+ * {@link DeviceWebSocketHandler#ATTR_DEVICE_KEY}. The key is checked once per
+ * connection rather than once per message.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+public class DeviceHandshakeInterceptor implements HandshakeInterceptor {
+
+    /**
+     * Default constructor.
+     */
+    public DeviceHandshakeInterceptor() {
+    }
+
+    /**
+     * Rejects the handshake with 401 Unauthorized unless it carries a valid device key.
+     *
+     * @param request the handshake request
+     * @param response the handshake response
+     * @param wsHandler the target handler
+     * @param attributes the session attributes to populate
+     * @return true if the handshake should proceed
+     */
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String deviceKey = request.getHeaders().getFirst("X-Device-Key");
+        if (!AuthInterceptor.isValidDeviceKey(deviceKey)) {
+            deviceKey = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("key");
+        }
+        if (!AuthInterceptor.isValidDeviceKey(deviceKey)) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        attributes.put(DeviceWebSocketHandler.ATTR_DEVICE_KEY, deviceKey);
+        return true;
+    }
+
+    /**
+     * Does nothing after the handshake.
+     *
+     * @param request the handshake request
+     * @param response the handshake response
+     * @param wsHandler the target handler
+     * @param exception an exception raised during the handshake, or null
+     */
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
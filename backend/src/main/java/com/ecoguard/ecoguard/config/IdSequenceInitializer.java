@@ -0,0 +1,93 @@
+package com.ecoguard.ecoguard.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+/**
+ * Moves the ID sequences of the high-volume tables past the IDs already in use.
+ * <p>
+ * Sensor readings, alerts, device commands and notifications take their IDs from
+ * pooled sequences instead of identity columns. A database created before the
+ * switch already holds rows while schema update creates the sequences at 1, so on
+ * startup each sequence is restarted above the table's highest ID before anything
+ * is inserted. Sequences are only ever moved forward.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+@Component
+public class IdSequenceInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    /** The {@code allocationSize} of the entity sequence generators. */
+    private static final int ALLOCATION_SIZE = 50;
+
+    /** Sequence name per entity name. */
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "SensorData", "sensor_data_seq",
+            "Alert", "alerts_seq",
+            "DeviceCommand", "device_commands_seq",
+            "Notification", "notifications_seq");
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Constructs a new IdSequenceInitializer with required dependencies.
+     *
+     * @param entityManager entity manager used to read IDs and advance sequences
+     * @param transactionManager transaction manager for the startup check
+     */
+    public IdSequenceInitializer(EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Advances every sequence that would hand out IDs already in use.
+     */
+    @PostConstruct
+    public void alignSequences() {
+        Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+        transactionTemplate.executeWithoutResult(status ->
+                SEQUENCES.forEach((entity, sequence) -> align(dialect, entity, sequence)));
+    }
+
+    /**
+     * Restarts a sequence above the highest ID of its table if needed.
+     * <p>
+     * The pooled optimizer hands out the block ending at the value it fetches, so
+     * the value fetched after this check must be at least the highest ID plus the
+     * allocation size.
+     *
+     * @param dialect the database dialect
+     * @param entity the entity name
+     * @param sequence the sequence name
+     */
+    private void align(Dialect dialect, String entity, String sequence) {
+        Long maxId = entityManager.createQuery("select max(e.id) from " + entity + " e", Long.class)
+                .getSingleResult();
+        if (maxId == null) {
+            return;
+        }
+        String quoted = "\"" + sequence + "\"";
+        long next = ((Number) entityManager.createNativeQuery(
+                dialect.getSequenceSupport().getSequenceNextValString(quoted)).getSingleResult()).longValue();
+        if (next < maxId) {
+            long restart = maxId + ALLOCATION_SIZE;
+            entityManager.createNativeQuery("alter sequence " + quoted + " restart with " + restart).executeUpdate();
+            logger.info("Advanced sequence {} to {} past existing IDs", sequence, restart);
+        }
+    }
+}
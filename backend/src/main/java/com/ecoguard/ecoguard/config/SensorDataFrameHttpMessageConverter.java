@@ -0,0 +1,88 @@
+package com.ecoguard.ecoguard.config;
+
+import com.ecoguard.ecoguard.dto.SensorDataFrame;
+import com.ecoguard.ecoguard.dto.SensorDataPayload;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * HTTP message converter for sensor readings sent as a {@link SensorDataFrame}.
+ * <p>
+ * Lets devices post a reading to {@code /api/device/sensor-data} with Content-Type
+ * {@value SensorDataFrame#MEDIA_TYPE_VALUE} instead of JSON, which skips text
+ * parsing of the decimal and date values. Malformed frames are answered with
+ * 400 Bad Request.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+public class SensorDataFrameHttpMessageConverter extends AbstractHttpMessageConverter<SensorDataPayload> {
+
+    /**
+     * Constructs a new SensorDataFrameHttpMessageConverter for the frame media type.
+     */
+    public SensorDataFrameHttpMessageConverter() {
+        super(SensorDataFrame.MEDIA_TYPE);
+    }
+
+    /**
+     * Checks whether the converter handles a class.
+     *
+     * @param clazz the class to check
+     * @return true for {@link SensorDataPayload}
+     */
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return SensorDataPayload.class == clazz;
+    }
+
+    /**
+     * Reads a frame from the request body.
+     *
+     * @param clazz the target class
+     * @param inputMessage the request
+     * @return the decoded reading
+     * @throws IOException if the body cannot be read
+     * @throws HttpMessageNotReadableException if the body is not a valid frame
+     */
+    @Override
+    protected SensorDataPayload readInternal(Class<? extends SensorDataPayload> clazz, HttpInputMessage inputMessage)
+            throws IOException {
+        byte[] frame = new byte[SensorDataFrame.MAX_LENGTH + 1];
+        int length = 0;
+        try (InputStream body = inputMessage.getBody()) {
+            int read;
+            while (length < frame.length && (read = body.read(frame, length, frame.length - length)) > 0) {
+                length += read;
+            }
+        }
+        try {
+            return SensorDataFrame.decode(frame, length);
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("Invalid sensor data frame: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    /**
+     * Writes a reading as a frame.
+     *
+     * @param payload the reading
+     * @param outputMessage the response
+     * @throws IOException if the body cannot be written
+     * @throws HttpMessageNotWritableException if a value does not fit the frame
+     */
+    @Override
+    protected void writeInternal(SensorDataPayload payload, HttpOutputMessage outputMessage) throws IOException {
+        try {
+            outputMessage.getBody().write(SensorDataFrame.encode(payload));
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotWritableException("Reading does not fit a sensor data frame: " + e.getMessage(), e);
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package com.ecoguard.ecoguard.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 /**
- * Spring MVC configuration for CORS and interceptors.
+ * Spring MVC configuration for CORS, interceptors and message converters.
  * <p>
  * Configures Cross-Origin Resource Sharing (CORS) to allow requests from the
- * frontend application and registers the authentication interceptor for API endpoints.
+ * frontend application, registers the authentication interceptor for API endpoints
+ * and adds the converter for binary sensor data frames.
  *
  * @author EcoGuard 
  * @since 1.0
@@ -57,4 +61,16 @@ public class WebConfig implements WebMvcConfigurer {
                 .addPathPatterns("/api/**")
                 .excludePathPatterns("/api/auth/login");
     }
-}
\ No newline at end of file
+
+    /**
+     * Adds the converter for readings sent as binary sensor data frames.
+     * <p>
+     * Appended after the default converters; it only handles its own media type.
+     *
+     * @param converters the configured message converters
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new SensorDataFrameHttpMessageConverter());
+    }
+}
@@ -0,0 +1,45 @@
+package com.ecoguard.ecoguard.config;
+
+import com.ecoguard.ecoguard.controller.DeviceWebSocketHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * WebSocket configuration for persistent device connections.
+ * <p>
+ * Registers {@link DeviceWebSocketHandler} at {@code /api/device/ws}. The MVC
+ * {@link AuthInterceptor} does not see WebSocket handshakes, so the device key is
+ * checked by {@link DeviceHandshakeInterceptor} instead. Origins are not opened up:
+ * devices send no Origin header, and browsers are limited to the same origin.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final DeviceWebSocketHandler deviceWebSocketHandler;
+
+    /**
+     * Constructs a new WebSocketConfig with required dependencies.
+     *
+     * @param deviceWebSocketHandler handler for device connections
+     */
+    public WebSocketConfig(DeviceWebSocketHandler deviceWebSocketHandler) {
+        this.deviceWebSocketHandler = deviceWebSocketHandler;
+    }
+
+    /**
+     * Registers the device WebSocket endpoint.
+     *
+     * @param registry the handler registry to configure
+     */
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(deviceWebSocketHandler, "/api/device/ws")
+                .addInterceptors(new DeviceHandshakeInterceptor());
+    }
+}
@@ -3,9 +3,11 @@ package com.ecoguard.ecoguard.controller;
 import com.ecoguard.ecoguard.dto.DeviceCommandPayload;
 import com.ecoguard.ecoguard.entity.DeviceCommand;
 import com.ecoguard.ecoguard.repository.DeviceCommandRepository;
+import com.ecoguard.ecoguard.service.DeviceCommandService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -13,7 +15,8 @@ import java.util.Map;
  * REST controller for managing device commands (admin only).
  * <p>
  * Provides endpoints for sending commands to the ESP32 device, viewing command history,
- * and checking pending commands. Commands are queued and fetched by the device periodically.
+ * and checking pending commands. Commands are queued and delivered on the device's next
+ * poll, or immediately to a device that is long-polling for commands.
  *
  * @author EcoGuard 
  * @since 1.0
@@ -23,24 +26,29 @@ import java.util.Map;
 public class AdminDeviceCommandController {
 
     private final DeviceCommandRepository deviceCommandRepository;
+    private final DeviceCommandService deviceCommandService;
 
     /**
      * Constructs a new AdminDeviceCommandController with required dependencies.
      *
      * @param deviceCommandRepository repository for command persistence
+     * @param deviceCommandService service queueing commands and waking waiting devices
      */
-    public AdminDeviceCommandController(DeviceCommandRepository deviceCommandRepository) {
+    public AdminDeviceCommandController(DeviceCommandRepository deviceCommandRepository,
+                                        DeviceCommandService deviceCommandService) {
         this.deviceCommandRepository = deviceCommandRepository;
+        this.deviceCommandService = deviceCommandService;
     }
 
     /**
      * Sends a command to the ESP32 device.
      * <p>
      * Creates a new command record that will be fetched by the device on its next
-     * command check cycle. Supported command types: SET_LED_COLOR, DISPLAY_MESSAGE,
-     * BLE_BROADCAST, REFRESH_CONFIG.
+     * command check cycle, or handed straight to a pending long poll. Supported command types: SET_LED_COLOR, DISPLAY_MESSAGE,
+     * BLE_BROADCAST, REFRESH_CONFIG. Commands not executed before their expiry
+     * (default one day, overridable with ttlSeconds) are dropped.
      *
-     * @param payload the command payload containing deviceKey, commandType, and optional parameters
+     * @param payload the command payload containing deviceKey, commandType, and optional parameters and ttlSeconds
      * @return ResponseEntity with command ID and success message, or 400 Bad Request if validation fails
      */
     @PostMapping
@@ -48,14 +56,13 @@ public class AdminDeviceCommandController {
         if (payload.getDeviceKey() == null || payload.getCommandType() == null) {
             return ResponseEntity.badRequest().body(Map.of("message", "deviceKey and commandType required"));
         }
+        if (payload.getTtlSeconds() != null && payload.getTtlSeconds() < 0) {
+            return ResponseEntity.badRequest().body(Map.of("message", "ttlSeconds must not be negative"));
+        }
 
-        DeviceCommand command = new DeviceCommand();
-        command.setDeviceKey(payload.getDeviceKey());
-        command.setCommandType(payload.getCommandType());
-        command.setParameters(payload.getParameters());
-        command.setExecuted(false);
-
-        DeviceCommand saved = deviceCommandRepository.save(command);
+        Duration ttl = payload.getTtlSeconds() == null ? null : Duration.ofSeconds(payload.getTtlSeconds());
+        DeviceCommand saved = deviceCommandService.enqueue(
+                payload.getDeviceKey(), payload.getCommandType(), payload.getParameters(), ttl);
         return ResponseEntity.ok(Map.of(
                 "commandId", saved.getId(),
                 "message", "Command sent to device"
@@ -1,20 +1,14 @@
 package com.ecoguard.ecoguard.controller;
 
 import com.ecoguard.ecoguard.dto.DeviceStatusResponse;
-import com.ecoguard.ecoguard.entity.Alert;
-import com.ecoguard.ecoguard.entity.DeviceCommand;
-import com.ecoguard.ecoguard.entity.SensorData;
-import com.ecoguard.ecoguard.repository.AlertRepository;
-import com.ecoguard.ecoguard.repository.DeviceCommandRepository;
-import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import com.ecoguard.ecoguard.service.DevicePresenceRegistry;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.List;
 
 /**
  * REST controller for device status monitoring (admin only).
@@ -30,66 +24,42 @@ import java.util.Optional;
 @RequestMapping("/api/admin/device/status")
 public class AdminDeviceStatusController {
 
-    /**
-     * Time threshold in seconds for determining if device is online.
-     * Device is considered online if last data was received within this window.
-     */
-    private static final long ONLINE_THRESHOLD_SECONDS = 20;
-
-    private final SensorDataRepository sensorDataRepository;
-    private final AlertRepository alertRepository;
-    private final DeviceCommandRepository deviceCommandRepository;
+    private final DevicePresenceRegistry devicePresenceRegistry;
 
     /**
      * Constructs a new AdminDeviceStatusController with required dependencies.
      *
-     * @param sensorDataRepository repository for retrieving latest sensor data
-     * @param alertRepository repository for retrieving latest alert
-     * @param deviceCommandRepository repository for retrieving last admin message
+     * @param devicePresenceRegistry in-memory registry of device presence
      */
-    public AdminDeviceStatusController(SensorDataRepository sensorDataRepository,
-                                       AlertRepository alertRepository,
-                                       DeviceCommandRepository deviceCommandRepository) {
-        this.sensorDataRepository = sensorDataRepository;
-        this.alertRepository = alertRepository;
-        this.deviceCommandRepository = deviceCommandRepository;
+    public AdminDeviceStatusController(DevicePresenceRegistry devicePresenceRegistry) {
+        this.devicePresenceRegistry = devicePresenceRegistry;
     }
 
     /**
      * Retrieves comprehensive device status information.
      * <p>
-     * Aggregates data from multiple sources to provide a complete device status:
-     * latest sensor readings, online/offline status, last alert, and last admin message.
-     * Device is considered online if last data was received within 20 seconds.
+     * Combines the latest sensor readings, online/offline status, last alert, and
+     * last admin message of a device. Device is considered online if it sent a
+     * reading or polled for commands within 20 seconds. Served from the in-memory
+     * presence registry, so polling the status does not touch the database.
      *
+     * @param deviceKey the device to report on; defaults to the demo device
      * @return ResponseEntity containing device status information
      */
     @GetMapping
-    public ResponseEntity<DeviceStatusResponse> getStatus() {
-        Optional<SensorData> latestData = sensorDataRepository.findTopByOrderByTimestampDesc();
-        Optional<Alert> latestAlert = alertRepository.findTopByOrderByTimestampDesc();
-        Optional<DeviceCommand> latestMessage = deviceCommandRepository.findTopByCommandTypeOrderByCreatedAtDesc("DISPLAY_MESSAGE");
+    public ResponseEntity<DeviceStatusResponse> getStatus(
+            @RequestParam(value = "deviceKey", defaultValue = DevicePresenceRegistry.DEFAULT_DEVICE_KEY) String deviceKey) {
+        return ResponseEntity.ok(devicePresenceRegistry.getStatus(deviceKey));
+    }
 
-        SensorData data = latestData.orElse(null);
-        boolean online = false;
-        Long secondsSinceLastSeen = null;
-        if (data != null && data.getTimestamp() != null) {
-            LocalDateTime now = LocalDateTime.now();
-            secondsSinceLastSeen = Math.max(0, Duration.between(data.getTimestamp(), now).getSeconds());
-            online = secondsSinceLastSeen <= ONLINE_THRESHOLD_SECONDS;
-        }
-        return ResponseEntity.ok(new DeviceStatusResponse(
-                data != null ? data.getTimestamp() : null,
-                data != null ? data.getTemperature() : null,
-                data != null ? data.getHumidity() : null,
-                data != null ? data.getCo2Level() : null,
-                data != null ? data.getLightLevel() : null,
-                latestAlert.map(Alert::getTimestamp).orElse(null),
-                latestAlert.map(Alert::getAlertType).map(Enum::name).orElse(null),
-                latestMessage.map(DeviceCommand::getParameters).orElse(null),
-                online,
-                secondsSinceLastSeen
-        ));
+    /**
+     * Lists the keys of all devices that have contacted the backend or been sent
+     * an admin message since startup.
+     *
+     * @return list of known device keys
+     */
+    @GetMapping("/devices")
+    public List<String> getDeviceKeys() {
+        return devicePresenceRegistry.getDeviceKeys().stream().sorted().toList();
     }
 }
-
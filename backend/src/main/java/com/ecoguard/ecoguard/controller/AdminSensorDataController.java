@@ -2,21 +2,26 @@ package com.ecoguard.ecoguard.controller;
 
 import com.ecoguard.ecoguard.entity.SensorData;
 import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import com.ecoguard.ecoguard.service.SensorDataQueryService;
+import com.ecoguard.ecoguard.service.SensorRollupService;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Map;
 
 /**
  * REST controller for admin access to sensor data.
  * <p>
  * Provides the same endpoints as SensorDataController but requires ADMIN role.
- * Allows administrators to view all sensor readings and query by time range.
+ * Allows administrators to page through all sensor readings and query or export them by time range.
  *
  * @author EcoGuard 
  * @since 1.0
@@ -26,24 +31,45 @@ import java.util.List;
 public class AdminSensorDataController {
 
     private final SensorDataRepository sensorDataRepository;
+    private final SensorDataQueryService sensorDataQueryService;
+    private final SensorRollupService sensorRollupService;
 
     /**
      * Constructs a new AdminSensorDataController with required dependencies.
      *
      * @param sensorDataRepository repository for sensor data access
+     * @param sensorDataQueryService service for paginated listing, range queries and streaming export
+     * @param sensorRollupService service serving long ranges from pre-aggregated rollups
      */
-    public AdminSensorDataController(SensorDataRepository sensorDataRepository) {
+    public AdminSensorDataController(SensorDataRepository sensorDataRepository,
+                                     SensorDataQueryService sensorDataQueryService,
+                                     SensorRollupService sensorRollupService) {
         this.sensorDataRepository = sensorDataRepository;
+        this.sensorDataQueryService = sensorDataQueryService;
+        this.sensorRollupService = sensorRollupService;
     }
 
     /**
-     * Retrieves all sensor readings from the database.
+     * Retrieves sensor readings one page at a time, newest first.
+     * <p>
+     * Pages are addressed with keyset pagination on timestamp and reading ID. Omit
+     * {@code cursor} for the first page and pass the returned {@code nextCursor} to
+     * fetch the next one; {@code nextCursor} is null on the last page.
      *
-     * @return list of all sensor data records
+     * @param cursor continuation token from the previous page (optional)
+     * @param limit page size, default 100, at most 1000
+     * @return ResponseEntity containing the page of readings, or 400 Bad Request if the cursor is invalid
      */
     @GetMapping
-    public List<SensorData> getAll() {
-        return sensorDataRepository.findAll();
+    public ResponseEntity<?> getAll(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit
+    ) {
+        try {
+            return ResponseEntity.ok(sensorDataQueryService.getPage(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
     }
 
     /**
@@ -60,17 +86,102 @@ public class AdminSensorDataController {
 
     /**
      * Retrieves sensor readings within a specified time range.
+     * <p>
+     * Without further parameters every raw reading is returned. For charts, pass
+     * either {@code maxPoints} to reduce each metric to at most that many points
+     * (Largest-Triangle-Three-Buckets), or {@code bucket} (e.g. {@code 5m}, {@code 1h})
+     * to get min/avg/max per time bucket. Both return an object keyed by metric type.
      *
      * @param start the start timestamp (ISO 8601 format)
      * @param end the end timestamp (ISO 8601 format)
-     * @return list of sensor data records within the specified time range
+     * @param maxPoints maximum number of points per metric (optional, 3 to 10000)
+     * @param bucket bucket size for min/avg/max aggregation (optional)
+     * @return ResponseEntity containing the raw readings, the downsampled series or the
+     *         bucket aggregates, or 400 Bad Request if the parameters are invalid
      */
     @GetMapping("/range")
-    public List<SensorData> getRange(
+    public ResponseEntity<?> getRange(
             @RequestParam("start") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam("end") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end
+            @RequestParam("end") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            @RequestParam(value = "bucket", required = false) String bucket
     ) {
-        return sensorDataRepository.findAllByTimestampBetween(start, end);
+        if (maxPoints != null && bucket != null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Use either maxPoints or bucket, not both"));
+        }
+        try {
+            if (maxPoints != null) {
+                return ResponseEntity.ok(sensorDataQueryService.downsample(start, end, maxPoints));
+            }
+            if (bucket != null) {
+                return ResponseEntity.ok(sensorDataQueryService.aggregate(start, end, SensorDataQueryService.parseBucket(bucket)));
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+        return ResponseEntity.ok(sensorDataQueryService.findRange(start, end));
+    }
+
+    /**
+     * Retrieves aggregates of sensor readings within a time range from the rollups.
+     * <p>
+     * Meant for long ranges such as week or month charts: buckets are read from the
+     * pre-aggregated minute, hour or day rollups instead of the raw readings. Without
+     * {@code resolution}, the coarsest resolution that still gives a detailed chart
+     * is used. Buckets overlapping the range are returned whole.
+     *
+     * @param start the start timestamp (ISO 8601 format)
+     * @param end the end timestamp (ISO 8601 format)
+     * @param resolution {@code minute}, {@code hour} or {@code day} (optional)
+     * @return ResponseEntity containing the resolution used and count/min/avg/max/stddev
+     *         per bucket per metric, or 400 Bad Request if the parameters are invalid
+     */
+    @GetMapping("/rollups")
+    public ResponseEntity<?> getRollups(
+            @RequestParam("start") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam("end") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(value = "resolution", required = false) String resolution
+    ) {
+        try {
+            return ResponseEntity.ok(sensorRollupService.query(start, end,
+                    resolution == null ? null : SensorRollupService.parseResolution(resolution)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
     }
-}
 
+    /**
+     * Exports sensor readings within a time range as a streamed download.
+     * <p>
+     * Rows are written to the response as they are read from the database, oldest
+     * first, so arbitrarily long ranges can be exported without loading them into
+     * memory. Both start and end timestamps are inclusive.
+     *
+     * @param start the start timestamp (ISO 8601 format)
+     * @param end the end timestamp (ISO 8601 format)
+     * @param format the output format, {@code ndjson} (default) or {@code csv}
+     * @return ResponseEntity streaming the export, or 400 Bad Request if the format or range is invalid
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> export(
+            @RequestParam("start") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam("end") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(value = "format", defaultValue = "ndjson") String format
+    ) {
+        SensorDataQueryService.ExportFormat exportFormat = SensorDataQueryService.ExportFormat.fromName(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Format must be ndjson or csv"));
+        }
+        if (end.isBefore(start)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "End must not be before start"));
+        }
+        StreamingResponseBody body = out -> sensorDataQueryService.exportRange(start, end, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("sensor-data." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
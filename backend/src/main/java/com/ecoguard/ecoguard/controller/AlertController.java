@@ -61,18 +61,18 @@ public class AlertController {
 
     /**
      * Marks an alert as acknowledged (read).
+     * <p>
+     * Further breaches of the same metric open a new alert rather than being
+     * coalesced into the acknowledged one.
      *
      * @param id the alert ID to acknowledge
      * @return ResponseEntity with success message, or 404 Not Found if alert doesn't exist
      */
     @PutMapping("/{id}/acknowledge")
     public ResponseEntity<?> acknowledgeAlert(@PathVariable("id") Long id) {
-        return alertRepository.findById(id)
-                .map(alert -> {
-                    alert.setAcknowledged(true);
-                    alertRepository.save(alert);
-                    return ResponseEntity.ok(Map.of("message", "Alert acknowledged"));
-                })
-                .orElseGet(() -> ResponseEntity.notFound().build());
+        if (alertRepository.acknowledge(id) == 0) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("message", "Alert acknowledged"));
     }
 }
\ No newline at end of file
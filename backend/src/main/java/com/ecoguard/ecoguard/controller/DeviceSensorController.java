@@ -2,20 +2,16 @@ package com.ecoguard.ecoguard.controller;
 
 import com.ecoguard.ecoguard.dto.DeviceCommandResponse;
 import com.ecoguard.ecoguard.dto.SensorDataPayload;
+import com.ecoguard.ecoguard.dto.SensorIngestResult;
 import com.ecoguard.ecoguard.dto.ThresholdDeviceResponse;
-import com.ecoguard.ecoguard.entity.Alert;
-import com.ecoguard.ecoguard.entity.AlertType;
-import com.ecoguard.ecoguard.entity.DeviceCommand;
-import com.ecoguard.ecoguard.entity.MetricType;
-import com.ecoguard.ecoguard.entity.SensorData;
-import com.ecoguard.ecoguard.repository.AlertRepository;
-import com.ecoguard.ecoguard.repository.DeviceCommandRepository;
-import com.ecoguard.ecoguard.repository.SensorDataRepository;
-import com.ecoguard.ecoguard.repository.ThresholdRepository;
-import com.ecoguard.ecoguard.repository.UserRepository;
-import com.ecoguard.ecoguard.service.PushNotificationService;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.ecoguard.ecoguard.entity.Threshold;
+import com.ecoguard.ecoguard.service.DeviceCommandService;
+import com.ecoguard.ecoguard.service.DevicePresenceRegistry;
+import com.ecoguard.ecoguard.service.SensorDataService;
+import com.ecoguard.ecoguard.service.SensorIngestQueue;
+import com.ecoguard.ecoguard.service.ThresholdService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -24,20 +20,21 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * REST controller for ESP32 device communication.
  * <p>
  * Handles sensor data ingestion from the device, threshold retrieval, and command
  * management. This is the primary interface between the ESP32 and the backend.
- * All endpoints require the X-Device-Key header for authentication.
+ * All endpoints require the X-Device-Key header for authentication. Devices that
+ * keep a persistent connection use {@link DeviceWebSocketHandler} instead.
  *
  * @author EcoGuard 
  * @since 1.0
@@ -46,84 +43,123 @@ import java.util.Map;
 @RequestMapping("/api/device")
 public class DeviceSensorController {
 
-    private static final Logger logger = LoggerFactory.getLogger(DeviceSensorController.class);
+    /**
+     * Maximum number of readings accepted in a single batch upload.
+     */
+    static final int MAX_BATCH_SIZE = 500;
 
-    private final SensorDataRepository sensorDataRepository;
-    private final ThresholdRepository thresholdRepository;
-    private final AlertRepository alertRepository;
-    private final DeviceCommandRepository deviceCommandRepository;
-    private final UserRepository userRepository;
-    private final PushNotificationService pushNotificationService;
+    /**
+     * Maximum number of command IDs accepted in a single bulk acknowledgement.
+     */
+    static final int MAX_ACK_SIZE = 500;
+
+    private final SensorDataService sensorDataService;
+    private final SensorIngestQueue sensorIngestQueue;
+    private final ThresholdService thresholdService;
+    private final DeviceCommandService deviceCommandService;
+    private final DevicePresenceRegistry devicePresenceRegistry;
 
     /**
      * Constructs a new DeviceSensorController with required dependencies.
      *
-     * @param sensorDataRepository repository for sensor data persistence
-     * @param thresholdRepository repository for threshold retrieval
-     * @param alertRepository repository for alert creation
-     * @param deviceCommandRepository repository for command management
+     * @param sensorDataService service for sensor data ingestion and threshold evaluation
+     * @param sensorIngestQueue write-behind queue for single readings
+     * @param thresholdService in-memory threshold snapshot
+     * @param deviceCommandService service delivering pending commands, optionally by long polling
+     * @param devicePresenceRegistry registry tracking when each device was last seen
      */
-    public DeviceSensorController(SensorDataRepository sensorDataRepository,
-                                  ThresholdRepository thresholdRepository,
-                                  AlertRepository alertRepository,
-                                  DeviceCommandRepository deviceCommandRepository,
-                                  UserRepository userRepository,
-                                  PushNotificationService pushNotificationService) {
-        this.sensorDataRepository = sensorDataRepository;
-        this.thresholdRepository = thresholdRepository;
-        this.alertRepository = alertRepository;
-        this.deviceCommandRepository = deviceCommandRepository;
-        this.userRepository = userRepository;
-        this.pushNotificationService = pushNotificationService;
+    public DeviceSensorController(SensorDataService sensorDataService,
+                                  SensorIngestQueue sensorIngestQueue,
+                                  ThresholdService thresholdService,
+                                  DeviceCommandService deviceCommandService,
+                                  DevicePresenceRegistry devicePresenceRegistry) {
+        this.sensorDataService = sensorDataService;
+        this.sensorIngestQueue = sensorIngestQueue;
+        this.thresholdService = thresholdService;
+        this.deviceCommandService = deviceCommandService;
+        this.devicePresenceRegistry = devicePresenceRegistry;
     }
 
     /**
      * Ingests sensor data from the ESP32 device.
      * <p>
-     * Accepts sensor readings (temperature, humidity, CO2, light) and:
+     * Validates the reading and hands it to the write-behind ingest queue, which
+     * asynchronously:
      * <ul>
      *   <li>Persists the data to the database</li>
      *   <li>Evaluates each metric against configured thresholds</li>
      *   <li>Creates alerts for any threshold breaches</li>
      * </ul>
+     * If the queue is full the reading is rejected with 429 Too Many Requests and a
+     * Retry-After header telling the device when to resend. Queued readings are
+     * recorded in the device presence registry straight away.
+     * <p>
+     * The reading may be sent as JSON or, to save bandwidth and parsing, as a
+     * binary {@link com.ecoguard.ecoguard.dto.SensorDataFrame} with Content-Type
+     * {@value com.ecoguard.ecoguard.dto.SensorDataFrame#MEDIA_TYPE_VALUE}.
      *
+     * @param deviceKey the device key from the X-Device-Key header, or null when
+     *                  the key was passed as a query parameter
      * @param payload the sensor data payload from the device
-     * @return ResponseEntity containing the saved sensor data ID and list of created alert IDs
+     * @return ResponseEntity with 202 Accepted once the reading is queued,
+     *         400 Bad Request if validation fails, or 429 Too Many Requests if the queue is full
      */
     @PostMapping("/sensor-data")
-    public ResponseEntity<?> ingest(@RequestBody SensorDataPayload payload) {
+    public ResponseEntity<?> ingest(@RequestHeader(value = "X-Device-Key", required = false) String deviceKey,
+                                    @RequestBody SensorDataPayload payload) {
         if (payload == null) {
             return ResponseEntity.badRequest().body(Map.of("message", "Payload required"));
         }
-        boolean hasValue = payload.getTemperature() != null
-                || payload.getHumidity() != null
-                || payload.getCo2Level() != null
-                || payload.getLightLevel() != null;
-        if (!hasValue) {
+        if (!hasValue(payload)) {
             return ResponseEntity.badRequest().body(Map.of("message", "At least one metric (temperature, humidity, co2Level, lightLevel) required"));
         }
 
-        SensorData data = new SensorData();
-        data.setTemperature(payload.getTemperature());
-        data.setHumidity(payload.getHumidity());
-        data.setCo2Level(payload.getCo2Level());
-        data.setLightLevel(payload.getLightLevel());
-        if (payload.getTimestamp() != null) {
-            data.setTimestamp(payload.getTimestamp());
-        } else {
-            data.setTimestamp(LocalDateTime.now());
+        if (!sensorIngestQueue.offer(payload)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(sensorIngestQueue.getRetryAfterSeconds()))
+                    .body(Map.of("message", "Ingest queue full, retry later"));
         }
-        SensorData saved = sensorDataRepository.save(data);
+        devicePresenceRegistry.recordReadings(resolveDeviceKey(deviceKey), List.of(payload));
+        return ResponseEntity.accepted().body(Map.of("message", "Reading queued"));
+    }
 
-        List<Alert> alerts = new ArrayList<>();
-        evaluateMetric(MetricType.TEMP, toBigDecimal(payload.getTemperature()), alerts);
-        evaluateMetric(MetricType.HUMIDITY, toBigDecimal(payload.getHumidity()), alerts);
-        evaluateMetric(MetricType.CO2, toBigDecimal(payload.getCo2Level()), alerts);
-        evaluateMetric(MetricType.LIGHT, toBigDecimal(payload.getLightLevel()), alerts);
+    /**
+     * Ingests a batch of buffered sensor readings from the ESP32 device.
+     * <p>
+     * Used by devices that buffer readings while offline and replay them once the
+     * connection is back. Unlike single readings, batches are written synchronously:
+     * all readings are persisted in a single transaction and evaluated against the
+     * configured thresholds before the response is sent. The batch is rejected as a whole
+     * if it is empty, larger than {@value #MAX_BATCH_SIZE} readings, or contains a
+     * reading without any metric.
+     *
+     * @param deviceKey the device key from the X-Device-Key header, or null when
+     *                  the key was passed as a query parameter
+     * @param payloads the buffered readings, oldest first
+     * @return ResponseEntity containing the number of accepted readings and, per reading,
+     *         the saved sensor data ID and created alert IDs
+     */
+    @PostMapping("/sensor-data/batch")
+    public ResponseEntity<?> ingestBatch(@RequestHeader(value = "X-Device-Key", required = false) String deviceKey,
+                                         @RequestBody List<SensorDataPayload> payloads) {
+        if (payloads == null || payloads.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "At least one reading required"));
+        }
+        if (payloads.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("message", "At most " + MAX_BATCH_SIZE + " readings per batch"));
+        }
+        for (int i = 0; i < payloads.size(); i++) {
+            SensorDataPayload payload = payloads.get(i);
+            if (payload == null || !hasValue(payload)) {
+                return ResponseEntity.badRequest().body(Map.of("message", "Reading " + i + " has no metric (temperature, humidity, co2Level, lightLevel)"));
+            }
+        }
 
+        List<SensorIngestResult> results = sensorDataService.ingestBatch(payloads);
+        devicePresenceRegistry.recordReadings(resolveDeviceKey(deviceKey), payloads);
         return ResponseEntity.ok(Map.of(
-                "sensorDataId", saved.getId(),
-                "alertsCreated", alerts.stream().map(Alert::getId).toList()
+                "accepted", results.size(),
+                "results", results
         ));
     }
 
@@ -132,18 +168,13 @@ public class DeviceSensorController {
      * <p>
      * Called by the ESP32 device to fetch current threshold values for local
      * evaluation. Returns thresholds in a format suitable for device processing.
+     * Served from the in-memory threshold snapshot.
      *
      * @return list of threshold configurations
      */
     @GetMapping("/thresholds")
     public List<ThresholdDeviceResponse> getThresholds() {
-        return thresholdRepository.findAll().stream()
-                .map(threshold -> new ThresholdDeviceResponse(
-                        threshold.getMetricType().name(),
-                        threshold.getMinValue(),
-                        threshold.getMaxValue()
-                ))
-                .toList();
+        return toDeviceResponses(thresholdService.getAll());
     }
 
     /**
@@ -151,29 +182,43 @@ public class DeviceSensorController {
      * <p>
      * Called periodically by the ESP32 to check for new commands from administrators.
      * Returns only unexecuted commands, ordered by creation time (oldest first).
+     * Served from the in-memory pending-command queue.
      *
      * @param deviceKey the device key from the X-Device-Key header
      * @return list of pending commands for the device
      */
     @GetMapping("/commands")
     public List<DeviceCommandResponse> getCommands(@RequestHeader("X-Device-Key") String deviceKey) {
-        List<DeviceCommand> commands = deviceCommandRepository.findByDeviceKeyAndExecutedFalseOrderByCreatedAtAsc(deviceKey);
-        return commands.stream()
-                .map(cmd -> {
-                    DeviceCommandResponse resp = new DeviceCommandResponse();
-                    resp.setId(cmd.getId());
-                    resp.setCommandType(cmd.getCommandType());
-                    resp.setParameters(cmd.getParameters());
-                    return resp;
-                })
-                .toList();
+        devicePresenceRegistry.recordSeen(deviceKey);
+        return deviceCommandService.getPending(deviceKey);
+    }
+
+    /**
+     * Long-polls for pending commands for the device.
+     * <p>
+     * Responds immediately if commands are already pending. Otherwise the request
+     * is held without blocking a server thread until an administrator or a
+     * threshold change enqueues a command for the device, or until
+     * {@code waitSeconds} (at most {@value DeviceCommandService#MAX_WAIT_SECONDS})
+     * have passed, in which case an empty list is returned. Devices can poll again
+     * straight away instead of sleeping between polls.
+     *
+     * @param deviceKey the device key from the X-Device-Key header
+     * @param waitSeconds how long to wait for a command, in seconds
+     * @return deferred list of pending commands for the device
+     */
+    @GetMapping(value = "/commands", params = "waitSeconds")
+    public DeferredResult<List<DeviceCommandResponse>> pollCommands(@RequestHeader("X-Device-Key") String deviceKey,
+                                                                    @RequestParam("waitSeconds") int waitSeconds) {
+        devicePresenceRegistry.recordSeen(deviceKey);
+        return deviceCommandService.awaitPending(deviceKey, waitSeconds);
     }
 
     /**
      * Acknowledges that a command has been executed by the device.
      * <p>
      * Called by the ESP32 after successfully executing a command. Marks the command
-     * as executed and records the execution timestamp.
+     * as executed, records the execution timestamp and drops it from the pending queue.
      *
      * @param deviceKey the device key from the X-Device-Key header
      * @param id the command ID to acknowledge
@@ -181,78 +226,85 @@ public class DeviceSensorController {
      */
     @PutMapping("/commands/{id}/ack")
     public ResponseEntity<?> acknowledgeCommand(@RequestHeader("X-Device-Key") String deviceKey, @PathVariable("id") Long id) {
-        return deviceCommandRepository.findByIdAndDeviceKey(id, deviceKey)
-                .map(cmd -> {
-                    cmd.setExecuted(true);
-                    cmd.setExecutedAt(LocalDateTime.now());
-                    deviceCommandRepository.save(cmd);
-                    return ResponseEntity.ok(Map.of("message", "Command acknowledged"));
-                })
-                .orElseGet(() -> ResponseEntity.notFound().build());
+        devicePresenceRegistry.recordSeen(deviceKey);
+        if (!deviceCommandService.acknowledge(deviceKey, id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("message", "Command acknowledged"));
     }
 
-
     /**
-     * Evaluates a sensor value against its threshold and creates an alert if breached.
+     * Acknowledges several executed commands in one request.
+     * <p>
+     * Lets a device that comes back online clear its backlog with a single call;
+     * the commands are marked as executed with one update statement. IDs that are
+     * unknown, belong to another device or were already acknowledged are ignored.
      *
-     * @param metric the metric type to evaluate
-     * @param value the sensor value to check
-     * @param alerts list to add created alerts to
+     * @param deviceKey the device key from the X-Device-Key header
+     * @param ids the command IDs to acknowledge, at most {@value #MAX_ACK_SIZE}
+     * @return ResponseEntity with the number of commands acknowledged, or 400 Bad Request
+     *         if the list is empty, too large or contains null
      */
-    private void evaluateMetric(MetricType metric, BigDecimal value, List<Alert> alerts) {
-        if (value == null) {
-            return;
+    @PutMapping("/commands/ack")
+    public ResponseEntity<?> acknowledgeCommands(@RequestHeader("X-Device-Key") String deviceKey,
+                                                 @RequestBody List<Long> ids) {
+        devicePresenceRegistry.recordSeen(deviceKey);
+        if (ids == null || ids.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "At least one command ID required"));
         }
-        thresholdRepository.findByMetricType(metric).ifPresent(threshold -> {
-            if (value.compareTo(threshold.getMinValue()) < 0 || value.compareTo(threshold.getMaxValue()) > 0) {
-                Alert alert = new Alert();
-                alert.setAlertType(AlertType.THRESHOLD);
-                alert.setMetricType(metric.name());
-                alert.setValue(value);
-                alert.setTimestamp(LocalDateTime.now());
-                Alert savedAlert = alertRepository.save(alert);
-                alerts.add(savedAlert);
-                notifyUsers(savedAlert);
-            }
-        });
+        if (ids.size() > MAX_ACK_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("message", "At most " + MAX_ACK_SIZE + " command IDs per request"));
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Command IDs must not be null"));
+        }
+
+        int acknowledged = deviceCommandService.acknowledgeAll(deviceKey, ids);
+        return ResponseEntity.ok(Map.of(
+                "acknowledged", acknowledged,
+                "message", "Commands acknowledged"
+        ));
     }
 
     /**
-     * Sends a push notification to all users with a registered device token.
+     * Resolves the device a reading came from.
+     * <p>
+     * Devices authenticating with the {@code key} query parameter send no
+     * X-Device-Key header; the interceptor only accepts the demo device key that way.
      *
-     * @param alert the alert that was created
+     * @param deviceKey the X-Device-Key header value, or null
+     * @return the device key to record the reading under
      */
-    private void notifyUsers(Alert alert) {
-        String title = "EcoGuard Alert: " + alert.getMetricType();
-        String body = "Value " + alert.getValue() + " is outside thresholds.";
-        logger.info("Notifying users about alert: {} | {}", title, body);
-        userRepository.findByDeviceTokenIsNotNull()
-                .forEach(user -> pushNotificationService.sendPushNotification(
-                        user.getDeviceToken(),
-                        title,
-                        body
-                ));
+    private String resolveDeviceKey(String deviceKey) {
+        return deviceKey != null ? deviceKey : DevicePresenceRegistry.DEFAULT_DEVICE_KEY;
     }
 
     /**
-     * Converts a BigDecimal to BigDecimal (no-op, for method overloading).
+     * Maps thresholds to the format sent to devices.
      *
-     * @param value the BigDecimal value
-     * @return the same BigDecimal value
+     * @param thresholds the thresholds to send
+     * @return the thresholds in device format
      */
-    private BigDecimal toBigDecimal(BigDecimal value) {
-        return value;
+    static List<ThresholdDeviceResponse> toDeviceResponses(List<Threshold> thresholds) {
+        return thresholds.stream()
+                .map(threshold -> new ThresholdDeviceResponse(
+                        threshold.getMetricType().name(),
+                        threshold.getMinValue(),
+                        threshold.getMaxValue()
+                ))
+                .toList();
     }
 
     /**
-     * Converts an Integer to BigDecimal.
+     * Checks whether a payload carries at least one metric value.
      *
-     * @param value the Integer value to convert
-     * @return BigDecimal representation, or null if input is null
+     * @param payload the sensor data payload to check
+     * @return true if any of temperature, humidity, CO2 or light is present
      */
-    private BigDecimal toBigDecimal(Integer value) {
-        return value == null ? null : new BigDecimal(value);
+    static boolean hasValue(SensorDataPayload payload) {
+        return payload.getTemperature() != null
+                || payload.getHumidity() != null
+                || payload.getCo2Level() != null
+                || payload.getLightLevel() != null;
     }
-
 }
-
@@ -0,0 +1,398 @@
+package com.ecoguard.ecoguard.controller;
+
+import com.ecoguard.ecoguard.dto.DeviceCommandResponse;
+import com.ecoguard.ecoguard.dto.SensorDataPayload;
+import com.ecoguard.ecoguard.entity.Threshold;
+import com.ecoguard.ecoguard.service.DeviceCommandService;
+import com.ecoguard.ecoguard.service.DevicePresenceRegistry;
+import com.ecoguard.ecoguard.service.SensorIngestQueue;
+import com.ecoguard.ecoguard.service.ThresholdService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.PongMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * WebSocket handler for devices that keep one connection open to the backend.
+ * <p>
+ * Connected at {@code /api/device/ws}; the handshake is authenticated once with
+ * the device key (see {@link com.ecoguard.ecoguard.config.WebSocketConfig}).
+ * Messages are JSON objects with a {@code type} field.
+ * <p>
+ * From the device:
+ * <ul>
+ *   <li>{@code reading} - a sensor reading in the {@link SensorDataPayload} format,
+ *       handed to the write-behind ingest queue like {@code POST /api/device/sensor-data}</li>
+ *   <li>{@code ack} - {@code ids} of executed commands, acknowledged in bulk</li>
+ * </ul>
+ * To the device:
+ * <ul>
+ *   <li>{@code thresholds} - all thresholds, sent on connect and whenever they change</li>
+ *   <li>{@code commands} - pending commands not yet sent on this connection, sent on
+ *       connect and whenever a command is queued for the device</li>
+ *   <li>{@code retry} - the ingest queue was full; {@code retryAfterSeconds} says
+ *       when to resend</li>
+ *   <li>{@code error} - a message could not be processed; {@code message} says why</li>
+ * </ul>
+ * Outgoing messages go through a {@link ConcurrentWebSocketSessionDecorator}, so a
+ * device that stops reading is disconnected instead of blocking the threads that
+ * push commands and thresholds. Pings sent at a fixed interval detect dead
+ * connections and keep the device marked as online while it is idle.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+@Component
+public class DeviceWebSocketHandler extends TextWebSocketHandler {
+
+    /**
+     * Handshake attribute holding the authenticated device key.
+     */
+    public static final String ATTR_DEVICE_KEY = "deviceKey";
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceWebSocketHandler.class);
+
+    private final ObjectMapper objectMapper;
+    private final SensorIngestQueue sensorIngestQueue;
+    private final ThresholdService thresholdService;
+    private final DeviceCommandService deviceCommandService;
+    private final DevicePresenceRegistry devicePresenceRegistry;
+    private final int sendTimeLimitMillis;
+    private final int sendBufferSize;
+    private final Map<String, DeviceConnection> connections = new ConcurrentHashMap<>();
+
+    /**
+     * An open device connection.
+     *
+     * @param deviceKey the authenticated device
+     * @param session the session, safe for concurrent sends
+     * @param delivered IDs of pending commands already sent on this connection
+     * @param commandListener listener pushing newly queued commands to the device
+     */
+    private record DeviceConnection(String deviceKey, WebSocketSession session, Set<Long> delivered,
+                                    Consumer<List<DeviceCommandResponse>> commandListener) {}
+
+    /**
+     * Constructs a new DeviceWebSocketHandler with required dependencies.
+     *
+     * @param objectMapper mapper used to read and write messages
+     * @param sensorIngestQueue write-behind queue for readings
+     * @param thresholdService in-memory threshold snapshot, watched for changes
+     * @param deviceCommandService service delivering pending commands
+     * @param devicePresenceRegistry registry tracking when each device was last seen
+     * @param sendTimeLimitMillis how long a single send may take before the connection is closed
+     * @param sendBufferSize bytes that may be waiting for one device before the connection is closed
+     */
+    public DeviceWebSocketHandler(ObjectMapper objectMapper,
+                                  SensorIngestQueue sensorIngestQueue,
+                                  ThresholdService thresholdService,
+                                  DeviceCommandService deviceCommandService,
+                                  DevicePresenceRegistry devicePresenceRegistry,
+                                  @Value("${ecoguard.device-ws.send-time-limit-ms:10000}") int sendTimeLimitMillis,
+                                  @Value("${ecoguard.device-ws.send-buffer-size:65536}") int sendBufferSize) {
+        this.objectMapper = objectMapper;
+        this.sensorIngestQueue = sensorIngestQueue;
+        this.thresholdService = thresholdService;
+        this.deviceCommandService = deviceCommandService;
+        this.devicePresenceRegistry = devicePresenceRegistry;
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.sendBufferSize = sendBufferSize;
+        thresholdService.addChangeListener(this::pushThresholds);
+    }
+
+    /**
+     * Registers a new device connection and sends it the current thresholds and
+     * pending commands.
+     *
+     * @param session the new session
+     */
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        String deviceKey = (String) session.getAttributes().get(ATTR_DEVICE_KEY);
+        String sessionId = session.getId();
+        Consumer<List<DeviceCommandResponse>> commandListener = commands -> {
+            DeviceConnection open = connections.get(sessionId);
+            if (open != null) {
+                pushCommands(open, commands);
+            }
+        };
+        DeviceConnection connection = new DeviceConnection(deviceKey,
+                new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMillis, sendBufferSize),
+                ConcurrentHashMap.newKeySet(), commandListener);
+
+        connections.put(session.getId(), connection);
+        deviceCommandService.addListener(deviceKey, connection.commandListener());
+        devicePresenceRegistry.recordSeen(deviceKey);
+        send(connection, Map.of("type", "thresholds",
+                "thresholds", DeviceSensorController.toDeviceResponses(thresholdService.getAll())));
+        pushCommands(connection, deviceCommandService.getPending(deviceKey));
+    }
+
+    /**
+     * Handles a reading or acknowledgement sent by a device.
+     *
+     * @param session the session the message arrived on
+     * @param message the JSON message
+     */
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        DeviceConnection connection = connections.get(session.getId());
+        if (connection == null) {
+            return;
+        }
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(message.getPayload());
+        } catch (JsonProcessingException e) {
+            sendError(connection, "Malformed JSON");
+            return;
+        }
+        if (!(node instanceof ObjectNode object)) {
+            sendError(connection, "Message must be a JSON object");
+            return;
+        }
+        String type = object.path("type").asText();
+        object.remove("type");
+        switch (type) {
+            case "reading" -> handleReading(connection, object);
+            case "ack" -> handleAck(connection, object.path("ids"));
+            default -> sendError(connection, "Unknown message type: " + type);
+        }
+    }
+
+    /**
+     * Records that a device answered a ping.
+     *
+     * @param session the session the pong arrived on
+     * @param message the pong
+     */
+    @Override
+    protected void handlePongMessage(WebSocketSession session, PongMessage message) {
+        DeviceConnection connection = connections.get(session.getId());
+        if (connection != null) {
+            devicePresenceRegistry.recordSeen(connection.deviceKey());
+        }
+    }
+
+    /**
+     * Closes a connection whose transport failed.
+     *
+     * @param session the failed session
+     * @param exception the transport error
+     */
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        logger.debug("Device connection {} failed: {}", session.getId(), exception.getMessage());
+        close(session, CloseStatus.SERVER_ERROR);
+    }
+
+    /**
+     * Forgets a closed connection.
+     *
+     * @param session the closed session
+     * @param status the close status
+     */
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        DeviceConnection connection = connections.remove(session.getId());
+        if (connection != null) {
+            deviceCommandService.removeListener(connection.deviceKey(), connection.commandListener());
+        }
+    }
+
+    /**
+     * Pings every connected device.
+     * <p>
+     * A connection that can no longer be written to is closed; a pong marks the
+     * device as seen.
+     */
+    @Scheduled(fixedDelayString = "${ecoguard.device-ws.ping-interval-ms:15000}",
+            initialDelayString = "${ecoguard.device-ws.ping-interval-ms:15000}")
+    public void sendPings() {
+        for (DeviceConnection connection : connections.values()) {
+            send(connection, new PingMessage());
+        }
+    }
+
+    /**
+     * Returns the number of open device connections.
+     *
+     * @return number of connected devices
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Queues a reading for persistence, or tells the device to resend it later.
+     *
+     * @param connection the connection the reading arrived on
+     * @param reading the reading without its type field
+     */
+    private void handleReading(DeviceConnection connection, ObjectNode reading) {
+        SensorDataPayload payload;
+        try {
+            payload = objectMapper.treeToValue(reading, SensorDataPayload.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            sendError(connection, "Invalid reading");
+            return;
+        }
+        if (!DeviceSensorController.hasValue(payload)) {
+            sendError(connection, "At least one metric (temperature, humidity, co2Level, lightLevel) required");
+            return;
+        }
+        if (!sensorIngestQueue.offer(payload)) {
+            send(connection, Map.of("type", "retry", "retryAfterSeconds", sensorIngestQueue.getRetryAfterSeconds()));
+            return;
+        }
+        devicePresenceRegistry.recordReadings(connection.deviceKey(), List.of(payload));
+    }
+
+    /**
+     * Acknowledges executed commands in bulk.
+     *
+     * @param connection the connection the acknowledgement arrived on
+     * @param ids the command IDs
+     */
+    private void handleAck(DeviceConnection connection, JsonNode ids) {
+        devicePresenceRegistry.recordSeen(connection.deviceKey());
+        if (!ids.isArray() || ids.isEmpty()) {
+            sendError(connection, "At least one command ID required");
+            return;
+        }
+        if (ids.size() > DeviceSensorController.MAX_ACK_SIZE) {
+            sendError(connection, "At most " + DeviceSensorController.MAX_ACK_SIZE + " command IDs per message");
+            return;
+        }
+        List<Long> commandIds = new ArrayList<>(ids.size());
+        for (JsonNode id : ids) {
+            if (!id.canConvertToLong()) {
+                sendError(connection, "Command IDs must be numbers");
+                return;
+            }
+            commandIds.add(id.asLong());
+        }
+        deviceCommandService.acknowledgeAll(connection.deviceKey(), commandIds);
+        commandIds.forEach(connection.delivered()::remove);
+    }
+
+    /**
+     * Sends the pending commands that have not been sent on a connection yet.
+     * <p>
+     * Commands no longer pending are forgotten, so the set of delivered IDs only
+     * ever holds commands the device still has to acknowledge.
+     *
+     * @param connection the device connection
+     * @param pending the device's pending commands
+     */
+    private void pushCommands(DeviceConnection connection, List<DeviceCommandResponse> pending) {
+        List<DeviceCommandResponse> undelivered;
+        synchronized (connection) {
+            Set<Long> pendingIds = new HashSet<>();
+            pending.forEach(command -> pendingIds.add(command.getId()));
+            connection.delivered().retainAll(pendingIds);
+            undelivered = pending.stream()
+                    .filter(command -> connection.delivered().add(command.getId()))
+                    .toList();
+        }
+        if (!undelivered.isEmpty()) {
+            send(connection, Map.of("type", "commands", "commands", undelivered));
+        }
+    }
+
+    /**
+     * Sends changed thresholds to every connected device.
+     *
+     * @param thresholds all thresholds
+     */
+    private void pushThresholds(List<Threshold> thresholds) {
+        if (connections.isEmpty()) {
+            return;
+        }
+        Map<String, Object> message = Map.of("type", "thresholds",
+                "thresholds", DeviceSensorController.toDeviceResponses(thresholds));
+        for (DeviceConnection connection : connections.values()) {
+            send(connection, message);
+        }
+    }
+
+    /**
+     * Tells a device that one of its messages could not be processed.
+     *
+     * @param connection the device connection
+     * @param message why the message was rejected
+     */
+    private void sendError(DeviceConnection connection, String message) {
+        send(connection, Map.of("type", "error", "message", message));
+    }
+
+    /**
+     * Serializes a message and sends it to a device.
+     *
+     * @param connection the device connection
+     * @param message the message, serialized as JSON
+     */
+    private void send(DeviceConnection connection, Map<String, Object> message) {
+        try {
+            send(connection, new TextMessage(objectMapper.writeValueAsString(message)));
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to serialize {} message", message.get("type"), e);
+        }
+    }
+
+    /**
+     * Sends a message to a device, closing the connection if it cannot be written to.
+     *
+     * @param connection the device connection
+     * @param message the message
+     */
+    private void send(DeviceConnection connection, WebSocketMessage<?> message) {
+        WebSocketSession session = connection.session();
+        if (!session.isOpen()) {
+            return;
+        }
+        try {
+            session.sendMessage(message);
+        } catch (IOException | IllegalStateException | SessionLimitExceededException e) {
+            logger.debug("Closing device connection {}: {}", session.getId(), e.getMessage());
+            close(session, CloseStatus.SESSION_NOT_RELIABLE);
+        }
+    }
+
+    /**
+     * Closes a session, ignoring failures of an already broken connection.
+     *
+     * @param session the session
+     * @param status the close status
+     */
+    private static void close(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            logger.debug("Failed to close device connection {}", session.getId(), e);
+        }
+    }
+}
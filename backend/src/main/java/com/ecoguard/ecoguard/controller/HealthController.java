@@ -1,6 +1,9 @@
 package com.ecoguard.ecoguard.controller;
 
-import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import com.ecoguard.ecoguard.service.LiveEventBroadcaster;
+import com.ecoguard.ecoguard.service.NotificationDispatcher;
+import com.ecoguard.ecoguard.service.SensorIngestQueue;
+import com.ecoguard.ecoguard.storage.StorageBackend;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -13,8 +16,8 @@ import java.util.Map;
 /**
  * REST controller for system health monitoring.
  * <p>
- * Provides a health check endpoint that reports application status and database
- * connectivity. Used by monitoring tools and displayed in the admin panel's
+ * Provides a health check endpoint that reports application status, database
+ * connectivity, push notification dispatcher and live stream metrics. Used by monitoring tools and displayed in the admin panel's
  * System Health card.
  *
  * @author EcoGuard 
@@ -24,22 +27,35 @@ import java.util.Map;
 @RequestMapping("/api/health")
 public class HealthController {
 
-    private final SensorDataRepository sensorDataRepository;
+    private final StorageBackend storageBackend;
+    private final NotificationDispatcher notificationDispatcher;
+    private final LiveEventBroadcaster liveEventBroadcaster;
+    private final SensorIngestQueue sensorIngestQueue;
 
     /**
      * Constructs a new HealthController with required dependencies.
      *
-     * @param sensorDataRepository repository used to test database connectivity
+     * @param storageBackend storage backend used to test database connectivity
+     * @param notificationDispatcher dispatcher whose metrics are reported
+     * @param liveEventBroadcaster live event stream whose metrics are reported
+     * @param sensorIngestQueue ingest buffer whose depth and dropped readings are reported
      */
-    public HealthController(SensorDataRepository sensorDataRepository) {
-        this.sensorDataRepository = sensorDataRepository;
+    public HealthController(StorageBackend storageBackend,
+                            NotificationDispatcher notificationDispatcher,
+                            LiveEventBroadcaster liveEventBroadcaster,
+                            SensorIngestQueue sensorIngestQueue) {
+        this.storageBackend = storageBackend;
+        this.notificationDispatcher = notificationDispatcher;
+        this.liveEventBroadcaster = liveEventBroadcaster;
+        this.sensorIngestQueue = sensorIngestQueue;
     }
 
     /**
      * Performs a health check on the application and database.
      * <p>
      * Returns the application status (always "UP" if endpoint is reachable),
-     * current server time, and database status with sensor data row count.
+     * current server time, database status with storage backend and sensor data row count, push
+     * notification dispatcher metrics and live stream metrics.
      * If database access fails, the db status is set to "DOWN" with error details.
      * <p>
      * Requires authentication via Bearer token in the Authorization header.
@@ -52,10 +68,17 @@ public class HealthController {
      *           <li>db: object containing:
      *             <ul>
      *               <li>status: "UP" or "DOWN"</li>
-     *               <li>sensorDataCount: number of sensor data records (if status is "UP")</li>
+     *               <li>backend: storage backend name, for example "h2" or "postgresql"</li>
+     *               <li>sensorDataCount: number of sensor data records, estimated on
+     *                   PostgreSQL (if status is "UP")</li>
      *               <li>error: error class name (if status is "DOWN")</li>
      *             </ul>
      *           </li>
+     *           <li>notifications: object containing queueDepth, sent, failed, dropped,
+     *               avgSendMillis and maxSendMillis</li>
+     *           <li>ingest: object containing queueDepth and droppedReadings of the
+     *               buffered sensor ingest</li>
+     *           <li>stream: object containing clients, published and evicted</li>
      *         </ul>
      */
     @GetMapping
@@ -65,9 +88,10 @@ public class HealthController {
         body.put("time", Instant.now().toString());
 
         try {
-            long count = sensorDataRepository.count();
+            long count = storageBackend.countSensorData();
             Map<String, Object> db = new HashMap<>();
             db.put("status", "UP");
+            db.put("backend", storageBackend.getName());
             db.put("sensorDataCount", count);
             body.put("db", db);
         } catch (Exception e) {
@@ -77,6 +101,28 @@ public class HealthController {
             body.put("db", db);
         }
 
+        NotificationDispatcher.Stats stats = notificationDispatcher.getStats();
+        Map<String, Object> notifications = new HashMap<>();
+        notifications.put("queueDepth", stats.queueDepth());
+        notifications.put("sent", stats.sent());
+        notifications.put("failed", stats.failed());
+        notifications.put("dropped", stats.dropped());
+        notifications.put("avgSendMillis", stats.avgSendMillis());
+        notifications.put("maxSendMillis", stats.maxSendMillis());
+        body.put("notifications", notifications);
+
+        Map<String, Object> ingest = new HashMap<>();
+        ingest.put("queueDepth", sensorIngestQueue.depth());
+        ingest.put("droppedReadings", sensorIngestQueue.droppedReadings());
+        body.put("ingest", ingest);
+
+        LiveEventBroadcaster.Stats streamStats = liveEventBroadcaster.getStats();
+        Map<String, Object> stream = new HashMap<>();
+        stream.put("clients", streamStats.clients());
+        stream.put("published", streamStats.published());
+        stream.put("evicted", streamStats.evicted());
+        body.put("stream", stream);
+
         return ResponseEntity.ok(body);
     }
 }
@@ -0,0 +1,90 @@
+package com.ecoguard.ecoguard.controller;
+
+import com.ecoguard.ecoguard.service.LiveEventBroadcaster;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST controller for the live event stream used by the dashboards.
+ * <p>
+ * Streams Server-Sent Events instead of having dashboards poll full lists:
+ * <ul>
+ *   <li>{@code reading} - the newest persisted sensor reading</li>
+ *   <li>{@code alert} - a newly opened alert</li>
+ *   <li>{@code device-status} - a device came online, went offline or was sent
+ *       an admin message (admin stream only)</li>
+ *   <li>{@code command} - device commands were queued, updated or acknowledged
+ *       (admin stream only)</li>
+ * </ul>
+ * Clients should reload their data whenever the stream (re)connects, since
+ * events published while they were disconnected are not replayed.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+@RestController
+public class LiveStreamController {
+
+    /**
+     * Seconds a client turned away at the connection limit should wait before retrying.
+     */
+    private static final int RETRY_AFTER_SECONDS = 30;
+
+    private final LiveEventBroadcaster liveEventBroadcaster;
+
+    /**
+     * Constructs a new LiveStreamController with required dependencies.
+     *
+     * @param liveEventBroadcaster broadcaster managing the connected streams
+     */
+    public LiveStreamController(LiveEventBroadcaster liveEventBroadcaster) {
+        this.liveEventBroadcaster = liveEventBroadcaster;
+    }
+
+    /**
+     * Opens the live event stream for a user.
+     *
+     * @return ResponseEntity with the event stream, or 503 Service Unavailable with
+     *         a Retry-After header if the connection limit is reached
+     */
+    @GetMapping(value = "/api/user/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> userStream() {
+        return open(false);
+    }
+
+    /**
+     * Opens the live event stream for an administrator, including device status
+     * and command events.
+     *
+     * @return ResponseEntity with the event stream, or 503 Service Unavailable with
+     *         a Retry-After header if the connection limit is reached
+     */
+    @GetMapping(value = "/api/admin/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> adminStream() {
+        return open(true);
+    }
+
+    /**
+     * Subscribes a new client to the broadcaster.
+     *
+     * @param admin whether the client receives admin-only events
+     * @return ResponseEntity with the event stream, or 503 if the connection limit is reached
+     */
+    private ResponseEntity<SseEmitter> open(boolean admin) {
+        SseEmitter emitter = liveEventBroadcaster.subscribe(admin);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS))
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+}
@@ -3,19 +3,21 @@ package com.ecoguard.ecoguard.controller;
 import com.ecoguard.ecoguard.config.AuthInterceptor;
 import com.ecoguard.ecoguard.dto.ThresholdAuditResponse;
 import com.ecoguard.ecoguard.dto.ThresholdPayload;
-import com.ecoguard.ecoguard.entity.DeviceCommand;
 import com.ecoguard.ecoguard.entity.MetricType;
 import com.ecoguard.ecoguard.entity.Threshold;
 import com.ecoguard.ecoguard.entity.ThresholdAudit;
-import com.ecoguard.ecoguard.repository.DeviceCommandRepository;
 import com.ecoguard.ecoguard.repository.ThresholdAuditRepository;
 import com.ecoguard.ecoguard.repository.ThresholdRepository;
+import com.ecoguard.ecoguard.service.DeviceCommandService;
+import com.ecoguard.ecoguard.service.ThresholdService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -37,21 +39,25 @@ public class ThresholdController {
 
     private final ThresholdRepository thresholdRepository;
     private final ThresholdAuditRepository thresholdAuditRepository;
-    private final DeviceCommandRepository deviceCommandRepository;
+    private final DeviceCommandService deviceCommandService;
+    private final ThresholdService thresholdService;
 
     /**
      * Constructs a new ThresholdController with required dependencies.
      *
      * @param thresholdRepository repository for threshold data access
      * @param thresholdAuditRepository repository for audit trail data access
-     * @param deviceCommandRepository repository for device command management
+     * @param deviceCommandService service queueing device commands
+     * @param thresholdService in-memory threshold snapshot refreshed after changes
      */
     public ThresholdController(ThresholdRepository thresholdRepository,
                                ThresholdAuditRepository thresholdAuditRepository,
-                               DeviceCommandRepository deviceCommandRepository) {
+                               DeviceCommandService deviceCommandService,
+                               ThresholdService thresholdService) {
         this.thresholdRepository = thresholdRepository;
         this.thresholdAuditRepository = thresholdAuditRepository;
-        this.deviceCommandRepository = deviceCommandRepository;
+        this.deviceCommandService = deviceCommandService;
+        this.thresholdService = thresholdService;
     }
 
     /**
@@ -94,29 +100,55 @@ public class ThresholdController {
     /**
      * Updates an existing threshold configuration.
      * <p>
-     * Updates the min/max values for a threshold and automatically:
+     * Updates the min/max values, hysteresis band and minimum out-of-range duration
+     * for a threshold and automatically:
      * <ul>
+     *   <li>Refreshes the in-memory threshold snapshot used for alert evaluation</li>
      *   <li>Logs the change in the audit trail with username and timestamp</li>
-     *   <li>Sends a REFRESH_CONFIG command to the ESP32 device</li>
+     *   <li>Sends a REFRESH_CONFIG command to the ESP32 device, merged into one that
+     *       is still pending so several edits cause a single refresh</li>
      * </ul>
      *
      * @param id the threshold ID to update
-     * @param payload the new threshold values (minValue and/or maxValue)
+     * @param payload the new threshold values (minValue, maxValue, hysteresis and/or minDurationSeconds)
      * @param request HTTP request containing the authentication session
-     * @return ResponseEntity containing the updated threshold, or 404 Not Found
+     * @return ResponseEntity containing the updated threshold, 400 Bad Request if the
+     *         hysteresis or duration is negative or the hysteresis is wider than half
+     *         of the resulting min/max range, or 404 Not Found
      */
     @PutMapping("/{id}")
     public ResponseEntity<?> update(@PathVariable("id") Long id,
                                     @RequestBody ThresholdPayload payload,
                                     HttpServletRequest request) {
-        return thresholdRepository.findById(id).map(existing -> {
+        if (payload.getHysteresis() != null && payload.getHysteresis().signum() < 0) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Hysteresis must not be negative"));
+        }
+        if (payload.getMinDurationSeconds() != null && payload.getMinDurationSeconds() < 0) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Minimum duration must not be negative"));
+        }
+        return thresholdRepository.findById(id).<ResponseEntity<?>>map(existing -> {
+            BigDecimal minValue = payload.getMinValue() != null ? payload.getMinValue() : existing.getMinValue();
+            BigDecimal maxValue = payload.getMaxValue() != null ? payload.getMaxValue() : existing.getMaxValue();
+            BigDecimal hysteresis = payload.getHysteresis() != null ? payload.getHysteresis() : existing.getHysteresis();
+            if (minValue != null && maxValue != null && hysteresis != null
+                    && hysteresis.multiply(BigDecimal.TWO).compareTo(maxValue.subtract(minValue)) > 0) {
+                return ResponseEntity.badRequest().body(Map.of("message",
+                        "Hysteresis must not be wider than half of the min/max range"));
+            }
             if (payload.getMinValue() != null) {
                 existing.setMinValue(payload.getMinValue());
             }
             if (payload.getMaxValue() != null) {
                 existing.setMaxValue(payload.getMaxValue());
             }
+            if (payload.getHysteresis() != null) {
+                existing.setHysteresis(payload.getHysteresis());
+            }
+            if (payload.getMinDurationSeconds() != null) {
+                existing.setMinDurationSeconds(payload.getMinDurationSeconds());
+            }
             Threshold saved = thresholdRepository.save(existing);
+            thresholdService.refresh();
             ThresholdAudit audit = new ThresholdAudit();
             audit.setThresholdId(saved.getId());
             audit.setMetricType(saved.getMetricType());
@@ -127,12 +159,8 @@ public class ThresholdController {
             audit.setUpdatedBy(updatedBy);
             thresholdAuditRepository.save(audit);
             
-            DeviceCommand refreshCmd = new DeviceCommand();
-            refreshCmd.setDeviceKey("demo-device-key");
-            refreshCmd.setCommandType("REFRESH_CONFIG");
-            refreshCmd.setParameters("threshold_updated:" + saved.getMetricType().name());
-            refreshCmd.setExecuted(false);
-            deviceCommandRepository.save(refreshCmd);
+            deviceCommandService.enqueueCoalesced("demo-device-key", "REFRESH_CONFIG",
+                    "threshold_updated:" + saved.getMetricType().name());
             
             return ResponseEntity.ok(saved);
         }).orElseGet(() -> ResponseEntity.notFound().build());
@@ -171,6 +199,7 @@ public class ThresholdController {
     public ResponseEntity<Void> delete(@PathVariable("id") Long id) {
         try {
             thresholdRepository.deleteById(id);
+            thresholdService.refresh();
             return ResponseEntity.noContent().build();
         } catch (Exception ex) {
             return ResponseEntity.noContent().build();
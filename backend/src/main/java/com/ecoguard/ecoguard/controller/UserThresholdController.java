@@ -2,7 +2,7 @@ package com.ecoguard.ecoguard.controller;
 
 import com.ecoguard.ecoguard.entity.MetricType;
 import com.ecoguard.ecoguard.entity.Threshold;
-import com.ecoguard.ecoguard.repository.ThresholdRepository;
+import com.ecoguard.ecoguard.service.ThresholdService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,7 +14,8 @@ import java.util.List;
 /**
  * REST controller for user access to threshold configurations.
  * <p>
- * Provides read-only endpoints for retrieving threshold values.
+ * Provides read-only endpoints for retrieving threshold values. Values are served
+ * from the in-memory threshold snapshot rather than the database.
  * All endpoints require authentication (USER or ADMIN role).
  *
  * @author EcoGuard 
@@ -24,15 +25,15 @@ import java.util.List;
 @RequestMapping("/api/user/thresholds")
 public class UserThresholdController {
 
-    private final ThresholdRepository thresholdRepository;
+    private final ThresholdService thresholdService;
 
     /**
      * Constructs a new UserThresholdController with required dependencies.
      *
-     * @param thresholdRepository repository for threshold data access
+     * @param thresholdService in-memory threshold snapshot
      */
-    public UserThresholdController(ThresholdRepository thresholdRepository) {
-        this.thresholdRepository = thresholdRepository;
+    public UserThresholdController(ThresholdService thresholdService) {
+        this.thresholdService = thresholdService;
     }
 
     /**
@@ -42,7 +43,7 @@ public class UserThresholdController {
      */
     @GetMapping
     public List<Threshold> getAllThresholds() {
-        return thresholdRepository.findAll();
+        return thresholdService.getAll();
     }
 
     /**
@@ -53,7 +54,7 @@ public class UserThresholdController {
      */
     @GetMapping("/by-metric/{metricType}")
     public ResponseEntity<Threshold> getByMetric(@PathVariable MetricType metricType) {
-        return thresholdRepository.findByMetricType(metricType)
+        return thresholdService.getByMetric(metricType)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
@@ -0,0 +1,30 @@
+package com.ecoguard.ecoguard.dto;
+
+import com.ecoguard.ecoguard.entity.AlertType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Closed projection of an alert for status views.
+ * <p>
+ * Used as a repository return type so only these columns are selected and no
+ * managed entity is created.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+public interface AlertSummary {
+    /**
+     * Returns the time the alert was generated.
+     *
+     * @return the alert timestamp
+     */
+    LocalDateTime getTimestamp();
+
+    /**
+     * Returns the type of the alert.
+     *
+     * @return THRESHOLD or INTRUDER
+     */
+    AlertType getAlertType();
+}
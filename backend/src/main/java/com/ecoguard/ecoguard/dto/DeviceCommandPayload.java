@@ -6,7 +6,8 @@ import lombok.Data;
  * Data Transfer Object for device command creation requests.
  * <p>
  * Used as the request body for POST /api/admin/device/commands endpoint.
- * deviceKey and commandType are required; parameters are optional.
+ * deviceKey and commandType are required; parameters are optional. ttlSeconds
+ * optionally overrides the default command expiry, with 0 meaning no expiry.
  *
  * @author EcoGuard 
  * @since 1.0
@@ -22,5 +23,6 @@ public class DeviceCommandPayload {
     private String deviceKey;
     private String commandType;
     private String parameters;
+    private Integer ttlSeconds;
 }
 
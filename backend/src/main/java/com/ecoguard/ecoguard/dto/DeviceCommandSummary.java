@@ -0,0 +1,49 @@
+package com.ecoguard.ecoguard.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Closed projection of a device command for status views.
+ * <p>
+ * Used as a repository return type so only these columns are selected and no
+ * managed entity is created.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+public interface DeviceCommandSummary {
+    /**
+     * Returns the command ID.
+     *
+     * @return the command ID
+     */
+    Long getId();
+
+    /**
+     * Returns the key of the device the command is for.
+     *
+     * @return the device key
+     */
+    String getDeviceKey();
+
+    /**
+     * Returns the command type.
+     *
+     * @return the command type, e.g. SET_LED_COLOR
+     */
+    String getCommandType();
+
+    /**
+     * Returns the command parameters.
+     *
+     * @return the parameters, or null if the command has none
+     */
+    String getParameters();
+
+    /**
+     * Returns the time the command was created.
+     *
+     * @return the creation timestamp
+     */
+    LocalDateTime getCreatedAt();
+}
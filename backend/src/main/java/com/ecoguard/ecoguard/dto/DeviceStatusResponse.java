@@ -10,6 +10,7 @@ import java.time.LocalDateTime;
  * online/offline status, last alert, and last admin message.
  * Used by the admin panel's Device Status card.
  *
+ * @param deviceKey key of the device the status describes
  * @param lastReadingTime timestamp of the most recent sensor reading
  * @param temperature latest temperature reading in degrees Celsius
  * @param humidity latest humidity reading as a percentage
@@ -18,13 +19,14 @@ import java.time.LocalDateTime;
  * @param lastAlertTime timestamp of the most recent alert
  * @param lastAlertType type of the most recent alert (THRESHOLD or INTRUDER)
  * @param lastAdminMessage text of the last DISPLAY_MESSAGE command sent
- * @param online true if device is considered online (data received within 20 seconds)
- * @param secondsSinceLastSeen number of seconds since last data was received
+ * @param online true if device is considered online (contacted the backend within 20 seconds)
+ * @param secondsSinceLastSeen number of seconds since the device last sent data or polled for commands
  *
  * @author EcoGuard 
  * @since 1.0
  */
 public record DeviceStatusResponse(
+        String deviceKey,
         LocalDateTime lastReadingTime,
         BigDecimal temperature,
         BigDecimal humidity,
@@ -0,0 +1,46 @@
+package com.ecoguard.ecoguard.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for the aggregate of one metric over one time bucket.
+ * <p>
+ * Returned by the range endpoints when a {@code bucket} size is requested and by the
+ * rollup endpoints. Buckets without readings are omitted.
+ *
+ * @param start start of the bucket (inclusive)
+ * @param count number of readings in the bucket
+ * @param min smallest value in the bucket
+ * @param avg mean value in the bucket
+ * @param max largest value in the bucket
+ * @param stddev population standard deviation of the values in the bucket
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+public record SensorBucket(
+        LocalDateTime start,
+        long count,
+        double min,
+        double avg,
+        double max,
+        double stddev
+) {
+    /**
+     * Creates a bucket from its additive aggregates.
+     *
+     * @param start start of the bucket (inclusive)
+     * @param count number of readings in the bucket, at least one
+     * @param min smallest value in the bucket
+     * @param max largest value in the bucket
+     * @param sum sum of the values in the bucket
+     * @param sumSquares sum of the squares of the values in the bucket
+     * @return the bucket with mean and standard deviation derived from the sums
+     */
+    public static SensorBucket of(LocalDateTime start, long count, double min, double max,
+                                  double sum, double sumSquares) {
+        double avg = sum / count;
+        double variance = Math.max(0, sumSquares / count - avg * avg);
+        return new SensorBucket(start, count, min, avg, max, Math.sqrt(variance));
+    }
+}
@@ -0,0 +1,204 @@
+package com.ecoguard.ecoguard.dto;
+
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Compact binary encoding of a {@link SensorDataPayload}.
+ * <p>
+ * Sent by devices with Content-Type {@value #MEDIA_TYPE_VALUE} instead of JSON.
+ * A frame is at most {@value #MAX_LENGTH} bytes, big-endian:
+ * <pre>
+ * offset  size  field
+ * 0       1     version, currently 1
+ * 1       1     presence flags: bit 0 temperature, bit 1 humidity, bit 2 co2Level,
+ *               bit 3 lightLevel, bit 4 timestamp; other bits must be 0
+ * 2       ...   the present fields, in flag order:
+ *         2       temperature, signed, in hundredths of a degree Celsius
+ *         2       humidity, unsigned, in hundredths of a percent
+ *         2       co2Level, unsigned, in ppm
+ *         2       lightLevel, unsigned
+ *         4       timestamp, unsigned, Unix epoch seconds
+ * </pre>
+ * Temperature and humidity are carried with the two decimal places the database
+ * stores; the timestamp is converted to the server's time zone.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+public final class SensorDataFrame {
+
+    /**
+     * Media type of a sensor data frame.
+     */
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.ecoguard.reading";
+
+    /**
+     * Media type of a sensor data frame.
+     */
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    /**
+     * Length of a frame carrying every field, in bytes.
+     */
+    public static final int MAX_LENGTH = 14;
+
+    private static final int VERSION = 1;
+    private static final int TEMPERATURE = 1;
+    private static final int HUMIDITY = 1 << 1;
+    private static final int CO2_LEVEL = 1 << 2;
+    private static final int LIGHT_LEVEL = 1 << 3;
+    private static final int TIMESTAMP = 1 << 4;
+    private static final int KNOWN_FLAGS = TEMPERATURE | HUMIDITY | CO2_LEVEL | LIGHT_LEVEL | TIMESTAMP;
+
+    private SensorDataFrame() {
+    }
+
+    /**
+     * Decodes a frame.
+     *
+     * @param frame the frame bytes
+     * @param length number of bytes of {@code frame} holding the frame
+     * @return the decoded reading
+     * @throws IllegalArgumentException if the frame is truncated, too long, of an
+     *         unknown version or sets unknown flags
+     */
+    public static SensorDataPayload decode(byte[] frame, int length) {
+        if (length < 2) {
+            throw new IllegalArgumentException("Frame too short");
+        }
+        if (frame[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported frame version " + (frame[0] & 0xFF));
+        }
+        int flags = frame[1] & 0xFF;
+        if ((flags & ~KNOWN_FLAGS) != 0) {
+            throw new IllegalArgumentException("Unknown frame flags " + Integer.toBinaryString(flags));
+        }
+        if (length != lengthOf(flags)) {
+            throw new IllegalArgumentException("Frame length " + length + " does not match its flags");
+        }
+
+        SensorDataPayload payload = new SensorDataPayload();
+        int offset = 2;
+        if ((flags & TEMPERATURE) != 0) {
+            payload.setTemperature(BigDecimal.valueOf((short) readUnsignedShort(frame, offset), 2));
+            offset += 2;
+        }
+        if ((flags & HUMIDITY) != 0) {
+            payload.setHumidity(BigDecimal.valueOf(readUnsignedShort(frame, offset), 2));
+            offset += 2;
+        }
+        if ((flags & CO2_LEVEL) != 0) {
+            payload.setCo2Level(readUnsignedShort(frame, offset));
+            offset += 2;
+        }
+        if ((flags & LIGHT_LEVEL) != 0) {
+            payload.setLightLevel(readUnsignedShort(frame, offset));
+            offset += 2;
+        }
+        if ((flags & TIMESTAMP) != 0) {
+            long epochSeconds = (long) readUnsignedShort(frame, offset) << 16 | readUnsignedShort(frame, offset + 2);
+            payload.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSeconds), ZoneId.systemDefault()));
+        }
+        return payload;
+    }
+
+    /**
+     * Encodes a reading as a frame.
+     *
+     * @param payload the reading
+     * @return the frame bytes
+     * @throws IllegalArgumentException if a value does not fit its field
+     */
+    public static byte[] encode(SensorDataPayload payload) {
+        int flags = (payload.getTemperature() != null ? TEMPERATURE : 0)
+                | (payload.getHumidity() != null ? HUMIDITY : 0)
+                | (payload.getCo2Level() != null ? CO2_LEVEL : 0)
+                | (payload.getLightLevel() != null ? LIGHT_LEVEL : 0)
+                | (payload.getTimestamp() != null ? TIMESTAMP : 0);
+        byte[] frame = new byte[lengthOf(flags)];
+        frame[0] = VERSION;
+        frame[1] = (byte) flags;
+        int offset = 2;
+        if (payload.getTemperature() != null) {
+            offset = writeShort(frame, offset, hundredths(payload.getTemperature()), Short.MIN_VALUE, Short.MAX_VALUE);
+        }
+        if (payload.getHumidity() != null) {
+            offset = writeShort(frame, offset, hundredths(payload.getHumidity()), 0, 0xFFFF);
+        }
+        if (payload.getCo2Level() != null) {
+            offset = writeShort(frame, offset, payload.getCo2Level(), 0, 0xFFFF);
+        }
+        if (payload.getLightLevel() != null) {
+            offset = writeShort(frame, offset, payload.getLightLevel(), 0, 0xFFFF);
+        }
+        if (payload.getTimestamp() != null) {
+            long epochSeconds = payload.getTimestamp().atZone(ZoneId.systemDefault()).toEpochSecond();
+            if (epochSeconds < 0 || epochSeconds > 0xFFFFFFFFL) {
+                throw new IllegalArgumentException("Timestamp out of range: " + payload.getTimestamp());
+            }
+            writeShort(frame, offset, (int) (epochSeconds >>> 16), 0, 0xFFFF);
+            writeShort(frame, offset + 2, (int) (epochSeconds & 0xFFFF), 0, 0xFFFF);
+        }
+        return frame;
+    }
+
+    /**
+     * Computes the length of a frame with the given flags.
+     *
+     * @param flags the presence flags
+     * @return the frame length in bytes
+     */
+    private static int lengthOf(int flags) {
+        return 2 + 2 * Integer.bitCount(flags & ~TIMESTAMP) + ((flags & TIMESTAMP) != 0 ? 4 : 0);
+    }
+
+    /**
+     * Reads a big-endian unsigned 16-bit value.
+     *
+     * @param frame the frame bytes
+     * @param offset offset of the value
+     * @return the value
+     */
+    private static int readUnsignedShort(byte[] frame, int offset) {
+        return (frame[offset] & 0xFF) << 8 | frame[offset + 1] & 0xFF;
+    }
+
+    /**
+     * Writes a big-endian 16-bit value after checking its range.
+     *
+     * @param frame the frame bytes
+     * @param offset offset of the value
+     * @param value the value
+     * @param min smallest allowed value
+     * @param max largest allowed value
+     * @return the offset after the value
+     */
+    private static int writeShort(byte[] frame, int offset, int value, int min, int max) {
+        if (value < min || value > max) {
+            throw new IllegalArgumentException("Value " + value + " out of range");
+        }
+        frame[offset] = (byte) (value >>> 8);
+        frame[offset + 1] = (byte) value;
+        return offset + 2;
+    }
+
+    /**
+     * Scales a value to hundredths.
+     *
+     * @param value the value
+     * @return the value in hundredths, rounded half up
+     */
+    private static int hundredths(BigDecimal value) {
+        BigDecimal scaled = value.movePointRight(2).setScale(0, RoundingMode.HALF_UP);
+        if (scaled.abs().compareTo(BigDecimal.valueOf(Integer.MAX_VALUE)) > 0) {
+            throw new IllegalArgumentException("Value " + value + " out of range");
+        }
+        return scaled.intValue();
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecoguard.ecoguard.dto;
+
+import com.ecoguard.ecoguard.entity.SensorData;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for one page of sensor readings.
+ * <p>
+ * Returned by the paginated sensor data listing endpoints. Readings are ordered
+ * newest first; pass {@code nextCursor} back as the {@code cursor} parameter to
+ * fetch the following page.
+ *
+ * @param items the readings on this page
+ * @param nextCursor opaque continuation token, or null if this is the last page
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+public record SensorDataPage(
+        List<SensorData> items,
+        String nextCursor
+) {}
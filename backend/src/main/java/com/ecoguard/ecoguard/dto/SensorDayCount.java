@@ -0,0 +1,28 @@
+package com.ecoguard.ecoguard.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of the number of stored readings per day of their timestamp.
+ * <p>
+ * Used by the segment store catch-up to find the days it holds fewer readings
+ * for than the database.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+public interface SensorDayCount {
+    /**
+     * Returns the day the readings were taken on.
+     *
+     * @return the day
+     */
+    LocalDate getReadingDay();
+
+    /**
+     * Returns the number of readings taken on the day.
+     *
+     * @return the reading count
+     */
+    long getReadings();
+}
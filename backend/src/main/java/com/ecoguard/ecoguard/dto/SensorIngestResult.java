@@ -0,0 +1,20 @@
+package com.ecoguard.ecoguard.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object describing the outcome of ingesting one sensor reading.
+ * <p>
+ * Returned per reading by the batch ingestion endpoint so the device can match
+ * each submitted reading to its stored record and any alerts it raised.
+ *
+ * @param sensorDataId ID of the persisted sensor reading
+ * @param alertsCreated IDs of the alerts created for this reading
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+public record SensorIngestResult(
+        Long sensorDataId,
+        List<Long> alertsCreated
+) {}
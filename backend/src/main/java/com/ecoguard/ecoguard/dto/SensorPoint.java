@@ -0,0 +1,19 @@
+package com.ecoguard.ecoguard.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for a single point of a downsampled metric series.
+ * <p>
+ * Returned by the range endpoints when {@code maxPoints} is requested.
+ *
+ * @param timestamp timestamp of the selected reading
+ * @param value metric value of the selected reading
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+public record SensorPoint(
+        LocalDateTime timestamp,
+        double value
+) {}
@@ -0,0 +1,21 @@
+package com.ecoguard.ecoguard.dto;
+
+import com.ecoguard.ecoguard.entity.MetricType;
+import com.ecoguard.ecoguard.entity.RollupResolution;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Transfer Object for a time range served from the sensor rollups.
+ *
+ * @param resolution the rollup resolution the buckets were read from
+ * @param metrics buckets per metric, oldest first
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+public record SensorRollupSeries(
+        RollupResolution resolution,
+        Map<MetricType, List<SensorBucket>> metrics
+) {}
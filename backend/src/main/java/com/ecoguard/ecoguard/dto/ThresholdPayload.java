@@ -21,6 +21,8 @@ public class ThresholdPayload {
     private String metricType;
     private BigDecimal minValue;
     private BigDecimal maxValue;
+    private BigDecimal hysteresis;
+    private Integer minDurationSeconds;
 
     /**
      * Gets the metric type for this threshold update.
@@ -75,5 +77,40 @@ public class ThresholdPayload {
     public void setMaxValue(BigDecimal maxValue) {
         this.maxValue = maxValue;
     }
-}
 
+    /**
+     * Gets the hysteresis band for this threshold update.
+     *
+     * @return the hysteresis band, or null if not provided
+     */
+    public BigDecimal getHysteresis() {
+        return hysteresis;
+    }
+
+    /**
+     * Sets the hysteresis band for this threshold update.
+     *
+     * @param hysteresis the hysteresis band to set
+     */
+    public void setHysteresis(BigDecimal hysteresis) {
+        this.hysteresis = hysteresis;
+    }
+
+    /**
+     * Gets the minimum out-of-range duration for this threshold update.
+     *
+     * @return the minimum duration in seconds, or null if not provided
+     */
+    public Integer getMinDurationSeconds() {
+        return minDurationSeconds;
+    }
+
+    /**
+     * Sets the minimum out-of-range duration for this threshold update.
+     *
+     * @param minDurationSeconds the minimum duration in seconds to set
+     */
+    public void setMinDurationSeconds(Integer minDurationSeconds) {
+        this.minDurationSeconds = minDurationSeconds;
+    }
+}
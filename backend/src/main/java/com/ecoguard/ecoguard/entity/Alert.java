@@ -12,13 +12,18 @@ import java.time.LocalDateTime;
  * <p>
  * Alerts are created when sensor readings breach configured thresholds or when
  * an intruder is detected (light spike). Each alert contains the alert type,
- * metric information, value that triggered it, and timestamp.
+ * metric information, value that triggered it, and timestamp. While a metric stays
+ * out of range, repeated breaches are coalesced into the same alert by updating its
+ * occurrence count, last value and last-seen time.
  *
  * @author EcoGuard 
  * @since 1.0
  */
 @Entity
-@Table(name = "ALERTS")
+@Table(name = "ALERTS", indexes = {
+        @Index(name = "idx_alerts_timestamp", columnList = "timestamp"),
+        @Index(name = "idx_alerts_type_metric_timestamp", columnList = "alert_type, metric_type, timestamp")
+})
 @Data
 public class Alert {
     /**
@@ -28,10 +33,12 @@ public class Alert {
     }
 
     /**
-     * Unique identifier for the alert.
+     * Unique identifier for the alert, allocated from the pooled
+     * {@code alerts_seq} sequence so that inserts can be batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "alerts_seq")
+    @SequenceGenerator(name = "alerts_seq", sequenceName = "alerts_seq", allocationSize = 50)
     @Column(name = "alert_id")
     private Long id;
 
@@ -65,6 +72,25 @@ public class Alert {
     @Column(name = "timestamp", nullable = false)
     private LocalDateTime timestamp;
 
+    /**
+     * Number of breaching readings coalesced into this alert.
+     * Starts at 1 when the alert is created.
+     */
+    @Column(name = "occurrences")
+    private Integer occurrences = 1;
+
+    /**
+     * The most recent breaching value coalesced into this alert.
+     */
+    @Column(name = "last_value", precision = 10, scale = 2)
+    private BigDecimal lastValue;
+
+    /**
+     * Timestamp of the most recent breaching reading coalesced into this alert.
+     */
+    @Column(name = "last_seen_at")
+    private LocalDateTime lastSeenAt;
+
     /**
      * Whether the alert has been acknowledged by a user.
      * Defaults to false when alert is created.
@@ -74,12 +100,22 @@ public class Alert {
 
     /**
      * JPA lifecycle callback to set timestamp before persisting.
-     * Automatically sets {@code timestamp} to current time if not already set.
+     * Automatically sets {@code timestamp} to current time if not already set, and
+     * initializes the coalescing fields from the triggering value.
      */
     @PrePersist
     public void prePersist() {
         if (timestamp == null) {
             timestamp = LocalDateTime.now();
         }
+        if (occurrences == null) {
+            occurrences = 1;
+        }
+        if (lastValue == null) {
+            lastValue = value;
+        }
+        if (lastSeenAt == null) {
+            lastSeenAt = timestamp;
+        }
     }
 }
\ No newline at end of file
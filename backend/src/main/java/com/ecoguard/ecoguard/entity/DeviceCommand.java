@@ -15,7 +15,11 @@ import java.time.LocalDateTime;
  * @since 1.0
  */
 @Entity
-@Table(name = "DEVICE_COMMANDS")
+@Table(name = "DEVICE_COMMANDS", indexes = {
+        @Index(name = "idx_device_commands_pending", columnList = "device_key, executed, created_at"),
+        @Index(name = "idx_device_commands_type_created", columnList = "command_type, created_at"),
+        @Index(name = "idx_device_commands_expiry", columnList = "executed, expires_at")
+})
 @Data
 public class DeviceCommand {
     /**
@@ -25,10 +29,12 @@ public class DeviceCommand {
     }
 
     /**
-     * Unique identifier for the command.
+     * Unique identifier for the command, allocated from the pooled
+     * {@code device_commands_seq} sequence so that inserts can be batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "device_commands_seq")
+    @SequenceGenerator(name = "device_commands_seq", sequenceName = "device_commands_seq", allocationSize = 50)
     @Column(name = "command_id")
     private Long id;
 
@@ -74,6 +80,13 @@ public class DeviceCommand {
     @Column(name = "executed_at")
     private LocalDateTime executedAt;
 
+    /**
+     * Timestamp after which the command is no longer delivered to the device.
+     * Unexecuted commands past this time are purged; null means the command never expires.
+     */
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
     /**
      * JPA lifecycle callback to set creation timestamp before persisting.
      * Automatically sets {@code createdAt} to current time if not already set.
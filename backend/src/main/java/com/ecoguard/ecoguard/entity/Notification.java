@@ -24,10 +24,12 @@ public class Notification {
     }
 
     /**
-     * Unique identifier for the notification record.
+     * Unique identifier for the notification record, allocated from the pooled
+     * {@code notifications_seq} sequence so that inserts can be batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_seq")
+    @SequenceGenerator(name = "notifications_seq", sequenceName = "notifications_seq", allocationSize = 50)
     @Column(name = "notification_id")
     private Long id;
 
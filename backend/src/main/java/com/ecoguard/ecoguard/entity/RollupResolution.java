@@ -0,0 +1,56 @@
+package com.ecoguard.ecoguard.entity;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Enumeration of the time resolutions sensor data is rolled up at.
+ * <p>
+ * Buckets of every resolution are aligned to the start of the minute, hour or day
+ * they cover.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+public enum RollupResolution {
+    /**
+     * One bucket per minute.
+     */
+    MINUTE(ChronoUnit.MINUTES),
+
+    /**
+     * One bucket per hour.
+     */
+    HOUR(ChronoUnit.HOURS),
+
+    /**
+     * One bucket per day.
+     */
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    RollupResolution(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * Returns the length of one bucket.
+     *
+     * @return the bucket length
+     */
+    public Duration getDuration() {
+        return unit.getDuration();
+    }
+
+    /**
+     * Returns the start of the bucket a timestamp falls into.
+     *
+     * @param timestamp the timestamp
+     * @return the timestamp truncated to this resolution
+     */
+    public LocalDateTime truncate(LocalDateTime timestamp) {
+        return timestamp.truncatedTo(unit);
+    }
+}
@@ -16,7 +16,7 @@ import java.time.LocalDateTime;
  * @since 1.0
  */
 @Entity
-@Table(name = "SENSOR_DATA")
+@Table(name = "SENSOR_DATA", indexes = @Index(name = "idx_sensor_data_timestamp_id", columnList = "timestamp, reading_id"))
 @Data
 public class SensorData {
     /**
@@ -26,10 +26,12 @@ public class SensorData {
     }
 
     /**
-     * Unique identifier for the sensor reading.
+     * Unique identifier for the sensor reading, allocated from the pooled
+     * {@code sensor_data_seq} sequence so that inserts can be batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sensor_data_seq")
+    @SequenceGenerator(name = "sensor_data_seq", sequenceName = "sensor_data_seq", allocationSize = 50)
     @Column(name = "reading_id")
     private Long id;
 
@@ -0,0 +1,86 @@
+package com.ecoguard.ecoguard.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated sensor readings for one metric over one time bucket.
+ * <p>
+ * Rollups are kept per minute, hour and day and updated incrementally as readings
+ * are ingested, so long ranges can be charted without scanning raw readings. Count,
+ * sum and sum of squares are stored instead of the mean and deviation so that
+ * buckets can be merged by addition.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+@Entity
+@Table(name = "SENSOR_ROLLUP", uniqueConstraints = @UniqueConstraint(
+        name = "uk_sensor_rollup_bucket", columnNames = {"resolution", "bucket_start", "metric_type"}))
+@Data
+public class SensorRollup {
+    /**
+     * Default constructor.
+     */
+    public SensorRollup() {
+    }
+
+    /**
+     * Unique identifier for the rollup row.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Length of the bucket this row covers.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "resolution", nullable = false, length = 16)
+    private RollupResolution resolution;
+
+    /**
+     * Start of the bucket (inclusive).
+     */
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    /**
+     * The metric this row aggregates.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "metric_type", nullable = false)
+    private MetricType metricType;
+
+    /**
+     * Number of readings in the bucket.
+     */
+    @Column(name = "sample_count", nullable = false)
+    private long sampleCount;
+
+    /**
+     * Smallest value in the bucket.
+     */
+    @Column(name = "min_value", nullable = false)
+    private double minValue;
+
+    /**
+     * Largest value in the bucket.
+     */
+    @Column(name = "max_value", nullable = false)
+    private double maxValue;
+
+    /**
+     * Sum of all values in the bucket.
+     */
+    @Column(name = "sum_value", nullable = false)
+    private double sumValue;
+
+    /**
+     * Sum of the squares of all values in the bucket.
+     */
+    @Column(name = "sum_squares", nullable = false)
+    private double sumSquares;
+}
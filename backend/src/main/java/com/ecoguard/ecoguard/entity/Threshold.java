@@ -57,4 +57,19 @@ public class Threshold {
     @Column(name = "max_value", precision = 10, scale = 2, nullable = false)
     private BigDecimal maxValue;
 
+    /**
+     * Optional hysteresis band for this metric.
+     * Once an alert is raised, the value must return at least this far inside the
+     * min/max range before the metric is considered back to normal.
+     */
+    @Column(name = "hysteresis", precision = 10, scale = 2)
+    private BigDecimal hysteresis;
+
+    /**
+     * Optional minimum time, in seconds, a value must stay out of range before an
+     * alert is raised. Shorter excursions are ignored.
+     */
+    @Column(name = "min_duration_seconds")
+    private Integer minDurationSeconds;
+
 }
\ No newline at end of file
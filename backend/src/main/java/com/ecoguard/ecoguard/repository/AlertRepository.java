@@ -1,15 +1,25 @@
 package com.ecoguard.ecoguard.repository;
 
 import com.ecoguard.ecoguard.entity.Alert;
+import com.ecoguard.ecoguard.entity.AlertType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository interface for alert persistence operations.
  * <p>
- * Provides methods for querying alerts by timestamp.
+ * Provides methods for querying alerts by timestamp, for updating coalesced alerts
+ * and for finding acknowledged alerts to prune.
  *
  * @author EcoGuard 
  * @since 1.0
@@ -22,4 +32,64 @@ public interface AlertRepository extends JpaRepository<Alert, Long> {
      * @return Optional containing the latest alert, or empty if no alerts exist
      */
     Optional<Alert> findTopByOrderByTimestampDesc();
-}
\ No newline at end of file
+
+    /**
+     * Finds the most recent alert as a projection.
+     *
+     * @param type the projection type, e.g. {@link com.ecoguard.ecoguard.dto.AlertSummary}
+     * @param <T> the projection type
+     * @return Optional containing the latest alert, or empty if no alerts exist
+     */
+    <T> Optional<T> findTopByOrderByTimestampDesc(Class<T> type);
+
+    /**
+     * Finds the most recent alert of a given type for a metric.
+     *
+     * @param alertType the alert type
+     * @param metricType the metric type name
+     * @return Optional containing the latest matching alert, or empty if none exist
+     */
+    Optional<Alert> findTopByAlertTypeAndMetricTypeOrderByTimestampDesc(AlertType alertType, String metricType);
+
+    /**
+     * Writes back the coalescing fields of an existing alert without touching its
+     * other columns. Acknowledged alerts are left unchanged, so a breach after the
+     * acknowledgement opens a new alert instead of reviving the one already read.
+     *
+     * @param id the alert ID
+     * @param occurrences the new occurrence count
+     * @param lastValue the most recent breaching value
+     * @param lastSeenAt timestamp of the most recent breaching reading
+     * @return number of alerts updated
+     */
+    @Modifying
+    @Query("update Alert a set a.occurrences = :occurrences, a.lastValue = :lastValue, a.lastSeenAt = :lastSeenAt "
+            + "where a.id = :id and a.acknowledged = false")
+    int updateCoalesced(@Param("id") Long id,
+                        @Param("occurrences") Integer occurrences,
+                        @Param("lastValue") BigDecimal lastValue,
+                        @Param("lastSeenAt") LocalDateTime lastSeenAt);
+
+    /**
+     * Marks an alert as acknowledged without loading it or touching its other
+     * columns, so a concurrent coalesced update is not overwritten.
+     *
+     * @param id the alert ID
+     * @return number of alerts updated; 0 if the alert does not exist
+     */
+    @Modifying
+    @Transactional
+    @Query("update Alert a set a.acknowledged = true where a.id = :id")
+    int acknowledge(@Param("id") Long id);
+
+    /**
+     * Finds acknowledged alerts last seen before a given time, oldest ID first.
+     *
+     * @param before the cut-off; alerts last seen at or after it are kept
+     * @param limit maximum number of IDs to return
+     * @return IDs of the alerts that may be pruned
+     */
+    @Query("select a.id from Alert a where a.acknowledged = true and coalesce(a.lastSeenAt, a.timestamp) < :before "
+            + "order by a.id")
+    List<Long> findAcknowledgedIdsBefore(@Param("before") LocalDateTime before, Limit limit);
+}
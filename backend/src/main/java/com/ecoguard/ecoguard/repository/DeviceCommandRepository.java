@@ -1,9 +1,17 @@
 package com.ecoguard.ecoguard.repository;
 
 import com.ecoguard.ecoguard.entity.DeviceCommand;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,7 +32,28 @@ public interface DeviceCommandRepository extends JpaRepository<DeviceCommand, Lo
      * @return list of pending commands, oldest first
      */
     List<DeviceCommand> findByDeviceKeyAndExecutedFalseOrderByCreatedAtAsc(String deviceKey);
+
+    /**
+     * Finds all pending (unexecuted) commands across devices, ordered by creation time.
+     *
+     * @return list of pending commands, oldest first
+     */
+    List<DeviceCommand> findByExecutedFalseOrderByCreatedAtAsc();
     
+    /**
+     * Finds the newest pending command of a type for a device and locks it for update.
+     * <p>
+     * Only an existing row is locked; when there is none, nothing stops a concurrent
+     * transaction from inserting one, so callers that insert on a miss must
+     * serialize themselves.
+     *
+     * @param deviceKey the device key to filter by
+     * @param commandType the command type to filter by
+     * @return Optional containing the newest pending command of the type, or empty
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<DeviceCommand> findFirstByDeviceKeyAndCommandTypeAndExecutedFalseOrderByCreatedAtDesc(String deviceKey, String commandType);
+
     /**
      * Finds a command by ID and device key.
      *
@@ -41,6 +70,20 @@ public interface DeviceCommandRepository extends JpaRepository<DeviceCommand, Lo
      * @return Optional containing the most recent command of the type, or empty
      */
     Optional<DeviceCommand> findTopByCommandTypeOrderByCreatedAtDesc(String commandType);
+
+    /**
+     * Finds the most recent command of a specific type as a projection.
+     * <p>
+     * Also sorts on the (constant) command type so the database can read the
+     * {@code (command_type, created_at)} index backwards and stop at the first row;
+     * H2 only treats an index as sorted when the ORDER BY starts at its first column.
+     *
+     * @param commandType the command type to filter by
+     * @param type the projection type, e.g. {@link com.ecoguard.ecoguard.dto.DeviceCommandSummary}
+     * @param <T> the projection type
+     * @return Optional containing the most recent command of the type, or empty
+     */
+    <T> Optional<T> findTopByCommandTypeOrderByCommandTypeDescCreatedAtDesc(String commandType, Class<T> type);
     
     /**
      * Finds the 10 most recent commands for a device.
@@ -49,5 +92,39 @@ public interface DeviceCommandRepository extends JpaRepository<DeviceCommand, Lo
      * @return list of the 10 most recent commands, newest first
      */
     List<DeviceCommand> findTop10ByDeviceKeyOrderByCreatedAtDesc(String deviceKey);
-}
 
+    /**
+     * Marks the given pending commands of a device as executed in one statement.
+     *
+     * @param deviceKey the device the commands belong to
+     * @param ids the command IDs to acknowledge
+     * @param executedAt the execution timestamp to record
+     * @return number of commands updated
+     */
+    @Modifying
+    @Query("update DeviceCommand c set c.executed = true, c.executedAt = :executedAt "
+            + "where c.deviceKey = :deviceKey and c.executed = false and c.id in :ids")
+    int markExecuted(@Param("deviceKey") String deviceKey,
+                     @Param("ids") Collection<Long> ids,
+                     @Param("executedAt") LocalDateTime executedAt);
+
+    /**
+     * Deletes unexecuted commands whose expiry has passed.
+     *
+     * @param now the current time
+     * @return number of commands deleted
+     */
+    @Modifying
+    @Query("delete from DeviceCommand c where c.executed = false and c.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    /**
+     * Finds commands executed before a given time, oldest ID first.
+     *
+     * @param before the cut-off; commands executed at or after it are kept
+     * @param limit maximum number of IDs to return
+     * @return IDs of the commands that may be pruned
+     */
+    @Query("select c.id from DeviceCommand c where c.executed = true and c.executedAt < :before order by c.id")
+    List<Long> findExecutedIdsBefore(@Param("before") LocalDateTime before, Limit limit);
+}
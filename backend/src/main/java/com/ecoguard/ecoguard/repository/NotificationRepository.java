@@ -2,17 +2,33 @@ package com.ecoguard.ecoguard.repository;
 
 import com.ecoguard.ecoguard.entity.Notification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+
 /**
  * Repository interface for notification persistence operations.
  * <p>
- * Provides standard JPA repository methods for managing notification records.
+ * Provides standard JPA repository methods for managing notification records and
+ * deleting the notifications of pruned alerts.
  *
  * @author EcoGuard 
  * @since 1.0
  */
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    /**
+     * Deletes the notifications sent for the given alerts.
+     *
+     * @param alertIds the alert IDs
+     * @return number of notifications deleted
+     */
+    @Modifying
+    @Query("delete from Notification n where n.alert.id in :alertIds")
+    int deleteByAlertIdIn(@Param("alertIds") Collection<Long> alertIds);
 }
 
@@ -0,0 +1,26 @@
+package com.ecoguard.ecoguard.repository;
+
+import com.ecoguard.ecoguard.entity.SensorData;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment for bulk sensor data writes.
+ * <p>
+ * Mixed into {@link SensorDataRepository} so that bulk inserts are available
+ * next to the derived Spring Data queries.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+public interface SensorDataBatchRepository {
+    /**
+     * Inserts all readings using JDBC batches.
+     * <p>
+     * Generated IDs are written back to the given entities.
+     *
+     * @param readings the readings to insert
+     * @return the same readings with their IDs populated
+     */
+    List<SensorData> batchInsert(List<SensorData> readings);
+}
@@ -0,0 +1,46 @@
+package com.ecoguard.ecoguard.repository;
+
+import com.ecoguard.ecoguard.entity.SensorData;
+import jakarta.persistence.EntityManager;
+
+import java.util.List;
+
+/**
+ * JPA implementation of {@link SensorDataBatchRepository}.
+ * <p>
+ * Reading IDs come from a pooled sequence, so Hibernate assigns them on persist
+ * without a round trip per row and sends the inserts as JDBC batches of
+ * {@code hibernate.jdbc.batch_size} when the readings are flushed.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+public class SensorDataBatchRepositoryImpl implements SensorDataBatchRepository {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Constructs a new SensorDataBatchRepositoryImpl with required dependencies.
+     *
+     * @param entityManager entity manager of the current transaction
+     */
+    public SensorDataBatchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Inserts all readings using JDBC batches and flushes them immediately.
+     *
+     * @param readings the readings to insert
+     * @return the same readings with their IDs populated
+     */
+    @Override
+    public List<SensorData> batchInsert(List<SensorData> readings) {
+        if (readings.isEmpty()) {
+            return readings;
+        }
+        readings.forEach(entityManager::persist);
+        entityManager.flush();
+        return readings;
+    }
+}
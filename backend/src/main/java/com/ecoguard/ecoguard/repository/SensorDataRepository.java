@@ -1,30 +1,46 @@
 package com.ecoguard.ecoguard.repository;
 
+import com.ecoguard.ecoguard.dto.SensorDayCount;
 import com.ecoguard.ecoguard.entity.SensorData;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for sensor data persistence operations.
  * <p>
  * Provides methods for querying sensor readings by timestamp and retrieving
- * the most recent reading.
+ * the most recent reading, keyset-paginated listing, streaming range export,
+ * per-day counts for the segment store catch-up and ID lookups for retention. Bulk inserts are provided by {@link SensorDataBatchRepository}.
  *
  * @author EcoGuard 
  * @since 1.0
  */
 @Repository
-public interface SensorDataRepository extends JpaRepository<SensorData, Long> {
+public interface SensorDataRepository extends JpaRepository<SensorData, Long>, SensorDataBatchRepository {
     /**
      * Finds the most recent sensor reading.
      *
      * @return Optional containing the latest sensor data, or empty if no data exists
      */
     Optional<SensorData> findTopByOrderByTimestampDesc();
+
+    /**
+     * Finds the oldest sensor reading.
+     *
+     * @return Optional containing the oldest sensor data, or empty if no data exists
+     */
+    Optional<SensorData> findTopByOrderByTimestampAsc();
     
     /**
      * Finds all sensor readings within a specified time range.
@@ -34,4 +50,69 @@ public interface SensorDataRepository extends JpaRepository<SensorData, Long> {
      * @return list of sensor data records within the time range
      */
     List<SensorData> findAllByTimestampBetween(LocalDateTime start, LocalDateTime end);
-}
\ No newline at end of file
+
+    /**
+     * Counts the sensor readings within a time range.
+     *
+     * @param start the start timestamp (inclusive)
+     * @param end the end timestamp (inclusive)
+     * @return number of readings within the time range
+     */
+    long countByTimestampBetween(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Finds the newest readings, ordered by timestamp and ID descending.
+     *
+     * @param limit maximum number of readings to return
+     * @return the first page of readings
+     */
+    @Query("select s from SensorData s order by s.timestamp desc, s.id desc")
+    List<SensorData> findPageFromStart(Limit limit);
+
+    /**
+     * Finds the readings that follow a keyset position, ordered by timestamp and ID
+     * descending.
+     *
+     * @param timestamp timestamp of the last reading on the previous page
+     * @param id ID of the last reading on the previous page
+     * @param limit maximum number of readings to return
+     * @return the next page of readings
+     */
+    @Query("select s from SensorData s where s.timestamp < :timestamp or (s.timestamp = :timestamp and s.id < :id) "
+            + "order by s.timestamp desc, s.id desc")
+    List<SensorData> findPageAfter(@Param("timestamp") LocalDateTime timestamp, @Param("id") Long id, Limit limit);
+
+    /**
+     * Streams all sensor readings within a time range, oldest first.
+     * <p>
+     * Rows are read through a JDBC cursor with a bounded fetch size rather than
+     * materialized as a list. The stream must be consumed and closed inside a
+     * transaction.
+     *
+     * @param start the start timestamp (inclusive)
+     * @param end the end timestamp (inclusive)
+     * @return stream of sensor data records within the time range
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select s from SensorData s where s.timestamp between :start and :end order by s.timestamp, s.id")
+    Stream<SensorData> streamByTimestampBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    /**
+     * Counts the sensor readings per day of their timestamp.
+     *
+     * @return one count per day that has readings, in no particular order
+     */
+    @Query("select cast(s.timestamp as LocalDate) as readingDay, count(s) as readings from SensorData s "
+            + "group by cast(s.timestamp as LocalDate)")
+    List<SensorDayCount> countByDay();
+
+    /**
+     * Finds the IDs of all sensor readings within a time range.
+     *
+     * @param start the start timestamp (inclusive)
+     * @param end the end timestamp (inclusive)
+     * @return IDs of the readings within the time range, ascending
+     */
+    @Query("select s.id from SensorData s where s.timestamp between :start and :end order by s.id")
+    List<Long> findIdsByTimestampBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,26 @@
+package com.ecoguard.ecoguard.repository;
+
+import com.ecoguard.ecoguard.entity.SensorRollup;
+
+import java.util.Collection;
+
+/**
+ * Custom repository fragment for incremental rollup writes.
+ * <p>
+ * Mixed into {@link SensorRollupRepository} so that rollup deltas can be merged
+ * next to the derived Spring Data queries.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+public interface SensorRollupBatchRepository {
+    /**
+     * Adds rollup deltas to the stored buckets, creating buckets that do not exist yet.
+     * <p>
+     * Counts, sums and sums of squares are added, minimum and maximum are widened.
+     * Callers must not merge the same bucket concurrently.
+     *
+     * @param deltas aggregates of new readings, at most one per bucket
+     */
+    void mergeAll(Collection<SensorRollup> deltas);
+}
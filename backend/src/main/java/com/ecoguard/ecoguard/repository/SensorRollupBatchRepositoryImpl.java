@@ -0,0 +1,91 @@
+package com.ecoguard.ecoguard.repository;
+
+import com.ecoguard.ecoguard.entity.SensorRollup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link SensorRollupBatchRepository}.
+ * <p>
+ * Deltas are applied with one batched update that adds to existing buckets in
+ * place, followed by one batched insert for the buckets the update did not find.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+public class SensorRollupBatchRepositoryImpl implements SensorRollupBatchRepository {
+
+    private static final String UPDATE_SQL = "update \"sensor_rollup\" set "
+            + "\"sample_count\" = \"sample_count\" + ?, "
+            + "\"min_value\" = least(\"min_value\", ?), "
+            + "\"max_value\" = greatest(\"max_value\", ?), "
+            + "\"sum_value\" = \"sum_value\" + ?, "
+            + "\"sum_squares\" = \"sum_squares\" + ? "
+            + "where \"resolution\" = ? and \"bucket_start\" = ? and \"metric_type\" = ?";
+
+    private static final String INSERT_SQL = "insert into \"sensor_rollup\" "
+            + "(\"sample_count\", \"min_value\", \"max_value\", \"sum_value\", \"sum_squares\", "
+            + "\"resolution\", \"bucket_start\", \"metric_type\") "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructs a new SensorRollupBatchRepositoryImpl with required dependencies.
+     *
+     * @param jdbcTemplate template bound to the application data source
+     */
+    public SensorRollupBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds rollup deltas to the stored buckets, creating buckets that do not exist yet.
+     *
+     * @param deltas aggregates of new readings, at most one per bucket
+     */
+    @Override
+    public void mergeAll(Collection<SensorRollup> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (SensorRollup delta : deltas) {
+            args.add(toArgs(delta));
+        }
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+
+        List<Object[]> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(args.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, missing);
+        }
+    }
+
+    /**
+     * Binds a delta in the parameter order shared by the update and insert statements.
+     *
+     * @param delta the rollup delta
+     * @return the statement parameters
+     */
+    private static Object[] toArgs(SensorRollup delta) {
+        return new Object[] {
+                delta.getSampleCount(),
+                delta.getMinValue(),
+                delta.getMaxValue(),
+                delta.getSumValue(),
+                delta.getSumSquares(),
+                delta.getResolution().name(),
+                Timestamp.valueOf(delta.getBucketStart()),
+                delta.getMetricType().name()
+        };
+    }
+}
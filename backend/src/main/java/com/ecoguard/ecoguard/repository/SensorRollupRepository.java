@@ -0,0 +1,32 @@
+package com.ecoguard.ecoguard.repository;
+
+import com.ecoguard.ecoguard.entity.RollupResolution;
+import com.ecoguard.ecoguard.entity.SensorRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for sensor rollup persistence operations.
+ * <p>
+ * Provides range queries over the rollups of one resolution. Incremental merges
+ * are provided by {@link SensorRollupBatchRepository}.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+@Repository
+public interface SensorRollupRepository extends JpaRepository<SensorRollup, Long>, SensorRollupBatchRepository {
+    /**
+     * Finds all rollups of one resolution whose bucket starts within a time range.
+     *
+     * @param resolution the rollup resolution
+     * @param start the earliest bucket start (inclusive)
+     * @param end the latest bucket start (inclusive)
+     * @return rollups ordered by bucket start
+     */
+    List<SensorRollup> findByResolutionAndBucketStartBetweenOrderByBucketStartAsc(
+            RollupResolution resolution, LocalDateTime start, LocalDateTime end);
+}
@@ -2,14 +2,19 @@ package com.ecoguard.ecoguard.repository;
 
 import com.ecoguard.ecoguard.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Optional;
 
 /**
  * Repository interface for user persistence operations.
  * <p>
- * Provides methods for querying users by username.
+ * Provides methods for querying users by username and maintaining device tokens.
  *
  * @author EcoGuard 
  * @since 1.0
@@ -30,5 +35,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return list of users with non-null device tokens
      */
     java.util.List<User> findByDeviceTokenIsNotNull();
-}
 
+    /**
+     * Clears the given device tokens from all users that registered them.
+     *
+     * @param tokens the device tokens to remove
+     * @return number of users updated
+     */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.deviceToken = null where u.deviceToken in :tokens")
+    int clearDeviceTokens(@Param("tokens") Collection<String> tokens);
+}
@@ -1,17 +1,227 @@
 package com.ecoguard.ecoguard.service;
 
+import com.ecoguard.ecoguard.entity.Alert;
+import com.ecoguard.ecoguard.entity.AlertType;
+import com.ecoguard.ecoguard.entity.MetricType;
+import com.ecoguard.ecoguard.repository.AlertRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Service class for alert-related business logic.
  * <p>
- * Currently serves as a placeholder for future alert processing functionality.
+ * Coalesces threshold breaches into one open alert per metric. A breach updates the
+ * open alert's occurrence count, last value and last-seen time instead of creating a
+ * new row, as long as the previous breach for that metric was seen within the
+ * suppression window. Only breaches that open a new alert should be notified.
+ * <p>
+ * Once an alert has been acknowledged it is no longer coalesced into: the caller's
+ * write-back of its counters is rejected and {@link #reopen(Alert)} opens a new
+ * alert for the breach instead.
+ * <p>
+ * The open alert for each metric is kept in memory and restored from the most recent
+ * unacknowledged threshold alert on first use after startup. Inside a transaction, newly opened
+ * alerts only become visible to other transactions once it commits; if it rolls
+ * back, the metrics it touched are forgotten and restored from the database again.
  *
  * @author EcoGuard
  * @since 1.0
  */
+@Service
 public class AlertService {
+
+    private final AlertRepository alertRepository;
+    private final Duration suppressionWindow;
+
+    private final Map<MetricType, Alert> openAlerts = new EnumMap<>(MetricType.class);
+    private final Set<MetricType> restored = EnumSet.noneOf(MetricType.class);
+
+    /**
+     * Changes made by the current transaction.
+     *
+     * @param opened alerts opened in the transaction, published to the cache on commit
+     * @param touched metrics whose open alert was created or updated in the transaction
+     */
+    private record Pending(Map<MetricType, Alert> opened, Set<MetricType> touched) {}
+
+    /**
+     * Result of recording a breach.
+     *
+     * @param alert the open alert the breach was recorded on
+     * @param created true if the breach opened a new, unsaved alert; false if it was
+     *                coalesced into an already open alert
+     */
+    public record Breach(Alert alert, boolean created) {}
+
+    /**
+     * Constructs a new AlertService with required dependencies.
+     *
+     * @param alertRepository repository used to restore open alerts after startup
+     * @param suppressionWindowSeconds how long after the last breach a new breach is still coalesced
+     */
+    public AlertService(AlertRepository alertRepository,
+                        @Value("${ecoguard.alerts.suppression-window-seconds:300}") long suppressionWindowSeconds) {
+        this.alertRepository = alertRepository;
+        this.suppressionWindow = Duration.ofSeconds(suppressionWindowSeconds);
+    }
+
+    /**
+     * Records a threshold breach for a metric.
+     * <p>
+     * Returns a new, unsaved alert if no alert for the metric is open, otherwise
+     * updates the open alert in memory. The caller is responsible for persisting
+     * new alerts and writing back the coalesced fields of alerts that already have
+     * an ID.
+     *
+     * @param metric the metric type that was breached
+     * @param value the value that breached the threshold
+     * @param seenAt timestamp of the breaching reading
+     * @return the open alert and whether it was newly created
+     */
+    public synchronized Breach recordBreach(MetricType metric, BigDecimal value, LocalDateTime seenAt) {
+        Pending pending = pending();
+        if (pending != null) {
+            pending.touched().add(metric);
+        }
+        Alert open = openAlert(metric, pending);
+        if (open != null && !seenAt.isAfter(open.getLastSeenAt().plus(suppressionWindow))) {
+            open.setOccurrences(open.getOccurrences() + 1);
+            if (!seenAt.isBefore(open.getLastSeenAt())) {
+                open.setLastValue(value);
+                open.setLastSeenAt(seenAt);
+            }
+            return new Breach(open, false);
+        }
+        return new Breach(open(metric, value, seenAt, pending), true);
+    }
+
+    /**
+     * Replaces an open alert that can no longer be coalesced into, because it has
+     * been acknowledged or the retention job deleted it, with a new, unsaved alert
+     * opened by its most recent breach.
+     *
+     * @param missing the cached alert whose coalesced fields could not be written back
+     * @return the new alert to persist and notify
+     */
+    public synchronized Alert reopen(Alert missing) {
+        MetricType metric = MetricType.valueOf(missing.getMetricType());
+        Pending pending = pending();
+        if (pending != null) {
+            pending.touched().add(metric);
+        }
+        return open(metric, missing.getLastValue(), missing.getLastSeenAt(), pending);
+    }
+
+    /**
+     * Opens a new alert for a metric. Within a transaction it is only visible to
+     * that transaction until it commits.
+     *
+     * @param metric the metric type
+     * @param value the breaching value
+     * @param seenAt timestamp of the breaching reading
+     * @param pending changes of the current transaction, or null outside of one
+     * @return the new, unsaved alert
+     */
+    private Alert open(MetricType metric, BigDecimal value, LocalDateTime seenAt, Pending pending) {
+        Alert alert = new Alert();
+        alert.setAlertType(AlertType.THRESHOLD);
+        alert.setMetricType(metric.name());
+        alert.setValue(value);
+        alert.setTimestamp(LocalDateTime.now());
+        alert.setOccurrences(1);
+        alert.setLastValue(value);
+        alert.setLastSeenAt(seenAt);
+        if (pending != null) {
+            pending.opened().put(metric, alert);
+        } else {
+            openAlerts.put(metric, alert);
+        }
+        return alert;
+    }
+
+    /**
+     * Returns the changes of the current transaction, registering a synchronization
+     * that publishes them on commit and discards them on rollback.
+     *
+     * @return the pending changes, or null if no transaction is active
+     */
+    private Pending pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Pending created = new Pending(new EnumMap<>(MetricType.class), EnumSet.noneOf(MetricType.class));
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    synchronized (AlertService.this) {
+                        openAlerts.putAll(created.opened());
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AlertService.this);
+                    if (status != STATUS_COMMITTED) {
+                        synchronized (AlertService.this) {
+                            openAlerts.keySet().removeAll(created.touched());
+                            restored.removeAll(created.touched());
+                        }
+                    }
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+
+    /**
+     * Returns the open alert for a metric, restoring it from the database on first use.
+     *
+     * @param metric the metric type
+     * @param pending changes of the current transaction, or null outside of one
+     * @return the open alert, or null if none is known
+     */
+    private Alert openAlert(MetricType metric, Pending pending) {
+        if (pending != null && pending.opened().containsKey(metric)) {
+            return pending.opened().get(metric);
+        }
+        if (restored.add(metric)) {
+            alertRepository.findTopByAlertTypeAndMetricTypeOrderByTimestampDesc(AlertType.THRESHOLD, metric.name())
+                    .filter(alert -> alert.getLastSeenAt() != null && !Boolean.TRUE.equals(alert.getAcknowledged()))
+                    .ifPresent(alert -> openAlerts.put(metric, copyOf(alert)));
+        }
+        return openAlerts.get(metric);
+    }
+
     /**
-     * Default constructor.
+     * Creates a detached copy of the coalescing state of an alert.
+     *
+     * @param alert the managed alert entity
+     * @return a detached copy
      */
-    public AlertService() {
+    private static Alert copyOf(Alert alert) {
+        Alert copy = new Alert();
+        copy.setId(alert.getId());
+        copy.setAlertType(alert.getAlertType());
+        copy.setMetricType(alert.getMetricType());
+        copy.setValue(alert.getValue());
+        copy.setTimestamp(alert.getTimestamp());
+        copy.setOccurrences(alert.getOccurrences() != null ? alert.getOccurrences() : 1);
+        copy.setLastValue(alert.getLastValue());
+        copy.setLastSeenAt(alert.getLastSeenAt());
+        return copy;
     }
-}
\ No newline at end of file
+}
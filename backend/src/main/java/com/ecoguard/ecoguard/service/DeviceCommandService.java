@@ -0,0 +1,653 @@
+package com.ecoguard.ecoguard.service;
+
+import com.ecoguard.ecoguard.dto.DeviceCommandResponse;
+import com.ecoguard.ecoguard.entity.DeviceCommand;
+import com.ecoguard.ecoguard.repository.DeviceCommandRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Service class for queueing device commands and delivering them to devices.
+ * <p>
+ * Commands are persisted through {@link DeviceCommandRepository}, and the pending
+ * ones are also kept in a per-device in-memory queue so that device polls never
+ * query the database. The queues are seeded from the unexecuted rows at startup
+ * and updated by {@link #enqueue(String, String, String)} and
+ * {@link #acknowledge(String, Long)} once their transaction commits; commands
+ * changed in the table by any other means are only picked up by {@link #reload()}.
+ * <p>
+ * Devices may long-poll for pending commands: {@link #awaitPending(String, int)}
+ * parks the request on a {@link DeferredResult} that is completed as soon as a
+ * command is enqueued for the device key, or with an empty list when the wait
+ * expires. Devices holding a persistent connection register a listener with
+ * {@link #addListener(String, Consumer)} instead, which is called with the
+ * pending commands every time a command is enqueued for the device. Queues,
+ * waiters and listeners are local to this backend instance.
+ * <p>
+ * Commands may carry an expiry. Expired commands are no longer delivered and
+ * unexecuted ones are deleted in bulk by {@link #purgeExpired()}.
+ * <p>
+ * Every command handed to a device through {@link #getPending(String)} is marked
+ * as delivered, so {@link #enqueueCoalesced(String, String, String)} only merges
+ * into commands the device has not seen yet. Delivery is tracked in memory, so
+ * commands loaded by {@link #reload()} are treated as delivered.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+@Service
+public class DeviceCommandService {
+
+    /**
+     * Longest time a device may wait for commands in a single poll, in seconds.
+     */
+    public static final int MAX_WAIT_SECONDS = 60;
+
+    /**
+     * Command type of admin messages shown on the device display.
+     */
+    private static final String DISPLAY_MESSAGE = "DISPLAY_MESSAGE";
+
+    /**
+     * Length of the parameters column.
+     */
+    private static final int MAX_PARAMETERS_LENGTH = 500;
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceCommandService.class);
+
+    private final DeviceCommandRepository deviceCommandRepository;
+    private final DevicePresenceRegistry devicePresenceRegistry;
+    private final LiveEventBroadcaster liveEventBroadcaster;
+    private final Duration defaultTtl;
+    private final Map<String, NavigableMap<Long, PendingCommand>> queues = new ConcurrentHashMap<>();
+    private final Map<String, Set<DeferredResult<List<DeviceCommandResponse>>>> waiters = new ConcurrentHashMap<>();
+    private final Map<String, Set<Consumer<List<DeviceCommandResponse>>>> listeners = new ConcurrentHashMap<>();
+    private final Map<Long, Handout> handouts = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantLock> coalesceLocks = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    /**
+     * Pending command held in a device queue.
+     *
+     * @param command the command as sent to the device
+     * @param expiresAt time after which the command is no longer delivered, or null
+     */
+    private record PendingCommand(DeviceCommandResponse command, LocalDateTime expiresAt) {
+
+        /**
+         * Checks whether the command has expired.
+         *
+         * @param now the current time
+         * @return true if the command has an expiry before {@code now}
+         */
+        boolean isExpired(LocalDateTime now) {
+            return expiresAt != null && expiresAt.isBefore(now);
+        }
+    }
+
+    /**
+     * Handout state of a pending command. Commands without a state have not been
+     * delivered and may be merged into.
+     */
+    private enum Handout {
+        /** The command was handed to the device and must not change any more. */
+        DELIVERED,
+        /** Parameters are being merged into the command; it is held back until that completes. */
+        MERGING
+    }
+
+    /**
+     * Constructs a new DeviceCommandService with required dependencies.
+     *
+     * @param deviceCommandRepository repository for command persistence
+     * @param devicePresenceRegistry registry told about admin messages for the status view
+     * @param liveEventBroadcaster broadcaster pushing command changes to the admin panel
+     * @param defaultTtlSeconds expiry applied to commands queued without one, in seconds; 0 disables it
+     */
+    public DeviceCommandService(DeviceCommandRepository deviceCommandRepository,
+                                DevicePresenceRegistry devicePresenceRegistry,
+                                LiveEventBroadcaster liveEventBroadcaster,
+                                @Value("${ecoguard.commands.default-ttl-seconds:86400}") long defaultTtlSeconds) {
+        this.deviceCommandRepository = deviceCommandRepository;
+        this.devicePresenceRegistry = devicePresenceRegistry;
+        this.liveEventBroadcaster = liveEventBroadcaster;
+        this.defaultTtl = Duration.ofSeconds(defaultTtlSeconds);
+    }
+
+    /**
+     * Queues a command for a device with the default expiry and wakes any poll
+     * waiting for that device once the command is committed.
+     *
+     * @param deviceKey the device that should execute the command
+     * @param commandType the command type, e.g. SET_LED_COLOR or REFRESH_CONFIG
+     * @param parameters optional command parameters
+     * @return the saved command
+     */
+    @Transactional
+    public DeviceCommand enqueue(String deviceKey, String commandType, String parameters) {
+        return enqueue(deviceKey, commandType, parameters, null);
+    }
+
+    /**
+     * Queues a command for a device and wakes any poll waiting for that device
+     * once the command is committed.
+     *
+     * @param deviceKey the device that should execute the command
+     * @param commandType the command type, e.g. SET_LED_COLOR or REFRESH_CONFIG
+     * @param parameters optional command parameters
+     * @param ttl how long the command stays deliverable; null for the default, zero for no expiry
+     * @return the saved command
+     */
+    @Transactional
+    public DeviceCommand enqueue(String deviceKey, String commandType, String parameters, Duration ttl) {
+        Duration effectiveTtl = ttl != null ? ttl : defaultTtl;
+        DeviceCommand command = new DeviceCommand();
+        command.setDeviceKey(deviceKey);
+        command.setCommandType(commandType);
+        command.setParameters(parameters);
+        command.setExecuted(false);
+        if (effectiveTtl.isPositive()) {
+            command.setExpiresAt(LocalDateTime.now().plus(effectiveTtl));
+        }
+        DeviceCommand saved = deviceCommandRepository.save(command);
+        PendingCommand pending = toPending(saved);
+        afterCommit(() -> {
+            add(deviceKey, pending);
+            signal(deviceKey);
+            if (DISPLAY_MESSAGE.equals(commandType)) {
+                devicePresenceRegistry.recordAdminMessage(deviceKey, parameters, saved.getCreatedAt());
+            }
+            publishChange(deviceKey, "queued", List.of(saved.getId()));
+        });
+        return saved;
+    }
+
+    /**
+     * Queues a command for a device unless it already has an unexecuted, unexpired
+     * command of the same type that has not been delivered yet, in which case the
+     * parameters are merged into that command and its expiry is renewed instead of
+     * inserting another row.
+     * <p>
+     * Meant for idempotent commands such as REFRESH_CONFIG, where executing the
+     * command once covers every request made while it was pending. A command the
+     * device has already fetched is never changed, since the device would
+     * acknowledge it without having seen the merged parameters; a new command is
+     * queued instead. While parameters are merged the command is held back from
+     * polls, and it is delivered with the merged parameters once they commit.
+     * <p>
+     * Coalesced enqueues for the same device and command type are serialized until
+     * their transaction completes, so two of them never both insert a command.
+     *
+     * @param deviceKey the device that should execute the command
+     * @param commandType the command type, e.g. REFRESH_CONFIG
+     * @param parameters optional command parameters
+     * @return the merged or newly saved command
+     */
+    @Transactional
+    public DeviceCommand enqueueCoalesced(String deviceKey, String commandType, String parameters) {
+        ReentrantLock lock = coalesceLocks.computeIfAbsent(deviceKey + '\n' + commandType, key -> new ReentrantLock());
+        lock.lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                return coalesce(deviceKey, commandType, parameters);
+            } finally {
+                lock.unlock();
+            }
+        }
+        afterCompletion(committed -> lock.unlock());
+        return coalesce(deviceKey, commandType, parameters);
+    }
+
+    /**
+     * Merges parameters into the newest undelivered command of a type, or queues
+     * a new command if there is none.
+     *
+     * @param deviceKey the device that should execute the command
+     * @param commandType the command type
+     * @param parameters optional command parameters
+     * @return the merged or newly saved command
+     */
+    private DeviceCommand coalesce(String deviceKey, String commandType, String parameters) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<DeviceCommand> existing = deviceCommandRepository
+                .findFirstByDeviceKeyAndCommandTypeAndExecutedFalseOrderByCreatedAtDesc(deviceKey, commandType)
+                .filter(command -> command.getExpiresAt() == null || command.getExpiresAt().isAfter(now))
+                .filter(command -> handouts.putIfAbsent(command.getId(), Handout.MERGING) == null);
+        if (existing.isEmpty()) {
+            return enqueue(deviceKey, commandType, parameters, null);
+        }
+
+        DeviceCommand command = existing.get();
+        Long id = command.getId();
+        command.setParameters(mergeParameters(command.getParameters(), parameters));
+        if (command.getExpiresAt() != null && defaultTtl.isPositive()) {
+            command.setExpiresAt(now.plus(defaultTtl));
+        }
+        PendingCommand pending = toPending(command);
+        afterCompletion(committed -> {
+            if (committed) {
+                add(deviceKey, pending);
+            }
+            handouts.remove(id, Handout.MERGING);
+            if (committed) {
+                signal(deviceKey);
+                publishChange(deviceKey, "updated", List.of(id));
+            }
+        });
+        return command;
+    }
+
+    /**
+     * Marks a command as executed and removes it from the device's pending queue
+     * once the acknowledgement is committed.
+     *
+     * @param deviceKey the device acknowledging the command
+     * @param id the command ID
+     * @return true if the command exists for the device, false otherwise
+     */
+    @Transactional
+    public boolean acknowledge(String deviceKey, Long id) {
+        return deviceCommandRepository.findByIdAndDeviceKey(id, deviceKey)
+                .map(command -> {
+                    command.setExecuted(true);
+                    command.setExecutedAt(LocalDateTime.now());
+                    deviceCommandRepository.save(command);
+                    afterCommit(() -> {
+                        remove(deviceKey, List.of(id));
+                        publishChange(deviceKey, "acknowledged", List.of(id));
+                    });
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    /**
+     * Marks several commands of a device as executed with a single update
+     * statement and removes them from the pending queue once committed.
+     * <p>
+     * IDs that do not belong to the device or are already executed are ignored.
+     *
+     * @param deviceKey the device acknowledging the commands
+     * @param ids the command IDs
+     * @return number of commands newly marked as executed
+     */
+    @Transactional
+    public int acknowledgeAll(String deviceKey, Collection<Long> ids) {
+        int updated = deviceCommandRepository.markExecuted(deviceKey, ids, LocalDateTime.now());
+        List<Long> acknowledged = List.copyOf(ids);
+        afterCommit(() -> {
+            remove(deviceKey, acknowledged);
+            if (updated > 0) {
+                publishChange(deviceKey, "acknowledged", acknowledged);
+            }
+        });
+        return updated;
+    }
+
+    /**
+     * Deletes unexecuted commands whose expiry has passed, in one statement, and
+     * drops them from the pending queues once committed.
+     *
+     * @return number of commands deleted
+     */
+    @Scheduled(fixedDelayString = "${ecoguard.commands.purge-interval-ms:60000}",
+               initialDelayString = "${ecoguard.commands.purge-interval-ms:60000}")
+    @Transactional
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = deviceCommandRepository.deleteExpired(now);
+        afterCommit(() -> removeExpired(now));
+        if (deleted > 0) {
+            logger.info("Purged {} expired device commands", deleted);
+        }
+        return deleted;
+    }
+
+    /**
+     * Retrieves the pending, unexpired commands for a device from memory, oldest
+     * first, and marks them as delivered.
+     * <p>
+     * Commands whose parameters are being merged are left out until the merge
+     * completes.
+     *
+     * @param deviceKey the device key to look up
+     * @return pending commands for the device
+     */
+    public List<DeviceCommandResponse> getPending(String deviceKey) {
+        if (!loaded) {
+            reload();
+        }
+        NavigableMap<Long, PendingCommand> queue = queues.get(deviceKey);
+        if (queue == null) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<DeviceCommandResponse> pending = new ArrayList<>();
+        for (PendingCommand command : queue.values()) {
+            if (!command.isExpired(now)
+                    && handouts.putIfAbsent(command.command().getId(), Handout.DELIVERED) != Handout.MERGING) {
+                pending.add(command.command());
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Waits for pending commands for a device.
+     * <p>
+     * Completes immediately if the device already has pending commands or
+     * {@code waitSeconds} is zero. Otherwise the result is completed by the next
+     * {@link #enqueue(String, String, String)} for the device, or with an empty
+     * list after {@code waitSeconds} (capped at {@value #MAX_WAIT_SECONDS}).
+     *
+     * @param deviceKey the device key to wait for
+     * @param waitSeconds how long to wait for a command, in seconds
+     * @return a result completed with the pending commands
+     */
+    public DeferredResult<List<DeviceCommandResponse>> awaitPending(String deviceKey, int waitSeconds) {
+        long timeoutMillis = Math.max(1, Math.min(waitSeconds, MAX_WAIT_SECONDS)) * 1000L;
+        DeferredResult<List<DeviceCommandResponse>> result = new DeferredResult<>(timeoutMillis, List.of());
+        if (waitSeconds <= 0) {
+            result.setResult(getPending(deviceKey));
+            return result;
+        }
+
+        // Register before reading the queue so a command enqueued in between still wakes this poll.
+        Set<DeferredResult<List<DeviceCommandResponse>>> deviceWaiters =
+                waiters.computeIfAbsent(deviceKey, key -> ConcurrentHashMap.newKeySet());
+        deviceWaiters.add(result);
+        result.onCompletion(() -> removeWaiter(deviceKey, result));
+
+        List<DeviceCommandResponse> pending = getPending(deviceKey);
+        if (!pending.isEmpty()) {
+            result.setResult(pending);
+        }
+        return result;
+    }
+
+    /**
+     * Registers a listener called with the device's pending commands every time a
+     * command is enqueued for it, until it is removed.
+     *
+     * @param deviceKey the device to listen for
+     * @param listener the listener; must not block, it runs in the enqueueing
+     *                 transaction's after-commit callback
+     */
+    public void addListener(String deviceKey, Consumer<List<DeviceCommandResponse>> listener) {
+        listeners.computeIfAbsent(deviceKey, key -> ConcurrentHashMap.newKeySet()).add(listener);
+    }
+
+    /**
+     * Removes a listener registered with {@link #addListener(String, Consumer)}.
+     *
+     * @param deviceKey the device the listener was registered for
+     * @param listener the listener to remove
+     */
+    public void removeListener(String deviceKey, Consumer<List<DeviceCommandResponse>> listener) {
+        listeners.computeIfPresent(deviceKey, (key, deviceListeners) -> {
+            deviceListeners.remove(listener);
+            return deviceListeners.isEmpty() ? null : deviceListeners;
+        });
+    }
+
+    /**
+     * Seeds the pending queues once startup has completed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Rebuilds the pending queues from the unexecuted rows in the database.
+     * <p>
+     * Holds the queue lock while reading, so commits applied concurrently are
+     * replayed on top of the loaded rows rather than overwritten by them. Whether
+     * a loaded command already reached its device is unknown, so it is treated as
+     * delivered and never merged into.
+     */
+    public synchronized void reload() {
+        Map<String, NavigableMap<Long, PendingCommand>> loadedQueues = new ConcurrentHashMap<>();
+        Set<Long> loadedIds = new HashSet<>();
+        for (DeviceCommand command : deviceCommandRepository.findByExecutedFalseOrderByCreatedAtAsc()) {
+            loadedQueues.computeIfAbsent(command.getDeviceKey(), key -> new ConcurrentSkipListMap<>())
+                    .put(command.getId(), toPending(command));
+            loadedIds.add(command.getId());
+        }
+        queues.keySet().retainAll(loadedQueues.keySet());
+        queues.putAll(loadedQueues);
+        handouts.keySet().retainAll(loadedIds);
+        loadedIds.forEach(id -> handouts.putIfAbsent(id, Handout.DELIVERED));
+        loaded = true;
+    }
+
+    /**
+     * Returns the number of polls currently waiting for commands.
+     *
+     * @return number of parked polls across all devices
+     */
+    public int getWaitingCount() {
+        return waiters.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * Runs an action after the current transaction commits, or immediately when
+     * there is no transaction.
+     *
+     * @param action the action to run
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Runs an action once the current transaction has completed, or immediately
+     * when there is no transaction.
+     *
+     * @param action the action to run, called with true if the transaction committed
+     */
+    private void afterCompletion(Consumer<Boolean> action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.accept(status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            action.accept(true);
+        }
+    }
+
+    /**
+     * Tells admin stream clients that commands of a device changed, so command
+     * lists refresh only when something happened.
+     *
+     * @param deviceKey the device the commands are for
+     * @param action what happened: queued, updated or acknowledged
+     * @param ids the affected command IDs
+     */
+    private void publishChange(String deviceKey, String action, List<Long> ids) {
+        liveEventBroadcaster.publish("command", Map.of(
+                "deviceKey", deviceKey,
+                "action", action,
+                "ids", ids
+        ), true);
+    }
+
+    /**
+     * Adds a committed command to its device's pending queue, loading the queues
+     * first if they have not been seeded yet.
+     *
+     * @param deviceKey the device the command is for
+     * @param pending the committed command
+     */
+    private synchronized void add(String deviceKey, PendingCommand pending) {
+        if (!loaded) {
+            reload();
+        }
+        queues.computeIfAbsent(deviceKey, key -> new ConcurrentSkipListMap<>()).put(pending.command().getId(), pending);
+    }
+
+    /**
+     * Removes acknowledged commands from their device's pending queue.
+     *
+     * @param deviceKey the device the commands are for
+     * @param ids the acknowledged command IDs
+     */
+    private synchronized void remove(String deviceKey, Collection<Long> ids) {
+        if (!loaded) {
+            reload();
+        }
+        queues.computeIfPresent(deviceKey, (key, queue) -> {
+            ids.forEach(queue::remove);
+            return queue.isEmpty() ? null : queue;
+        });
+        handouts.keySet().removeAll(ids);
+    }
+
+    /**
+     * Removes commands that expired before the given time from all pending queues.
+     *
+     * @param now the purge time
+     */
+    private synchronized void removeExpired(LocalDateTime now) {
+        queues.values().forEach(queue -> queue.values().removeIf(pending -> {
+            if (pending.isExpired(now)) {
+                handouts.remove(pending.command().getId());
+                return true;
+            }
+            return false;
+        }));
+        queues.values().removeIf(Map::isEmpty);
+    }
+
+    /**
+     * Completes every poll waiting for a device with its pending commands and
+     * hands them to the device's listeners.
+     *
+     * @param deviceKey the device a command was enqueued for
+     */
+    private void signal(String deviceKey) {
+        Set<DeferredResult<List<DeviceCommandResponse>>> deviceWaiters = waiters.remove(deviceKey);
+        Set<Consumer<List<DeviceCommandResponse>>> deviceListeners = listeners.get(deviceKey);
+        boolean noWaiters = deviceWaiters == null || deviceWaiters.isEmpty();
+        if (noWaiters && (deviceListeners == null || deviceListeners.isEmpty())) {
+            return;
+        }
+        List<DeviceCommandResponse> pending = getPending(deviceKey);
+        if (!noWaiters) {
+            for (DeferredResult<List<DeviceCommandResponse>> waiter : deviceWaiters) {
+                waiter.setResult(pending);
+            }
+        }
+        if (deviceListeners != null) {
+            for (Consumer<List<DeviceCommandResponse>> listener : deviceListeners) {
+                try {
+                    listener.accept(pending);
+                } catch (RuntimeException e) {
+                    logger.warn("Command listener for device {} failed", deviceKey, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets a completed or expired poll.
+     *
+     * @param deviceKey the device the poll was waiting for
+     * @param result the completed poll
+     */
+    private void removeWaiter(String deviceKey, DeferredResult<List<DeviceCommandResponse>> result) {
+        waiters.computeIfPresent(deviceKey, (key, deviceWaiters) -> {
+            deviceWaiters.remove(result);
+            return deviceWaiters.isEmpty() ? null : deviceWaiters;
+        });
+    }
+
+    /**
+     * Merges the parameters of a coalesced command into those of the pending one.
+     * <p>
+     * Parameters of the form {@code key:value} with the same key are combined into
+     * {@code key:value1,value2}; other parameters are joined with {@code ;}. Values
+     * already present are not repeated. If the result would not fit the parameters
+     * column the pending parameters are kept unchanged.
+     *
+     * @param current parameters of the pending command, may be null
+     * @param added parameters of the coalesced command, may be null
+     * @return the merged parameters
+     */
+    static String mergeParameters(String current, String added) {
+        if (current == null || current.isEmpty()) {
+            return added;
+        }
+        if (added == null || added.isEmpty()) {
+            return current;
+        }
+        int separator = added.indexOf(':');
+        String merged;
+        if (separator > 0 && current.startsWith(added.substring(0, separator + 1))) {
+            String prefix = added.substring(0, separator + 1);
+            List<String> values = new ArrayList<>(List.of(current.substring(prefix.length()).split(",")));
+            for (String value : added.substring(prefix.length()).split(",")) {
+                if (!values.contains(value)) {
+                    values.add(value);
+                }
+            }
+            merged = prefix + String.join(",", values);
+        } else if (List.of(current.split(";")).contains(added)) {
+            merged = current;
+        } else {
+            merged = current + ";" + added;
+        }
+        return merged.length() <= MAX_PARAMETERS_LENGTH ? merged : current;
+    }
+
+    /**
+     * Maps a pending command to its queue entry in the device response format.
+     *
+     * @param command the pending command
+     * @return the queue entry for the command
+     */
+    private static PendingCommand toPending(DeviceCommand command) {
+        DeviceCommandResponse response = new DeviceCommandResponse();
+        response.setId(command.getId());
+        response.setCommandType(command.getCommandType());
+        response.setParameters(command.getParameters());
+        return new PendingCommand(response, command.getExpiresAt());
+    }
+}
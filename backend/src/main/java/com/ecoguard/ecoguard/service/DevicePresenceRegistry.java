@@ -0,0 +1,410 @@
+package com.ecoguard.ecoguard.service;
+
+import com.ecoguard.ecoguard.dto.AlertSummary;
+import com.ecoguard.ecoguard.dto.DeviceCommandSummary;
+import com.ecoguard.ecoguard.dto.DeviceStatusResponse;
+import com.ecoguard.ecoguard.dto.SensorDataPayload;
+import com.ecoguard.ecoguard.entity.Alert;
+import com.ecoguard.ecoguard.entity.AlertType;
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.repository.AlertRepository;
+import com.ecoguard.ecoguard.repository.DeviceCommandRepository;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory registry of device presence for the admin status view.
+ * <p>
+ * Tracks, per device key, when the device was last seen, its latest reading and
+ * the last admin message sent to it, plus the latest alert. It is updated by the
+ * ingest, command-poll and command paths and seeded from the database at startup,
+ * so status requests never query the database. Every update keeps whichever value
+ * is newer, so updates arriving during seeding or out of order (e.g. replayed
+ * batches) never replace fresher state.
+ * <p>
+ * Whenever a device comes online, goes offline or is sent an admin message, its
+ * new status is pushed to admin clients of the live event stream as a
+ * {@code device-status} event.
+ * <p>
+ * Readings are not stored per device, so the latest stored reading is attributed
+ * to {@link #DEFAULT_DEVICE_KEY} when seeding.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+@Service
+public class DevicePresenceRegistry {
+
+    /**
+     * Device key of the single device the backend was originally built for.
+     */
+    public static final String DEFAULT_DEVICE_KEY = "demo-device-key";
+
+    /**
+     * Time threshold in seconds for determining if a device is online.
+     * A device is considered online if it contacted the backend within this window.
+     */
+    public static final long ONLINE_THRESHOLD_SECONDS = 20;
+
+    private final SensorDataRepository sensorDataRepository;
+    private final AlertRepository alertRepository;
+    private final DeviceCommandRepository deviceCommandRepository;
+    private final LiveEventBroadcaster liveEventBroadcaster;
+
+    private final Map<String, Presence> devices = new ConcurrentHashMap<>();
+    private final AtomicReference<LatestAlert> latestAlert = new AtomicReference<>();
+    private final Set<String> online = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Presence of one device at one point in time.
+     *
+     * @param deviceKey the device key
+     * @param lastSeenAt last time the device sent a reading or polled, or null if never
+     * @param lastReadingTime timestamp of the latest reading, or null if none
+     * @param temperature latest temperature reading
+     * @param humidity latest humidity reading
+     * @param co2 latest CO2 reading
+     * @param lightLevel latest light reading
+     * @param lastAdminMessage text of the last DISPLAY_MESSAGE command, or null
+     * @param lastAdminMessageAt time the last DISPLAY_MESSAGE command was sent, or null
+     */
+    public record Presence(String deviceKey, LocalDateTime lastSeenAt,
+                           LocalDateTime lastReadingTime, BigDecimal temperature, BigDecimal humidity,
+                           Integer co2, Integer lightLevel,
+                           String lastAdminMessage, LocalDateTime lastAdminMessageAt) {
+
+        /**
+         * Creates the presence of a device nothing is known about yet.
+         *
+         * @param deviceKey the device key
+         * @return an empty presence
+         */
+        static Presence empty(String deviceKey) {
+            return new Presence(deviceKey, null, null, null, null, null, null, null, null);
+        }
+
+        /**
+         * Returns a copy last seen at the later of the current and the given time.
+         *
+         * @param seenAt the time the device was seen
+         * @return the updated presence
+         */
+        Presence seen(LocalDateTime seenAt) {
+            if (!isAfter(seenAt, lastSeenAt)) {
+                return this;
+            }
+            return new Presence(deviceKey, seenAt, lastReadingTime, temperature, humidity,
+                    co2, lightLevel, lastAdminMessage, lastAdminMessageAt);
+        }
+
+        /**
+         * Returns a copy holding the given reading if it is newer than the current one.
+         *
+         * @param time the reading timestamp
+         * @param newTemperature the temperature
+         * @param newHumidity the humidity
+         * @param newCo2 the CO2 level
+         * @param newLightLevel the light level
+         * @return the updated presence
+         */
+        Presence withReading(LocalDateTime time, BigDecimal newTemperature, BigDecimal newHumidity,
+                             Integer newCo2, Integer newLightLevel) {
+            if (!isAfter(time, lastReadingTime)) {
+                return this;
+            }
+            return new Presence(deviceKey, lastSeenAt, time, newTemperature, newHumidity,
+                    newCo2, newLightLevel, lastAdminMessage, lastAdminMessageAt);
+        }
+
+        /**
+         * Returns a copy holding the given admin message if it is newer than the current one.
+         *
+         * @param message the message text
+         * @param sentAt the time the message was sent
+         * @return the updated presence
+         */
+        Presence withAdminMessage(String message, LocalDateTime sentAt) {
+            if (!isAfter(sentAt, lastAdminMessageAt)) {
+                return this;
+            }
+            return new Presence(deviceKey, lastSeenAt, lastReadingTime, temperature, humidity,
+                    co2, lightLevel, message, sentAt);
+        }
+    }
+
+    /**
+     * The most recent alert.
+     *
+     * @param timestamp time the alert was generated
+     * @param alertType type of the alert
+     */
+    public record LatestAlert(LocalDateTime timestamp, AlertType alertType) {}
+
+    /**
+     * Constructs a new DevicePresenceRegistry with required dependencies.
+     *
+     * @param sensorDataRepository repository the latest reading is seeded from
+     * @param alertRepository repository the latest alert is seeded from
+     * @param deviceCommandRepository repository the last admin message is seeded from
+     * @param liveEventBroadcaster broadcaster status changes are pushed through
+     */
+    public DevicePresenceRegistry(SensorDataRepository sensorDataRepository,
+                                  AlertRepository alertRepository,
+                                  DeviceCommandRepository deviceCommandRepository,
+                                  LiveEventBroadcaster liveEventBroadcaster) {
+        this.sensorDataRepository = sensorDataRepository;
+        this.alertRepository = alertRepository;
+        this.deviceCommandRepository = deviceCommandRepository;
+        this.liveEventBroadcaster = liveEventBroadcaster;
+    }
+
+    /**
+     * Seeds the registry from the database once startup has completed.
+     * <p>
+     * The latest stored reading also counts as the last time its device was seen.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Optional<SensorData> reading = sensorDataRepository.findTopByOrderByTimestampDesc();
+        reading.filter(data -> data.getTimestamp() != null).ifPresent(data -> update(DEFAULT_DEVICE_KEY, presence -> presence
+                .seen(data.getTimestamp())
+                .withReading(data.getTimestamp(), data.getTemperature(), data.getHumidity(),
+                        data.getCo2Level(), data.getLightLevel())));
+        alertRepository.findTopByOrderByTimestampDesc(AlertSummary.class)
+                .ifPresent(alert -> recordAlert(alert.getTimestamp(), alert.getAlertType()));
+        deviceCommandRepository
+                .findTopByCommandTypeOrderByCommandTypeDescCreatedAtDesc("DISPLAY_MESSAGE", DeviceCommandSummary.class)
+                .ifPresent(message -> update(message.getDeviceKey(),
+                        presence -> presence.withAdminMessage(message.getParameters(), message.getCreatedAt())));
+    }
+
+    /**
+     * Records that a device contacted the backend.
+     *
+     * @param deviceKey the device key
+     */
+    public void recordSeen(String deviceKey) {
+        LocalDateTime now = LocalDateTime.now();
+        update(deviceKey, presence -> presence.seen(now));
+        markOnline(deviceKey);
+    }
+
+    /**
+     * Records readings received from a device and marks it as seen.
+     * <p>
+     * Only the newest reading is kept; readings without a timestamp are taken as
+     * received now.
+     *
+     * @param deviceKey the device key
+     * @param payloads the readings, in any order
+     */
+    public void recordReadings(String deviceKey, Collection<SensorDataPayload> payloads) {
+        LocalDateTime now = LocalDateTime.now();
+        update(deviceKey, presence -> {
+            Presence updated = presence.seen(now);
+            for (SensorDataPayload payload : payloads) {
+                LocalDateTime time = payload.getTimestamp() != null ? payload.getTimestamp() : now;
+                updated = updated.withReading(time, payload.getTemperature(), payload.getHumidity(),
+                        payload.getCo2Level(), payload.getLightLevel());
+            }
+            return updated;
+        });
+        markOnline(deviceKey);
+    }
+
+    /**
+     * Records newly created alerts once the current transaction commits.
+     *
+     * @param alerts the created alerts
+     */
+    public void recordAlerts(List<Alert> alerts) {
+        if (alerts.isEmpty()) {
+            return;
+        }
+        Runnable record = () -> alerts.forEach(alert -> recordAlert(alert.getTimestamp(), alert.getAlertType()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record.run();
+                }
+            });
+        } else {
+            record.run();
+        }
+    }
+
+    /**
+     * Records a DISPLAY_MESSAGE command sent to a device.
+     *
+     * @param deviceKey the device key
+     * @param message the message text
+     * @param sentAt the time the message was sent
+     */
+    public void recordAdminMessage(String deviceKey, String message, LocalDateTime sentAt) {
+        update(deviceKey, presence -> presence.withAdminMessage(message, sentAt));
+        publishStatus(deviceKey);
+    }
+
+    /**
+     * Returns the presence of a device.
+     *
+     * @param deviceKey the device key
+     * @return the presence, empty if the device has never been seen
+     */
+    public Presence getPresence(String deviceKey) {
+        return devices.getOrDefault(deviceKey, Presence.empty(deviceKey));
+    }
+
+    /**
+     * Builds the status of a device for the admin panel.
+     * <p>
+     * The device is considered online if it sent a reading or polled for commands
+     * within {@value #ONLINE_THRESHOLD_SECONDS} seconds.
+     *
+     * @param deviceKey the device key
+     * @return the device status
+     */
+    public DeviceStatusResponse getStatus(String deviceKey) {
+        Presence presence = getPresence(deviceKey);
+        Optional<LatestAlert> alert = getLatestAlert();
+        boolean isOnline = false;
+        Long secondsSinceLastSeen = null;
+        if (presence.lastSeenAt() != null) {
+            secondsSinceLastSeen = Math.max(0, Duration.between(presence.lastSeenAt(), LocalDateTime.now()).getSeconds());
+            isOnline = secondsSinceLastSeen <= ONLINE_THRESHOLD_SECONDS;
+        }
+        return new DeviceStatusResponse(
+                deviceKey,
+                presence.lastReadingTime(),
+                presence.temperature(),
+                presence.humidity(),
+                presence.co2(),
+                presence.lightLevel(),
+                alert.map(LatestAlert::timestamp).orElse(null),
+                alert.map(LatestAlert::alertType).map(Enum::name).orElse(null),
+                presence.lastAdminMessage(),
+                isOnline,
+                secondsSinceLastSeen
+        );
+    }
+
+    /**
+     * Marks devices that have not been seen within the online threshold as
+     * offline and pushes their new status.
+     */
+    @Scheduled(fixedDelayString = "${ecoguard.stream.status-check-interval-ms:5000}",
+               initialDelayString = "${ecoguard.stream.status-check-interval-ms:5000}")
+    public void checkOnline() {
+        checkOnline(LocalDateTime.now());
+    }
+
+    /**
+     * Marks devices not seen within the online threshold before the given time as
+     * offline and pushes their new status.
+     *
+     * @param now the time to check against
+     */
+    void checkOnline(LocalDateTime now) {
+        LocalDateTime cutoff = now.minusSeconds(ONLINE_THRESHOLD_SECONDS);
+        for (String deviceKey : online) {
+            LocalDateTime lastSeenAt = getPresence(deviceKey).lastSeenAt();
+            if ((lastSeenAt == null || lastSeenAt.isBefore(cutoff)) && online.remove(deviceKey)) {
+                publishStatus(deviceKey);
+            }
+        }
+    }
+
+    /**
+     * Returns the keys of all devices the registry knows about.
+     *
+     * @return known device keys
+     */
+    public List<String> getDeviceKeys() {
+        return List.copyOf(devices.keySet());
+    }
+
+    /**
+     * Returns the most recent alert.
+     *
+     * @return Optional containing the latest alert, or empty if there is none
+     */
+    public Optional<LatestAlert> getLatestAlert() {
+        return Optional.ofNullable(latestAlert.get());
+    }
+
+    /**
+     * Keeps an alert if it is newer than the current latest alert.
+     *
+     * @param timestamp time the alert was generated
+     * @param alertType type of the alert
+     */
+    private void recordAlert(LocalDateTime timestamp, AlertType alertType) {
+        LatestAlert candidate = new LatestAlert(timestamp, alertType);
+        latestAlert.accumulateAndGet(candidate, (current, next) ->
+                current == null || isAfter(next.timestamp(), current.timestamp()) ? next : current);
+    }
+
+    /**
+     * Pushes the status of a device that was just seen if it was offline before.
+     *
+     * @param deviceKey the device key
+     */
+    private void markOnline(String deviceKey) {
+        if (deviceKey != null && online.add(deviceKey)) {
+            publishStatus(deviceKey);
+        }
+    }
+
+    /**
+     * Pushes the current status of a device to admin stream clients.
+     *
+     * @param deviceKey the device key
+     */
+    private void publishStatus(String deviceKey) {
+        if (deviceKey != null) {
+            liveEventBroadcaster.publish("device-status", getStatus(deviceKey), true);
+        }
+    }
+
+    /**
+     * Atomically applies an update to the presence of a device.
+     *
+     * @param deviceKey the device key
+     * @param change function deriving the new presence from the current one
+     */
+    private void update(String deviceKey, UnaryOperator<Presence> change) {
+        if (deviceKey == null) {
+            return;
+        }
+        devices.compute(deviceKey, (key, current) -> change.apply(current != null ? current : Presence.empty(key)));
+    }
+
+    /**
+     * Checks whether a time is set and later than another, possibly unset, time.
+     *
+     * @param candidate the new time
+     * @param current the current time, or null
+     * @return true if {@code candidate} should replace {@code current}
+     */
+    private static boolean isAfter(LocalDateTime candidate, LocalDateTime current) {
+        return candidate != null && (current == null || candidate.isAfter(current));
+    }
+}
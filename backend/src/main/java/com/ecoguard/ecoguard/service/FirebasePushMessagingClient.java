@@ -0,0 +1,70 @@
+package com.ecoguard.ecoguard.service;
+
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.MulticastMessage;
+import com.google.firebase.messaging.Notification;
+import com.google.firebase.messaging.SendResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link PushMessagingClient} backed by the Firebase Admin SDK.
+ * <p>
+ * Sends each chunk of tokens with a single {@code sendEachForMulticast} call and
+ * maps Firebase's per-token responses to {@link PushMessagingClient.Delivery} values.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+@Component
+public class FirebasePushMessagingClient implements PushMessagingClient {
+
+    /**
+     * Sends the notification to all tokens with {@code sendEachForMulticast}.
+     *
+     * @param tokens device tokens to deliver to, at most 500
+     * @param title notification title
+     * @param body notification body
+     * @return one delivery outcome per token, in the same order as the tokens
+     * @throws FirebaseMessagingException if the request as a whole fails
+     */
+    @Override
+    public List<Delivery> sendEach(List<String> tokens, String title, String body) throws FirebaseMessagingException {
+        MulticastMessage message = MulticastMessage.builder()
+                .addAllTokens(tokens)
+                .setNotification(Notification.builder()
+                        .setTitle(title)
+                        .setBody(body)
+                        .build())
+                .build();
+
+        BatchResponse response = FirebaseMessaging.getInstance().sendEachForMulticast(message);
+        List<Delivery> deliveries = new ArrayList<>(tokens.size());
+        for (SendResponse sendResponse : response.getResponses()) {
+            deliveries.add(toDelivery(sendResponse));
+        }
+        return deliveries;
+    }
+
+    /**
+     * Maps a Firebase per-token response to a delivery outcome.
+     *
+     * @param response the response for one token
+     * @return the delivery outcome
+     */
+    private static Delivery toDelivery(SendResponse response) {
+        if (response.isSuccessful()) {
+            return Delivery.SENT;
+        }
+        FirebaseMessagingException exception = response.getException();
+        if (exception != null && exception.getMessagingErrorCode() == MessagingErrorCode.UNREGISTERED) {
+            return Delivery.UNREGISTERED;
+        }
+        return Delivery.FAILED;
+    }
+}
@@ -0,0 +1,279 @@
+package com.ecoguard.ecoguard.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes live events to dashboards over Server-Sent Events.
+ * <p>
+ * Each subscriber holds an {@link SseEmitter}, so an idle connection is an async
+ * servlet request that occupies no thread. Events are serialized to JSON once and
+ * appended to a small bounded queue per client; a virtual thread drains a client's
+ * queue only while it has events, so a client whose socket stops accepting data
+ * blocks nothing but its own drain. A client whose queue overflows is a slow
+ * consumer and is disconnected; it reconnects and resynchronizes from the REST
+ * endpoints. A heartbeat comment keeps idle connections from being closed by
+ * proxies and detects clients that have gone away.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+@Service
+public class LiveEventBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveEventBroadcaster.class);
+
+    /**
+     * Reconnect delay suggested to clients, in milliseconds.
+     */
+    private static final long RECONNECT_MILLIS = 5000;
+
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final int clientBufferSize;
+    private final int maxClients;
+    private final Executor senders;
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final Set<ResponseBodyEmitter.DataWithMediaType> heartbeat =
+            SseEmitter.event().comment("heartbeat").build();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * Snapshot of broadcaster metrics.
+     *
+     * @param clients currently connected clients
+     * @param published events published since startup
+     * @param evicted clients disconnected for falling behind since startup
+     */
+    public record Stats(int clients, long published, long evicted) {}
+
+    /**
+     * Constructs a new LiveEventBroadcaster with required dependencies.
+     *
+     * @param objectMapper mapper used to serialize event payloads
+     * @param timeoutMillis how long a stream stays open before the client has to reconnect
+     * @param clientBufferSize events that may be waiting for one client before it is evicted
+     * @param maxClients maximum number of concurrently connected clients
+     */
+    @Autowired
+    public LiveEventBroadcaster(ObjectMapper objectMapper,
+                                @Value("${ecoguard.stream.timeout-ms:1800000}") long timeoutMillis,
+                                @Value("${ecoguard.stream.client-buffer-size:256}") int clientBufferSize,
+                                @Value("${ecoguard.stream.max-clients:10000}") int maxClients) {
+        this(objectMapper, timeoutMillis, clientBufferSize, maxClients, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Constructs a new LiveEventBroadcaster writing to clients on the given executor.
+     *
+     * @param objectMapper mapper used to serialize event payloads
+     * @param timeoutMillis how long a stream stays open before the client has to reconnect
+     * @param clientBufferSize events that may be waiting for one client before it is evicted
+     * @param maxClients maximum number of concurrently connected clients
+     * @param senders executor running the per-client senders
+     */
+    LiveEventBroadcaster(ObjectMapper objectMapper, long timeoutMillis, int clientBufferSize, int maxClients,
+                         Executor senders) {
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeoutMillis;
+        this.clientBufferSize = clientBufferSize;
+        this.maxClients = maxClients;
+        this.senders = senders;
+    }
+
+    /**
+     * Opens a stream for a new client.
+     *
+     * @param admin whether the client may receive admin-only events
+     * @return the emitter to return from the controller, or null if the client limit is reached
+     */
+    public SseEmitter subscribe(boolean admin) {
+        if (clients.size() >= maxClients) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Client client = new Client(emitter, admin, new ArrayBlockingQueue<>(clientBufferSize));
+        emitter.onCompletion(() -> clients.remove(client));
+        emitter.onTimeout(() -> disconnect(client));
+        emitter.onError(error -> disconnect(client));
+        clients.add(client);
+        enqueue(client, SseEmitter.event().reconnectTime(RECONNECT_MILLIS).comment("connected").build());
+        return emitter;
+    }
+
+    /**
+     * Publishes an event to every connected client, or only to admin clients,
+     * without waiting for any client.
+     * <p>
+     * The event is published immediately; callers publish from their after-commit
+     * callbacks so clients never see data that was rolled back.
+     *
+     * @param name the SSE event name, e.g. {@code reading} or {@code alert}
+     * @param payload the event payload, serialized as JSON
+     * @param adminOnly whether only admin clients receive the event
+     */
+    public void publish(String name, Object payload, boolean adminOnly) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> event;
+        try {
+            event = SseEmitter.event()
+                    .name(name)
+                    .data(objectMapper.writeValueAsString(payload), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to serialize {} event", name, e);
+            return;
+        }
+        published.increment();
+        for (Client client : clients) {
+            if (!adminOnly || client.admin()) {
+                enqueue(client, event);
+            }
+        }
+    }
+
+    /**
+     * Sends a heartbeat comment to every connected client.
+     * <p>
+     * Writing to a connection the client has dropped fails, which removes the
+     * client; a client too slow to take even heartbeats is evicted.
+     */
+    @Scheduled(fixedDelayString = "${ecoguard.stream.heartbeat-interval-ms:15000}",
+            initialDelayString = "${ecoguard.stream.heartbeat-interval-ms:15000}")
+    public void sendHeartbeat() {
+        for (Client client : clients) {
+            enqueue(client, heartbeat);
+        }
+    }
+
+    /**
+     * Returns the current broadcaster metrics.
+     *
+     * @return connected clients, published events and evictions
+     */
+    public Stats getStats() {
+        return new Stats(clients.size(), published.sum(), evicted.sum());
+    }
+
+    /**
+     * Closes all streams and stops the sender threads.
+     */
+    @PreDestroy
+    public void stop() {
+        clients.forEach(client -> client.emitter().complete());
+        clients.clear();
+        if (senders instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues an event for a client and makes sure a sender is draining its queue.
+     * Evicts the client if its queue is full.
+     *
+     * @param client the client
+     * @param event the serialized event
+     */
+    private void enqueue(Client client, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        if (!client.queue().offer(event)) {
+            evicted.increment();
+            logger.info("Evicting slow stream client after {} undelivered events", clientBufferSize);
+            disconnect(client);
+            return;
+        }
+        scheduleDrain(client);
+    }
+
+    /**
+     * Starts a sender for a client unless one is already running.
+     *
+     * @param client the client
+     */
+    private void scheduleDrain(Client client) {
+        if (!client.draining().compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> drain(client));
+        } catch (RejectedExecutionException e) {
+            client.draining().set(false);
+        }
+    }
+
+    /**
+     * Writes queued events to a client until its queue is empty.
+     *
+     * @param client the client
+     */
+    private void drain(Client client) {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> event;
+            while ((event = client.queue().poll()) != null) {
+                client.emitter().send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            disconnect(client);
+            return;
+        } finally {
+            client.draining().set(false);
+        }
+        if (!client.queue().isEmpty()) {
+            scheduleDrain(client);
+        }
+    }
+
+    /**
+     * Removes a client and closes its stream.
+     *
+     * @param client the client
+     */
+    private void disconnect(Client client) {
+        if (clients.remove(client)) {
+            client.queue().clear();
+            client.emitter().complete();
+        }
+    }
+
+    /**
+     * A connected stream.
+     *
+     * @param emitter the emitter writing to the client's response
+     * @param admin whether the client receives admin-only events
+     * @param queue events waiting to be written to the client
+     * @param draining whether a sender is currently writing to the client
+     */
+    private record Client(SseEmitter emitter, boolean admin,
+                          BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue,
+                          AtomicBoolean draining) {
+
+        Client(SseEmitter emitter, boolean admin, BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue) {
+            this(emitter, admin, queue, new AtomicBoolean());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecoguard.ecoguard.service;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling.
+ * <p>
+ * Reduces a time series to a fixed number of points while keeping its visual
+ * shape: the first and last points are always kept, and from each intermediate
+ * bucket the point forming the largest triangle with the previously selected
+ * point and the average of the next bucket is chosen.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+final class Lttb {
+
+    private Lttb() {
+    }
+
+    /**
+     * Selects the indices of the points to keep.
+     *
+     * @param x x-coordinates (e.g. epoch millis), in ascending order
+     * @param y y-coordinates
+     * @param size number of valid points in the arrays
+     * @param threshold number of points to keep, at least 3
+     * @return ascending indices of the selected points; all indices if {@code size <= threshold}
+     */
+    static int[] select(long[] x, double[] y, int size, int threshold) {
+        if (size <= threshold || threshold < 3) {
+            int[] all = new int[size];
+            for (int i = 0; i < size; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] selected = new int[threshold];
+        int count = 0;
+        int previous = 0;
+        selected[count++] = previous;
+
+        double every = (double) (size - 2) / (threshold - 2);
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int nextStart = (int) ((bucket + 1) * every) + 1;
+            int nextEnd = Math.min((int) ((bucket + 2) * every) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += x[i];
+                avgY += y[i];
+            }
+            int nextLength = nextEnd - nextStart;
+            avgX /= nextLength;
+            avgY /= nextLength;
+
+            int rangeStart = (int) (bucket * every) + 1;
+            int rangeEnd = (int) ((bucket + 1) * every) + 1;
+            double pointX = x[previous];
+            double pointY = y[previous];
+            double maxArea = -1;
+            int chosen = rangeStart;
+            for (int i = rangeStart; i < rangeEnd; i++) {
+                double area = Math.abs((pointX - avgX) * (y[i] - pointY) - (pointX - x[i]) * (avgY - pointY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+            selected[count++] = chosen;
+            previous = chosen;
+        }
+
+        selected[count] = size - 1;
+        return selected;
+    }
+}
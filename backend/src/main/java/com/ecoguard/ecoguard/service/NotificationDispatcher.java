@@ -0,0 +1,185 @@
+package com.ecoguard.ecoguard.service;
+
+import com.ecoguard.ecoguard.entity.Alert;
+import com.ecoguard.ecoguard.entity.User;
+import com.ecoguard.ecoguard.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dispatches push notifications for alerts off the ingest path.
+ * <p>
+ * Alerts are handed to a bounded executor and {@link #dispatch(Alert)} returns
+ * immediately; recipient lookup and the multicast sends run on dedicated worker
+ * threads. When called inside a transaction, the alert is only dispatched after
+ * the transaction commits. If the backlog is full the notification is dropped and
+ * counted rather than blocking the caller. Queue depth and send latency are
+ * available through {@link #getStats()}.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+@Service
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final UserRepository userRepository;
+    private final PushNotificationService pushNotificationService;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sends = new LongAdder();
+    private final LongAdder sendNanos = new LongAdder();
+    private final AtomicLong maxSendNanos = new AtomicLong();
+
+    /**
+     * Snapshot of dispatcher metrics.
+     *
+     * @param queueDepth alerts waiting for a worker thread
+     * @param sent device tokens a notification was delivered to
+     * @param failed device tokens a notification could not be delivered to
+     * @param dropped alerts dropped because the backlog was full
+     * @param avgSendMillis average time to notify all users about one alert, in milliseconds
+     * @param maxSendMillis highest time to notify all users about one alert, in milliseconds
+     */
+    public record Stats(int queueDepth, long sent, long failed, long dropped,
+                        double avgSendMillis, double maxSendMillis) {}
+
+    /**
+     * Constructs a new NotificationDispatcher with required dependencies.
+     *
+     * @param userRepository repository for looking up notification recipients
+     * @param pushNotificationService service for sending push notifications
+     * @param threads number of worker threads
+     * @param queueCapacity maximum number of alerts waiting for a worker
+     */
+    public NotificationDispatcher(UserRepository userRepository,
+                                  PushNotificationService pushNotificationService,
+                                  @Value("${ecoguard.notifications.threads:2}") int threads,
+                                  @Value("${ecoguard.notifications.queue-capacity:1000}") int queueCapacity) {
+        this.userRepository = userRepository;
+        this.pushNotificationService = pushNotificationService;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "notification-dispatcher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queues push notifications for an alert and returns immediately.
+     *
+     * @param alert the alert that was created
+     */
+    public void dispatch(Alert alert) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(alert);
+                }
+            });
+        } else {
+            submit(alert);
+        }
+    }
+
+    /**
+     * Returns the current dispatcher metrics.
+     *
+     * @return queue depth, send counters and send latency
+     */
+    public Stats getStats() {
+        long count = sends.sum();
+        double avgMillis = count == 0 ? 0 : sendNanos.sum() / (double) count / 1_000_000;
+        return new Stats(executor.getQueue().size(), sent.sum(), failed.sum(), dropped.sum(),
+                avgMillis, maxSendNanos.get() / 1_000_000.0);
+    }
+
+    /**
+     * Stops accepting alerts and waits briefly for queued notifications to be sent.
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hands an alert to the executor, counting it as dropped if the backlog is full.
+     *
+     * @param alert the alert to notify users about
+     */
+    private void submit(Alert alert) {
+        try {
+            executor.execute(() -> notifyUsers(alert));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            logger.warn("Notification backlog full, dropping push for alert {}", alert.getId());
+        }
+    }
+
+    /**
+     * Sends a push notification to all users with a registered device token in
+     * as few multicast requests as possible.
+     *
+     * @param alert the alert that was created
+     */
+    private void notifyUsers(Alert alert) {
+        String title = "EcoGuard Alert: " + alert.getMetricType();
+        String body = "Value " + alert.getValue() + " is outside thresholds.";
+        logger.info("Notifying users about alert: {} | {}", title, body);
+        List<String> tokens = userRepository.findByDeviceTokenIsNotNull().stream()
+                .map(User::getDeviceToken)
+                .toList();
+        if (tokens.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        PushNotificationService.BatchResult result = pushNotificationService.sendToTokens(tokens, title, body);
+        record(System.nanoTime() - start, result);
+    }
+
+    /**
+     * Records the outcome and latency of one fan-out.
+     *
+     * @param elapsedNanos time spent sending to all tokens
+     * @param result delivery counts for the fan-out
+     */
+    private void record(long elapsedNanos, PushNotificationService.BatchResult result) {
+        sends.increment();
+        sendNanos.add(elapsedNanos);
+        maxSendNanos.accumulateAndGet(elapsedNanos, Math::max);
+        sent.add(result.sent());
+        failed.add(result.failed() + result.unregistered());
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecoguard.ecoguard.service;
+
+import java.util.List;
+
+/**
+ * Transport used by {@link PushNotificationService} to deliver one notification
+ * to many device tokens.
+ * <p>
+ * The production implementation is {@link FirebasePushMessagingClient}; tests can
+ * supply a local stub without touching Firebase.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface PushMessagingClient {
+
+    /**
+     * Outcome of delivering a notification to a single device token.
+     */
+    enum Delivery {
+        /** The messaging service accepted the message. */
+        SENT,
+        /** The token is no longer registered and should be discarded. */
+        UNREGISTERED,
+        /** The message could not be delivered for any other reason. */
+        FAILED
+    }
+
+    /**
+     * Sends the same notification to every token in one request.
+     *
+     * @param tokens device tokens to deliver to, at most 500
+     * @param title notification title
+     * @param body notification body
+     * @return one delivery outcome per token, in the same order as the tokens
+     * @throws Exception if the request as a whole could not be sent
+     */
+    List<Delivery> sendEach(List<String> tokens, String title, String body) throws Exception;
+}
@@ -1,49 +1,114 @@
 package com.ecoguard.ecoguard.service;
 
-import com.google.firebase.messaging.FirebaseMessaging;
-import com.google.firebase.messaging.Message;
-import com.google.firebase.messaging.Notification;
+import com.ecoguard.ecoguard.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 /**
- * Thin wrapper around FirebaseMessaging to send push notifications to a device token.
+ * Sends push notifications to device tokens through a {@link PushMessagingClient}.
+ * <p>
+ * Tokens are delivered in chunks of up to {@value #MAX_TOKENS_PER_REQUEST} per request
+ * instead of one round trip per token. Tokens the messaging service reports as
+ * unregistered are cleared from their users so later alerts stop paying for them.
  */
 @Service
 public class PushNotificationService {
 
     private static final Logger logger = LoggerFactory.getLogger(PushNotificationService.class);
 
+    /** Maximum number of tokens Firebase accepts in one multicast request. */
+    static final int MAX_TOKENS_PER_REQUEST = 500;
+
+    private final PushMessagingClient messagingClient;
+    private final UserRepository userRepository;
+
+    /**
+     * Result of sending one notification to many tokens.
+     *
+     * @param sent tokens the notification was delivered to
+     * @param failed tokens the notification could not be delivered to
+     * @param unregistered tokens reported as unregistered and cleared from their users
+     */
+    public record BatchResult(int sent, int failed, int unregistered) {}
+
+    /**
+     * Constructs a new PushNotificationService with required dependencies.
+     *
+     * @param messagingClient client used to deliver notifications
+     * @param userRepository repository used to clear unregistered tokens
+     */
+    public PushNotificationService(PushMessagingClient messagingClient, UserRepository userRepository) {
+        this.messagingClient = messagingClient;
+        this.userRepository = userRepository;
+    }
+
     /**
      * Sends a basic notification (title + body) to the given device token.
      *
      * @param deviceToken FCM device token registered by the mobile app
      * @param title       notification title
      * @param body        notification body
+     * @return true if the notification was delivered, false if it was skipped or failed
+     */
+    public boolean sendPushNotification(String deviceToken, String title, String body) {
+        return sendToTokens(List.of(deviceToken == null ? "" : deviceToken), title, body).sent() == 1;
+    }
+
+    /**
+     * Sends the same notification to many device tokens.
+     * <p>
+     * Blank tokens are skipped. A chunk that fails as a whole counts all of its tokens
+     * as failed. Unregistered tokens are cleared after all chunks have been sent.
+     *
+     * @param deviceTokens FCM device tokens registered by the mobile app
+     * @param title        notification title
+     * @param body         notification body
+     * @return counts of delivered, failed and unregistered tokens
      */
-    public void sendPushNotification(String deviceToken, String title, String body) {
-        if (deviceToken == null || deviceToken.isBlank()) {
-            return;
+    public BatchResult sendToTokens(Collection<String> deviceTokens, String title, String body) {
+        List<String> tokens = deviceTokens.stream()
+                .filter(token -> token != null && !token.isBlank())
+                .distinct()
+                .toList();
+
+        int sent = 0;
+        int failed = 0;
+        List<String> unregistered = new ArrayList<>();
+        for (int from = 0; from < tokens.size(); from += MAX_TOKENS_PER_REQUEST) {
+            List<String> chunk = tokens.subList(from, Math.min(from + MAX_TOKENS_PER_REQUEST, tokens.size()));
+            List<PushMessagingClient.Delivery> deliveries;
+            try {
+                logger.debug("Sending push notification to {} tokens, title={}, body={}", chunk.size(), title, body);
+                deliveries = messagingClient.sendEach(chunk, title, body);
+            } catch (Exception e) {
+                logger.error("Failed to send push notification to {} tokens", chunk.size(), e);
+                failed += chunk.size();
+                continue;
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                PushMessagingClient.Delivery delivery = i < deliveries.size()
+                        ? deliveries.get(i)
+                        : PushMessagingClient.Delivery.FAILED;
+                switch (delivery) {
+                    case SENT -> sent++;
+                    case UNREGISTERED -> unregistered.add(chunk.get(i));
+                    case FAILED -> failed++;
+                }
+            }
         }
 
-        Notification notification = Notification.builder()
-                .setTitle(title)
-                .setBody(body)
-                .build();
-
-        Message message = Message.builder()
-                .setToken(deviceToken)
-                .setNotification(notification)
-                .build();
-
-        try {
-            logger.debug("Sending push notification to token={}, title={}, body={}", deviceToken, title, body);
-            String response = FirebaseMessaging.getInstance().send(message);
-            logger.info("Successfully sent push notification: {}", response);
-        } catch (Exception e) {
-            logger.error("Failed to send push notification to token {}", deviceToken, e);
+        if (!unregistered.isEmpty()) {
+            int cleared = userRepository.clearDeviceTokens(unregistered);
+            logger.info("Cleared {} unregistered device tokens", cleared);
         }
+        if (!tokens.isEmpty()) {
+            logger.info("Push notification sent={}, failed={}, unregistered={}", sent, failed, unregistered.size());
+        }
+        return new BatchResult(sent, failed, unregistered.size());
     }
 }
-
@@ -0,0 +1,307 @@
+package com.ecoguard.ecoguard.service;
+
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.repository.AlertRepository;
+import com.ecoguard.ecoguard.repository.DeviceCommandRepository;
+import com.ecoguard.ecoguard.repository.NotificationRepository;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import com.ecoguard.ecoguard.storage.StorageBackend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Scheduled retention for raw readings, alerts and device commands.
+ * <p>
+ * Raw readings older than {@code sensor-data-days} are removed one day at a time:
+ * each day is first written to a gzip-compressed CSV file in the archive directory,
+ * in the same format as the CSV export, and exactly the archived rows are then
+ * deleted in chunks of {@code batch-size}, all in one transaction. If that
+ * transaction rolls back the archive file is removed again; a day that receives
+ * late readings after it was archived gets a further numbered archive file.
+ * Afterwards the storage backend may drop partitions left empty. Rollups and the
+ * segment store are not touched, so long-range charts keep their history.
+ * <p>
+ * Acknowledged alerts last seen more than {@code alert-days} ago are deleted
+ * together with their notifications, and executed device commands older than
+ * {@code command-days}, each in chunks with one transaction per chunk. An age of
+ * 0 or less keeps the respective rows forever.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+@Service
+public class RetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetentionService.class);
+
+    private static final String ARCHIVE_PREFIX = "sensor-data-";
+    private static final String ARCHIVE_SUFFIX = ".csv.gz";
+
+    private final SensorDataRepository sensorDataRepository;
+    private final AlertRepository alertRepository;
+    private final NotificationRepository notificationRepository;
+    private final DeviceCommandRepository deviceCommandRepository;
+    private final SensorDataQueryService sensorDataQueryService;
+    private final StorageBackend storageBackend;
+    private final TransactionTemplate writeTransaction;
+    private final int sensorDataDays;
+    private final int alertDays;
+    private final int commandDays;
+    private final int batchSize;
+    private final boolean archiveEnabled;
+    private final Path archiveDirectory;
+
+    /**
+     * Outcome of a retention run.
+     *
+     * @param archivedReadings number of readings written to archive files
+     * @param deletedReadings number of readings deleted
+     * @param deletedAlerts number of alerts deleted
+     * @param deletedCommands number of device commands deleted
+     */
+    public record Result(long archivedReadings, long deletedReadings, long deletedAlerts, long deletedCommands) {}
+
+    /**
+     * Constructs a new RetentionService with required dependencies.
+     *
+     * @param sensorDataRepository repository for the readings to archive and delete
+     * @param alertRepository repository for the alerts to prune
+     * @param notificationRepository repository for the notifications of pruned alerts
+     * @param deviceCommandRepository repository for the device commands to prune
+     * @param sensorDataQueryService service writing archived readings in the CSV export format
+     * @param storageBackend storage backend maintaining sensor data partitions
+     * @param transactionManager transaction manager for the deletions
+     * @param sensorDataDays age in days after which raw readings are archived and deleted; 0 to keep them
+     * @param alertDays age in days after which acknowledged alerts are deleted; 0 to keep them
+     * @param commandDays age in days after which executed commands are deleted; 0 to keep them
+     * @param batchSize number of rows deleted per statement
+     * @param archiveEnabled whether readings are archived before they are deleted
+     * @param archiveDirectory directory the archive files are written to
+     */
+    public RetentionService(SensorDataRepository sensorDataRepository,
+                            AlertRepository alertRepository,
+                            NotificationRepository notificationRepository,
+                            DeviceCommandRepository deviceCommandRepository,
+                            SensorDataQueryService sensorDataQueryService,
+                            StorageBackend storageBackend,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${ecoguard.retention.sensor-data-days:90}") int sensorDataDays,
+                            @Value("${ecoguard.retention.alert-days:180}") int alertDays,
+                            @Value("${ecoguard.retention.command-days:30}") int commandDays,
+                            @Value("${ecoguard.retention.batch-size:1000}") int batchSize,
+                            @Value("${ecoguard.retention.archive-enabled:true}") boolean archiveEnabled,
+                            @Value("${ecoguard.retention.archive-directory:./data/archive}") String archiveDirectory) {
+        this.sensorDataRepository = sensorDataRepository;
+        this.alertRepository = alertRepository;
+        this.notificationRepository = notificationRepository;
+        this.deviceCommandRepository = deviceCommandRepository;
+        this.sensorDataQueryService = sensorDataQueryService;
+        this.storageBackend = storageBackend;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.sensorDataDays = sensorDataDays;
+        this.alertDays = alertDays;
+        this.commandDays = commandDays;
+        this.batchSize = Math.max(1, batchSize);
+        this.archiveEnabled = archiveEnabled;
+        this.archiveDirectory = Path.of(archiveDirectory);
+    }
+
+    /**
+     * Runs retention on the configured schedule, by default daily at 03:30.
+     * A failed run is logged and retried on the next schedule.
+     */
+    @Scheduled(cron = "${ecoguard.retention.cron:0 30 3 * * *}")
+    public void runScheduled() {
+        try {
+            run(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            logger.error("Retention run failed", e);
+        }
+    }
+
+    /**
+     * Prepares upcoming sensor data partitions, archives and deletes raw readings
+     * and prunes alerts and commands that have exceeded their retention age.
+     *
+     * @param now the current time the ages are measured from
+     * @return what was archived and deleted
+     * @throws UncheckedIOException if an archive file cannot be written
+     */
+    public Result run(LocalDateTime now) {
+        storageBackend.preparePartitions(now.toLocalDate());
+        long archived = 0;
+        long deletedReadings = 0;
+        if (sensorDataDays > 0) {
+            LocalDate cutoff = now.toLocalDate().minusDays(sensorDataDays);
+            Optional<LocalDate> oldest;
+            while ((oldest = oldestDayBefore(cutoff)).isPresent()) {
+                LocalDate day = oldest.get();
+                long[] counts = writeTransaction.execute(status -> removeDay(day));
+                archived += counts[0];
+                deletedReadings += counts[1];
+            }
+            storageBackend.releaseSensorDataBefore(cutoff);
+        }
+        long deletedAlerts = alertDays > 0 ? deleteInChunks(
+                limit -> alertRepository.findAcknowledgedIdsBefore(now.minusDays(alertDays), limit),
+                ids -> {
+                    notificationRepository.deleteByAlertIdIn(ids);
+                    alertRepository.deleteAllByIdInBatch(ids);
+                }) : 0;
+        long deletedCommands = commandDays > 0 ? deleteInChunks(
+                limit -> deviceCommandRepository.findExecutedIdsBefore(now.minusDays(commandDays), limit),
+                deviceCommandRepository::deleteAllByIdInBatch) : 0;
+
+        Result result = new Result(archived, deletedReadings, deletedAlerts, deletedCommands);
+        if (deletedReadings > 0 || deletedAlerts > 0 || deletedCommands > 0) {
+            logger.info("Retention archived {} and deleted {} readings, deleted {} alerts and {} device commands",
+                    archived, deletedReadings, deletedAlerts, deletedCommands);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the day of the oldest reading if it lies before a cut-off day.
+     *
+     * @param cutoff the first day to keep
+     * @return the oldest day with readings to remove, or empty if there is none
+     */
+    private Optional<LocalDate> oldestDayBefore(LocalDate cutoff) {
+        return writeTransaction.execute(status -> sensorDataRepository.findTopByOrderByTimestampAsc())
+                .map(oldest -> oldest.getTimestamp().toLocalDate())
+                .filter(day -> day.isBefore(cutoff));
+    }
+
+    /**
+     * Archives the readings of one day and deletes them. Must run in a transaction;
+     * if it rolls back, including when the commit itself fails, the archive file
+     * is removed again.
+     *
+     * @param day the day to remove
+     * @return the number of readings archived and deleted
+     */
+    private long[] removeDay(LocalDate day) {
+        LocalDateTime start = day.atStartOfDay();
+        LocalDateTime end = start.plusDays(1).minusNanos(1);
+        List<Long> ids;
+        Path archive = null;
+        if (archiveEnabled) {
+            ids = new ArrayList<>();
+            archive = archive(day, start, end, ids);
+        } else {
+            ids = sensorDataRepository.findIdsByTimestampBetween(start, end);
+        }
+        if (archive != null) {
+            Path written = archive;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        deleteQuietly(written);
+                    }
+                }
+            });
+        }
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            sensorDataRepository.deleteAllByIdInBatch(ids.subList(from, Math.min(from + batchSize, ids.size())));
+        }
+        return new long[] {archive != null ? ids.size() : 0, ids.size()};
+    }
+
+    /**
+     * Writes the readings of a day to a new archive file.
+     *
+     * @param day the day
+     * @param start the start of the day (inclusive)
+     * @param end the end of the day (inclusive)
+     * @param ids list the IDs of the archived readings are added to
+     * @return the archive file
+     * @throws UncheckedIOException if the archive cannot be written
+     */
+    private Path archive(LocalDate day, LocalDateTime start, LocalDateTime end, List<Long> ids) {
+        Path temp = null;
+        try {
+            Files.createDirectories(archiveDirectory);
+            temp = Files.createTempFile(archiveDirectory, ARCHIVE_PREFIX + day, ".tmp");
+            try (Stream<SensorData> rows = sensorDataRepository.streamByTimestampBetween(start, end);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                sensorDataQueryService.writeRows(rows.peek(row -> ids.add(row.getId())).iterator(),
+                        SensorDataQueryService.ExportFormat.CSV, out);
+            }
+            Path archive = archiveDirectory.resolve(ARCHIVE_PREFIX + day + ARCHIVE_SUFFIX);
+            for (int part = 2; Files.exists(archive); part++) {
+                archive = archiveDirectory.resolve(ARCHIVE_PREFIX + day + "-" + part + ARCHIVE_SUFFIX);
+            }
+            return Files.move(temp, archive, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException("Cannot archive sensor data of " + day, e);
+        }
+    }
+
+    /**
+     * Deletes rows in chunks, one transaction per chunk, until none are left.
+     *
+     * @param findIds finds the IDs of the next chunk of rows to delete
+     * @param delete deletes the rows with the given IDs
+     * @return number of rows deleted
+     */
+    private long deleteInChunks(Function<Limit, List<Long>> findIds, Consumer<List<Long>> delete) {
+        long deleted = 0;
+        while (true) {
+            List<Long> ids = writeTransaction.execute(status -> {
+                List<Long> chunk = findIds.apply(Limit.of(batchSize));
+                if (!chunk.isEmpty()) {
+                    delete.accept(chunk);
+                }
+                return chunk;
+            });
+            deleted += ids.size();
+            if (ids.size() < batchSize) {
+                return deleted;
+            }
+        }
+    }
+
+    /**
+     * Deletes a file, logging instead of failing.
+     *
+     * @param file the file, may be null
+     */
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ecoguard.ecoguard.service;
+
+import com.ecoguard.ecoguard.entity.MetricType;
+import com.ecoguard.ecoguard.entity.SensorData;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Primitive view of a sensor reading used for threshold evaluation.
+ * <p>
+ * Temperature and humidity are held in hundredths, the two decimal places the
+ * database stores, and CO2 and light as plain integers, so each metric can be
+ * compared against the pre-scaled bounds of a {@link ScaledThreshold} without
+ * {@link BigDecimal} arithmetic. A value with more decimals is first rounded half
+ * up to two, as the database does when storing it, so the scaled value is always
+ * exactly the stored one; ingestion rounds payloads the same way, so a reading is
+ * evaluated, stored and reported with the same value. The timestamp is the reading's local date-time
+ * in milliseconds since the epoch, read as if it were UTC; only differences
+ * between timestamps are used, which matches {@code Duration.between} on
+ * {@link LocalDateTime}. Missing metrics are {@value #ABSENT}.
+ *
+ * @param timestampMillis the reading's local date-time as epoch milliseconds
+ * @param temperature temperature in hundredths of a degree Celsius
+ * @param humidity relative humidity in hundredths of a percent
+ * @param co2Level CO2 concentration in ppm
+ * @param lightLevel light level
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+public record ScaledReading(long timestampMillis, int temperature, int humidity, int co2Level, int lightLevel) {
+
+    /**
+     * Value of a metric the reading does not carry.
+     */
+    public static final int ABSENT = Integer.MIN_VALUE;
+
+    /**
+     * Number of decimal places the database stores temperature and humidity with.
+     */
+    public static final int STORED_SCALE = 2;
+
+    /**
+     * Creates the primitive view of a reading.
+     * <p>
+     * Converts through {@link BigDecimal#doubleValue()}, which does not allocate
+     * for the small, low-scale values sensors report.
+     *
+     * @param data the reading
+     * @return the scaled reading
+     */
+    public static ScaledReading of(SensorData data) {
+        return new ScaledReading(
+                toMillis(data.getTimestamp()),
+                scale(MetricType.TEMP, data.getTemperature()),
+                scale(MetricType.HUMIDITY, data.getHumidity()),
+                data.getCo2Level() != null ? data.getCo2Level() : ABSENT,
+                data.getLightLevel() != null ? data.getLightLevel() : ABSENT);
+    }
+
+    /**
+     * Returns the scaled value of a metric.
+     *
+     * @param metric the metric type
+     * @return the value in the metric's scaled unit, or {@value #ABSENT}
+     */
+    public int valueOf(MetricType metric) {
+        return switch (metric) {
+            case TEMP -> temperature;
+            case HUMIDITY -> humidity;
+            case CO2 -> co2Level;
+            case LIGHT -> lightLevel;
+        };
+    }
+
+    /**
+     * Returns the value of a metric in its natural unit.
+     *
+     * @param metric the metric type
+     * @return the value divided by the metric's scale factor, or NaN if the metric is absent
+     */
+    public double decimalValue(MetricType metric) {
+        int value = valueOf(metric);
+        return value == ABSENT ? Double.NaN : (double) value / scaleFactor(metric);
+    }
+
+    /**
+     * Returns the factor a metric's values are multiplied by.
+     *
+     * @param metric the metric type
+     * @return 100 for temperature and humidity, 1 otherwise
+     */
+    public static int scaleFactor(MetricType metric) {
+        return metric == MetricType.TEMP || metric == MetricType.HUMIDITY ? 100 : 1;
+    }
+
+    /**
+     * Scales a metric value. Values with more than {@value #STORED_SCALE} decimals
+     * are rounded half up to that scale first, which makes the result exact.
+     *
+     * @param metric the metric type
+     * @param value the value, may be null
+     * @return the scaled value, saturated to the int range, or {@value #ABSENT} if null
+     */
+    public static int scale(MetricType metric, BigDecimal value) {
+        if (value == null) {
+            return ABSENT;
+        }
+        long scaled = Math.round(toStoredScale(value).doubleValue() * scaleFactor(metric));
+        return (int) Math.max(ABSENT + 1L, Math.min(scaled, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Rounds a decimal value the way the database does when storing it.
+     *
+     * @param value the value, may be null
+     * @return the value rounded half up to {@value #STORED_SCALE} decimals, or the
+     *         value itself if it has no more decimals than that
+     */
+    public static BigDecimal toStoredScale(BigDecimal value) {
+        return value != null && value.scale() > STORED_SCALE ? value.setScale(STORED_SCALE, RoundingMode.HALF_UP) : value;
+    }
+
+    /**
+     * Converts a local date-time to epoch milliseconds, read as UTC.
+     *
+     * @param timestamp the local date-time
+     * @return milliseconds since the epoch
+     */
+    public static long toMillis(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1000 + timestamp.getNano() / 1_000_000;
+    }
+}
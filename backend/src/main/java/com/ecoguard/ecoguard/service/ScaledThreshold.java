@@ -0,0 +1,90 @@
+package com.ecoguard.ecoguard.service;
+
+import com.ecoguard.ecoguard.entity.Threshold;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Threshold bounds pre-scaled to the units of a {@link ScaledReading}.
+ * <p>
+ * Built once per threshold snapshot. The lower bounds are rounded up and the upper
+ * bounds down, so comparing an integer reading against them gives the same result
+ * as comparing it against the decimal bounds.
+ *
+ * @param min lowest in-range value
+ * @param max highest in-range value
+ * @param clearMin lowest value that clears an alarm (minimum plus hysteresis)
+ * @param clearMax highest value that clears an alarm (maximum minus hysteresis)
+ * @param minDurationMillis how long a value must stay out of range before it
+ *                          raises an alarm; 0 for immediately
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+public record ScaledThreshold(int min, int max, int clearMin, int clearMax, long minDurationMillis) {
+
+    /**
+     * Pre-scales a threshold.
+     *
+     * @param threshold the threshold
+     * @return the scaled bounds
+     */
+    public static ScaledThreshold of(Threshold threshold) {
+        BigDecimal factor = BigDecimal.valueOf(ScaledReading.scaleFactor(threshold.getMetricType()));
+        BigDecimal band = threshold.getHysteresis() != null ? threshold.getHysteresis() : BigDecimal.ZERO;
+        Integer minDuration = threshold.getMinDurationSeconds();
+        return new ScaledThreshold(
+                round(threshold.getMinValue().multiply(factor), RoundingMode.CEILING),
+                round(threshold.getMaxValue().multiply(factor), RoundingMode.FLOOR),
+                round(threshold.getMinValue().add(band).multiply(factor), RoundingMode.CEILING),
+                round(threshold.getMaxValue().subtract(band).multiply(factor), RoundingMode.FLOOR),
+                minDuration != null && minDuration > 0 ? minDuration * 1000L : 0);
+    }
+
+    /**
+     * Determines whether a value lies outside the bounds.
+     *
+     * @param value the scaled value
+     * @return true if the value is below the minimum or above the maximum
+     */
+    public boolean isOutOfRange(int value) {
+        return value < min || value > max;
+    }
+
+    /**
+     * Determines whether a value is far enough inside the bounds to clear an alarm.
+     *
+     * @param value the scaled value
+     * @return true if the value lies within the range narrowed by the hysteresis band
+     */
+    public boolean isCleared(int value) {
+        return value >= clearMin && value <= clearMax;
+    }
+
+    /**
+     * Determines whether a value has stayed out of range for the minimum duration.
+     *
+     * @param sinceMillis timestamp of the first out-of-range reading
+     * @param timestampMillis timestamp of the current reading
+     * @return true if no minimum duration is configured or it has elapsed
+     */
+    public boolean heldLongEnough(long sinceMillis, long timestampMillis) {
+        return timestampMillis - sinceMillis >= minDurationMillis;
+    }
+
+    /**
+     * Rounds a scaled bound to an int, saturating at the int range.
+     *
+     * @param value the scaled bound
+     * @param mode the rounding direction
+     * @return the rounded bound
+     */
+    private static int round(BigDecimal value, RoundingMode mode) {
+        long rounded = value.setScale(0, mode)
+                .max(BigDecimal.valueOf(Integer.MIN_VALUE))
+                .min(BigDecimal.valueOf(Integer.MAX_VALUE))
+                .longValue();
+        return (int) rounded;
+    }
+}
@@ -0,0 +1,588 @@
+package com.ecoguard.ecoguard.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * A block of sensor readings in the columnar layout of {@link SensorSegmentStore}.
+ * <p>
+ * Holds the reading ID, timestamp and the four scaled metric values of each reading
+ * in one primitive array per column. Encoded, a block is a fixed header followed by
+ * one bit stream per column:
+ * <pre>
+ * offset  size  field
+ * 0       4     magic "EGSB"
+ * 4       1     version, currently 1
+ * 5       4     number of readings
+ * 9       8     smallest timestamp, local epoch milliseconds
+ * 17      8     largest timestamp, local epoch milliseconds
+ * 25      8     largest reading ID
+ * 33      24    byte length of each of the six column streams
+ * 57      4     CRC-32 of the column streams
+ * 61      ...   column streams: ID, timestamp, temperature, humidity, CO2, light
+ * </pre>
+ * IDs and timestamps are delta-of-delta encoded, so a steady reading interval costs
+ * one bit per reading. Metric values are XOR-encoded against the previous value as
+ * in Facebook's Gorilla: an unchanged value costs one bit, a changed one only its
+ * meaningful bits. Readings are encoded sorted by timestamp and ID.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+final class SegmentBlock {
+
+    /** Length of the encoded header in bytes. */
+    static final int HEADER_LENGTH = 61;
+
+    private static final int MAGIC = 0x45475342;
+    private static final byte VERSION = 1;
+    private static final int COLUMNS = 6;
+
+    private long[] ids;
+    private long[] timestamps;
+    private int[] temperature;
+    private int[] humidity;
+    private int[] co2Level;
+    private int[] lightLevel;
+    private int size;
+
+    /**
+     * Header of an encoded block.
+     *
+     * @param count number of readings
+     * @param minTimestamp smallest timestamp, local epoch milliseconds
+     * @param maxTimestamp largest timestamp, local epoch milliseconds
+     * @param maxId largest reading ID
+     * @param columnLengths byte length of each column stream
+     * @param crc CRC-32 of the column streams
+     */
+    record Header(int count, long minTimestamp, long maxTimestamp, long maxId, int[] columnLengths, int crc) {
+
+        /**
+         * Returns the length of the encoded block, header included.
+         *
+         * @return the block length in bytes
+         */
+        long length() {
+            long length = HEADER_LENGTH;
+            for (int columnLength : columnLengths) {
+                length += columnLength;
+            }
+            return length;
+        }
+    }
+
+    /**
+     * Constructs a new, empty SegmentBlock.
+     *
+     * @param capacity initial number of readings the block can hold
+     */
+    SegmentBlock(int capacity) {
+        int initial = Math.max(capacity, 16);
+        ids = new long[initial];
+        timestamps = new long[initial];
+        temperature = new int[initial];
+        humidity = new int[initial];
+        co2Level = new int[initial];
+        lightLevel = new int[initial];
+    }
+
+    /**
+     * Appends a reading.
+     *
+     * @param id the reading ID
+     * @param reading the scaled reading
+     */
+    void add(long id, ScaledReading reading) {
+        if (size == ids.length) {
+            int capacity = Math.max(16, size * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            temperature = Arrays.copyOf(temperature, capacity);
+            humidity = Arrays.copyOf(humidity, capacity);
+            co2Level = Arrays.copyOf(co2Level, capacity);
+            lightLevel = Arrays.copyOf(lightLevel, capacity);
+        }
+        ids[size] = id;
+        timestamps[size] = reading.timestampMillis();
+        temperature[size] = reading.temperature();
+        humidity[size] = reading.humidity();
+        co2Level[size] = reading.co2Level();
+        lightLevel[size] = reading.lightLevel();
+        size++;
+    }
+
+    /**
+     * Appends the readings of another block whose timestamps lie within a range.
+     *
+     * @param other the block to copy from
+     * @param fromMillis the start of the range (inclusive)
+     * @param toMillis the end of the range (inclusive)
+     */
+    void addAll(SegmentBlock other, long fromMillis, long toMillis) {
+        for (int i = 0; i < other.size; i++) {
+            if (other.timestamps[i] >= fromMillis && other.timestamps[i] <= toMillis) {
+                add(other.ids[i], other.reading(i));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of readings in the block.
+     *
+     * @return the reading count
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the ID of a reading.
+     *
+     * @param index the reading's position in the block
+     * @return the reading ID
+     */
+    long id(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Returns a reading.
+     *
+     * @param index the reading's position in the block
+     * @return the scaled reading
+     */
+    ScaledReading reading(int index) {
+        return new ScaledReading(timestamps[index], temperature[index], humidity[index],
+                co2Level[index], lightLevel[index]);
+    }
+
+    /**
+     * Sorts the readings by timestamp, then ID. Blocks that are already in order,
+     * which is the common case, are left untouched.
+     */
+    void sort() {
+        boolean sorted = true;
+        for (int i = 1; i < size && sorted; i++) {
+            sorted = timestamps[i - 1] < timestamps[i] || timestamps[i - 1] == timestamps[i] && ids[i - 1] <= ids[i];
+        }
+        if (sorted) {
+            return;
+        }
+        int[] order = IntStream.range(0, size).boxed()
+                .sorted(Comparator.<Integer>comparingLong(i -> timestamps[i]).thenComparingLong(i -> ids[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        ids = permute(ids, order);
+        timestamps = permute(timestamps, order);
+        temperature = permute(temperature, order);
+        humidity = permute(humidity, order);
+        co2Level = permute(co2Level, order);
+        lightLevel = permute(lightLevel, order);
+    }
+
+    /**
+     * Sorts and encodes the block.
+     *
+     * @return the encoded block, header included
+     */
+    byte[] encode() {
+        sort();
+        BitWriter[] columns = new BitWriter[COLUMNS];
+        columns[0] = encodeDeltaOfDelta(ids);
+        columns[1] = encodeDeltaOfDelta(timestamps);
+        columns[2] = encodeXor(temperature);
+        columns[3] = encodeXor(humidity);
+        columns[4] = encodeXor(co2Level);
+        columns[5] = encodeXor(lightLevel);
+
+        int payloadLength = 0;
+        for (BitWriter column : columns) {
+            payloadLength += column.byteLength();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + payloadLength).order(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(MAGIC).put(VERSION).putInt(size);
+        buffer.putLong(size > 0 ? timestamps[0] : 0).putLong(size > 0 ? timestamps[size - 1] : 0);
+        buffer.putLong(Arrays.stream(ids, 0, size).max().orElse(0));
+        for (BitWriter column : columns) {
+            buffer.putInt(column.byteLength());
+        }
+        CRC32 crc = new CRC32();
+        for (BitWriter column : columns) {
+            crc.update(column.bytes(), 0, column.byteLength());
+        }
+        buffer.putInt((int) crc.getValue());
+        for (BitWriter column : columns) {
+            buffer.put(column.bytes(), 0, column.byteLength());
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Reads a block header.
+     *
+     * @param buffer the buffer holding the block
+     * @param offset offset of the block in the buffer
+     * @return the header, or null if the buffer does not hold a complete, valid header at the offset
+     */
+    static Header readHeader(ByteBuffer buffer, int offset) {
+        if (buffer.limit() - offset < HEADER_LENGTH
+                || buffer.getInt(offset) != MAGIC || buffer.get(offset + 4) != VERSION) {
+            return null;
+        }
+        int count = buffer.getInt(offset + 5);
+        int[] columnLengths = new int[COLUMNS];
+        for (int i = 0; i < COLUMNS; i++) {
+            columnLengths[i] = buffer.getInt(offset + 33 + 4 * i);
+            if (columnLengths[i] < 0) {
+                return null;
+            }
+        }
+        Header header = new Header(count, buffer.getLong(offset + 9), buffer.getLong(offset + 17),
+                buffer.getLong(offset + 25), columnLengths, buffer.getInt(offset + 57));
+        return count < 0 || header.length() > buffer.limit() - offset ? null : header;
+    }
+
+    /**
+     * Checks the CRC of a block's column streams.
+     *
+     * @param buffer the buffer holding the block
+     * @param offset offset of the block in the buffer
+     * @param header the block's header
+     * @return true if the streams match the header's CRC
+     */
+    static boolean isIntact(ByteBuffer buffer, int offset, Header header) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset + HEADER_LENGTH, (int) header.length() - HEADER_LENGTH));
+        return (int) crc.getValue() == header.crc();
+    }
+
+    /**
+     * Decodes a block.
+     *
+     * @param buffer the buffer holding the block
+     * @param offset offset of the block in the buffer
+     * @param header the block's header
+     * @return the decoded block
+     */
+    static SegmentBlock decode(ByteBuffer buffer, int offset, Header header) {
+        int count = header.count();
+        BitReader[] columns = new BitReader[COLUMNS];
+        int position = offset + HEADER_LENGTH;
+        for (int i = 0; i < COLUMNS; i++) {
+            columns[i] = new BitReader(buffer, position);
+            position += header.columnLengths()[i];
+        }
+        SegmentBlock block = new SegmentBlock(0);
+        block.ids = decodeDeltaOfDelta(columns[0], count);
+        block.timestamps = decodeDeltaOfDelta(columns[1], count);
+        block.temperature = decodeXor(columns[2], count);
+        block.humidity = decodeXor(columns[3], count);
+        block.co2Level = decodeXor(columns[4], count);
+        block.lightLevel = decodeXor(columns[5], count);
+        block.size = count;
+        return block;
+    }
+
+    /**
+     * Encodes a column of longs as the first value followed by delta-of-deltas.
+     * <p>
+     * A delta-of-delta of zero takes one bit; others are zigzag-encoded into 7, 9
+     * or 12 bits behind a 2 to 4 bit prefix, or stored in full.
+     *
+     * @param values the column
+     * @return the encoded stream
+     */
+    private BitWriter encodeDeltaOfDelta(long[] values) {
+        BitWriter out = new BitWriter(size);
+        long previous = 0;
+        long previousDelta = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0) {
+                out.write(values[0], 64);
+            } else {
+                long delta = values[i] - previous;
+                long zigzag = zigzag(delta - previousDelta);
+                if (zigzag == 0) {
+                    out.write(0, 1);
+                } else if (Long.compareUnsigned(zigzag, 1L << 7) < 0) {
+                    out.write(0b10, 2);
+                    out.write(zigzag, 7);
+                } else if (Long.compareUnsigned(zigzag, 1L << 9) < 0) {
+                    out.write(0b110, 3);
+                    out.write(zigzag, 9);
+                } else if (Long.compareUnsigned(zigzag, 1L << 12) < 0) {
+                    out.write(0b1110, 4);
+                    out.write(zigzag, 12);
+                } else {
+                    out.write(0b1111, 4);
+                    out.write(zigzag, 64);
+                }
+                previousDelta = delta;
+            }
+            previous = values[i];
+        }
+        return out;
+    }
+
+    /**
+     * Decodes a delta-of-delta encoded column.
+     *
+     * @param in the encoded stream
+     * @param count number of values
+     * @return the column
+     */
+    private static long[] decodeDeltaOfDelta(BitReader in, int count) {
+        long[] values = new long[count];
+        long previousDelta = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0) {
+                values[0] = in.read(64);
+                continue;
+            }
+            long zigzag;
+            if (in.read(1) == 0) {
+                zigzag = 0;
+            } else if (in.read(1) == 0) {
+                zigzag = in.read(7);
+            } else if (in.read(1) == 0) {
+                zigzag = in.read(9);
+            } else if (in.read(1) == 0) {
+                zigzag = in.read(12);
+            } else {
+                zigzag = in.read(64);
+            }
+            long delta = previousDelta + unzigzag(zigzag);
+            values[i] = values[i - 1] + delta;
+            previousDelta = delta;
+        }
+        return values;
+    }
+
+    /**
+     * Encodes a column of ints as the first value followed by XORs with the previous value.
+     * <p>
+     * An unchanged value takes one bit. Otherwise the meaningful bits of the XOR are
+     * written, reusing the previous leading/trailing zero window when they fit in
+     * it, or behind a new 5-bit leading zero count and 5-bit length.
+     *
+     * @param values the column
+     * @return the encoded stream
+     */
+    private BitWriter encodeXor(int[] values) {
+        BitWriter out = new BitWriter(size);
+        int previous = 0;
+        int previousLeading = -1;
+        int previousTrailing = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0) {
+                out.write(values[0], 32);
+                previous = values[0];
+                continue;
+            }
+            int xor = values[i] ^ previous;
+            previous = values[i];
+            if (xor == 0) {
+                out.write(0, 1);
+                continue;
+            }
+            int leading = Integer.numberOfLeadingZeros(xor);
+            int trailing = Integer.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                out.write(0b10, 2);
+                out.write(xor >>> previousTrailing, 32 - previousLeading - previousTrailing);
+            } else {
+                int meaningful = 32 - leading - trailing;
+                out.write(0b11, 2);
+                out.write(leading, 5);
+                out.write(meaningful - 1, 5);
+                out.write(xor >>> trailing, meaningful);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Decodes an XOR-encoded column.
+     *
+     * @param in the encoded stream
+     * @param count number of values
+     * @return the column
+     */
+    private static int[] decodeXor(BitReader in, int count) {
+        int[] values = new int[count];
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0) {
+                values[0] = (int) in.read(32);
+                continue;
+            }
+            if (in.read(1) == 0) {
+                values[i] = values[i - 1];
+                continue;
+            }
+            if (in.read(1) == 1) {
+                leading = (int) in.read(5);
+                int meaningful = (int) in.read(5) + 1;
+                trailing = 32 - leading - meaningful;
+            }
+            int xor = (int) in.read(32 - leading - trailing) << trailing;
+            values[i] = values[i - 1] ^ xor;
+        }
+        return values;
+    }
+
+    /**
+     * Maps a signed value to an unsigned one so that small magnitudes get small codes.
+     *
+     * @param value the signed value
+     * @return the zigzag-encoded value
+     */
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Reverses {@link #zigzag(long)}.
+     *
+     * @param value the zigzag-encoded value
+     * @return the signed value
+     */
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reorders a column.
+     *
+     * @param column the column
+     * @param order source index of each position
+     * @return the reordered column
+     */
+    private long[] permute(long[] column, int[] order) {
+        long[] sorted = new long[column.length];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = column[order[i]];
+        }
+        return sorted;
+    }
+
+    /**
+     * Reorders a column.
+     *
+     * @param column the column
+     * @param order source index of each position
+     * @return the reordered column
+     */
+    private int[] permute(int[] column, int[] order) {
+        int[] sorted = new int[column.length];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = column[order[i]];
+        }
+        return sorted;
+    }
+
+    /**
+     * Growable big-endian bit stream.
+     */
+    private static final class BitWriter {
+
+        private byte[] bytes;
+        private long bitLength;
+
+        /**
+         * Constructs a new BitWriter.
+         *
+         * @param values expected number of values, used to size the buffer
+         */
+        BitWriter(int values) {
+            bytes = new byte[Math.max(16, values)];
+        }
+
+        /**
+         * Appends the low {@code bits} bits of a value, most significant first.
+         *
+         * @param value the value
+         * @param bits number of bits to write, 1 to 64
+         */
+        void write(long value, int bits) {
+            while (bits > 0) {
+                int index = (int) (bitLength >>> 3);
+                if (index == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+                int free = 8 - (int) (bitLength & 7);
+                int take = Math.min(free, bits);
+                int chunk = (int) (value >>> (bits - take)) & ((1 << take) - 1);
+                bytes[index] |= (byte) (chunk << (free - take));
+                bitLength += take;
+                bits -= take;
+            }
+        }
+
+        /**
+         * Returns the backing array; only the first {@link #byteLength()} bytes are written.
+         *
+         * @return the backing array
+         */
+        byte[] bytes() {
+            return bytes;
+        }
+
+        /**
+         * Returns the length of the stream, padded to whole bytes.
+         *
+         * @return the length in bytes
+         */
+        int byteLength() {
+            return (int) ((bitLength + 7) >>> 3);
+        }
+    }
+
+    /**
+     * Big-endian bit stream over a region of a buffer.
+     */
+    private static final class BitReader {
+
+        private final ByteBuffer buffer;
+        private final int offset;
+        private long position;
+
+        /**
+         * Constructs a new BitReader.
+         *
+         * @param buffer the buffer holding the stream
+         * @param offset offset of the stream in the buffer
+         */
+        BitReader(ByteBuffer buffer, int offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+
+        /**
+         * Reads the next {@code bits} bits as an unsigned value.
+         *
+         * @param bits number of bits to read, 1 to 64
+         * @return the value
+         */
+        long read(int bits) {
+            long result = 0;
+            while (bits > 0) {
+                int available = 8 - (int) (position & 7);
+                int take = Math.min(available, bits);
+                int current = buffer.get(offset + (int) (position >>> 3)) & 0xFF;
+                result = (result << take) | ((current >>> (available - take)) & ((1 << take) - 1));
+                position += take;
+                bits -= take;
+            }
+            return result;
+        }
+    }
+}
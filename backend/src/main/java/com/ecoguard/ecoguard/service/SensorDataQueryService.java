@@ -0,0 +1,723 @@
+package com.ecoguard.ecoguard.service;
+
+import com.ecoguard.ecoguard.dto.SensorBucket;
+import com.ecoguard.ecoguard.dto.SensorDataPage;
+import com.ecoguard.ecoguard.dto.SensorPoint;
+import com.ecoguard.ecoguard.entity.MetricType;
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Service class for reading stored sensor data.
+ * <p>
+ * Lists readings with keyset pagination on {@code (timestamp, reading_id)}, newest
+ * first. Each page is fetched with a bounded index range scan instead of loading the
+ * whole table, and the position of the last reading is handed back to the client as
+ * an opaque continuation token.
+ * <p>
+ * Range exports stream rows from a database cursor straight to the response as
+ * NDJSON or CSV. Each row is detached from the persistence context once written,
+ * so memory use stays flat regardless of the size of the range.
+ * <p>
+ * For charts, ranges can also be reduced on the server, either to at most a given
+ * number of points per metric using Largest-Triangle-Three-Buckets, or to min/avg/max
+ * aggregates per fixed-size time bucket. Both read the same cursor in one pass.
+ * Downsampling first counts the readings in the range, splits them into
+ * {@value #SLICES_PER_POINT} slices of equal size per requested point and keeps
+ * only the minimum and maximum of each metric per slice, then runs LTTB over those
+ * candidates, so its memory grows with {@code maxPoints} rather than with the
+ * length of the range. Aggregation keeps one open bucket per metric.
+ * <p>
+ * When the {@link SensorSegmentStore} is enabled, raw ranges, downsampling and
+ * aggregation read the store's segment files instead of the SENSOR_DATA table.
+ * Pagination and exports always read the table.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+@Service
+@Transactional(readOnly = true)
+public class SensorDataQueryService {
+
+    /** Page size used when the client does not ask for one. */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /** Largest page size a client may request. */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder CURSOR_DECODER = Base64.getUrlDecoder();
+
+    /** Smallest number of points a downsampled series may be reduced to. */
+    public static final int MIN_POINTS = 3;
+
+    /** Largest number of points a downsampled series may be reduced to. */
+    public static final int MAX_POINTS = 10_000;
+
+    /** Number of min/max slices per requested point that LTTB chooses from. */
+    static final int SLICES_PER_POINT = 2;
+
+    /** Largest number of buckets a single aggregation may span. */
+    public static final long MAX_BUCKETS = 100_000;
+
+    private static final String CSV_HEADER = "id,timestamp,temperature,humidity,co2Level,lightLevel";
+    private static final String BUCKET_FORMAT_MESSAGE = "Bucket must be a duration such as 30s, 5m, 1h, 1d or PT15M";
+
+    private final SensorDataRepository sensorDataRepository;
+    private final EntityManager entityManager;
+    private final SensorSegmentStore sensorSegmentStore;
+    private final ObjectWriter jsonWriter;
+
+    /**
+     * Output format of a range export.
+     */
+    public enum ExportFormat {
+        /** One JSON object per line. */
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        /** Comma-separated values with a header row. */
+        CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        ExportFormat(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        /**
+         * Returns the content type of the export.
+         *
+         * @return the media type
+         */
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        /**
+         * Returns the file extension used for the download.
+         *
+         * @return the file extension without a leading dot
+         */
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Looks up an export format by its request parameter value.
+         *
+         * @param name the format name, case-insensitive
+         * @return the matching format, or null if none matches
+         */
+        public static ExportFormat fromName(String name) {
+            for (ExportFormat format : values()) {
+                if (format.extension.equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Constructs a new SensorDataQueryService with required dependencies.
+     *
+     * @param sensorDataRepository repository for sensor data access
+     * @param entityManager entity manager used to detach exported rows
+     * @param sensorSegmentStore columnar store serving ranges when enabled
+     * @param objectMapper mapper used to serialize NDJSON rows
+     */
+    public SensorDataQueryService(SensorDataRepository sensorDataRepository,
+                                  EntityManager entityManager,
+                                  SensorSegmentStore sensorSegmentStore,
+                                  ObjectMapper objectMapper) {
+        this.sensorDataRepository = sensorDataRepository;
+        this.entityManager = entityManager;
+        this.sensorSegmentStore = sensorSegmentStore;
+        this.jsonWriter = objectMapper.writerFor(SensorData.class);
+    }
+
+    /**
+     * Returns one page of readings, newest first.
+     *
+     * @param cursor continuation token from the previous page, or null for the first page
+     * @param limit requested page size; clamped to 1..{@value #MAX_PAGE_SIZE}
+     * @return the page of readings and the token for the next page
+     * @throws IllegalArgumentException if the cursor is not a valid continuation token
+     */
+    public SensorDataPage getPage(String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Limit fetch = Limit.of(pageSize + 1);
+
+        List<SensorData> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = sensorDataRepository.findPageFromStart(fetch);
+        } else {
+            Position position = decode(cursor);
+            rows = sensorDataRepository.findPageAfter(position.timestamp(), position.id(), fetch);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new SensorDataPage(rows, null);
+        }
+        List<SensorData> items = rows.subList(0, pageSize);
+        SensorData last = items.get(pageSize - 1);
+        return new SensorDataPage(List.copyOf(items), encode(new Position(last.getTimestamp(), last.getId())));
+    }
+
+    /**
+     * Returns all readings within a time range.
+     *
+     * @param start the start timestamp (inclusive)
+     * @param end the end timestamp (inclusive)
+     * @return the readings; oldest first when served from the segment store
+     */
+    public List<SensorData> findRange(LocalDateTime start, LocalDateTime end) {
+        if (!sensorSegmentStore.isEnabled()) {
+            return sensorDataRepository.findAllByTimestampBetween(start, end);
+        }
+        List<SensorData> readings = new ArrayList<>();
+        sensorSegmentStore.scan(start, end, (id, reading) -> readings.add(toSensorData(id, reading)));
+        return readings;
+    }
+
+    /**
+     * Streams all readings within a time range to an output stream, oldest first.
+     * <p>
+     * The output stream is flushed but not closed.
+     *
+     * @param start the start timestamp (inclusive)
+     * @param end the end timestamp (inclusive)
+     * @param format the output format
+     * @param out the stream to write to
+     * @throws IOException if writing to the stream fails
+     */
+    public void exportRange(LocalDateTime start, LocalDateTime end, ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<SensorData> rows = sensorDataRepository.streamByTimestampBetween(start, end)) {
+            writeRows(rows.iterator(), format, out);
+        }
+    }
+
+    /**
+     * Writes readings to an output stream in an export format, detaching each one
+     * once written.
+     * <p>
+     * The output stream is flushed but not closed.
+     *
+     * @param rows the readings to write
+     * @param format the output format
+     * @param out the stream to write to
+     * @throws IOException if writing to the stream fails
+     */
+    void writeRows(Iterator<SensorData> rows, ExportFormat format, OutputStream out) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writeCsv(rows, out);
+        } else {
+            writeNdjson(rows, out);
+        }
+    }
+
+    /**
+     * Reduces each metric in a time range to at most {@code maxPoints} points using
+     * Largest-Triangle-Three-Buckets.
+     * <p>
+     * The readings are counted first and split by position into
+     * {@code maxPoints * }{@value #SLICES_PER_POINT} slices of equal size. While the
+     * range is streamed only the first and last point of each metric and its
+     * minimum and maximum per slice are kept, and LTTB selects the result from
+     * those candidates. Ranges with at most {@code maxPoints} readings are returned
+     * unchanged.
+     *
+     * @param start the start timestamp (inclusive)
+     * @param end the end timestamp (inclusive)
+     * @param maxPoints maximum number of points per metric
+     * @return downsampled series per metric, oldest first
+     * @throws IllegalArgumentException if maxPoints is outside {@value #MIN_POINTS}..{@value #MAX_POINTS}
+     */
+    public Map<MetricType, List<SensorPoint>> downsample(LocalDateTime start, LocalDateTime end, int maxPoints) {
+        if (maxPoints < MIN_POINTS || maxPoints > MAX_POINTS) {
+            throw new IllegalArgumentException("maxPoints must be between " + MIN_POINTS + " and " + MAX_POINTS);
+        }
+        long readings = countInRange(start, end);
+        int slices = (int) Math.max(1, Math.min(readings, (long) maxPoints * SLICES_PER_POINT));
+        Map<MetricType, SeriesSampler> series = new EnumMap<>(MetricType.class);
+        for (MetricType metric : MetricType.values()) {
+            series.put(metric, new SeriesSampler(slices));
+        }
+        long[] position = {0};
+        forEachInRange(start, end, row -> {
+            // Readings committed after the count fall into the last slice
+            int slice = (int) Math.min(position[0]++ * slices / Math.max(readings, 1), slices - 1);
+            for (MetricType metric : MetricType.values()) {
+                double value = row.decimalValue(metric);
+                if (!Double.isNaN(value)) {
+                    series.get(metric).add(slice, row.timestampMillis(), value);
+                }
+            }
+        });
+
+        Map<MetricType, List<SensorPoint>> result = new EnumMap<>(MetricType.class);
+        series.forEach((metric, sampler) -> result.put(metric, sampler.downsample(maxPoints)));
+        return result;
+    }
+
+    /**
+     * Aggregates each metric in a time range into fixed-size time buckets.
+     * <p>
+     * Buckets are aligned to multiples of the bucket size since the epoch; buckets
+     * without readings are omitted.
+     *
+     * @param start the start timestamp (inclusive)
+     * @param end the end timestamp (inclusive)
+     * @param bucket the bucket size
+     * @return min/avg/max per bucket per metric, oldest first
+     * @throws IllegalArgumentException if the bucket is shorter than one second or
+     *                                  the range would span more than {@value #MAX_BUCKETS} buckets
+     */
+    public Map<MetricType, List<SensorBucket>> aggregate(LocalDateTime start, LocalDateTime end, Duration bucket) {
+        long bucketSeconds = bucket.getSeconds();
+        if (bucketSeconds < 1) {
+            throw new IllegalArgumentException("Bucket must be at least 1 second");
+        }
+        if (Duration.between(start, end).getSeconds() / bucketSeconds > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Bucket too small for the requested range");
+        }
+        Map<MetricType, List<SensorBucket>> result = new EnumMap<>(MetricType.class);
+        Map<MetricType, BucketAccumulator> accumulators = new EnumMap<>(MetricType.class);
+        for (MetricType metric : MetricType.values()) {
+            result.put(metric, new ArrayList<>());
+            accumulators.put(metric, new BucketAccumulator());
+        }
+        forEachInRange(start, end, row -> {
+            long epochSecond = Math.floorDiv(row.timestampMillis(), 1000);
+            long bucketStart = Math.floorDiv(epochSecond, bucketSeconds) * bucketSeconds;
+            for (MetricType metric : MetricType.values()) {
+                double value = row.decimalValue(metric);
+                if (!Double.isNaN(value)) {
+                    accumulators.get(metric).add(bucketStart, value, result.get(metric));
+                }
+            }
+        });
+        accumulators.forEach((metric, accumulator) -> accumulator.flush(result.get(metric)));
+        return result;
+    }
+
+    /**
+     * Parses a bucket size such as {@code 30s}, {@code 5m}, {@code 1h}, {@code 1d} or an
+     * ISO-8601 duration such as {@code PT15M}.
+     *
+     * @param value the bucket size parameter
+     * @return the bucket size
+     * @throws IllegalArgumentException if the value is not a valid duration
+     */
+    public static Duration parseBucket(String value) {
+        String trimmed = value.trim();
+        try {
+            if (trimmed.startsWith("P") || trimmed.startsWith("p")) {
+                return Duration.parse(trimmed);
+            }
+            if (trimmed.length() >= 2) {
+                long amount = Long.parseLong(trimmed.substring(0, trimmed.length() - 1));
+                switch (Character.toLowerCase(trimmed.charAt(trimmed.length() - 1))) {
+                    case 's':
+                        return Duration.ofSeconds(amount);
+                    case 'm':
+                        return Duration.ofMinutes(amount);
+                    case 'h':
+                        return Duration.ofHours(amount);
+                    case 'd':
+                        return Duration.ofDays(amount);
+                    default:
+                        break;
+                }
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException(BUCKET_FORMAT_MESSAGE, e);
+        }
+        throw new IllegalArgumentException(BUCKET_FORMAT_MESSAGE);
+    }
+
+    /**
+     * Hands all readings within a time range to a consumer, from the segment store
+     * when it is enabled, otherwise through the repository cursor, detaching each
+     * row afterwards.
+     *
+     * @param start the start timestamp (inclusive)
+     * @param end the end timestamp (inclusive)
+     * @param consumer callback invoked for each reading, oldest first
+     */
+    private void forEachInRange(LocalDateTime start, LocalDateTime end, Consumer<ScaledReading> consumer) {
+        if (sensorSegmentStore.isEnabled()) {
+            sensorSegmentStore.scan(start, end, (id, reading) -> consumer.accept(reading));
+            return;
+        }
+        try (Stream<SensorData> rows = sensorDataRepository.streamByTimestampBetween(start, end)) {
+            rows.forEach(row -> {
+                consumer.accept(ScaledReading.of(row));
+                entityManager.detach(row);
+            });
+        }
+    }
+
+    /**
+     * Counts the readings within a time range, in the segment store when it is
+     * enabled, otherwise in the table.
+     *
+     * @param start the start timestamp (inclusive)
+     * @param end the end timestamp (inclusive)
+     * @return number of readings in the range
+     */
+    private long countInRange(LocalDateTime start, LocalDateTime end) {
+        if (sensorSegmentStore.isEnabled()) {
+            long[] count = {0};
+            sensorSegmentStore.scan(start, end, (id, reading) -> count[0]++);
+            return count[0];
+        }
+        return sensorDataRepository.countByTimestampBetween(start, end);
+    }
+
+    /**
+     * Rebuilds a detached reading from the segment store.
+     *
+     * @param id the reading ID
+     * @param reading the scaled reading
+     * @return the reading with the values as stored in the database
+     */
+    private static SensorData toSensorData(long id, ScaledReading reading) {
+        SensorData data = new SensorData();
+        data.setId(id);
+        long millis = reading.timestampMillis();
+        data.setTimestamp(LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+                (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC));
+        if (reading.temperature() != ScaledReading.ABSENT) {
+            data.setTemperature(BigDecimal.valueOf(reading.temperature(), 2));
+        }
+        if (reading.humidity() != ScaledReading.ABSENT) {
+            data.setHumidity(BigDecimal.valueOf(reading.humidity(), 2));
+        }
+        if (reading.co2Level() != ScaledReading.ABSENT) {
+            data.setCo2Level(reading.co2Level());
+        }
+        if (reading.lightLevel() != ScaledReading.ABSENT) {
+            data.setLightLevel(reading.lightLevel());
+        }
+        return data;
+    }
+
+    /**
+     * Extracts the value of one metric from a reading.
+     *
+     * @param row the reading
+     * @param metric the metric to extract
+     * @return the value, or null if the reading has no value for the metric
+     */
+    static Double metricValue(SensorData row, MetricType metric) {
+        Number value = switch (metric) {
+            case TEMP -> row.getTemperature();
+            case HUMIDITY -> row.getHumidity();
+            case CO2 -> row.getCo2Level();
+            case LIGHT -> row.getLightLevel();
+        };
+        return value == null ? null : value.doubleValue();
+    }
+
+    /**
+     * Writes readings as newline-delimited JSON.
+     *
+     * @param rows the readings to write
+     * @param out the stream to write to
+     * @throws IOException if writing to the stream fails
+     */
+    private void writeNdjson(Iterator<SensorData> rows, OutputStream out) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out);
+        while (rows.hasNext()) {
+            SensorData row = rows.next();
+            buffered.write(jsonWriter.writeValueAsBytes(row));
+            buffered.write('\n');
+            entityManager.detach(row);
+        }
+        buffered.flush();
+    }
+
+    /**
+     * Writes readings as CSV with a header row.
+     *
+     * @param rows the readings to write
+     * @param out the stream to write to
+     * @throws IOException if writing to the stream fails
+     */
+    private void writeCsv(Iterator<SensorData> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            SensorData row = rows.next();
+            writer.write(String.valueOf(row.getId()));
+            writer.write(',');
+            writer.write(row.getTimestamp() == null ? "" : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(row.getTimestamp()));
+            writer.write(',');
+            writer.write(csvValue(row.getTemperature()));
+            writer.write(',');
+            writer.write(csvValue(row.getHumidity()));
+            writer.write(',');
+            writer.write(csvValue(row.getCo2Level()));
+            writer.write(',');
+            writer.write(csvValue(row.getLightLevel()));
+            writer.write('\n');
+            entityManager.detach(row);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Formats a nullable numeric value as a CSV field.
+     *
+     * @param value the value, possibly null
+     * @return the value as text, or an empty string if null
+     */
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        return value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+    }
+
+    /**
+     * Keyset position of a reading.
+     *
+     * @param timestamp the reading timestamp
+     * @param id the reading ID
+     */
+    private record Position(LocalDateTime timestamp, Long id) {}
+
+    /**
+     * Encodes a keyset position as an opaque, URL-safe token.
+     *
+     * @param position the position of the last reading on a page
+     * @return the continuation token
+     */
+    private static String encode(Position position) {
+        String raw = position.timestamp() + "|" + position.id();
+        return CURSOR_ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a continuation token back into a keyset position.
+     *
+     * @param cursor the continuation token
+     * @return the decoded position
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    private static Position decode(String cursor) {
+        try {
+            String raw = new String(CURSOR_DECODER.decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new Position(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Downsampling candidates of one metric series: its first and last point and
+     * the minimum and maximum point of every slice.
+     */
+    private static final class SeriesSampler {
+
+        private final long[] minTimes;
+        private final double[] minValues;
+        private final long[] maxTimes;
+        private final double[] maxValues;
+        private final boolean[] present;
+        private long firstTime;
+        private double firstValue;
+        private long lastTime;
+        private double lastValue;
+        private long size;
+
+        /**
+         * Creates an empty sampler.
+         *
+         * @param slices number of slices the series is split into
+         */
+        SeriesSampler(int slices) {
+            minTimes = new long[slices];
+            minValues = new double[slices];
+            maxTimes = new long[slices];
+            maxValues = new double[slices];
+            present = new boolean[slices];
+        }
+
+        /**
+         * Adds a point to its slice. Points must be added oldest first.
+         *
+         * @param slice the slice of the point
+         * @param millis timestamp in epoch milliseconds (UTC)
+         * @param value the metric value
+         */
+        void add(int slice, long millis, double value) {
+            if (size++ == 0) {
+                firstTime = millis;
+                firstValue = value;
+            }
+            lastTime = millis;
+            lastValue = value;
+            if (!present[slice]) {
+                present[slice] = true;
+                minTimes[slice] = millis;
+                minValues[slice] = value;
+                maxTimes[slice] = millis;
+                maxValues[slice] = value;
+            } else if (value < minValues[slice]) {
+                minTimes[slice] = millis;
+                minValues[slice] = value;
+            } else if (value > maxValues[slice]) {
+                maxTimes[slice] = millis;
+                maxValues[slice] = value;
+            }
+        }
+
+        /**
+         * Reduces the candidates to at most the given number of points.
+         *
+         * @param maxPoints maximum number of points to return
+         * @return the selected points, oldest first
+         */
+        List<SensorPoint> downsample(int maxPoints) {
+            if (size == 0) {
+                return new ArrayList<>();
+            }
+            long[] times = new long[present.length * 2 + 2];
+            double[] values = new double[times.length];
+            int count = 0;
+            times[count] = firstTime;
+            values[count++] = firstValue;
+            for (int slice = 0; slice < present.length; slice++) {
+                if (!present[slice]) {
+                    continue;
+                }
+                boolean minFirst = minTimes[slice] <= maxTimes[slice];
+                count = append(times, values, count, minFirst ? minTimes[slice] : maxTimes[slice],
+                        minFirst ? minValues[slice] : maxValues[slice]);
+                count = append(times, values, count, minFirst ? maxTimes[slice] : minTimes[slice],
+                        minFirst ? maxValues[slice] : minValues[slice]);
+            }
+            count = append(times, values, count, lastTime, lastValue);
+
+            int[] selected = Lttb.select(times, values, count, maxPoints);
+            List<SensorPoint> points = new ArrayList<>(selected.length);
+            for (int index : selected) {
+                points.add(new SensorPoint(
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(times[index]), ZoneOffset.UTC),
+                        values[index]));
+            }
+            return points;
+        }
+
+        /**
+         * Appends a candidate unless it repeats the previous one.
+         *
+         * @param times candidate timestamps
+         * @param values candidate values
+         * @param count number of candidates so far
+         * @param millis timestamp of the candidate
+         * @param value value of the candidate
+         * @return the new number of candidates
+         */
+        private static int append(long[] times, double[] values, int count, long millis, double value) {
+            if (times[count - 1] == millis && values[count - 1] == value) {
+                return count;
+            }
+            times[count] = millis;
+            values[count] = value;
+            return count + 1;
+        }
+    }
+
+    /**
+     * Running min/max/sum of one metric over the current time bucket.
+     */
+    private static final class BucketAccumulator {
+
+        private long bucketStart;
+        private long count;
+        private double min;
+        private double max;
+        private double sum;
+        private double sumSquares;
+
+        /**
+         * Adds a value, emitting the previous bucket first if the value starts a new one.
+         *
+         * @param start start of the value's bucket in epoch seconds (UTC)
+         * @param value the metric value
+         * @param out list completed buckets are appended to
+         */
+        void add(long start, double value, List<SensorBucket> out) {
+            if (count > 0 && start != bucketStart) {
+                flush(out);
+            }
+            if (count == 0) {
+                bucketStart = start;
+                min = value;
+                max = value;
+            } else {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            sum += value;
+            sumSquares += value * value;
+            count++;
+        }
+
+        /**
+         * Emits the current bucket, if any, and resets the accumulator.
+         *
+         * @param out list the bucket is appended to
+         */
+        void flush(List<SensorBucket> out) {
+            if (count == 0) {
+                return;
+            }
+            out.add(SensorBucket.of(LocalDateTime.ofEpochSecond(bucketStart, 0, ZoneOffset.UTC),
+                    count, min, max, sum, sumSquares));
+            count = 0;
+            sum = 0;
+            sumSquares = 0;
+        }
+    }
+}
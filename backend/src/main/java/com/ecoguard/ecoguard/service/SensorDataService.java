@@ -1,17 +1,271 @@
 package com.ecoguard.ecoguard.service;
 
+import com.ecoguard.ecoguard.dto.SensorDataPayload;
+import com.ecoguard.ecoguard.dto.SensorIngestResult;
+import com.ecoguard.ecoguard.entity.Alert;
+import com.ecoguard.ecoguard.entity.MetricType;
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.repository.AlertRepository;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
- * Service class for sensor data-related business logic.
+ * Service class for sensor data ingestion.
  * <p>
- * Currently serves as a placeholder for future sensor data processing functionality.
+ * Persists readings sent by the ESP32 device, evaluates each metric against the
+ * configured thresholds through {@link ThresholdEvaluator}, coalesces breaches into
+ * open alerts through {@link AlertService} and hands newly opened alerts to the
+ * {@link NotificationDispatcher} so push notifications never block ingestion. Every
+ * batch is also folded into the minute, hour and day rollups by
+ * {@link SensorRollupService}. Once committed, the newest reading of each batch
+ * and the newly opened alerts are pushed to dashboards by {@link LiveEventBroadcaster}.
+ * Readings are always written in groups, either as a batch uploaded by the device
+ * or as a group commit drained from {@link SensorIngestQueue}, in one transaction
+ * using JDBC batching.
  *
  * @author EcoGuard
  * @since 1.0
  */
+@Service
 public class SensorDataService {
+
+    private final SensorDataRepository sensorDataRepository;
+    private final ThresholdService thresholdService;
+    private final ThresholdEvaluator thresholdEvaluator;
+    private final AlertRepository alertRepository;
+    private final AlertService alertService;
+    private final NotificationDispatcher notificationDispatcher;
+    private final SensorRollupService sensorRollupService;
+    private final SensorSegmentStore sensorSegmentStore;
+    private final DevicePresenceRegistry devicePresenceRegistry;
+    private final LiveEventBroadcaster liveEventBroadcaster;
+
+    /**
+     * An existing alert that received breaches in the current batch.
+     *
+     * @param alert the coalesced alert
+     * @param readingAlerts the alerts reported for the newest reading that breached into it
+     */
+    private record CoalescedBreach(Alert alert, List<Alert> readingAlerts) {}
+
+    /**
+     * Constructs a new SensorDataService with required dependencies.
+     *
+     * @param sensorDataRepository repository for sensor data persistence
+     * @param thresholdService in-memory threshold snapshot
+     * @param thresholdEvaluator per-metric state machine applying hysteresis and debounce
+     * @param alertRepository repository for alert creation
+     * @param alertService service that coalesces repeated breaches into open alerts
+     * @param notificationDispatcher dispatcher for alert push notifications
+     * @param sensorRollupService service maintaining the sensor data rollups
+     * @param sensorSegmentStore columnar store the readings are appended to after commit
+     * @param devicePresenceRegistry registry told about new alerts for the status view
+     * @param liveEventBroadcaster broadcaster pushing new readings and alerts to dashboards
+     */
+    public SensorDataService(SensorDataRepository sensorDataRepository,
+                             ThresholdService thresholdService,
+                             ThresholdEvaluator thresholdEvaluator,
+                             AlertRepository alertRepository,
+                             AlertService alertService,
+                             NotificationDispatcher notificationDispatcher,
+                             SensorRollupService sensorRollupService,
+                             SensorSegmentStore sensorSegmentStore,
+                             DevicePresenceRegistry devicePresenceRegistry,
+                             LiveEventBroadcaster liveEventBroadcaster) {
+        this.sensorDataRepository = sensorDataRepository;
+        this.thresholdService = thresholdService;
+        this.thresholdEvaluator = thresholdEvaluator;
+        this.alertRepository = alertRepository;
+        this.alertService = alertService;
+        this.notificationDispatcher = notificationDispatcher;
+        this.sensorRollupService = sensorRollupService;
+        this.sensorSegmentStore = sensorSegmentStore;
+        this.devicePresenceRegistry = devicePresenceRegistry;
+        this.liveEventBroadcaster = liveEventBroadcaster;
+    }
+
+    /**
+     * Ingests a batch of sensor readings in a single transaction.
+     * <p>
+     * All readings are inserted with JDBC batching, thresholds are read from the
+     * in-memory snapshot, and newly opened alerts are saved together while
+     * repeated breaches only update the open alert. An open alert that has been
+     * acknowledged or deleted in the meantime is replaced by a new one, reported
+     * for the newest reading that breached into it. Push notifications
+     * for new alerts are dispatched asynchronously and rollups and the segment
+     * store are updated after commit.
+     *
+     * @param payloads the buffered readings from the device, in upload order
+     * @return one result per reading, in the same order as the payloads
+     */
+    @Transactional
+    public List<SensorIngestResult> ingestBatch(List<SensorDataPayload> payloads) {
+        LocalDateTime receivedAt = LocalDateTime.now();
+        List<SensorData> readings = new ArrayList<>(payloads.size());
+        for (SensorDataPayload payload : payloads) {
+            readings.add(toEntity(payload, receivedAt));
+        }
+        sensorDataRepository.batchInsert(readings);
+        sensorRollupService.record(readings);
+        sensorSegmentStore.record(readings);
+
+        Map<MetricType, ScaledThreshold> thresholds = thresholdService.getScaledThresholds();
+
+        List<List<Alert>> alertsPerReading = new ArrayList<>(readings.size());
+        List<Alert> created = new ArrayList<>();
+        Map<Long, CoalescedBreach> coalesced = new LinkedHashMap<>();
+        for (SensorData reading : readings) {
+            List<Alert> alerts = new ArrayList<>();
+            ScaledReading scaled = ScaledReading.of(reading);
+            evaluateMetric(MetricType.TEMP, scaled, reading, thresholds, alerts, coalesced);
+            evaluateMetric(MetricType.HUMIDITY, scaled, reading, thresholds, alerts, coalesced);
+            evaluateMetric(MetricType.CO2, scaled, reading, thresholds, alerts, coalesced);
+            evaluateMetric(MetricType.LIGHT, scaled, reading, thresholds, alerts, coalesced);
+            alertsPerReading.add(alerts);
+            created.addAll(alerts);
+        }
+        List<Alert> updated = new ArrayList<>(coalesced.size());
+        for (CoalescedBreach breach : coalesced.values()) {
+            Alert alert = breach.alert();
+            if (alertRepository.updateCoalesced(alert.getId(), alert.getOccurrences(),
+                    alert.getLastValue(), alert.getLastSeenAt()) == 0) {
+                Alert reopened = alertService.reopen(alert);
+                breach.readingAlerts().add(reopened);
+                created.add(reopened);
+            } else {
+                updated.add(alert);
+            }
+        }
+        if (!created.isEmpty()) {
+            alertRepository.saveAll(created);
+            created.forEach(notificationDispatcher::dispatch);
+            devicePresenceRegistry.recordAlerts(created);
+        }
+        publishAfterCommit(readings, created, updated);
+
+        List<SensorIngestResult> results = new ArrayList<>(readings.size());
+        for (int i = 0; i < readings.size(); i++) {
+            results.add(new SensorIngestResult(
+                    readings.get(i).getId(),
+                    alertsPerReading.get(i).stream().map(Alert::getId).toList()));
+        }
+        return results;
+    }
+
+    /**
+     * Pushes the newest reading of a batch and the alerts it opened or coalesced
+     * into to dashboards once the transaction commits.
+     * <p>
+     * Only the newest reading is sent, so a device replaying a large backlog does
+     * not flood every connected dashboard. Coalesced alerts are sent again with
+     * their new occurrence count and last value; dashboards replace alerts by ID.
+     *
+     * @param readings the readings written in this transaction
+     * @param created the alerts opened in this transaction
+     * @param updated the existing alerts whose counters were updated in this transaction
+     */
+    private void publishAfterCommit(List<SensorData> readings, List<Alert> created, List<Alert> updated) {
+        SensorData newest = readings.stream().max(Comparator.comparing(SensorData::getTimestamp)).orElse(null);
+        List<Alert> changed = new ArrayList<>(created.size() + updated.size());
+        changed.addAll(created);
+        changed.addAll(updated);
+        Runnable publish = () -> {
+            if (newest != null) {
+                liveEventBroadcaster.publish("reading", newest, false);
+            }
+            changed.forEach(alert -> liveEventBroadcaster.publish("alert", alert, false));
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish.run();
+                }
+            });
+        } else {
+            publish.run();
+        }
+    }
+
+    /**
+     * Maps an incoming payload to a new sensor data entity, rounding temperature
+     * and humidity to the scale the database stores.
+     *
+     * @param payload the sensor data payload from the device
+     * @param fallbackTimestamp timestamp to use when the payload carries none
+     * @return a new, unsaved sensor data entity
+     */
+    private SensorData toEntity(SensorDataPayload payload, LocalDateTime fallbackTimestamp) {
+        SensorData data = new SensorData();
+        data.setTemperature(ScaledReading.toStoredScale(payload.getTemperature()));
+        data.setHumidity(ScaledReading.toStoredScale(payload.getHumidity()));
+        data.setCo2Level(payload.getCo2Level());
+        data.setLightLevel(payload.getLightLevel());
+        data.setTimestamp(payload.getTimestamp() != null ? payload.getTimestamp() : fallbackTimestamp);
+        return data;
+    }
+
+    /**
+     * Feeds a sensor value into the threshold state machine and records a breach with
+     * the alert service while the metric is in alarm.
+     * <p>
+     * Breaches that open a new alert are collected in {@code alerts}; breaches that
+     * are coalesced into an alert that already exists in the database are collected
+     * once per alert in {@code coalesced} so their counters can be written back,
+     * together with the alert list of the newest reading that breached into it.
+     * If the alert has to be reopened, the new alert is reported for that reading.
+     *
+     * @param metric the metric type to evaluate
+     * @param scaled the primitive view of the reading, compared against the pre-scaled bounds
+     * @param reading the reading the value belongs to
+     * @param thresholds pre-scaled thresholds indexed by metric type
+     * @param alerts list to add newly opened alerts to
+     * @param coalesced existing alerts that received further breaches, indexed by alert ID
+     */
+    private void evaluateMetric(MetricType metric, ScaledReading scaled, SensorData reading,
+                                Map<MetricType, ScaledThreshold> thresholds, List<Alert> alerts,
+                                Map<Long, CoalescedBreach> coalesced) {
+        ScaledThreshold threshold = thresholds.get(metric);
+        int value = scaled.valueOf(metric);
+        if (value == ScaledReading.ABSENT || threshold == null
+                || !thresholdEvaluator.evaluate(metric, value, scaled.timestampMillis(), threshold)) {
+            return;
+        }
+        AlertService.Breach breach = alertService.recordBreach(metric, breachValue(metric, reading), reading.getTimestamp());
+        Alert alert = breach.alert();
+        if (breach.created()) {
+            alerts.add(alert);
+        } else if (alert.getId() != null
+                && (!coalesced.containsKey(alert.getId()) || reading.getTimestamp().equals(alert.getLastSeenAt()))) {
+            coalesced.put(alert.getId(), new CoalescedBreach(alert, alerts));
+        }
+    }
+
     /**
-     * Default constructor.
+     * Returns the reading's value for a metric as recorded on an alert. Only called
+     * on a breach, so the ingest path does not box values that stay in range.
+     *
+     * @param metric the metric type
+     * @param reading the reading
+     * @return the value as stored on the reading
      */
-    public SensorDataService() {
+    private static BigDecimal breachValue(MetricType metric, SensorData reading) {
+        return switch (metric) {
+            case TEMP -> reading.getTemperature();
+            case HUMIDITY -> reading.getHumidity();
+            case CO2 -> BigDecimal.valueOf(reading.getCo2Level());
+            case LIGHT -> BigDecimal.valueOf(reading.getLightLevel());
+        };
     }
-}
\ No newline at end of file
+}
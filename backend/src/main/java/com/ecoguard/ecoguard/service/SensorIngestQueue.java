@@ -0,0 +1,211 @@
+package com.ecoguard.ecoguard.service;
+
+import com.ecoguard.ecoguard.dto.SensorDataPayload;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind buffer between the device ingest endpoint and the database.
+ * <p>
+ * Readings are accepted into a bounded ring buffer and returned to the caller
+ * immediately. A single dedicated writer thread drains the buffer and persists
+ * the readings in group commits through {@link SensorDataService#ingestBatch(List)},
+ * so database writes, threshold evaluation and push notifications no longer run on
+ * the request thread. When the buffer is full, {@link #offer(SensorDataPayload)}
+ * returns false and the caller is expected to back off.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+@Service
+public class SensorIngestQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorIngestQueue.class);
+
+    private static final long POLL_TIMEOUT_MILLIS = 200;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    private final SensorDataService sensorDataService;
+    private final BlockingQueue<SensorDataPayload> buffer;
+    private final int maxBatchSize;
+    private final long retryAfterSeconds;
+    private final AtomicLong droppedReadings = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    /**
+     * Constructs a new SensorIngestQueue with required dependencies.
+     *
+     * @param sensorDataService service used to persist drained readings
+     * @param capacity maximum number of readings held in memory
+     * @param maxBatchSize maximum number of readings written per group commit
+     * @param retryAfterSeconds back-off hint returned to devices when the buffer is full
+     */
+    public SensorIngestQueue(SensorDataService sensorDataService,
+                             @Value("${ecoguard.ingest.queue-capacity:10000}") int capacity,
+                             @Value("${ecoguard.ingest.max-batch-size:500}") int maxBatchSize,
+                             @Value("${ecoguard.ingest.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.sensorDataService = sensorDataService;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::drainLoop, "sensor-ingest-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops the writer thread and flushes any readings still in the buffer.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join(SHUTDOWN_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        while (!buffer.isEmpty()) {
+            drainBatch();
+        }
+    }
+
+    /**
+     * Enqueues a reading for asynchronous persistence.
+     * <p>
+     * Readings without a timestamp are stamped with the current time so that the
+     * stored time reflects when the reading arrived rather than when it was written.
+     *
+     * @param payload the sensor data payload from the device
+     * @return true if the reading was accepted, false if the buffer is full
+     */
+    public boolean offer(SensorDataPayload payload) {
+        if (payload.getTimestamp() == null) {
+            payload.setTimestamp(LocalDateTime.now());
+        }
+        return buffer.offer(payload);
+    }
+
+    /**
+     * Returns the number of readings waiting to be written.
+     *
+     * @return current buffer depth
+     */
+    public int depth() {
+        return buffer.size();
+    }
+
+    /**
+     * Returns the number of readings lost because they could not be written.
+     *
+     * @return total dropped readings since startup
+     */
+    public long droppedReadings() {
+        return droppedReadings.get();
+    }
+
+    /**
+     * Returns the back-off hint, in seconds, for devices whose reading was rejected.
+     *
+     * @return the Retry-After value in seconds
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * Writer thread main loop: waits for readings and writes them in group commits
+     * until stopped.
+     */
+    private void drainLoop() {
+        while (running) {
+            try {
+                SensorDataPayload first = buffer.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    List<SensorDataPayload> batch = new ArrayList<>(maxBatchSize);
+                    batch.add(first);
+                    buffer.drainTo(batch, maxBatchSize - 1);
+                    write(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drains up to one batch from the buffer and writes it.
+     *
+     * @return the number of readings drained
+     */
+    int drainBatch() {
+        List<SensorDataPayload> batch = new ArrayList<>(maxBatchSize);
+        buffer.drainTo(batch, maxBatchSize);
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+        return batch.size();
+    }
+
+    /**
+     * Persists one group of readings. If the group commit fails, the readings are
+     * written again one at a time so that only the readings that cannot be stored,
+     * such as a value that overflows its column, are dropped.
+     *
+     * @param batch the readings to persist
+     */
+    private void write(List<SensorDataPayload> batch) {
+        try {
+            sensorDataService.ingestBatch(batch);
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                drop(batch.get(0), e);
+                return;
+            }
+            logger.warn("Group commit of {} buffered sensor readings failed, writing them one at a time",
+                    batch.size(), e);
+            for (SensorDataPayload payload : batch) {
+                try {
+                    sensorDataService.ingestBatch(List.of(payload));
+                } catch (Exception single) {
+                    drop(payload, single);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts and logs a reading that could not be written.
+     *
+     * @param payload the reading
+     * @param cause why it could not be written
+     */
+    private void drop(SensorDataPayload payload, Exception cause) {
+        droppedReadings.incrementAndGet();
+        logger.error("Dropped buffered sensor reading taken at {}", payload.getTimestamp(), cause);
+    }
+}
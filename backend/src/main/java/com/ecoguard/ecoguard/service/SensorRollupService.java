@@ -0,0 +1,356 @@
+package com.ecoguard.ecoguard.service;
+
+import com.ecoguard.ecoguard.dto.SensorBucket;
+import com.ecoguard.ecoguard.dto.SensorRollupSeries;
+import com.ecoguard.ecoguard.entity.MetricType;
+import com.ecoguard.ecoguard.entity.RollupResolution;
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.entity.SensorRollup;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import com.ecoguard.ecoguard.repository.SensorRollupRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Maintains minute, hour and day rollups of sensor readings and serves time ranges
+ * from them.
+ * <p>
+ * Every ingested batch is folded into per-bucket deltas in memory, which are merged
+ * into the rollup table once the batch has committed. Merges run one at a time in
+ * their own transaction, so concurrent batches never race to create the same
+ * bucket. Range queries read the coarsest resolution that still yields enough
+ * buckets for a chart, so their cost depends on the number of buckets rather than
+ * the number of stored readings.
+ * <p>
+ * A merge that fails is not lost: its deltas are kept and merged again together
+ * with the next batch, on every {@code ecoguard.rollups.retry-interval-ms} and
+ * on shutdown, until they are written.
+ * <p>
+ * On startup, an empty rollup table is backfilled from the stored readings.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+@Service
+public class SensorRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorRollupService.class);
+
+    /** Smallest number of buckets a range should be served with before falling back to a finer resolution. */
+    static final int MIN_BUCKETS = 100;
+
+    /** Largest number of buckets per metric a single query may span. */
+    static final int MAX_BUCKETS = 100_000;
+
+    /** Number of pending buckets after which the backfill writes its deltas. */
+    private static final int BACKFILL_FLUSH_SIZE = 10_000;
+
+    private final SensorRollupRepository sensorRollupRepository;
+    private final SensorDataRepository sensorDataRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readTransaction;
+
+    private final Map<BucketKey, SensorRollup> failed = new LinkedHashMap<>();
+
+    /**
+     * Constructs a new SensorRollupService with required dependencies.
+     *
+     * @param sensorRollupRepository repository for rollup persistence
+     * @param sensorDataRepository repository used to backfill rollups from raw readings
+     * @param entityManager entity manager used to detach streamed readings
+     * @param transactionManager transaction manager for rollup writes
+     */
+    public SensorRollupService(SensorRollupRepository sensorRollupRepository,
+                               SensorDataRepository sensorDataRepository,
+                               EntityManager entityManager,
+                               PlatformTransactionManager transactionManager) {
+        this.sensorRollupRepository = sensorRollupRepository;
+        this.sensorDataRepository = sensorDataRepository;
+        this.entityManager = entityManager;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Folds newly ingested readings into the rollups.
+     * <p>
+     * When called inside a transaction, the rollups are only updated after the
+     * transaction commits, so rolled-back readings are never counted.
+     *
+     * @param readings the readings that were inserted
+     */
+    public void record(List<SensorData> readings) {
+        Map<BucketKey, SensorRollup> deltas = new LinkedHashMap<>();
+        readings.forEach(reading -> accumulate(deltas, reading));
+        if (deltas.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(deltas.values());
+                }
+            });
+        } else {
+            apply(deltas.values());
+        }
+    }
+
+    /**
+     * Reads a time range from the rollups.
+     * <p>
+     * Every bucket that overlaps the range is returned whole, so the first bucket may
+     * include readings from before {@code start}.
+     *
+     * @param start the start timestamp (inclusive)
+     * @param end the end timestamp (inclusive)
+     * @param resolution the resolution to read, or null to pick the coarsest one that fits
+     * @return the resolution used and the buckets per metric, oldest first
+     * @throws IllegalArgumentException if end is before start or the range spans more
+     *                                  than {@value #MAX_BUCKETS} buckets at the requested resolution
+     */
+    public SensorRollupSeries query(LocalDateTime start, LocalDateTime end, RollupResolution resolution) {
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("End must not be before start");
+        }
+        RollupResolution selected = resolution != null ? resolution : chooseResolution(start, end);
+        if (bucketCount(start, end, selected) > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Resolution too fine for the requested range");
+        }
+        List<SensorRollup> rollups = readTransaction.execute(status -> sensorRollupRepository
+                .findByResolutionAndBucketStartBetweenOrderByBucketStartAsc(selected, selected.truncate(start), end));
+
+        Map<MetricType, List<SensorBucket>> metrics = new EnumMap<>(MetricType.class);
+        for (MetricType metric : MetricType.values()) {
+            metrics.put(metric, new ArrayList<>());
+        }
+        for (SensorRollup rollup : rollups) {
+            metrics.get(rollup.getMetricType()).add(SensorBucket.of(rollup.getBucketStart(), rollup.getSampleCount(),
+                    rollup.getMinValue(), rollup.getMaxValue(), rollup.getSumValue(), rollup.getSumSquares()));
+        }
+        return new SensorRollupSeries(selected, metrics);
+    }
+
+    /**
+     * Picks the coarsest resolution that still covers a range with at least
+     * {@value #MIN_BUCKETS} buckets, falling back to minutes for short ranges.
+     *
+     * @param start the start timestamp
+     * @param end the end timestamp
+     * @return the resolution to serve the range from
+     */
+    static RollupResolution chooseResolution(LocalDateTime start, LocalDateTime end) {
+        RollupResolution[] resolutions = RollupResolution.values();
+        for (int i = resolutions.length - 1; i > 0; i--) {
+            if (bucketCount(start, end, resolutions[i]) >= MIN_BUCKETS) {
+                return resolutions[i];
+            }
+        }
+        return resolutions[0];
+    }
+
+    /**
+     * Parses a resolution name such as {@code minute}, {@code hour} or {@code day}.
+     *
+     * @param value the resolution parameter
+     * @return the resolution
+     * @throws IllegalArgumentException if the value is not a known resolution
+     */
+    public static RollupResolution parseResolution(String value) {
+        try {
+            return RollupResolution.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Resolution must be minute, hour or day", e);
+        }
+    }
+
+    /**
+     * Rebuilds the rollups from the stored readings if none exist yet.
+     * <p>
+     * Runs before the application accepts requests, so no readings can be ingested
+     * while the backfill reads the raw table.
+     */
+    @PostConstruct
+    public void backfillIfEmpty() {
+        writeTransaction.executeWithoutResult(status -> {
+            if (sensorRollupRepository.count() > 0) {
+                return;
+            }
+            Optional<SensorData> oldest = sensorDataRepository.findTopByOrderByTimestampAsc();
+            Optional<SensorData> newest = sensorDataRepository.findTopByOrderByTimestampDesc();
+            if (oldest.isEmpty() || newest.isEmpty()) {
+                return;
+            }
+            long readings = 0;
+            Map<BucketKey, SensorRollup> deltas = new LinkedHashMap<>();
+            try (Stream<SensorData> rows = sensorDataRepository.streamByTimestampBetween(
+                    oldest.get().getTimestamp(), newest.get().getTimestamp())) {
+                for (SensorData row : (Iterable<SensorData>) rows::iterator) {
+                    accumulate(deltas, row);
+                    entityManager.detach(row);
+                    readings++;
+                    if (deltas.size() >= BACKFILL_FLUSH_SIZE) {
+                        sensorRollupRepository.mergeAll(deltas.values());
+                        deltas.clear();
+                    }
+                }
+            }
+            sensorRollupRepository.mergeAll(deltas.values());
+            logger.info("Backfilled sensor rollups from {} readings", readings);
+        });
+    }
+
+    /**
+     * Merges deltas that failed earlier into the rollup table again.
+     */
+    @Scheduled(fixedDelayString = "${ecoguard.rollups.retry-interval-ms:60000}",
+            initialDelayString = "${ecoguard.rollups.retry-interval-ms:60000}")
+    public synchronized void retryFailed() {
+        if (!failed.isEmpty()) {
+            apply(List.of());
+        }
+    }
+
+    /**
+     * Merges deltas that are still failing before shutdown.
+     */
+    @PreDestroy
+    public void close() {
+        retryFailed();
+    }
+
+    /**
+     * Returns the number of buckets whose deltas could not be merged yet.
+     *
+     * @return number of buckets waiting for a retry
+     */
+    public synchronized int getFailedBuckets() {
+        return failed.size();
+    }
+
+    /**
+     * Merges deltas, together with any that failed before, into the rollup table
+     * in a new transaction.
+     * <p>
+     * Merges are serialized so that two batches never try to create the same bucket
+     * at the same time. If the merge fails, the readings themselves are already
+     * committed, so all of its deltas are kept and merged again later.
+     *
+     * @param deltas aggregates of new readings, at most one per bucket
+     */
+    private synchronized void apply(Collection<SensorRollup> deltas) {
+        Collection<SensorRollup> merge = deltas;
+        if (!failed.isEmpty()) {
+            deltas.forEach(delta -> combine(failed, delta));
+            merge = List.copyOf(failed.values());
+        }
+        try {
+            Collection<SensorRollup> batch = merge;
+            writeTransaction.executeWithoutResult(status -> sensorRollupRepository.mergeAll(batch));
+            failed.clear();
+        } catch (RuntimeException e) {
+            if (failed.isEmpty()) {
+                deltas.forEach(delta -> combine(failed, delta));
+            }
+            logger.error("Failed to update {} sensor rollup buckets; will retry", failed.size(), e);
+        }
+    }
+
+    /**
+     * Adds a delta to the pending delta of the same bucket, or stores it if there is none.
+     *
+     * @param deltas pending deltas indexed by bucket
+     * @param delta the delta to add
+     */
+    private static void combine(Map<BucketKey, SensorRollup> deltas, SensorRollup delta) {
+        SensorRollup pending = deltas.putIfAbsent(
+                new BucketKey(delta.getResolution(), delta.getBucketStart(), delta.getMetricType()), delta);
+        if (pending != null && pending != delta) {
+            pending.setSampleCount(pending.getSampleCount() + delta.getSampleCount());
+            pending.setMinValue(Math.min(pending.getMinValue(), delta.getMinValue()));
+            pending.setMaxValue(Math.max(pending.getMaxValue(), delta.getMaxValue()));
+            pending.setSumValue(pending.getSumValue() + delta.getSumValue());
+            pending.setSumSquares(pending.getSumSquares() + delta.getSumSquares());
+        }
+    }
+
+    /**
+     * Adds every metric value of a reading to the deltas of all resolutions.
+     *
+     * @param deltas pending deltas indexed by bucket
+     * @param reading the reading to add
+     */
+    private static void accumulate(Map<BucketKey, SensorRollup> deltas, SensorData reading) {
+        for (MetricType metric : MetricType.values()) {
+            Double value = SensorDataQueryService.metricValue(reading, metric);
+            if (value == null) {
+                continue;
+            }
+            for (RollupResolution resolution : RollupResolution.values()) {
+                LocalDateTime bucketStart = resolution.truncate(reading.getTimestamp());
+                SensorRollup delta = deltas.computeIfAbsent(new BucketKey(resolution, bucketStart, metric), key -> {
+                    SensorRollup rollup = new SensorRollup();
+                    rollup.setResolution(resolution);
+                    rollup.setBucketStart(bucketStart);
+                    rollup.setMetricType(metric);
+                    rollup.setMinValue(value);
+                    rollup.setMaxValue(value);
+                    return rollup;
+                });
+                delta.setSampleCount(delta.getSampleCount() + 1);
+                delta.setMinValue(Math.min(delta.getMinValue(), value));
+                delta.setMaxValue(Math.max(delta.getMaxValue(), value));
+                delta.setSumValue(delta.getSumValue() + value);
+                delta.setSumSquares(delta.getSumSquares() + value * value);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of buckets of a resolution a range touches.
+     *
+     * @param start the start timestamp
+     * @param end the end timestamp
+     * @param resolution the rollup resolution
+     * @return number of buckets between the bucket of start and the bucket of end
+     */
+    private static long bucketCount(LocalDateTime start, LocalDateTime end, RollupResolution resolution) {
+        Duration span = Duration.between(resolution.truncate(start), resolution.truncate(end));
+        return span.dividedBy(resolution.getDuration()) + 1;
+    }
+
+    /**
+     * Identifies one rollup bucket.
+     *
+     * @param resolution the rollup resolution
+     * @param bucketStart start of the bucket
+     * @param metric the metric
+     */
+    private record BucketKey(RollupResolution resolution, LocalDateTime bucketStart, MetricType metric) {}
+}
@@ -0,0 +1,460 @@
+package com.ecoguard.ecoguard.service;
+
+import com.ecoguard.ecoguard.dto.SensorDayCount;
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Append-only columnar store for sensor history, kept next to the SENSOR_DATA table.
+ * <p>
+ * Readings are stored in one segment file per day of their timestamp, named
+ * {@code sensor-YYYY-MM-DD.seg}, as a sequence of compressed {@link SegmentBlock}s.
+ * Committed readings are buffered per day in memory and written as one block once
+ * {@code block-size} readings have accumulated, on every {@code flush-interval-ms}
+ * and on shutdown. Range scans memory-map the
+ * segment files of the requested days, skip blocks outside the range by their
+ * header and include the buffered readings.
+ * <p>
+ * The database stays the system of record. On startup, a torn block at the end of
+ * a segment file is cut off, and every day for which the database holds more
+ * readings than the segment file is re-scanned and its missing readings are
+ * copied, which also fills an empty store on first use. Coverage is compared per
+ * day rather than by the highest stored ID because pooled ID allocation and
+ * concurrent transactions commit readings out of ID order.
+ * Disabled unless {@code ecoguard.segment-store.enabled} is set.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+@Service
+public class SensorSegmentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorSegmentStore.class);
+
+    private static final String FILE_PREFIX = "sensor-";
+    private static final String FILE_SUFFIX = ".seg";
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final SensorDataRepository sensorDataRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readTransaction;
+    private final boolean enabled;
+    private final Path directory;
+    private final int blockSize;
+
+    private final NavigableMap<LocalDate, Long> segmentLengths = new TreeMap<>();
+    private final NavigableMap<LocalDate, SegmentBlock> pending = new TreeMap<>();
+    private int pendingCount;
+
+    /**
+     * Receives the readings of a range scan.
+     */
+    @FunctionalInterface
+    public interface ReadingVisitor {
+
+        /**
+         * Accepts one reading.
+         *
+         * @param id the reading ID
+         * @param reading the scaled reading
+         */
+        void accept(long id, ScaledReading reading);
+    }
+
+    /**
+     * Constructs a new SensorSegmentStore with required dependencies.
+     *
+     * @param sensorDataRepository repository the store catches up from on startup
+     * @param entityManager entity manager used to detach streamed readings
+     * @param transactionManager transaction manager for the catch-up read
+     * @param enabled whether the store is used at all
+     * @param directory directory holding the segment files
+     * @param blockSize number of buffered readings after which they are written as a block
+     */
+    public SensorSegmentStore(SensorDataRepository sensorDataRepository,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${ecoguard.segment-store.enabled:false}") boolean enabled,
+                              @Value("${ecoguard.segment-store.directory:./data/segments}") String directory,
+                              @Value("${ecoguard.segment-store.block-size:1024}") int blockSize) {
+        this.sensorDataRepository = sensorDataRepository;
+        this.entityManager = entityManager;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    /**
+     * Returns whether the store is enabled.
+     *
+     * @return true if readings are stored and range queries should be served from the store
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Opens the segment files and copies readings the store is missing from the database.
+     * <p>
+     * Runs before the application accepts requests, so no readings can be ingested
+     * while the catch-up reads the raw table.
+     *
+     * @throws UncheckedIOException if the segment directory cannot be read
+     */
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        Map<LocalDate, Long> storedCounts = new TreeMap<>();
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+                for (Path file : files) {
+                    LocalDate day = dayOf(file);
+                    if (day != null) {
+                        segmentLengths.put(day, recover(file, day, storedCounts));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open segment store in " + directory, e);
+        }
+        catchUp(storedCounts);
+    }
+
+    /**
+     * Adds newly ingested readings to the store.
+     * <p>
+     * When called inside a transaction, the readings are only added after the
+     * transaction commits. The readings must have their IDs assigned.
+     *
+     * @param readings the readings that were inserted
+     */
+    public void record(List<SensorData> readings) {
+        if (!enabled || readings.isEmpty()) {
+            return;
+        }
+        long[] ids = new long[readings.size()];
+        ScaledReading[] scaled = new ScaledReading[readings.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = readings.get(i).getId();
+            scaled[i] = ScaledReading.of(readings.get(i));
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(ids, scaled);
+                }
+            });
+        } else {
+            append(ids, scaled);
+        }
+    }
+
+    /**
+     * Hands every stored reading within a time range to a visitor, oldest first.
+     *
+     * @param start the start timestamp (inclusive)
+     * @param end the end timestamp (inclusive)
+     * @param visitor callback invoked for each reading in timestamp, then ID order
+     * @throws UncheckedIOException if a segment file cannot be read
+     */
+    public void scan(LocalDateTime start, LocalDateTime end, ReadingVisitor visitor) {
+        long fromMillis = ScaledReading.toMillis(start);
+        long toMillis = ScaledReading.toMillis(end);
+        if (toMillis < fromMillis) {
+            return;
+        }
+        NavigableMap<LocalDate, Long> lengths;
+        NavigableMap<LocalDate, SegmentBlock> buffered = new TreeMap<>();
+        synchronized (this) {
+            lengths = new TreeMap<>(segmentLengths.subMap(start.toLocalDate(), true, end.toLocalDate(), true));
+            pending.subMap(start.toLocalDate(), true, end.toLocalDate(), true).forEach((day, block) -> {
+                SegmentBlock copy = new SegmentBlock(block.size());
+                copy.addAll(block, fromMillis, toMillis);
+                buffered.put(day, copy);
+            });
+        }
+
+        NavigableSet<LocalDate> days = new TreeSet<>(lengths.keySet());
+        days.addAll(buffered.keySet());
+        for (LocalDate day : days) {
+            SegmentBlock readings = new SegmentBlock(blockSize);
+            Long length = lengths.get(day);
+            if (length != null) {
+                readSegment(day, length, fromMillis, toMillis, readings);
+            }
+            SegmentBlock dayPending = buffered.get(day);
+            if (dayPending != null) {
+                readings.addAll(dayPending, Long.MIN_VALUE, Long.MAX_VALUE);
+            }
+            readings.sort();
+            for (int i = 0; i < readings.size(); i++) {
+                visitor.accept(readings.id(i), readings.reading(i));
+            }
+        }
+    }
+
+    /**
+     * Writes all buffered readings to their segment files.
+     */
+    @Scheduled(fixedDelayString = "${ecoguard.segment-store.flush-interval-ms:60000}",
+            initialDelayString = "${ecoguard.segment-store.flush-interval-ms:60000}")
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+        while (!pending.isEmpty()) {
+            Map.Entry<LocalDate, SegmentBlock> entry = pending.firstEntry();
+            try {
+                write(entry.getKey(), entry.getValue());
+            } catch (IOException e) {
+                logger.error("Failed to write {} readings to the segment of {}; will retry",
+                        entry.getValue().size(), entry.getKey(), e);
+                return;
+            }
+            pending.pollFirstEntry();
+            pendingCount -= entry.getValue().size();
+        }
+    }
+
+    /**
+     * Writes the buffered readings before shutdown.
+     */
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    /**
+     * Returns the total size of the segment files.
+     *
+     * @return size in bytes, excluding readings that are only buffered
+     */
+    public synchronized long getStoredBytes() {
+        return segmentLengths.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Buffers readings under the day of their timestamp, writing all buffers once
+     * enough readings have accumulated.
+     *
+     * @param ids the reading IDs
+     * @param readings the scaled readings, in the same order as the IDs
+     */
+    private synchronized void append(long[] ids, ScaledReading[] readings) {
+        for (int i = 0; i < ids.length; i++) {
+            LocalDate day = LocalDate.ofEpochDay(Math.floorDiv(readings[i].timestampMillis(), MILLIS_PER_DAY));
+            pending.computeIfAbsent(day, key -> new SegmentBlock(blockSize)).add(ids[i], readings[i]);
+            pendingCount++;
+        }
+        if (pendingCount >= blockSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Appends a block to the segment file of a day and syncs it to disk. A partly
+     * written block is cut off again.
+     *
+     * @param day the day of the block's readings
+     * @param block the readings
+     * @throws IOException if the block cannot be written
+     */
+    private void write(LocalDate day, SegmentBlock block) throws IOException {
+        byte[] encoded = block.encode();
+        try (FileChannel channel = FileChannel.open(fileOf(day), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long length = segmentLengths.getOrDefault(day, 0L);
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(encoded);
+                long position = length;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                channel.truncate(length);
+                throw e;
+            }
+            segmentLengths.put(day, length + encoded.length);
+        }
+    }
+
+    /**
+     * Reads the blocks of a segment file that overlap a time range.
+     *
+     * @param day the day of the segment
+     * @param length number of bytes of the file holding complete blocks
+     * @param fromMillis the start of the range (inclusive)
+     * @param toMillis the end of the range (inclusive)
+     * @param out block the readings within the range are added to
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    private void readSegment(LocalDate day, long length, long fromMillis, long toMillis, SegmentBlock out) {
+        try (FileChannel channel = FileChannel.open(fileOf(day), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            int offset = 0;
+            while (offset < length) {
+                SegmentBlock.Header header = SegmentBlock.readHeader(buffer, offset);
+                if (header == null) {
+                    throw new IOException("Corrupt block at offset " + offset);
+                }
+                if (header.maxTimestamp() >= fromMillis && header.minTimestamp() <= toMillis) {
+                    out.addAll(SegmentBlock.decode(buffer, offset, header), fromMillis, toMillis);
+                }
+                offset += (int) header.length();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read segment of " + day, e);
+        }
+    }
+
+    /**
+     * Validates the blocks of a segment file, cutting off a torn or corrupt tail.
+     *
+     * @param file the segment file
+     * @param day the day of the segment
+     * @param storedCounts map the number of readings in the valid blocks is recorded in
+     * @return the length of the file's valid blocks
+     * @throws IOException if the file cannot be read or truncated
+     */
+    private long recover(Path file, LocalDate day, Map<LocalDate, Long> storedCounts) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            int offset = 0;
+            if (size > 0) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                SegmentBlock.Header header;
+                while (offset < size
+                        && (header = SegmentBlock.readHeader(buffer, offset)) != null
+                        && SegmentBlock.isIntact(buffer, offset, header)) {
+                    storedCounts.merge(day, (long) header.count(), Long::sum);
+                    offset += (int) header.length();
+                }
+            }
+            if (offset < size) {
+                logger.warn("Truncating {} from {} to {} bytes after an incomplete block", file, size, offset);
+                channel.truncate(offset);
+            }
+            return offset;
+        }
+    }
+
+    /**
+     * Copies the readings the segment files are missing from the database. Only
+     * days for which the database holds more readings than the store are re-scanned.
+     *
+     * @param storedCounts number of readings in the segment file of each day
+     */
+    private void catchUp(Map<LocalDate, Long> storedCounts) {
+        long[] copied = {0};
+        readTransaction.executeWithoutResult(status -> {
+            for (SensorDayCount count : sensorDataRepository.countByDay()) {
+                LocalDate day = count.getReadingDay();
+                if (count.getReadings() > storedCounts.getOrDefault(day, 0L)) {
+                    copied[0] += copyMissing(day);
+                }
+            }
+        });
+        flush();
+        if (copied[0] > 0) {
+            logger.info("Copied {} readings into the segment store", copied[0]);
+        }
+    }
+
+    /**
+     * Copies the readings of a day that are not in its segment file from the
+     * database. Must run in a transaction.
+     *
+     * @param day the day to re-scan
+     * @return number of readings copied
+     */
+    private long copyMissing(LocalDate day) {
+        SegmentBlock stored = new SegmentBlock(blockSize);
+        Long length = segmentLengths.get(day);
+        if (length != null) {
+            readSegment(day, length, Long.MIN_VALUE, Long.MAX_VALUE, stored);
+        }
+        long[] storedIds = new long[stored.size()];
+        for (int i = 0; i < storedIds.length; i++) {
+            storedIds[i] = stored.id(i);
+        }
+        Arrays.sort(storedIds);
+
+        long[] copied = {0};
+        LocalDateTime start = day.atStartOfDay();
+        try (Stream<SensorData> rows = sensorDataRepository.streamByTimestampBetween(start,
+                start.plusDays(1).minusNanos(1))) {
+            rows.forEach(row -> {
+                if (Arrays.binarySearch(storedIds, row.getId()) < 0) {
+                    append(new long[] {row.getId()}, new ScaledReading[] {ScaledReading.of(row)});
+                    copied[0]++;
+                }
+                entityManager.detach(row);
+            });
+        }
+        return copied[0];
+    }
+
+    /**
+     * Returns the segment file of a day.
+     *
+     * @param day the day
+     * @return the file path
+     */
+    private Path fileOf(LocalDate day) {
+        return directory.resolve(FILE_PREFIX + day + FILE_SUFFIX);
+    }
+
+    /**
+     * Parses the day from a segment file name.
+     *
+     * @param file the segment file
+     * @return the day, or null if the name is not a segment file name
+     */
+    private static LocalDate dayOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return LocalDate.parse(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+        } catch (DateTimeParseException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+}
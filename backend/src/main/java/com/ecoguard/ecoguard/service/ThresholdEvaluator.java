@@ -0,0 +1,118 @@
+package com.ecoguard.ecoguard.service;
+
+import com.ecoguard.ecoguard.entity.MetricType;
+import com.ecoguard.ecoguard.entity.Threshold;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Stateful threshold evaluation with hysteresis and debounce.
+ * <p>
+ * Keeps a small state machine per metric in memory instead of comparing each
+ * reading against the bounds in isolation:
+ * <ul>
+ *   <li>NORMAL: the value is inside the min/max range.</li>
+ *   <li>PENDING: the value is out of range, but has not stayed out for the
+ *       threshold's minimum duration yet.</li>
+ *   <li>ALARM: the value has been out of range long enough. The metric only returns
+ *       to NORMAL once the value is back inside the range by at least the
+ *       threshold's hysteresis band.</li>
+ * </ul>
+ * Thresholds without hysteresis or minimum duration behave like a plain range check.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+@Service
+public class ThresholdEvaluator {
+
+    /**
+     * Evaluation state of a single metric.
+     */
+    enum State {
+        NORMAL,
+        PENDING,
+        ALARM
+    }
+
+    private final State[] states = new State[MetricType.values().length];
+    private final long[] outOfRangeSince = new long[MetricType.values().length];
+
+    /**
+     * Constructs a new ThresholdEvaluator with every metric in the NORMAL state.
+     */
+    public ThresholdEvaluator() {
+        Arrays.fill(states, State.NORMAL);
+    }
+
+    /**
+     * Feeds a scaled reading into the metric's state machine.
+     * <p>
+     * This is the ingest path: values and bounds are pre-scaled integers, so
+     * evaluation does not allocate.
+     *
+     * @param metric the metric type the value belongs to
+     * @param value the sensor value in the metric's scaled unit (see {@link ScaledReading})
+     * @param timestampMillis timestamp of the reading as local epoch milliseconds
+     * @param threshold the pre-scaled threshold configured for the metric
+     * @return true if the reading is an out-of-range value while the metric is in alarm,
+     *         i.e. it should be recorded as a breach
+     */
+    public synchronized boolean evaluate(MetricType metric, int value, long timestampMillis, ScaledThreshold threshold) {
+        int index = metric.ordinal();
+        State state = states[index];
+        boolean outOfRange = threshold.isOutOfRange(value);
+
+        if (state == State.ALARM) {
+            if (threshold.isCleared(value)) {
+                states[index] = State.NORMAL;
+                return false;
+            }
+            return outOfRange;
+        }
+
+        if (!outOfRange) {
+            states[index] = State.NORMAL;
+            return false;
+        }
+        long since = state == State.PENDING ? outOfRangeSince[index] : timestampMillis;
+        if (threshold.heldLongEnough(since, timestampMillis)) {
+            states[index] = State.ALARM;
+            return true;
+        }
+        states[index] = State.PENDING;
+        outOfRangeSince[index] = since;
+        return false;
+    }
+
+    /**
+     * Feeds a reading into the metric's state machine.
+     * <p>
+     * Convenience overload that scales the value and threshold on every call;
+     * the ingest path uses {@link #evaluate(MetricType, int, long, ScaledThreshold)}.
+     *
+     * @param metric the metric type the value belongs to
+     * @param value the sensor value
+     * @param timestamp timestamp of the reading
+     * @param threshold the threshold configured for the metric
+     * @return true if the reading is an out-of-range value while the metric is in alarm,
+     *         i.e. it should be recorded as a breach
+     */
+    public boolean evaluate(MetricType metric, BigDecimal value, LocalDateTime timestamp, Threshold threshold) {
+        return evaluate(metric, ScaledReading.scale(metric, value), ScaledReading.toMillis(timestamp),
+                ScaledThreshold.of(threshold));
+    }
+
+    /**
+     * Returns the current state of a metric.
+     *
+     * @param metric the metric type
+     * @return the metric's state, NORMAL if it has not been evaluated yet
+     */
+    synchronized State stateOf(MetricType metric) {
+        return states[metric.ordinal()];
+    }
+}
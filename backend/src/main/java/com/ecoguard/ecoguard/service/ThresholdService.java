@@ -1,17 +1,202 @@
 package com.ecoguard.ecoguard.service;
 
+import com.ecoguard.ecoguard.entity.MetricType;
+import com.ecoguard.ecoguard.entity.Threshold;
+import com.ecoguard.ecoguard.repository.ThresholdRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
 /**
- * Service class for threshold-related business logic.
+ * Service class for threshold lookups on the hot path.
  * <p>
- * Currently serves as a placeholder for future threshold processing functionality.
+ * Keeps an immutable, {@link MetricType}-indexed snapshot of all threshold rows in
+ * memory so that sensor ingestion and the read-only threshold endpoints never query
+ * the database. The snapshot is replaced atomically by {@link #refresh()} whenever
+ * thresholds change. Thresholds returned by this service are detached copies and must
+ * be treated as read-only. Listeners registered with {@link #addChangeListener(Consumer)}
+ * are handed every snapshot published by {@link #refresh()}.
  *
  * @author EcoGuard
  * @since 1.0
  */
+@Service
 public class ThresholdService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThresholdService.class);
+
+    private final ThresholdRepository thresholdRepository;
+    private final List<Consumer<List<Threshold>>> changeListeners = new CopyOnWriteArrayList<>();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Immutable view of all thresholds at one point in time.
+     *
+     * @param byMetric thresholds indexed by metric type
+     * @param scaled the same thresholds pre-scaled for evaluation, indexed by metric type
+     * @param all all thresholds in ID order
+     */
+    private record Snapshot(Map<MetricType, Threshold> byMetric, Map<MetricType, ScaledThreshold> scaled,
+                            List<Threshold> all) {}
+
+    /**
+     * Constructs a new ThresholdService with required dependencies.
+     *
+     * @param thresholdRepository repository the snapshot is loaded from
+     */
+    public ThresholdService(ThresholdRepository thresholdRepository) {
+        this.thresholdRepository = thresholdRepository;
+    }
+
+    /**
+     * Returns all thresholds indexed by metric type.
+     *
+     * @return unmodifiable map of thresholds by metric type
+     */
+    public Map<MetricType, Threshold> getThresholds() {
+        return current().byMetric();
+    }
+
+    /**
+     * Returns all thresholds pre-scaled for {@link ThresholdEvaluator}, indexed by metric type.
+     *
+     * @return unmodifiable map of scaled thresholds by metric type
+     */
+    public Map<MetricType, ScaledThreshold> getScaledThresholds() {
+        return current().scaled();
+    }
+
+    /**
+     * Returns all thresholds.
+     *
+     * @return unmodifiable list of thresholds, ordered by ID
+     */
+    public List<Threshold> getAll() {
+        return current().all();
+    }
+
+    /**
+     * Returns the threshold configured for a metric type.
+     *
+     * @param metricType the metric type to look up
+     * @return Optional containing the threshold, or empty if not configured
+     */
+    public Optional<Threshold> getByMetric(MetricType metricType) {
+        return Optional.ofNullable(current().byMetric().get(metricType));
+    }
+
+    /**
+     * Reloads the snapshot from the database and hands it to the change listeners.
+     * <p>
+     * When called inside a transaction the reload is deferred until the transaction
+     * commits, so readers never see uncommitted threshold values.
+     */
+    public void refresh() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notifyChanged(reload());
+                }
+            });
+        } else {
+            notifyChanged(reload());
+        }
+    }
+
+    /**
+     * Registers a listener called with all thresholds whenever {@link #refresh()}
+     * publishes a new snapshot.
+     *
+     * @param listener the listener; must not block, it runs on the refreshing thread
+     */
+    public void addChangeListener(Consumer<List<Threshold>> listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Loads the initial snapshot once startup seeding has completed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Returns the current snapshot, loading it on first use.
+     *
+     * @return the current snapshot
+     */
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        return current != null ? current : reload();
+    }
+
+    /**
+     * Builds a new snapshot from the database and publishes it.
+     *
+     * @return the new snapshot
+     */
+    private synchronized Snapshot reload() {
+        Map<MetricType, Threshold> byMetric = new EnumMap<>(MetricType.class);
+        Map<MetricType, ScaledThreshold> scaled = new EnumMap<>(MetricType.class);
+        List<Threshold> all = new ArrayList<>();
+        for (Threshold threshold : thresholdRepository.findAll()) {
+            Threshold copy = copyOf(threshold);
+            byMetric.put(copy.getMetricType(), copy);
+            scaled.put(copy.getMetricType(), ScaledThreshold.of(copy));
+            all.add(copy);
+        }
+        Snapshot loaded = new Snapshot(Collections.unmodifiableMap(byMetric), Collections.unmodifiableMap(scaled),
+                List.copyOf(all));
+        snapshot = loaded;
+        return loaded;
+    }
+
+    /**
+     * Hands a refreshed snapshot to the change listeners. A failing listener does
+     * not keep the others from being called.
+     *
+     * @param refreshed the snapshot just published
+     */
+    private void notifyChanged(Snapshot refreshed) {
+        for (Consumer<List<Threshold>> listener : changeListeners) {
+            try {
+                listener.accept(refreshed.all());
+            } catch (RuntimeException e) {
+                logger.warn("Threshold change listener failed", e);
+            }
+        }
+    }
+
     /**
-     * Default constructor.
+     * Creates a detached copy of a threshold entity.
+     *
+     * @param threshold the managed threshold entity
+     * @return a detached copy with the same values
      */
-    public ThresholdService() {
+    private static Threshold copyOf(Threshold threshold) {
+        Threshold copy = new Threshold();
+        copy.setId(threshold.getId());
+        copy.setMetricType(threshold.getMetricType());
+        copy.setMinValue(threshold.getMinValue());
+        copy.setMaxValue(threshold.getMaxValue());
+        copy.setHysteresis(threshold.getHysteresis());
+        copy.setMinDurationSeconds(threshold.getMinDurationSeconds());
+        return copy;
     }
-}
\ No newline at end of file
+}
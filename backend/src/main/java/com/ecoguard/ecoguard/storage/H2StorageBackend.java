@@ -0,0 +1,72 @@
+package com.ecoguard.ecoguard.storage;
+
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Storage backend for the embedded H2 database, in file or server mode.
+ * <p>
+ * H2 has no table partitioning, so expired readings are only removed row by row
+ * by the retention job, and counts are exact.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "ecoguard.storage.backend", havingValue = "h2", matchIfMissing = true)
+public class H2StorageBackend implements StorageBackend {
+
+    private final SensorDataRepository sensorDataRepository;
+
+    /**
+     * Constructs a new H2StorageBackend with required dependencies.
+     *
+     * @param sensorDataRepository repository used to count readings
+     */
+    public H2StorageBackend(SensorDataRepository sensorDataRepository) {
+        this.sensorDataRepository = sensorDataRepository;
+    }
+
+    /**
+     * Returns the backend name.
+     *
+     * @return {@code h2}
+     */
+    @Override
+    public String getName() {
+        return "h2";
+    }
+
+    /**
+     * Does nothing; H2 tables are not partitioned.
+     *
+     * @param today the current day
+     */
+    @Override
+    public void preparePartitions(LocalDate today) {
+    }
+
+    /**
+     * Does nothing; H2 tables are not partitioned.
+     *
+     * @param cutoff the first day whose readings are kept
+     * @return always 0
+     */
+    @Override
+    public int releaseSensorDataBefore(LocalDate cutoff) {
+        return 0;
+    }
+
+    /**
+     * Counts the stored readings exactly.
+     *
+     * @return the number of readings
+     */
+    @Override
+    public long countSensorData() {
+        return sensorDataRepository.count();
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecoguard.ecoguard.storage;
+
+import java.time.LocalDate;
+
+/**
+ * Database-specific storage operations.
+ * <p>
+ * Entities are read and written through the Spring Data repositories, for which
+ * Hibernate generates the SQL of the configured dialect. This interface covers
+ * what cannot be expressed that way: time partitioning of {@code sensor_data},
+ * releasing expired partitions and cheap row counts. The implementation is
+ * chosen with {@code ecoguard.storage.backend}, set by the {@code h2server} and
+ * {@code postgres} profiles.
+ *
+ * @author EcoGuard
+ * @since 1.0
+ */
+public interface StorageBackend {
+
+    /**
+     * Returns the backend name reported by the health check.
+     *
+     * @return the name, for example {@code h2} or {@code postgresql}
+     */
+    String getName();
+
+    /**
+     * Makes sure readings from the given day up to the configured look-ahead can be
+     * stored in their own partition. Does nothing on backends without partitioning.
+     *
+     * @param today the current day
+     */
+    void preparePartitions(LocalDate today);
+
+    /**
+     * Drops partitions that only hold readings before a day and are empty.
+     * Called by the retention job once the expired readings are archived and
+     * deleted. Does nothing on backends without partitioning.
+     *
+     * @param cutoff the first day whose readings are kept
+     * @return number of partitions dropped
+     */
+    int releaseSensorDataBefore(LocalDate cutoff);
+
+    /**
+     * Counts the stored sensor readings, possibly as an estimate from table statistics.
+     *
+     * @return the (approximate) number of readings
+     */
+    long countSensorData();
+}
@@ -0,0 +1,19 @@
+-- Sensor readings are partitioned by month of "timestamp". Hibernate's schema update
+-- cannot create partitioned tables, so the table is created here before it runs;
+-- all other tables are created by Hibernate. Monthly partitions are added by
+-- PostgresStorageBackend, readings outside them land in the default partition.
+create sequence if not exists "sensor_data_seq" start with 1 increment by 50;
+
+create table if not exists "sensor_data" (
+    "reading_id" bigint not null,
+    "temperature" numeric(5, 2),
+    "humidity" numeric(5, 2),
+    "co2_level" integer,
+    "light_level" integer,
+    "timestamp" timestamp(6) not null,
+    primary key ("reading_id", "timestamp")
+) partition by range ("timestamp");
+
+create table if not exists "sensor_data_default" partition of "sensor_data" default;
+
+create index if not exists "idx_sensor_data_timestamp_id" on "sensor_data" ("timestamp", "reading_id");
@@ -0,0 +1,181 @@
+package com.ecoguard.ecoguard.benchmark;
+
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import jakarta.persistence.EntityManager;
+import org.h2.tools.Server;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Insert throughput of sensor readings with IDENTITY keys versus a pooled sequence.
+ * <p>
+ * Inserts {@value #ROWS} readings per round in transactions of {@value #CHUNK}
+ * readings, the ingest queue's default group commit, three ways: one statement per
+ * row reading back the identity key, which is what Hibernate does for IDENTITY
+ * entities; Hibernate with sequence IDs but batching turned off; and Hibernate with
+ * sequence IDs and the configured {@code hibernate.jdbc.batch_size}. The database
+ * runs behind an H2 TCP server on loopback so every statement pays a real round
+ * trip. Excluded from the regular test run; start it with
+ * {@code gradle benchmark --tests '*InsertBatchingBenchmark'}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+class InsertBatchingBenchmark {
+
+    private static final int ROWS = 20_000;
+    private static final int CHUNK = 500;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 7;
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private static final String IDENTITY_INSERT_SQL = "insert into \"identity_readings\" "
+            + "(\"temperature\", \"humidity\", \"co2_level\", \"light_level\", \"timestamp\") "
+            + "values (?, ?, ?, ?, ?)";
+
+    private static Server server;
+
+    @Autowired
+    private SensorDataRepository sensorDataRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) throws SQLException, IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = Server.createTcpServer("-tcpPort", Integer.toString(port), "-ifNotExists").start();
+        registry.add("spring.datasource.url", () -> "jdbc:h2:tcp://localhost:" + port + "/mem:insert-benchmark");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    void benchmarkInserts() {
+        jdbcTemplate.execute("create table \"identity_readings\" ("
+                + "\"reading_id\" bigint generated by default as identity primary key, "
+                + "\"temperature\" numeric(5, 2), \"humidity\" numeric(5, 2), "
+                + "\"co2_level\" integer, \"light_level\" integer, \"timestamp\" timestamp not null)");
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        double identity = measure(chunk -> transaction.executeWithoutResult(status -> insertIdentity(chunk)),
+                "\"identity_readings\"");
+        double sequence = measure(chunk -> transaction.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+            sensorDataRepository.batchInsert(chunk);
+        }), "\"sensor_data\"");
+        double batched = measure(chunk -> transaction.executeWithoutResult(status ->
+                sensorDataRepository.batchInsert(chunk)), "\"sensor_data\"");
+
+        System.out.printf("%n%-30s %14s %10s%n", "insert path (" + CHUNK + " per tx)", "p50 rows/s", "speed-up");
+        System.out.printf("%-30s %,14.0f %9.1fx%n", "identity, one row per stmt", identity, 1.0);
+        System.out.printf("%-30s %,14.0f %9.1fx%n", "sequence, batching off", sequence, sequence / identity);
+        System.out.printf("%-30s %,14.0f %9.1fx%n", "sequence, jdbc.batch_size", batched, batched / identity);
+    }
+
+    /**
+     * Inserts readings one statement at a time, reading back each generated key.
+     *
+     * @param chunk the readings to insert
+     */
+    private void insertIdentity(List<SensorData> chunk) {
+        for (SensorData data : chunk) {
+            GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(IDENTITY_INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+                ps.setBigDecimal(1, data.getTemperature());
+                ps.setBigDecimal(2, data.getHumidity());
+                ps.setInt(3, data.getCo2Level());
+                ps.setInt(4, data.getLightLevel());
+                ps.setTimestamp(5, Timestamp.valueOf(data.getTimestamp()));
+                return ps;
+            }, keyHolder);
+            data.setId(keyHolder.getKey().longValue());
+        }
+    }
+
+    /**
+     * Times inserting all readings in chunks, after a warm-up, emptying the table
+     * between rounds.
+     *
+     * @param insert inserts one chunk of new readings in its own transaction
+     * @param table the quoted table written to
+     * @return median rows per second across rounds
+     */
+    private double measure(Consumer<List<SensorData>> insert, String table) {
+        double[] rowsPerSecond = new double[ROUNDS];
+        for (int round = -WARMUP_ROUNDS; round < ROUNDS; round++) {
+            List<List<SensorData>> chunks = readings();
+            long start = System.nanoTime();
+            chunks.forEach(insert);
+            long elapsed = System.nanoTime() - start;
+            if (round >= 0) {
+                rowsPerSecond[round] = ROWS / (elapsed / 1e9);
+            }
+            jdbcTemplate.execute("truncate table " + table);
+        }
+        Arrays.sort(rowsPerSecond);
+        return rowsPerSecond[ROUNDS / 2];
+    }
+
+    /**
+     * Generates new readings.
+     *
+     * @return {@value #ROWS} readings in chunks of {@value #CHUNK}
+     */
+    private static List<List<SensorData>> readings() {
+        List<List<SensorData>> chunks = new ArrayList<>();
+        for (int from = 0; from < ROWS; from += CHUNK) {
+            List<SensorData> chunk = new ArrayList<>(CHUNK);
+            for (int i = from; i < from + CHUNK; i++) {
+                SensorData data = new SensorData();
+                data.setTemperature(BigDecimal.valueOf(1500 + i % 1500, 2));
+                data.setHumidity(BigDecimal.valueOf(3000 + i % 4000, 2));
+                data.setCo2Level(400 + i % 800);
+                data.setLightLevel(i % 4096);
+                data.setTimestamp(T0.plusSeconds(5L * i));
+                chunk.add(data);
+            }
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,118 @@
+package com.ecoguard.ecoguard.benchmark;
+
+import com.ecoguard.ecoguard.config.SensorDataFrameHttpMessageConverter;
+import com.ecoguard.ecoguard.dto.SensorDataFrame;
+import com.ecoguard.ecoguard.dto.SensorDataPayload;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Decode cost and size of a reading sent as JSON versus a binary sensor data frame.
+ * <p>
+ * Reads the same readings through the message converters used by
+ * {@code POST /api/device/sensor-data}: the Jackson converter configured like
+ * Spring Boot's, and {@link SensorDataFrameHttpMessageConverter}. Each round decodes
+ * {@value #READINGS} distinct readings; the first rounds are warm-up. Excluded from
+ * the regular test run; start it with {@code gradle benchmark --tests '*PayloadFormatBenchmark'}.
+ */
+@Tag("benchmark")
+class PayloadFormatBenchmark {
+
+    private static final int READINGS = 10_000;
+    private static final int WARMUP_ROUNDS = 100;
+    private static final int ROUNDS = 200;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void benchmarkDecode() throws IOException {
+        byte[][] json = new byte[READINGS][];
+        byte[][] frames = new byte[READINGS][];
+        LocalDateTime t0 = LocalDateTime.of(2026, 1, 1, 0, 0);
+        for (int i = 0; i < READINGS; i++) {
+            SensorDataPayload payload = new SensorDataPayload();
+            payload.setTemperature(BigDecimal.valueOf(1500 + i % 1500, 2));
+            payload.setHumidity(BigDecimal.valueOf(3000 + i % 4000, 2));
+            payload.setCo2Level(400 + i % 800);
+            payload.setLightLevel(i % 4096);
+            payload.setTimestamp(t0.plusSeconds(5L * i));
+            json[i] = objectMapper.writeValueAsBytes(payload);
+            frames[i] = SensorDataFrame.encode(payload);
+        }
+
+        MappingJackson2HttpMessageConverter jsonConverter = new MappingJackson2HttpMessageConverter(objectMapper);
+        SensorDataFrameHttpMessageConverter frameConverter = new SensorDataFrameHttpMessageConverter();
+        double[] jsonNanos = measure(input -> (SensorDataPayload) jsonConverter.read(SensorDataPayload.class, input),
+                MediaType.APPLICATION_JSON, json);
+        double[] frameNanos = measure(input -> frameConverter.read(SensorDataPayload.class, input),
+                SensorDataFrame.MEDIA_TYPE, frames);
+
+        System.out.printf("%nExample JSON body: %s%n", new String(json[0]));
+        System.out.printf("%-8s %12s %14s %14s%n", "format", "bytes/read", "p50 ns/read", "p90 ns/read");
+        System.out.printf("%-8s %12.1f %14.0f %14.0f%n", "json", averageLength(json), jsonNanos[0], jsonNanos[1]);
+        System.out.printf("%-8s %12.1f %14.0f %14.0f%n", "frame", averageLength(frames), frameNanos[0], frameNanos[1]);
+        System.out.printf("frame decode speed-up: %.1fx%n", jsonNanos[0] / frameNanos[0]);
+    }
+
+    /**
+     * Times decoding all bodies through a converter, after a warm-up.
+     *
+     * @param decoder reads a reading through the converter under test
+     * @param mediaType the content type of the bodies
+     * @param bodies the encoded readings
+     * @return median and 90th percentile nanoseconds per reading across rounds
+     */
+    private static double[] measure(Decoder decoder, MediaType mediaType, byte[][] bodies)
+            throws IOException {
+        long sink = 0;
+        double[] nanos = new double[ROUNDS];
+        for (int round = -WARMUP_ROUNDS; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (byte[] body : bodies) {
+                MockHttpInputMessage input = new MockHttpInputMessage(body);
+                input.getHeaders().setContentType(mediaType);
+                sink += decoder.read(input).getCo2Level();
+            }
+            if (round >= 0) {
+                nanos[round] = (double) (System.nanoTime() - start) / bodies.length;
+            }
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+        Arrays.sort(nanos);
+        return new double[] {nanos[ROUNDS / 2], nanos[ROUNDS * 9 / 10]};
+    }
+
+    /**
+     * Computes the average body length.
+     *
+     * @param bodies the encoded readings
+     * @return average length in bytes
+     */
+    private static double averageLength(byte[][] bodies) {
+        return Arrays.stream(bodies).mapToInt(body -> body.length).average().orElse(0);
+    }
+
+    /**
+     * Reads one reading from a request body.
+     */
+    @FunctionalInterface
+    private interface Decoder {
+        SensorDataPayload read(HttpInputMessage input) throws IOException;
+    }
+}
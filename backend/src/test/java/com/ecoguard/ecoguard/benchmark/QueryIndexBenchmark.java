@@ -0,0 +1,135 @@
+package com.ecoguard.ecoguard.benchmark;
+
+import com.ecoguard.ecoguard.dto.AlertSummary;
+import com.ecoguard.ecoguard.dto.DeviceCommandSummary;
+import com.ecoguard.ecoguard.repository.AlertRepository;
+import com.ecoguard.ecoguard.repository.DeviceCommandRepository;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Latency benchmark for the hot status and polling queries.
+ * <p>
+ * Fills a scratch H2 database with {@code benchmark.rows} sensor readings (10 million
+ * by default), plus one alert per thousand and one command per hundred readings,
+ * then times each query through the real repositories with the declared indexes
+ * and again after dropping them. Excluded from the regular test run; start it with
+ * {@code gradle benchmark [-PbenchmarkRows=N]}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:${java.io.tmpdir}/ecoguard-benchmark/db;OPTIMIZE_REUSE_RESULTS=0",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+class QueryIndexBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 10_000_000);
+    private static final LocalDateTime T0 = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final int READING_INTERVAL_SECONDS = 3;
+
+    private static final String[] INDEXES = {
+            "idx_sensor_data_timestamp_id",
+            "idx_alerts_timestamp",
+            "idx_alerts_type_metric_timestamp",
+            "idx_device_commands_pending",
+            "idx_device_commands_type_created"
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SensorDataRepository sensorDataRepository;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private DeviceCommandRepository deviceCommandRepository;
+
+    @Test
+    void benchmarkHotQueries() {
+        long started = System.nanoTime();
+        populate();
+        System.out.printf("Generated %,d readings in %.1f s%n", ROWS, (System.nanoTime() - started) / 1e9);
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        LocalDateTime middle = T0.plusSeconds((long) ROWS / 2 * READING_INTERVAL_SECONDS);
+        queries.put("sensor latest", sensorDataRepository::findTopByOrderByTimestampDesc);
+        queries.put("sensor range (1 h)", () -> sensorDataRepository.findAllByTimestampBetween(middle, middle.plusHours(1)));
+        queries.put("alert latest", () -> alertRepository.findTopByOrderByTimestampDesc(AlertSummary.class));
+        queries.put("pending commands", () -> deviceCommandRepository
+                .findByDeviceKeyAndExecutedFalseOrderByCreatedAtAsc("device-7"));
+        queries.put("latest message", () -> deviceCommandRepository
+                .findTopByCommandTypeOrderByCommandTypeDescCreatedAtDesc("DISPLAY_MESSAGE", DeviceCommandSummary.class));
+
+        Map<String, double[]> indexed = new LinkedHashMap<>();
+        queries.forEach((name, query) -> indexed.put(name, measure(query, 500, 200)));
+
+        for (String index : INDEXES) {
+            jdbcTemplate.execute("drop index \"" + index + "\"");
+        }
+        Map<String, double[]> scanned = new LinkedHashMap<>();
+        queries.forEach((name, query) -> scanned.put(name, measure(query, 1, 5)));
+
+        System.out.printf("%n%-20s %14s %14s %14s %14s%n", "query (" + ROWS + " rows)",
+                "indexed p50", "indexed p99", "no index p50", "no index p99");
+        queries.keySet().forEach(name -> System.out.printf("%-20s %11.3f ms %11.3f ms %11.3f ms %11.3f ms%n", name,
+                indexed.get(name)[0], indexed.get(name)[1], scanned.get(name)[0], scanned.get(name)[1]));
+    }
+
+    /**
+     * Generates the benchmark data set with set-based inserts.
+     */
+    private void populate() {
+        jdbcTemplate.update("insert into \"sensor_data\" "
+                + "(\"reading_id\", \"temperature\", \"humidity\", \"co2_level\", \"light_level\", \"timestamp\") "
+                + "select x, 15 + mod(x, 150) / 10.0, 30 + mod(x, 40), 400 + mod(x, 800), mod(x, 1000), "
+                + "dateadd('SECOND', x * cast(? as int), cast(? as timestamp)) from system_range(1, cast(? as bigint))",
+                READING_INTERVAL_SECONDS, T0, ROWS);
+        jdbcTemplate.update("insert into \"alerts\" "
+                + "(\"alert_id\", \"alert_type\", \"metric_type\", \"value\", \"timestamp\", \"occurrences\", \"acknowledged\") "
+                + "select x, 'THRESHOLD', case mod(x, 4) when 0 then 'TEMP' when 1 then 'HUMIDITY' when 2 then 'CO2' "
+                + "else 'LIGHT' end, 40, dateadd('SECOND', x * cast(? as int), cast(? as timestamp)), 1, false from system_range(1, cast(? as bigint))",
+                READING_INTERVAL_SECONDS * 1000, T0, ROWS / 1000);
+        jdbcTemplate.update("insert into \"device_commands\" "
+                + "(\"command_id\", \"device_key\", \"command_type\", \"parameters\", \"executed\", \"created_at\") "
+                + "select x, 'device-' || mod(x, 100), case mod(x, 3) when 0 then 'DISPLAY_MESSAGE' "
+                + "when 1 then 'SET_LED_COLOR' else 'REFRESH_CONFIG' end, 'p' || x, mod(x, 1000) >= 100, "
+                + "dateadd('SECOND', x * cast(? as int), cast(? as timestamp)) from system_range(1, cast(? as bigint))",
+                READING_INTERVAL_SECONDS * 100, T0, ROWS / 100);
+        jdbcTemplate.execute("analyze");
+    }
+
+    /**
+     * Times a query after a warm-up.
+     *
+     * @param query the query to run
+     * @param warmup number of untimed runs
+     * @param iterations number of timed runs
+     * @return median and 99th percentile latency in milliseconds
+     */
+    private static double[] measure(Runnable query, int warmup, int iterations) {
+        for (int i = 0; i < warmup; i++) {
+            query.run();
+        }
+        double[] millis = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            query.run();
+            millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(millis);
+        return new double[] {millis[iterations / 2], millis[Math.min(iterations - 1, (int) Math.ceil(iterations * 0.99) - 1)]};
+    }
+}
@@ -0,0 +1,222 @@
+package com.ecoguard.ecoguard.benchmark;
+
+import com.ecoguard.ecoguard.entity.MetricType;
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.entity.Threshold;
+import com.ecoguard.ecoguard.service.ScaledReading;
+import com.ecoguard.ecoguard.service.ScaledThreshold;
+import com.ecoguard.ecoguard.service.ThresholdEvaluator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Time and heap allocation of threshold evaluation per reading.
+ * <p>
+ * Compares the {@link BigDecimal} evaluation the ingest path used before readings
+ * were evaluated as a {@link ScaledReading} (reproduced in {@link DecimalEvaluator})
+ * with {@link ThresholdEvaluator}'s primitive path. All four metrics of each reading
+ * are evaluated against thresholds with hysteresis and a minimum duration, and values
+ * wander across the bounds so every state is visited. Allocation is read from the
+ * JVM's per-thread allocation counter. Each round evaluates {@value #READINGS}
+ * readings; the first rounds are warm-up. Excluded from the regular test run; start
+ * it with {@code gradle benchmark --tests '*ReadingEvaluationBenchmark'}.
+ */
+@Tag("benchmark")
+class ReadingEvaluationBenchmark {
+
+    private static final int READINGS = 10_000;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int ROUNDS = 200;
+    private static final MetricType[] METRICS = MetricType.values();
+
+    private long sink;
+
+    @Test
+    void benchmarkEvaluate() {
+        SensorData[] readings = new SensorData[READINGS];
+        LocalDateTime t0 = LocalDateTime.of(2026, 1, 1, 0, 0);
+        for (int i = 0; i < READINGS; i++) {
+            SensorData data = new SensorData();
+            data.setTimestamp(t0.plusSeconds(5L * i));
+            data.setTemperature(BigDecimal.valueOf(1500 + (i * 7) % 1800, 2));
+            data.setHumidity(BigDecimal.valueOf(2500 + (i * 13) % 6000, 2));
+            data.setCo2Level(400 + (i * 11) % 1000);
+            data.setLightLevel((i * 17) % 4096);
+            readings[i] = data;
+        }
+        Map<MetricType, Threshold> thresholds = new EnumMap<>(MetricType.class);
+        thresholds.put(MetricType.TEMP, threshold(MetricType.TEMP, "18.00", "30.00", "0.50"));
+        thresholds.put(MetricType.HUMIDITY, threshold(MetricType.HUMIDITY, "30.00", "70.00", "2.00"));
+        thresholds.put(MetricType.CO2, threshold(MetricType.CO2, "400.00", "1200.00", "50.00"));
+        thresholds.put(MetricType.LIGHT, threshold(MetricType.LIGHT, "100.00", "4000.00", "10.00"));
+        Map<MetricType, ScaledThreshold> scaled = new EnumMap<>(MetricType.class);
+        thresholds.forEach((metric, threshold) -> scaled.put(metric, ScaledThreshold.of(threshold)));
+
+        DecimalEvaluator decimal = new DecimalEvaluator();
+        Result decimalResult = measure(readings, reading -> {
+            sink += evaluateDecimal(decimal, MetricType.TEMP, reading.getTemperature(), reading, thresholds);
+            sink += evaluateDecimal(decimal, MetricType.HUMIDITY, reading.getHumidity(), reading, thresholds);
+            sink += evaluateDecimal(decimal, MetricType.CO2, toBigDecimal(reading.getCo2Level()), reading, thresholds);
+            sink += evaluateDecimal(decimal, MetricType.LIGHT, toBigDecimal(reading.getLightLevel()), reading, thresholds);
+        });
+        ThresholdEvaluator evaluator = new ThresholdEvaluator();
+        Result primitiveResult = measure(readings, reading -> {
+            ScaledReading values = ScaledReading.of(reading);
+            for (MetricType metric : METRICS) {
+                int value = values.valueOf(metric);
+                if (value != ScaledReading.ABSENT
+                        && evaluator.evaluate(metric, value, values.timestampMillis(), scaled.get(metric))) {
+                    sink++;
+                }
+            }
+        });
+
+        System.out.printf("%n%-10s %16s %14s %14s%n", "path", "bytes/reading", "p50 ns/read", "p90 ns/read");
+        print("decimal", decimalResult);
+        print("primitive", primitiveResult);
+        System.out.printf("breaches: %d%n", sink);
+    }
+
+    /**
+     * Runs the evaluation over all readings, after a warm-up.
+     *
+     * @param readings the readings
+     * @param evaluation evaluates all metrics of one reading
+     * @return allocation and time per reading across rounds
+     */
+    private static Result measure(SensorData[] readings, Consumer<SensorData> evaluation) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        double[] nanos = new double[ROUNDS];
+        long allocated = 0;
+        for (int round = -WARMUP_ROUNDS; round < ROUNDS; round++) {
+            long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (SensorData reading : readings) {
+                evaluation.accept(reading);
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round >= 0) {
+                nanos[round] = (double) elapsed / readings.length;
+                allocated += threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+            }
+        }
+        Arrays.sort(nanos);
+        return new Result((double) allocated / ((long) ROUNDS * readings.length), nanos[ROUNDS / 2], nanos[ROUNDS * 9 / 10]);
+    }
+
+    /**
+     * Prints one result row.
+     *
+     * @param path name of the evaluation path
+     * @param result the measured result
+     */
+    private static void print(String path, Result result) {
+        System.out.printf("%-10s %16.1f %14.1f %14.1f%n", path, result.bytesPerReading(), result.p50Nanos(), result.p90Nanos());
+    }
+
+    /**
+     * Evaluates one metric the way the ingest path did before scaled readings.
+     *
+     * @param evaluator the decimal evaluator
+     * @param metric the metric type
+     * @param value the value, may be null
+     * @param reading the reading
+     * @param thresholds thresholds indexed by metric type
+     * @return 1 on a breach, 0 otherwise
+     */
+    private static int evaluateDecimal(DecimalEvaluator evaluator, MetricType metric, BigDecimal value,
+                                       SensorData reading, Map<MetricType, Threshold> thresholds) {
+        Threshold threshold = thresholds.get(metric);
+        if (value == null || threshold == null) {
+            return 0;
+        }
+        return evaluator.evaluate(metric, value, reading.getTimestamp(), threshold) ? 1 : 0;
+    }
+
+    /**
+     * Converts an integer metric like the ingest path did before scaled readings.
+     *
+     * @param value the value, may be null
+     * @return the value as a BigDecimal, or null
+     */
+    private static BigDecimal toBigDecimal(Integer value) {
+        return value == null ? null : new BigDecimal(value);
+    }
+
+    /**
+     * Creates a threshold.
+     *
+     * @param metric the metric type
+     * @param min the minimum value
+     * @param max the maximum value
+     * @param hysteresis the hysteresis band
+     * @return the threshold, with a 30 second minimum duration
+     */
+    private static Threshold threshold(MetricType metric, String min, String max, String hysteresis) {
+        Threshold threshold = new Threshold();
+        threshold.setMetricType(metric);
+        threshold.setMinValue(new BigDecimal(min));
+        threshold.setMaxValue(new BigDecimal(max));
+        threshold.setHysteresis(new BigDecimal(hysteresis));
+        threshold.setMinDurationSeconds(30);
+        return threshold;
+    }
+
+    /**
+     * Allocation and time per reading.
+     *
+     * @param bytesPerReading average heap bytes allocated per reading
+     * @param p50Nanos median nanoseconds per reading across rounds
+     * @param p90Nanos 90th percentile nanoseconds per reading across rounds
+     */
+    private record Result(double bytesPerReading, double p50Nanos, double p90Nanos) {}
+
+    /**
+     * The threshold state machine as it evaluated {@link BigDecimal} values with
+     * {@link LocalDateTime} timestamps, kept as the baseline.
+     */
+    private static final class DecimalEvaluator {
+
+        private final Map<MetricType, Integer> states = new EnumMap<>(MetricType.class);
+        private final Map<MetricType, LocalDateTime> outOfRangeSince = new EnumMap<>(MetricType.class);
+
+        boolean evaluate(MetricType metric, BigDecimal value, LocalDateTime timestamp, Threshold threshold) {
+            int state = states.getOrDefault(metric, 0);
+            boolean outOfRange = value.compareTo(threshold.getMinValue()) < 0
+                    || value.compareTo(threshold.getMaxValue()) > 0;
+            if (state == 2) {
+                BigDecimal band = threshold.getHysteresis();
+                if (value.compareTo(threshold.getMinValue().add(band)) >= 0
+                        && value.compareTo(threshold.getMaxValue().subtract(band)) <= 0) {
+                    states.remove(metric);
+                    outOfRangeSince.remove(metric);
+                    return false;
+                }
+                return outOfRange;
+            }
+            if (!outOfRange) {
+                states.remove(metric);
+                outOfRangeSince.remove(metric);
+                return false;
+            }
+            LocalDateTime since = state == 1 ? outOfRangeSince.get(metric) : timestamp;
+            if (Duration.between(since, timestamp).getSeconds() >= threshold.getMinDurationSeconds()) {
+                states.put(metric, 2);
+                outOfRangeSince.remove(metric);
+                return true;
+            }
+            states.put(metric, 1);
+            outOfRangeSince.put(metric, since);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.ecoguard.ecoguard.benchmark;
+
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import com.ecoguard.ecoguard.service.SensorSegmentStore;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Storage footprint and range-scan cost of the segment store.
+ * <p>
+ * Writes {@code benchmark.segmentReadings} readings (one million by default, one
+ * every 3 seconds with slowly drifting values) through {@link SensorSegmentStore#record(List)}
+ * and reports the bytes stored per reading, then times scans of one hour, one day
+ * and the whole history. Excluded from the regular test run; start it with
+ * {@code gradle benchmark --tests '*SegmentStoreBenchmark'}.
+ */
+@Tag("benchmark")
+class SegmentStoreBenchmark {
+
+    private static final int READINGS = Integer.getInteger("benchmark.segmentReadings", 1_000_000);
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final int READING_INTERVAL_SECONDS = 3;
+    private static final int ROUNDS = 20;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void benchmarkStore() {
+        SensorDataRepository repository = Mockito.mock(SensorDataRepository.class);
+        SensorSegmentStore store = new SensorSegmentStore(repository, Mockito.mock(EntityManager.class),
+                Mockito.mock(PlatformTransactionManager.class), true, directory.toString(), 1024);
+        store.open();
+
+        long start = System.nanoTime();
+        List<SensorData> batch = new ArrayList<>();
+        for (int i = 0; i < READINGS; i++) {
+            batch.add(reading(i));
+            if (batch.size() == 100) {
+                store.record(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        store.record(batch);
+        store.flush();
+        double writeNanos = (double) (System.nanoTime() - start) / READINGS;
+
+        LocalDateTime last = T0.plusSeconds((long) READING_INTERVAL_SECONDS * (READINGS - 1));
+        LocalDateTime middle = T0.plusSeconds((long) READING_INTERVAL_SECONDS * READINGS / 2);
+        System.out.printf("%nStored %d readings in %d bytes: %.2f bytes/reading, %.0f ns/reading to write%n",
+                READINGS, store.getStoredBytes(), (double) store.getStoredBytes() / READINGS, writeNanos);
+        System.out.printf("%-10s %10s %14s %14s%n", "range", "readings", "p50 ms", "ns/reading");
+        scan(store, "1 hour", middle, middle.plusHours(1));
+        scan(store, "1 day", middle, middle.plusDays(1));
+        scan(store, "all", T0, last);
+    }
+
+    /**
+     * Times a range scan and prints the result.
+     *
+     * @param store the store
+     * @param label name of the range
+     * @param start the start timestamp
+     * @param end the end timestamp
+     */
+    private static void scan(SensorSegmentStore store, String label, LocalDateTime start, LocalDateTime end) {
+        double[] millis = new double[ROUNDS];
+        long[] count = new long[1];
+        for (int round = -5; round < ROUNDS; round++) {
+            count[0] = 0;
+            long begin = System.nanoTime();
+            store.scan(start, end, (id, reading) -> count[0] += reading.co2Level() > 0 ? 1 : 0);
+            if (round >= 0) {
+                millis[round] = (System.nanoTime() - begin) / 1e6;
+            }
+        }
+        Arrays.sort(millis);
+        System.out.printf("%-10s %10d %14.2f %14.1f%n", label, count[0], millis[ROUNDS / 2],
+                millis[ROUNDS / 2] * 1e6 / Math.max(1, count[0]));
+    }
+
+    /**
+     * Generates a reading.
+     *
+     * @param i the reading index
+     * @return the reading
+     */
+    private static SensorData reading(int i) {
+        SensorData data = new SensorData();
+        data.setId(i + 1L);
+        data.setTimestamp(T0.plusSeconds((long) READING_INTERVAL_SECONDS * i));
+        data.setTemperature(BigDecimal.valueOf(2000 + (i / 40) % 300, 2));
+        data.setHumidity(BigDecimal.valueOf(4000 + (i / 25) % 1500, 2));
+        data.setCo2Level(450 + (i / 10) % 600);
+        data.setLightLevel((i / 100) % 1000);
+        return data;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecoguard.ecoguard.config;
+
+import com.ecoguard.ecoguard.controller.DeviceWebSocketHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for DeviceHandshakeInterceptor.
+ */
+class DeviceHandshakeInterceptorTest {
+
+    private final DeviceHandshakeInterceptor interceptor = new DeviceHandshakeInterceptor();
+
+    @Test
+    void testBeforeHandshake_HeaderKeyAccepted() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/device/ws");
+        request.addHeader("X-Device-Key", "demo-device-key");
+        Map<String, Object> attributes = new HashMap<>();
+
+        assertTrue(handshake(request, new MockHttpServletResponse(), attributes));
+        assertEquals("demo-device-key", attributes.get(DeviceWebSocketHandler.ATTR_DEVICE_KEY));
+    }
+
+    @Test
+    void testBeforeHandshake_QueryKeyAccepted() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/device/ws");
+        request.setQueryString("key=demo-device-key");
+        Map<String, Object> attributes = new HashMap<>();
+
+        assertTrue(handshake(request, new MockHttpServletResponse(), attributes));
+        assertEquals("demo-device-key", attributes.get(DeviceWebSocketHandler.ATTR_DEVICE_KEY));
+    }
+
+    @Test
+    void testBeforeHandshake_InvalidKeyRejected() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/device/ws");
+        request.addHeader("X-Device-Key", "wrong-key");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Map<String, Object> attributes = new HashMap<>();
+
+        assertFalse(handshake(request, response, attributes));
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), response.getStatus());
+        assertTrue(attributes.isEmpty());
+    }
+
+    private boolean handshake(MockHttpServletRequest request, MockHttpServletResponse response,
+                              Map<String, Object> attributes) {
+        ServletServerHttpResponse serverResponse = new ServletServerHttpResponse(response);
+        boolean accepted = interceptor.beforeHandshake(new ServletServerHttpRequest(request), serverResponse,
+                mock(DeviceWebSocketHandler.class), attributes);
+        serverResponse.close();
+        return accepted;
+    }
+}
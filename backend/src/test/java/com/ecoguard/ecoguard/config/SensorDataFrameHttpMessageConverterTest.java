@@ -0,0 +1,83 @@
+package com.ecoguard.ecoguard.config;
+
+import com.ecoguard.ecoguard.dto.SensorDataFrame;
+import com.ecoguard.ecoguard.dto.SensorDataPayload;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SensorDataFrameHttpMessageConverter and the SensorDataFrame encoding.
+ */
+class SensorDataFrameHttpMessageConverterTest {
+
+    private final SensorDataFrameHttpMessageConverter converter = new SensorDataFrameHttpMessageConverter();
+
+    @Test
+    void testEncode_FixedLayout() {
+        SensorDataPayload payload = new SensorDataPayload();
+        payload.setTemperature(new BigDecimal("-1.5"));
+        payload.setCo2Level(850);
+
+        byte[] frame = SensorDataFrame.encode(payload);
+
+        assertArrayEquals(new byte[] {1, 0b101, (byte) 0xFF, (byte) 0x6A, 0x03, 0x52}, frame);
+    }
+
+    @Test
+    void testRead_RoundTripsAllFields() throws Exception {
+        SensorDataPayload payload = new SensorDataPayload();
+        payload.setTemperature(new BigDecimal("21.57"));
+        payload.setHumidity(new BigDecimal("45.5"));
+        payload.setCo2Level(1200);
+        payload.setLightLevel(4095);
+        payload.setTimestamp(LocalDateTime.of(2026, 3, 1, 12, 30, 15));
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(payload, SensorDataFrame.MEDIA_TYPE, output);
+        assertEquals(SensorDataFrame.MAX_LENGTH, output.getBodyAsBytes().length);
+
+        SensorDataPayload read = converter.read(SensorDataPayload.class, new MockHttpInputMessage(output.getBodyAsBytes()));
+
+        assertEquals(new BigDecimal("21.57"), read.getTemperature());
+        assertEquals(0, new BigDecimal("45.5").compareTo(read.getHumidity()));
+        assertEquals(1200, read.getCo2Level());
+        assertEquals(4095, read.getLightLevel());
+        assertEquals(payload.getTimestamp(), read.getTimestamp());
+    }
+
+    @Test
+    void testRead_InvalidFramesRejected() {
+        assertThrows(HttpMessageNotReadableException.class, () -> read(new byte[] {1}));
+        assertThrows(HttpMessageNotReadableException.class, () -> read(new byte[] {2, 0b100, 0x03, 0x52}));
+        assertThrows(HttpMessageNotReadableException.class, () -> read(new byte[] {1, (byte) 0x80}));
+        assertThrows(HttpMessageNotReadableException.class, () -> read(new byte[] {1, 0b100, 0x03}));
+        assertThrows(HttpMessageNotReadableException.class, () -> read(new byte[] {1, 0b100, 0x03, 0x52, 0x00}));
+        assertThrows(HttpMessageNotReadableException.class, () -> read(new byte[32]));
+    }
+
+    @Test
+    void testEncode_OutOfRangeValueRejected() {
+        SensorDataPayload payload = new SensorDataPayload();
+        payload.setCo2Level(70000);
+
+        assertThrows(IllegalArgumentException.class, () -> SensorDataFrame.encode(payload));
+    }
+
+    @Test
+    void testCanRead_OnlyFrameMediaTypeAndPayload() {
+        assertTrue(converter.canRead(SensorDataPayload.class, SensorDataFrame.MEDIA_TYPE));
+        assertFalse(converter.canRead(SensorDataPayload.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(String.class, SensorDataFrame.MEDIA_TYPE));
+    }
+
+    private SensorDataPayload read(byte[] frame) throws Exception {
+        return converter.read(SensorDataPayload.class, new MockHttpInputMessage(frame));
+    }
+}
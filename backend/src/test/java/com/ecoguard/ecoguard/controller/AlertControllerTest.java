@@ -104,25 +104,23 @@ class AlertControllerTest {
 
     @Test
     void testAcknowledgeAlert_Success() {
-        when(alertRepository.findById(1L)).thenReturn(Optional.of(testAlert));
-        when(alertRepository.save(any(Alert.class))).thenReturn(testAlert);
+        when(alertRepository.acknowledge(1L)).thenReturn(1);
 
         ResponseEntity<?> response = alertController.acknowledgeAlert(1L);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertTrue(testAlert.getAcknowledged());
-        verify(alertRepository, times(1)).findById(1L);
-        verify(alertRepository, times(1)).save(testAlert);
+        verify(alertRepository, times(1)).acknowledge(1L);
+        verify(alertRepository, never()).findById(any());
+        verify(alertRepository, never()).save(any());
     }
 
     @Test
     void testAcknowledgeAlert_NotFound() {
-        when(alertRepository.findById(999L)).thenReturn(Optional.empty());
+        when(alertRepository.acknowledge(999L)).thenReturn(0);
 
         ResponseEntity<?> response = alertController.acknowledgeAlert(999L);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(alertRepository, times(1)).findById(999L);
         verify(alertRepository, never()).save(any());
     }
 }
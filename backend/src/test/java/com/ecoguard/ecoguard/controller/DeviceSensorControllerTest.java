@@ -2,10 +2,14 @@ package com.ecoguard.ecoguard.controller;
 
 import com.ecoguard.ecoguard.dto.DeviceCommandResponse;
 import com.ecoguard.ecoguard.dto.SensorDataPayload;
+import com.ecoguard.ecoguard.dto.SensorIngestResult;
 import com.ecoguard.ecoguard.dto.ThresholdDeviceResponse;
 import com.ecoguard.ecoguard.entity.*;
-import com.ecoguard.ecoguard.repository.*;
-import com.ecoguard.ecoguard.service.PushNotificationService;
+import com.ecoguard.ecoguard.service.DeviceCommandService;
+import com.ecoguard.ecoguard.service.DevicePresenceRegistry;
+import com.ecoguard.ecoguard.service.SensorDataService;
+import com.ecoguard.ecoguard.service.SensorIngestQueue;
+import com.ecoguard.ecoguard.service.ThresholdService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,18 +18,16 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
-import static org.mockito.Mockito.lenient;
 
 /**
  * Unit tests for DeviceSensorController.
@@ -34,22 +36,19 @@ import static org.mockito.Mockito.lenient;
 class DeviceSensorControllerTest {
 
     @Mock
-    private SensorDataRepository sensorDataRepository;
+    private SensorDataService sensorDataService;
 
     @Mock
-    private ThresholdRepository thresholdRepository;
+    private SensorIngestQueue sensorIngestQueue;
 
     @Mock
-    private AlertRepository alertRepository;
+    private ThresholdService thresholdService;
 
     @Mock
-    private DeviceCommandRepository deviceCommandRepository;
+    private DeviceCommandService deviceCommandService;
 
     @Mock
-    private UserRepository userRepository;
-
-    @Mock
-    private PushNotificationService pushNotificationService;
+    private DevicePresenceRegistry devicePresenceRegistry;
 
     @InjectMocks
     private DeviceSensorController deviceSensorController;
@@ -74,32 +73,42 @@ class DeviceSensorControllerTest {
 
     @Test
     void testIngest_Success() {
-        SensorData savedData = new SensorData();
-        savedData.setId(1L);
-        savedData.setTemperature(testPayload.getTemperature());
-        savedData.setHumidity(testPayload.getHumidity());
-        savedData.setCo2Level(testPayload.getCo2Level());
-        savedData.setLightLevel(testPayload.getLightLevel());
-        savedData.setTimestamp(LocalDateTime.now());
-
-        when(sensorDataRepository.save(any(SensorData.class))).thenReturn(savedData);
-        lenient().when(thresholdRepository.findByMetricType(MetricType.TEMP)).thenReturn(Optional.empty());
-        lenient().when(thresholdRepository.findByMetricType(MetricType.HUMIDITY)).thenReturn(Optional.empty());
-        lenient().when(thresholdRepository.findByMetricType(MetricType.CO2)).thenReturn(Optional.empty());
-        lenient().when(thresholdRepository.findByMetricType(MetricType.LIGHT)).thenReturn(Optional.empty());
-        lenient().when(userRepository.findByDeviceTokenIsNotNull()).thenReturn(List.of());
-
-        ResponseEntity<?> response = deviceSensorController.ingest(testPayload);
+        when(sensorIngestQueue.offer(testPayload)).thenReturn(true);
 
-        assertEquals(HttpStatus.OK, response.getStatusCode());
+        ResponseEntity<?> response = deviceSensorController.ingest("demo-device-key", testPayload);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
         assertNotNull(response.getBody());
         assertTrue(response.getBody() instanceof Map);
-        verify(sensorDataRepository, times(1)).save(any(SensorData.class));
+        verify(sensorIngestQueue, times(1)).offer(testPayload);
+        verify(devicePresenceRegistry, times(1)).recordReadings("demo-device-key", List.of(testPayload));
+        verifyNoInteractions(sensorDataService);
+    }
+
+    @Test
+    void testIngest_WithoutHeaderRecordedForDefaultDevice() {
+        when(sensorIngestQueue.offer(testPayload)).thenReturn(true);
+
+        deviceSensorController.ingest(null, testPayload);
+
+        verify(devicePresenceRegistry, times(1)).recordReadings(DevicePresenceRegistry.DEFAULT_DEVICE_KEY, List.of(testPayload));
+    }
+
+    @Test
+    void testIngest_QueueFull() {
+        when(sensorIngestQueue.offer(testPayload)).thenReturn(false);
+        when(sensorIngestQueue.getRetryAfterSeconds()).thenReturn(2L);
+
+        ResponseEntity<?> response = deviceSensorController.ingest("demo-device-key", testPayload);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst("Retry-After"));
+        verifyNoInteractions(devicePresenceRegistry);
     }
 
     @Test
     void testIngest_NullPayload() {
-        ResponseEntity<?> response = deviceSensorController.ingest(null);
+        ResponseEntity<?> response = deviceSensorController.ingest("demo-device-key", null);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -112,7 +121,7 @@ class DeviceSensorControllerTest {
     void testIngest_NoMetrics() {
         SensorDataPayload emptyPayload = new SensorDataPayload();
 
-        ResponseEntity<?> response = deviceSensorController.ingest(emptyPayload);
+        ResponseEntity<?> response = deviceSensorController.ingest("demo-device-key", emptyPayload);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -122,37 +131,57 @@ class DeviceSensorControllerTest {
     }
 
     @Test
-    void testIngest_ThresholdBreach() {
-        SensorDataPayload breachPayload = new SensorDataPayload();
-        breachPayload.setTemperature(new BigDecimal("35.0")); // Above max threshold
-
-        SensorData savedData = new SensorData();
-        savedData.setId(1L);
-        savedData.setTemperature(breachPayload.getTemperature());
-        savedData.setTimestamp(LocalDateTime.now());
+    void testIngest_NoMetrics_DoesNotPersist() {
+        deviceSensorController.ingest("demo-device-key", new SensorDataPayload());
 
-        Threshold tempThreshold = new Threshold();
-        tempThreshold.setMetricType(MetricType.TEMP);
-        tempThreshold.setMinValue(new BigDecimal("10.0"));
-        tempThreshold.setMaxValue(new BigDecimal("30.0"));
+        verify(sensorIngestQueue, never()).offer(any());
+    }
 
-        when(sensorDataRepository.save(any(SensorData.class))).thenReturn(savedData);
-        when(thresholdRepository.findByMetricType(MetricType.TEMP)).thenReturn(Optional.of(tempThreshold));
-        // Use lenient for other metrics since they're checked but won't breach
-        lenient().when(thresholdRepository.findByMetricType(MetricType.HUMIDITY)).thenReturn(Optional.empty());
-        lenient().when(thresholdRepository.findByMetricType(MetricType.CO2)).thenReturn(Optional.empty());
-        lenient().when(thresholdRepository.findByMetricType(MetricType.LIGHT)).thenReturn(Optional.empty());
-        when(alertRepository.save(any(Alert.class))).thenAnswer(invocation -> {
-            Alert alert = invocation.getArgument(0);
-            alert.setId(1L);
-            return alert;
-        });
-        when(userRepository.findByDeviceTokenIsNotNull()).thenReturn(List.of());
+    @Test
+    void testIngestBatch_Success() {
+        SensorDataPayload second = new SensorDataPayload();
+        second.setCo2Level(1500);
+        List<SensorDataPayload> batch = List.of(testPayload, second);
+        when(sensorDataService.ingestBatch(batch)).thenReturn(List.of(
+                new SensorIngestResult(1L, List.of()),
+                new SensorIngestResult(2L, List.of(7L))));
 
-        ResponseEntity<?> response = deviceSensorController.ingest(breachPayload);
+        ResponseEntity<?> response = deviceSensorController.ingestBatch("demo-device-key", batch);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        verify(alertRepository, atLeastOnce()).save(any(Alert.class));
+        Map<?, ?> responseBody = (Map<?, ?>) response.getBody();
+        assertEquals(2, responseBody.get("accepted"));
+        List<?> results = (List<?>) responseBody.get("results");
+        assertEquals(List.of(7L), ((SensorIngestResult) results.get(1)).alertsCreated());
+        verify(sensorDataService, times(1)).ingestBatch(batch);
+    }
+
+    @Test
+    void testIngestBatch_Empty() {
+        ResponseEntity<?> response = deviceSensorController.ingestBatch("demo-device-key", List.of());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(sensorDataService, never()).ingestBatch(any());
+    }
+
+    @Test
+    void testIngestBatch_TooLarge() {
+        List<SensorDataPayload> batch = java.util.Collections.nCopies(DeviceSensorController.MAX_BATCH_SIZE + 1, testPayload);
+
+        ResponseEntity<?> response = deviceSensorController.ingestBatch("demo-device-key", batch);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(sensorDataService, never()).ingestBatch(any());
+    }
+
+    @Test
+    void testIngestBatch_ReadingWithoutMetrics() {
+        ResponseEntity<?> response = deviceSensorController.ingestBatch("demo-device-key", List.of(testPayload, new SensorDataPayload()));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        Map<?, ?> responseBody = (Map<?, ?>) response.getBody();
+        assertTrue(responseBody.get("message").toString().contains("Reading 1"));
+        verify(sensorDataService, never()).ingestBatch(any());
     }
 
     @Test
@@ -168,76 +197,97 @@ class DeviceSensorControllerTest {
         threshold2.setMaxValue(new BigDecimal("80.0"));
 
         List<Threshold> thresholds = Arrays.asList(threshold1, threshold2);
-        when(thresholdRepository.findAll()).thenReturn(thresholds);
+        when(thresholdService.getAll()).thenReturn(thresholds);
 
         List<ThresholdDeviceResponse> result = deviceSensorController.getThresholds();
 
         assertEquals(2, result.size());
         assertEquals("TEMP", result.get(0).metricType());
         assertEquals("HUMIDITY", result.get(1).metricType());
-        verify(thresholdRepository, times(1)).findAll();
+        verify(thresholdService, times(1)).getAll();
     }
 
     @Test
     void testGetCommands_Success() {
-        DeviceCommand command1 = new DeviceCommand();
+        DeviceCommandResponse command1 = new DeviceCommandResponse();
         command1.setId(1L);
-        command1.setDeviceKey("demo-device-key");
         command1.setCommandType("SET_LED_COLOR");
         command1.setParameters("255,0,0");
-        command1.setExecuted(false);
-        command1.setCreatedAt(LocalDateTime.now());
 
-        DeviceCommand command2 = new DeviceCommand();
+        DeviceCommandResponse command2 = new DeviceCommandResponse();
         command2.setId(2L);
-        command2.setDeviceKey("demo-device-key");
         command2.setCommandType("DISPLAY_MESSAGE");
         command2.setParameters("Hello");
-        command2.setExecuted(false);
-        command2.setCreatedAt(LocalDateTime.now());
 
-        List<DeviceCommand> commands = Arrays.asList(command1, command2);
-        when(deviceCommandRepository.findByDeviceKeyAndExecutedFalseOrderByCreatedAtAsc("demo-device-key"))
-                .thenReturn(commands);
+        when(deviceCommandService.getPending("demo-device-key")).thenReturn(Arrays.asList(command1, command2));
 
         List<DeviceCommandResponse> result = deviceSensorController.getCommands("demo-device-key");
 
         assertEquals(2, result.size());
         assertEquals(1L, result.get(0).getId());
         assertEquals("SET_LED_COLOR", result.get(0).getCommandType());
-        verify(deviceCommandRepository, times(1))
-                .findByDeviceKeyAndExecutedFalseOrderByCreatedAtAsc("demo-device-key");
+        verify(deviceCommandService, times(1)).getPending("demo-device-key");
+        verify(devicePresenceRegistry, times(1)).recordSeen("demo-device-key");
     }
 
     @Test
-    void testAcknowledgeCommand_Success() {
-        DeviceCommand command = new DeviceCommand();
-        command.setId(1L);
-        command.setDeviceKey("demo-device-key");
-        command.setCommandType("SET_LED_COLOR");
-        command.setExecuted(false);
+    void testPollCommands_DelegatesToService() {
+        DeferredResult<List<DeviceCommandResponse>> deferred = new DeferredResult<>();
+        when(deviceCommandService.awaitPending("demo-device-key", 30)).thenReturn(deferred);
 
-        when(deviceCommandRepository.findByIdAndDeviceKey(1L, "demo-device-key"))
-                .thenReturn(Optional.of(command));
-        when(deviceCommandRepository.save(any(DeviceCommand.class))).thenReturn(command);
+        DeferredResult<List<DeviceCommandResponse>> result = deviceSensorController.pollCommands("demo-device-key", 30);
+
+        assertSame(deferred, result);
+        verify(deviceCommandService, times(1)).awaitPending("demo-device-key", 30);
+        verify(devicePresenceRegistry, times(1)).recordSeen("demo-device-key");
+    }
+
+    @Test
+    void testAcknowledgeCommand_Success() {
+        when(deviceCommandService.acknowledge("demo-device-key", 1L)).thenReturn(true);
 
         ResponseEntity<?> response = deviceSensorController.acknowledgeCommand("demo-device-key", 1L);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertTrue(command.getExecuted());
-        assertNotNull(command.getExecutedAt());
-        verify(deviceCommandRepository, times(1)).save(command);
+        verify(deviceCommandService, times(1)).acknowledge("demo-device-key", 1L);
     }
 
     @Test
     void testAcknowledgeCommand_NotFound() {
-        when(deviceCommandRepository.findByIdAndDeviceKey(999L, "demo-device-key"))
-                .thenReturn(Optional.empty());
+        when(deviceCommandService.acknowledge("demo-device-key", 999L)).thenReturn(false);
 
         ResponseEntity<?> response = deviceSensorController.acknowledgeCommand("demo-device-key", 999L);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(deviceCommandRepository, never()).save(any());
     }
-}
 
+    @Test
+    void testAcknowledgeCommands_Success() {
+        when(deviceCommandService.acknowledgeAll("demo-device-key", List.of(1L, 2L, 3L))).thenReturn(2);
+
+        ResponseEntity<?> response = deviceSensorController.acknowledgeCommands("demo-device-key", List.of(1L, 2L, 3L));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Map<?, ?> responseBody = (Map<?, ?>) response.getBody();
+        assertEquals(2, responseBody.get("acknowledged"));
+        verify(deviceCommandService, never()).acknowledge(any(), any());
+    }
+
+    @Test
+    void testAcknowledgeCommands_Empty() {
+        ResponseEntity<?> response = deviceSensorController.acknowledgeCommands("demo-device-key", List.of());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(deviceCommandService, never()).acknowledgeAll(any(), any());
+    }
+
+    @Test
+    void testAcknowledgeCommands_TooMany() {
+        List<Long> ids = java.util.stream.LongStream.rangeClosed(1, DeviceSensorController.MAX_ACK_SIZE + 1).boxed().toList();
+
+        ResponseEntity<?> response = deviceSensorController.acknowledgeCommands("demo-device-key", ids);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(deviceCommandService, never()).acknowledgeAll(any(), any());
+    }
+}
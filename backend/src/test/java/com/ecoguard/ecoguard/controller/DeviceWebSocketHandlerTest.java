@@ -0,0 +1,234 @@
+package com.ecoguard.ecoguard.controller;
+
+import com.ecoguard.ecoguard.dto.DeviceCommandResponse;
+import com.ecoguard.ecoguard.dto.SensorDataPayload;
+import com.ecoguard.ecoguard.entity.MetricType;
+import com.ecoguard.ecoguard.entity.Threshold;
+import com.ecoguard.ecoguard.service.DeviceCommandService;
+import com.ecoguard.ecoguard.service.DevicePresenceRegistry;
+import com.ecoguard.ecoguard.service.SensorIngestQueue;
+import com.ecoguard.ecoguard.service.ThresholdService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DeviceWebSocketHandler.
+ */
+@ExtendWith(MockitoExtension.class)
+class DeviceWebSocketHandlerTest {
+
+    private static final String DEVICE_KEY = "demo-device-key";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private SensorIngestQueue sensorIngestQueue;
+
+    @Mock
+    private ThresholdService thresholdService;
+
+    @Mock
+    private DeviceCommandService deviceCommandService;
+
+    @Mock
+    private DevicePresenceRegistry devicePresenceRegistry;
+
+    @Mock
+    private WebSocketSession session;
+
+    private DeviceWebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new DeviceWebSocketHandler(objectMapper, sensorIngestQueue, thresholdService,
+                deviceCommandService, devicePresenceRegistry, 1000, 4096);
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(DeviceWebSocketHandler.ATTR_DEVICE_KEY, DEVICE_KEY);
+        lenient().when(session.getId()).thenReturn("session-1");
+        lenient().when(session.getAttributes()).thenReturn(attributes);
+        lenient().when(session.isOpen()).thenReturn(true);
+    }
+
+    @Test
+    void testConnect_SendsThresholdsAndPendingCommands() throws Exception {
+        Threshold threshold = new Threshold();
+        threshold.setMetricType(MetricType.CO2);
+        threshold.setMaxValue(new BigDecimal("1000"));
+        when(thresholdService.getAll()).thenReturn(List.of(threshold));
+        when(deviceCommandService.getPending(DEVICE_KEY)).thenReturn(List.of(command(7L)));
+
+        handler.afterConnectionEstablished(session);
+
+        List<JsonNode> sent = sentMessages(2);
+        assertEquals("thresholds", sent.get(0).get("type").asText());
+        assertEquals("CO2", sent.get(0).get("thresholds").get(0).get("metricType").asText());
+        assertEquals("commands", sent.get(1).get("type").asText());
+        assertEquals(7L, sent.get(1).get("commands").get(0).get("id").asLong());
+        verify(devicePresenceRegistry).recordSeen(DEVICE_KEY);
+        verify(deviceCommandService).addListener(eq(DEVICE_KEY), any());
+        assertEquals(1, handler.getConnectionCount());
+    }
+
+    @Test
+    void testCommandListener_PushesOnlyUndeliveredCommands() throws Exception {
+        when(deviceCommandService.getPending(DEVICE_KEY)).thenReturn(List.of(command(7L)));
+        handler.afterConnectionEstablished(session);
+        Consumer<List<DeviceCommandResponse>> listener = captureListener();
+
+        listener.accept(List.of(command(7L), command(8L)));
+        listener.accept(List.of(command(7L), command(8L)));
+
+        List<JsonNode> sent = sentMessages(3);
+        JsonNode pushed = sent.get(2).get("commands");
+        assertEquals(1, pushed.size());
+        assertEquals(8L, pushed.get(0).get("id").asLong());
+    }
+
+    @Test
+    void testReading_QueuedAndRecorded() throws Exception {
+        when(deviceCommandService.getPending(DEVICE_KEY)).thenReturn(List.of());
+        when(sensorIngestQueue.offer(any(SensorDataPayload.class))).thenReturn(true);
+        handler.afterConnectionEstablished(session);
+
+        handler.handleTextMessage(session, new TextMessage(
+                "{\"type\":\"reading\",\"co2Level\":850,\"temperature\":21.5,\"timestamp\":\"2026-01-01T10:00:00\"}"));
+
+        ArgumentCaptor<SensorDataPayload> payload = ArgumentCaptor.forClass(SensorDataPayload.class);
+        verify(sensorIngestQueue).offer(payload.capture());
+        assertEquals(850, payload.getValue().getCo2Level());
+        assertEquals(new BigDecimal("21.5"), payload.getValue().getTemperature());
+        verify(devicePresenceRegistry).recordReadings(DEVICE_KEY, List.of(payload.getValue()));
+        sentMessages(1);
+    }
+
+    @Test
+    void testReading_QueueFullAsksDeviceToRetry() throws Exception {
+        when(deviceCommandService.getPending(DEVICE_KEY)).thenReturn(List.of());
+        when(sensorIngestQueue.offer(any(SensorDataPayload.class))).thenReturn(false);
+        when(sensorIngestQueue.getRetryAfterSeconds()).thenReturn(3L);
+        handler.afterConnectionEstablished(session);
+
+        handler.handleTextMessage(session, new TextMessage("{\"type\":\"reading\",\"co2Level\":850}"));
+
+        JsonNode reply = sentMessages(2).get(1);
+        assertEquals("retry", reply.get("type").asText());
+        assertEquals(3, reply.get("retryAfterSeconds").asInt());
+        verify(devicePresenceRegistry, never()).recordReadings(any(), anyList());
+    }
+
+    @Test
+    void testReading_WithoutMetricRejected() throws Exception {
+        when(deviceCommandService.getPending(DEVICE_KEY)).thenReturn(List.of());
+        handler.afterConnectionEstablished(session);
+
+        handler.handleTextMessage(session, new TextMessage("{\"type\":\"reading\"}"));
+        handler.handleTextMessage(session, new TextMessage("not json"));
+
+        List<JsonNode> sent = sentMessages(3);
+        assertEquals("error", sent.get(1).get("type").asText());
+        assertEquals("error", sent.get(2).get("type").asText());
+        verifyNoInteractions(sensorIngestQueue);
+    }
+
+    @Test
+    void testAck_AcknowledgesInBulkAndAllowsRedelivery() throws Exception {
+        when(deviceCommandService.getPending(DEVICE_KEY)).thenReturn(List.of(command(7L)));
+        handler.afterConnectionEstablished(session);
+        Consumer<List<DeviceCommandResponse>> listener = captureListener();
+
+        handler.handleTextMessage(session, new TextMessage("{\"type\":\"ack\",\"ids\":[7]}"));
+        listener.accept(List.of(command(7L)));
+
+        verify(deviceCommandService).acknowledgeAll(DEVICE_KEY, List.of(7L));
+        assertEquals(7L, sentMessages(3).get(2).get("commands").get(0).get("id").asLong());
+    }
+
+    @Test
+    void testThresholdChange_PushedToConnectedDevices() throws Exception {
+        ArgumentCaptor<Consumer<List<Threshold>>> listener = ArgumentCaptor.captor();
+        verify(thresholdService).addChangeListener(listener.capture());
+        when(deviceCommandService.getPending(DEVICE_KEY)).thenReturn(List.of());
+        handler.afterConnectionEstablished(session);
+
+        Threshold threshold = new Threshold();
+        threshold.setMetricType(MetricType.TEMP);
+        listener.getValue().accept(List.of(threshold));
+
+        JsonNode pushed = sentMessages(2).get(1);
+        assertEquals("thresholds", pushed.get("type").asText());
+        assertEquals("TEMP", pushed.get("thresholds").get(0).get("metricType").asText());
+    }
+
+    @Test
+    void testClose_RemovesCommandListener() throws Exception {
+        when(deviceCommandService.getPending(DEVICE_KEY)).thenReturn(List.of());
+        handler.afterConnectionEstablished(session);
+        Consumer<List<DeviceCommandResponse>> listener = captureListener();
+
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+
+        verify(deviceCommandService).removeListener(DEVICE_KEY, listener);
+        assertEquals(0, handler.getConnectionCount());
+    }
+
+    @Test
+    void testSendFailure_ClosesSession() throws Exception {
+        when(deviceCommandService.getPending(DEVICE_KEY)).thenReturn(List.of());
+        doThrow(new IOException("Broken pipe")).when(session).sendMessage(any());
+
+        handler.afterConnectionEstablished(session);
+
+        verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    private Consumer<List<DeviceCommandResponse>> captureListener() {
+        ArgumentCaptor<Consumer<List<DeviceCommandResponse>>> listener = ArgumentCaptor.captor();
+        verify(deviceCommandService).addListener(eq(DEVICE_KEY), listener.capture());
+        return listener.getValue();
+    }
+
+    private List<JsonNode> sentMessages(int expected) throws Exception {
+        ArgumentCaptor<WebSocketMessage<?>> messages = ArgumentCaptor.captor();
+        verify(session, times(expected)).sendMessage(messages.capture());
+        return messages.getAllValues().stream()
+                .map(message -> {
+                    try {
+                        return objectMapper.readTree((String) message.getPayload());
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+    }
+
+    private static DeviceCommandResponse command(Long id) {
+        DeviceCommandResponse command = new DeviceCommandResponse();
+        command.setId(id);
+        command.setCommandType("DISPLAY_MESSAGE");
+        command.setParameters("Hello");
+        return command;
+    }
+}
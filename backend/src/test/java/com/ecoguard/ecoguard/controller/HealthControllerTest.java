@@ -1,6 +1,10 @@
 package com.ecoguard.ecoguard.controller;
 
-import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import com.ecoguard.ecoguard.service.LiveEventBroadcaster;
+import com.ecoguard.ecoguard.service.NotificationDispatcher;
+import com.ecoguard.ecoguard.service.SensorIngestQueue;
+import com.ecoguard.ecoguard.storage.StorageBackend;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -21,14 +25,30 @@ import static org.mockito.Mockito.*;
 class HealthControllerTest {
 
     @Mock
-    private SensorDataRepository sensorDataRepository;
+    private StorageBackend storageBackend;
+
+    @Mock
+    private NotificationDispatcher notificationDispatcher;
+
+    @Mock
+    private LiveEventBroadcaster liveEventBroadcaster;
+
+    @Mock
+    private SensorIngestQueue sensorIngestQueue;
 
     @InjectMocks
     private HealthController healthController;
 
+    @BeforeEach
+    void setUp() {
+        when(notificationDispatcher.getStats()).thenReturn(new NotificationDispatcher.Stats(3, 10L, 1L, 0L, 12.5, 40.0));
+        when(liveEventBroadcaster.getStats()).thenReturn(new LiveEventBroadcaster.Stats(4, 20L, 1L));
+    }
+
     @Test
     void testHealth_Success() {
-        when(sensorDataRepository.count()).thenReturn(100L);
+        when(storageBackend.countSensorData()).thenReturn(100L);
+        when(storageBackend.getName()).thenReturn("h2");
 
         ResponseEntity<Map<String, Object>> response = healthController.health();
 
@@ -42,13 +62,14 @@ class HealthControllerTest {
         assertNotNull(db);
         assertEquals("UP", db.get("status"));
         assertEquals(100L, db.get("sensorDataCount"));
+        assertEquals("h2", db.get("backend"));
         
-        verify(sensorDataRepository, times(1)).count();
+        verify(storageBackend, times(1)).countSensorData();
     }
 
     @Test
     void testHealth_DatabaseError() {
-        when(sensorDataRepository.count()).thenThrow(new RuntimeException("Database connection failed"));
+        when(storageBackend.countSensorData()).thenThrow(new RuntimeException("Database connection failed"));
 
         ResponseEntity<Map<String, Object>> response = healthController.health();
 
@@ -62,12 +83,12 @@ class HealthControllerTest {
         assertEquals("DOWN", db.get("status"));
         assertNotNull(db.get("error"));
         
-        verify(sensorDataRepository, times(1)).count();
+        verify(storageBackend, times(1)).countSensorData();
     }
 
     @Test
     void testHealth_ZeroCount() {
-        when(sensorDataRepository.count()).thenReturn(0L);
+        when(storageBackend.countSensorData()).thenReturn(0L);
 
         ResponseEntity<Map<String, Object>> response = healthController.health();
 
@@ -77,5 +98,47 @@ class HealthControllerTest {
         assertEquals("UP", db.get("status"));
         assertEquals(0L, db.get("sensorDataCount"));
     }
-}
 
+    @Test
+    void testHealth_IncludesNotificationMetrics() {
+        when(storageBackend.countSensorData()).thenReturn(0L);
+
+        ResponseEntity<Map<String, Object>> response = healthController.health();
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> notifications = (Map<String, Object>) response.getBody().get("notifications");
+        assertNotNull(notifications);
+        assertEquals(3, notifications.get("queueDepth"));
+        assertEquals(10L, notifications.get("sent"));
+        assertEquals(1L, notifications.get("failed"));
+        assertEquals(12.5, notifications.get("avgSendMillis"));
+        assertEquals(40.0, notifications.get("maxSendMillis"));
+    }
+
+    @Test
+    void testHealth_IncludesIngestMetrics() {
+        when(sensorIngestQueue.depth()).thenReturn(7);
+        when(sensorIngestQueue.droppedReadings()).thenReturn(2L);
+
+        ResponseEntity<Map<String, Object>> response = healthController.health();
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> ingest = (Map<String, Object>) response.getBody().get("ingest");
+        assertEquals(7, ingest.get("queueDepth"));
+        assertEquals(2L, ingest.get("droppedReadings"));
+    }
+
+    @Test
+    void testHealth_IncludesStreamMetrics() {
+        when(storageBackend.countSensorData()).thenReturn(0L);
+
+        ResponseEntity<Map<String, Object>> response = healthController.health();
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stream = (Map<String, Object>) response.getBody().get("stream");
+        assertNotNull(stream);
+        assertEquals(4, stream.get("clients"));
+        assertEquals(20L, stream.get("published"));
+        assertEquals(1L, stream.get("evicted"));
+    }
+}
@@ -1,20 +1,33 @@
 package com.ecoguard.ecoguard.controller;
 
+import com.ecoguard.ecoguard.dto.SensorBucket;
+import com.ecoguard.ecoguard.dto.SensorDataPage;
+import com.ecoguard.ecoguard.dto.SensorPoint;
+import com.ecoguard.ecoguard.dto.SensorRollupSeries;
+import com.ecoguard.ecoguard.entity.MetricType;
+import com.ecoguard.ecoguard.entity.RollupResolution;
 import com.ecoguard.ecoguard.entity.SensorData;
 import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import com.ecoguard.ecoguard.service.SensorDataQueryService;
+import com.ecoguard.ecoguard.service.SensorRollupService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -29,6 +42,12 @@ class SensorDataControllerTest {
     @Mock
     private SensorDataRepository sensorDataRepository;
 
+    @Mock
+    private SensorDataQueryService sensorDataQueryService;
+
+    @Mock
+    private SensorRollupService sensorRollupService;
+
     @InjectMocks
     private SensorDataController sensorDataController;
 
@@ -46,30 +65,35 @@ class SensorDataControllerTest {
     }
 
     @Test
-    void testGetAll_Success() {
-        SensorData data2 = new SensorData();
-        data2.setId(2L);
-        data2.setTemperature(new BigDecimal("26.0"));
-        data2.setTimestamp(LocalDateTime.now());
+    void testGetAll_ReturnsPage() {
+        SensorDataPage page = new SensorDataPage(List.of(testSensorData), "next-token");
+        when(sensorDataQueryService.getPage(null, 100)).thenReturn(page);
 
-        List<SensorData> sensorDataList = Arrays.asList(testSensorData, data2);
-        when(sensorDataRepository.findAll()).thenReturn(sensorDataList);
+        ResponseEntity<?> response = sensorDataController.getAll(null, 100);
 
-        List<SensorData> result = sensorDataController.getAll();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(page, response.getBody());
+        verify(sensorDataRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetAll_PassesCursor() {
+        when(sensorDataQueryService.getPage("abc", 50)).thenReturn(new SensorDataPage(List.of(), null));
 
-        assertEquals(2, result.size());
-        assertEquals(testSensorData.getId(), result.get(0).getId());
-        verify(sensorDataRepository, times(1)).findAll();
+        ResponseEntity<?> response = sensorDataController.getAll("abc", 50);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(((SensorDataPage) response.getBody()).nextCursor());
     }
 
     @Test
-    void testGetAll_EmptyList() {
-        when(sensorDataRepository.findAll()).thenReturn(List.of());
+    void testGetAll_InvalidCursor() {
+        when(sensorDataQueryService.getPage("bogus", 100)).thenThrow(new IllegalArgumentException("Invalid cursor"));
 
-        List<SensorData> result = sensorDataController.getAll();
+        ResponseEntity<?> response = sensorDataController.getAll("bogus", 100);
 
-        assertTrue(result.isEmpty());
-        verify(sensorDataRepository, times(1)).findAll();
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(Map.of("message", "Invalid cursor"), response.getBody());
     }
 
     @Test
@@ -100,12 +124,13 @@ class SensorDataControllerTest {
         LocalDateTime end = LocalDateTime.now();
 
         List<SensorData> sensorDataList = Arrays.asList(testSensorData);
-        when(sensorDataRepository.findAllByTimestampBetween(start, end)).thenReturn(sensorDataList);
+        when(sensorDataQueryService.findRange(start, end)).thenReturn(sensorDataList);
 
-        List<SensorData> result = sensorDataController.getRange(start, end);
+        ResponseEntity<?> response = sensorDataController.getRange(start, end, null, null);
 
-        assertEquals(1, result.size());
-        verify(sensorDataRepository, times(1)).findAllByTimestampBetween(start, end);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, ((List<?>) response.getBody()).size());
+        verify(sensorDataQueryService, times(1)).findRange(start, end);
     }
 
     @Test
@@ -113,11 +138,105 @@ class SensorDataControllerTest {
         LocalDateTime start = LocalDateTime.now().minusHours(1);
         LocalDateTime end = LocalDateTime.now();
 
-        when(sensorDataRepository.findAllByTimestampBetween(start, end)).thenReturn(List.of());
+        when(sensorDataQueryService.findRange(start, end)).thenReturn(List.of());
 
-        List<SensorData> result = sensorDataController.getRange(start, end);
+        ResponseEntity<?> response = sensorDataController.getRange(start, end, null, null);
 
-        assertTrue(result.isEmpty());
+        assertTrue(((List<?>) response.getBody()).isEmpty());
+    }
+
+    @Test
+    void testGetRange_MaxPoints() {
+        LocalDateTime start = LocalDateTime.now().minusDays(7);
+        LocalDateTime end = LocalDateTime.now();
+        Map<MetricType, List<SensorPoint>> series = Map.of(MetricType.TEMP, List.of());
+        when(sensorDataQueryService.downsample(start, end, 300)).thenReturn(series);
+
+        ResponseEntity<?> response = sensorDataController.getRange(start, end, 300, null);
+
+        assertSame(series, response.getBody());
+        verify(sensorDataQueryService, never()).findRange(any(), any());
+    }
+
+    @Test
+    void testGetRange_Bucket() {
+        LocalDateTime start = LocalDateTime.now().minusDays(7);
+        LocalDateTime end = LocalDateTime.now();
+        Map<MetricType, List<SensorBucket>> buckets = Map.of(MetricType.CO2, List.of());
+        when(sensorDataQueryService.aggregate(start, end, Duration.ofHours(1))).thenReturn(buckets);
+
+        ResponseEntity<?> response = sensorDataController.getRange(start, end, null, "1h");
+
+        assertSame(buckets, response.getBody());
+    }
+
+    @Test
+    void testGetRange_InvalidDownsamplingParameters() {
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        LocalDateTime end = LocalDateTime.now();
+
+        assertEquals(HttpStatus.BAD_REQUEST, sensorDataController.getRange(start, end, 300, "1h").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, sensorDataController.getRange(start, end, null, "soon").getStatusCode());
+        verifyNoInteractions(sensorDataQueryService);
     }
-}
 
+    @Test
+    void testExport_StreamsCsv() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2025, 2, 1, 0, 0);
+
+        ResponseEntity<?> response = sensorDataController.export(start, end, "CSV");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("text/csv", response.getHeaders().getContentType().toString());
+        assertTrue(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION).contains("sensor-data.csv"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingResponseBody) response.getBody()).writeTo(out);
+        verify(sensorDataQueryService).exportRange(start, end, SensorDataQueryService.ExportFormat.CSV, out);
+        verify(sensorDataQueryService, never()).findRange(any(), any());
+    }
+
+    @Test
+    void testExport_InvalidFormat() {
+        LocalDateTime now = LocalDateTime.now();
+
+        ResponseEntity<?> response = sensorDataController.export(now, now, "xml");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(sensorDataQueryService);
+    }
+
+    @Test
+    void testExport_EndBeforeStart() {
+        LocalDateTime now = LocalDateTime.now();
+
+        ResponseEntity<?> response = sensorDataController.export(now, now.minusDays(1), "ndjson");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(sensorDataQueryService);
+    }
+
+    @Test
+    void testGetRollups_Success() {
+        LocalDateTime start = LocalDateTime.now().minusDays(30);
+        LocalDateTime end = LocalDateTime.now();
+        SensorRollupSeries series = new SensorRollupSeries(RollupResolution.HOUR, Map.of());
+        when(sensorRollupService.query(start, end, null)).thenReturn(series);
+
+        ResponseEntity<?> response = sensorDataController.getRollups(start, end, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(series, response.getBody());
+    }
+
+    @Test
+    void testGetRollups_InvalidResolution() {
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        LocalDateTime end = LocalDateTime.now();
+
+        ResponseEntity<?> response = sensorDataController.getRollups(start, end, "week");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(sensorRollupService);
+    }
+}
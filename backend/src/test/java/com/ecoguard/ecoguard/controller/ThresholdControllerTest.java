@@ -4,14 +4,14 @@ import com.ecoguard.ecoguard.config.AuthInterceptor;
 import com.ecoguard.ecoguard.config.AuthTokenService;
 import com.ecoguard.ecoguard.dto.ThresholdAuditResponse;
 import com.ecoguard.ecoguard.dto.ThresholdPayload;
-import com.ecoguard.ecoguard.entity.DeviceCommand;
 import com.ecoguard.ecoguard.entity.MetricType;
 import com.ecoguard.ecoguard.entity.Role;
 import com.ecoguard.ecoguard.entity.Threshold;
 import com.ecoguard.ecoguard.entity.ThresholdAudit;
-import com.ecoguard.ecoguard.repository.DeviceCommandRepository;
 import com.ecoguard.ecoguard.repository.ThresholdAuditRepository;
 import com.ecoguard.ecoguard.repository.ThresholdRepository;
+import com.ecoguard.ecoguard.service.DeviceCommandService;
+import com.ecoguard.ecoguard.service.ThresholdService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -45,7 +45,10 @@ class ThresholdControllerTest {
     private ThresholdAuditRepository thresholdAuditRepository;
 
     @Mock
-    private DeviceCommandRepository deviceCommandRepository;
+    private DeviceCommandService deviceCommandService;
+
+    @Mock
+    private ThresholdService thresholdService;
 
     @Mock
     private HttpServletRequest request;
@@ -135,14 +138,14 @@ class ThresholdControllerTest {
         when(thresholdRepository.findById(1L)).thenReturn(Optional.of(testThreshold));
         when(thresholdRepository.save(any(Threshold.class))).thenReturn(testThreshold);
         when(thresholdAuditRepository.save(any(ThresholdAudit.class))).thenReturn(new ThresholdAudit());
-        when(deviceCommandRepository.save(any(DeviceCommand.class))).thenReturn(new DeviceCommand());
 
         ResponseEntity<?> response = thresholdController.update(1L, payload, request);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(thresholdRepository, times(1)).save(any(Threshold.class));
         verify(thresholdAuditRepository, times(1)).save(any(ThresholdAudit.class));
-        verify(deviceCommandRepository, times(1)).save(any(DeviceCommand.class));
+        verify(deviceCommandService, times(1)).enqueueCoalesced("demo-device-key", "REFRESH_CONFIG", "threshold_updated:TEMP");
+        verify(thresholdService, times(1)).refresh();
     }
 
     @Test
@@ -155,7 +158,6 @@ class ThresholdControllerTest {
         when(thresholdRepository.findById(1L)).thenReturn(Optional.of(testThreshold));
         when(thresholdRepository.save(any(Threshold.class))).thenReturn(testThreshold);
         when(thresholdAuditRepository.save(any(ThresholdAudit.class))).thenReturn(new ThresholdAudit());
-        when(deviceCommandRepository.save(any(DeviceCommand.class))).thenReturn(new DeviceCommand());
 
         ResponseEntity<?> response = thresholdController.update(1L, payload, request);
 
@@ -163,6 +165,65 @@ class ThresholdControllerTest {
         verify(thresholdRepository, times(1)).save(any(Threshold.class));
     }
 
+    @Test
+    void testUpdate_HysteresisAndMinDuration() {
+        ThresholdPayload payload = new ThresholdPayload();
+        payload.setHysteresis(new BigDecimal("0.5"));
+        payload.setMinDurationSeconds(30);
+
+        when(thresholdRepository.findById(1L)).thenReturn(Optional.of(testThreshold));
+        when(thresholdRepository.save(any(Threshold.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<?> response = thresholdController.update(1L, payload, request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new BigDecimal("0.5"), testThreshold.getHysteresis());
+        assertEquals(30, testThreshold.getMinDurationSeconds());
+    }
+
+    @Test
+    void testUpdate_NegativeHysteresis() {
+        ThresholdPayload payload = new ThresholdPayload();
+        payload.setHysteresis(new BigDecimal("-1"));
+
+        ResponseEntity<?> response = thresholdController.update(1L, payload, request);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(thresholdRepository, never()).findById(any());
+    }
+
+    @Test
+    void testUpdate_HysteresisWiderThanHalfRange() {
+        testThreshold.setHysteresis(new BigDecimal("2.0"));
+        ThresholdPayload payload = new ThresholdPayload();
+        payload.setMinValue(new BigDecimal("20.0"));
+        payload.setMaxValue(new BigDecimal("23.0"));
+
+        when(thresholdRepository.findById(1L)).thenReturn(Optional.of(testThreshold));
+
+        ResponseEntity<?> response = thresholdController.update(1L, payload, request);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(new BigDecimal("10.0"), testThreshold.getMinValue());
+        assertEquals(new BigDecimal("30.0"), testThreshold.getMaxValue());
+        verify(thresholdRepository, never()).save(any());
+        verifyNoInteractions(thresholdService, deviceCommandService);
+    }
+
+    @Test
+    void testUpdate_HysteresisOfHalfRangeAccepted() {
+        ThresholdPayload payload = new ThresholdPayload();
+        payload.setHysteresis(new BigDecimal("10.0"));
+
+        when(thresholdRepository.findById(1L)).thenReturn(Optional.of(testThreshold));
+        when(thresholdRepository.save(any(Threshold.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<?> response = thresholdController.update(1L, payload, request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new BigDecimal("10.0"), testThreshold.getHysteresis());
+    }
+
     @Test
     void testUpdate_NotFound() {
         ThresholdPayload payload = new ThresholdPayload();
@@ -174,6 +235,7 @@ class ThresholdControllerTest {
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         verify(thresholdRepository, never()).save(any());
+        verify(thresholdService, never()).refresh();
     }
 
     @Test
@@ -213,6 +275,7 @@ class ThresholdControllerTest {
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
         verify(thresholdRepository, times(1)).deleteById(1L);
+        verify(thresholdService, times(1)).refresh();
     }
 
     @Test
@@ -222,6 +285,7 @@ class ThresholdControllerTest {
         ResponseEntity<Void> response = thresholdController.delete(1L);
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(thresholdService, never()).refresh();
     }
 }
 
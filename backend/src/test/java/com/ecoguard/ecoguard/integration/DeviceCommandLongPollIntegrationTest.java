@@ -0,0 +1,176 @@
+package com.ecoguard.ecoguard.integration;
+
+import com.ecoguard.ecoguard.dto.DeviceCommandResponse;
+import com.ecoguard.ecoguard.entity.DeviceCommand;
+import com.ecoguard.ecoguard.repository.DeviceCommandRepository;
+import com.ecoguard.ecoguard.service.DeviceCommandService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the in-memory pending-command queue and long polling.
+ * <p>
+ * Not transactional: waiting polls are only woken once the enqueuing transaction
+ * has committed, so the test commits for real and removes its commands afterwards.
+ * A dedicated device key keeps it clear of commands queued for the demo device.
+ */
+@SpringBootTest
+class DeviceCommandLongPollIntegrationTest {
+
+    private static final String DEVICE_KEY = "long-poll-test-device";
+
+    @Autowired
+    private DeviceCommandService deviceCommandService;
+
+    @Autowired
+    private DeviceCommandRepository deviceCommandRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from \"device_commands\" where \"device_key\" = ?", DEVICE_KEY);
+        deviceCommandService.reload();
+    }
+
+    @Test
+    void testWaitingPollCompletedAfterCommit() {
+        DeferredResult<List<DeviceCommandResponse>> poll = deviceCommandService.awaitPending(DEVICE_KEY, 30);
+        assertFalse(poll.hasResult());
+
+        DeviceCommand saved = new TransactionTemplate(transactionManager).execute(status -> {
+            DeviceCommand command = deviceCommandService.enqueue(DEVICE_KEY, "DISPLAY_MESSAGE", "Hello");
+            assertFalse(poll.hasResult());
+            return command;
+        });
+
+        assertTrue(poll.hasResult());
+        List<?> commands = (List<?>) poll.getResult();
+        assertEquals(1, commands.size());
+        assertEquals(saved.getId(), ((DeviceCommandResponse) commands.get(0)).getId());
+    }
+
+    @Test
+    void testRolledBackCommandDoesNotWakePoll() {
+        DeferredResult<List<DeviceCommandResponse>> poll = deviceCommandService.awaitPending(DEVICE_KEY, 30);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            deviceCommandService.enqueue(DEVICE_KEY, "DISPLAY_MESSAGE", "Hello");
+            status.setRollbackOnly();
+        });
+
+        assertFalse(poll.hasResult());
+        poll.setResult(List.of());
+    }
+
+    @Test
+    void testPendingCommandReturnedWithoutWaiting() {
+        DeviceCommand saved = deviceCommandService.enqueue(DEVICE_KEY, "SET_LED_COLOR", "0,255,0");
+
+        DeferredResult<List<DeviceCommandResponse>> poll = deviceCommandService.awaitPending(DEVICE_KEY, 30);
+
+        assertTrue(poll.hasResult());
+        assertEquals(saved.getId(), ((DeviceCommandResponse) ((List<?>) poll.getResult()).get(0)).getId());
+    }
+
+    @Test
+    void testAcknowledgedCommandLeavesQueue() {
+        DeviceCommand first = deviceCommandService.enqueue(DEVICE_KEY, "SET_LED_COLOR", "0,255,0");
+        DeviceCommand second = deviceCommandService.enqueue(DEVICE_KEY, "DISPLAY_MESSAGE", "Hello");
+
+        assertTrue(deviceCommandService.acknowledge(DEVICE_KEY, first.getId()));
+
+        assertEquals(List.of(second.getId()),
+                deviceCommandService.getPending(DEVICE_KEY).stream().map(DeviceCommandResponse::getId).toList());
+        assertTrue(deviceCommandRepository.findById(first.getId()).orElseThrow().getExecuted());
+        assertFalse(deviceCommandService.acknowledge("other-device", second.getId()));
+    }
+
+    @Test
+    void testReloadPicksUpRowsWrittenDirectly() {
+        DeviceCommand command = new DeviceCommand();
+        command.setDeviceKey(DEVICE_KEY);
+        command.setCommandType("REFRESH_CONFIG");
+        command.setExecuted(false);
+        DeviceCommand saved = deviceCommandRepository.save(command);
+        assertTrue(deviceCommandService.getPending(DEVICE_KEY).isEmpty());
+
+        deviceCommandService.reload();
+
+        assertEquals(List.of(saved.getId()),
+                deviceCommandService.getPending(DEVICE_KEY).stream().map(DeviceCommandResponse::getId).toList());
+    }
+
+    @Test
+    void testAcknowledgeAllMarksOnlyOwnPendingCommands() {
+        DeviceCommand first = deviceCommandService.enqueue(DEVICE_KEY, "REFRESH_CONFIG", "threshold_updated:TEMP");
+        DeviceCommand second = deviceCommandService.enqueue(DEVICE_KEY, "REFRESH_CONFIG", "threshold_updated:CO2");
+        DeviceCommand third = deviceCommandService.enqueue(DEVICE_KEY, "DISPLAY_MESSAGE", "Hello");
+        deviceCommandService.acknowledge(DEVICE_KEY, second.getId());
+
+        int acknowledged = deviceCommandService.acknowledgeAll(DEVICE_KEY, List.of(first.getId(), second.getId(), Long.MAX_VALUE));
+
+        assertEquals(1, acknowledged);
+        assertTrue(deviceCommandRepository.findById(first.getId()).orElseThrow().getExecuted());
+        assertNotNull(deviceCommandRepository.findById(first.getId()).orElseThrow().getExecutedAt());
+        assertEquals(List.of(third.getId()),
+                deviceCommandService.getPending(DEVICE_KEY).stream().map(DeviceCommandResponse::getId).toList());
+        assertEquals(0, deviceCommandService.acknowledgeAll("other-device", List.of(third.getId())));
+    }
+
+    @Test
+    void testPurgeExpiredDeletesOnlyExpiredPendingCommands() {
+        DeviceCommand stale = deviceCommandService.enqueue(DEVICE_KEY, "REFRESH_CONFIG", null, Duration.ofSeconds(60));
+        DeviceCommand fresh = deviceCommandService.enqueue(DEVICE_KEY, "DISPLAY_MESSAGE", "Hello", Duration.ofHours(1));
+        DeviceCommand done = deviceCommandService.enqueue(DEVICE_KEY, "SET_LED_COLOR", "0,0,255", Duration.ofSeconds(60));
+        deviceCommandService.acknowledge(DEVICE_KEY, done.getId());
+        jdbcTemplate.update("update \"device_commands\" set \"expires_at\" = ? where \"command_id\" in (?, ?)",
+                LocalDateTime.now().minusMinutes(1), stale.getId(), done.getId());
+        deviceCommandService.reload();
+
+        deviceCommandService.purgeExpired();
+
+        assertFalse(deviceCommandRepository.existsById(stale.getId()));
+        assertTrue(deviceCommandRepository.existsById(fresh.getId()));
+        assertTrue(deviceCommandRepository.existsById(done.getId()));
+        assertEquals(List.of(fresh.getId()),
+                deviceCommandService.getPending(DEVICE_KEY).stream().map(DeviceCommandResponse::getId).toList());
+    }
+
+    @Test
+    void testRefreshConfigCoalescedUntilAcknowledged() {
+        DeviceCommand first = deviceCommandService.enqueueCoalesced(DEVICE_KEY, "REFRESH_CONFIG", "threshold_updated:TEMP");
+        for (String metric : List.of("HUMIDITY", "CO2", "TEMP", "LIGHT")) {
+            deviceCommandService.enqueueCoalesced(DEVICE_KEY, "REFRESH_CONFIG", "threshold_updated:" + metric);
+        }
+
+        List<DeviceCommandResponse> pending = deviceCommandService.getPending(DEVICE_KEY);
+        assertEquals(1, pending.size());
+        assertEquals(first.getId(), pending.get(0).getId());
+        assertEquals("threshold_updated:TEMP,HUMIDITY,CO2,LIGHT", pending.get(0).getParameters());
+        assertEquals("threshold_updated:TEMP,HUMIDITY,CO2,LIGHT",
+                deviceCommandRepository.findById(first.getId()).orElseThrow().getParameters());
+
+        deviceCommandService.acknowledge(DEVICE_KEY, first.getId());
+        DeviceCommand next = deviceCommandService.enqueueCoalesced(DEVICE_KEY, "REFRESH_CONFIG", "threshold_updated:CO2");
+
+        assertNotEquals(first.getId(), next.getId());
+        assertEquals("threshold_updated:CO2", deviceCommandService.getPending(DEVICE_KEY).get(0).getParameters());
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecoguard.ecoguard.integration;
+
+import com.ecoguard.ecoguard.service.DevicePresenceRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the device WebSocket channel over a real connection.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class DeviceWebSocketIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DevicePresenceRegistry devicePresenceRegistry;
+
+    private final StandardWebSocketClient client = new StandardWebSocketClient();
+
+    @Test
+    void testConnect_ReceivesThresholdsAndStreamsReadings() throws Exception {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        WebSocketSession session = client.execute(new TextWebSocketHandler() {
+            @Override
+            protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+                received.add(message.getPayload());
+            }
+        }, new WebSocketHttpHeaders(), URI.create("ws://localhost:" + port + "/api/device/ws?key=demo-device-key"))
+                .get(10, TimeUnit.SECONDS);
+        try {
+            JsonNode thresholds = objectMapper.readTree(received.poll(10, TimeUnit.SECONDS));
+            assertEquals("thresholds", thresholds.get("type").asText());
+            assertTrue(thresholds.get("thresholds").isArray());
+
+            LocalDateTime timestamp = LocalDateTime.now().withNano(0).plusMinutes(1);
+            session.sendMessage(new TextMessage(
+                    "{\"type\":\"reading\",\"co2Level\":777,\"timestamp\":\"" + timestamp + "\"}"));
+
+            long deadline = System.currentTimeMillis() + 10000;
+            while (!timestamp.equals(devicePresenceRegistry.getPresence("demo-device-key").lastReadingTime())
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(777, devicePresenceRegistry.getPresence("demo-device-key").co2());
+        } finally {
+            session.close();
+        }
+    }
+
+    @Test
+    void testConnect_WithoutDeviceKeyRejected() {
+        assertThrows(ExecutionException.class, () -> client.execute(new TextWebSocketHandler(),
+                new WebSocketHttpHeaders(), URI.create("ws://localhost:" + port + "/api/device/ws"))
+                .get(10, TimeUnit.SECONDS));
+    }
+}
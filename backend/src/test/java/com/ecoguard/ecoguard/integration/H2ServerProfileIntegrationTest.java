@@ -0,0 +1,75 @@
+package com.ecoguard.ecoguard.integration;
+
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import com.ecoguard.ecoguard.storage.H2StorageBackend;
+import com.ecoguard.ecoguard.storage.StorageBackend;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the {@code h2server} profile.
+ * <p>
+ * Starts the application with the profile on a scratch database file and checks
+ * that the H2 storage backend is used, SQL logging is off and a second connection
+ * opened outside the application's pool sees committed readings.
+ */
+@SpringBootTest
+@ActiveProfiles("h2server")
+class H2ServerProfileIntegrationTest {
+
+    @Autowired
+    private StorageBackend storageBackend;
+
+    @Autowired
+    private SensorDataRepository sensorDataRepository;
+
+    @Autowired
+    private Environment environment;
+
+    @TempDir
+    static Path directory;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> url());
+    }
+
+    @Test
+    void testProfile_SharesDatabaseWithOtherConnections() throws SQLException {
+        SensorData data = new SensorData();
+        data.setTimestamp(LocalDateTime.of(2025, 1, 1, 0, 0));
+        data.setCo2Level(600);
+        sensorDataRepository.save(data);
+
+        assertInstanceOf(H2StorageBackend.class, storageBackend);
+        assertEquals(1, storageBackend.countSensorData());
+        assertEquals("false", environment.getProperty("spring.jpa.show-sql"));
+        try (Connection connection = DriverManager.getConnection(url(), "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("select count(*) from \"sensor_data\"")) {
+            assertTrue(rows.next());
+            assertEquals(1, rows.getLong(1));
+        }
+    }
+
+    private static String url() {
+        return "jdbc:h2:file:" + directory.resolve("db") + ";AUTO_SERVER=TRUE";
+    }
+}
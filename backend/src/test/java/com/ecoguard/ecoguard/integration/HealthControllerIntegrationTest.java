@@ -117,6 +117,7 @@ class HealthControllerIntegrationTest {
                 .andExpect(jsonPath("$.status").value("UP"))
                 .andExpect(jsonPath("$.time").exists())
                 .andExpect(jsonPath("$.db.status").value("UP"))
+                .andExpect(jsonPath("$.db.backend").value("h2"))
                 .andExpect(jsonPath("$.db.sensorDataCount").value(2));
     }
 
@@ -0,0 +1,73 @@
+package com.ecoguard.ecoguard.integration;
+
+import com.ecoguard.ecoguard.config.IdSequenceInitializer;
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for pooled sequence IDs on a database that already holds rows.
+ * <p>
+ * Simulates a database created before the switch from identity columns by writing
+ * readings with explicit IDs while the sequence is still at its start value, then
+ * checks that the startup alignment keeps new IDs clear of them and that batched
+ * inserts get unique IDs.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:id-sequence-${random.uuid}")
+class IdSequenceIntegrationTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Autowired
+    private IdSequenceInitializer idSequenceInitializer;
+
+    @Autowired
+    private SensorDataRepository sensorDataRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testAlignSequences_NewIdsFollowExistingRows() {
+        for (long id = 1; id <= 120; id++) {
+            jdbcTemplate.update("insert into \"sensor_data\" (\"reading_id\", \"co2_level\", \"timestamp\") values (?, ?, ?)",
+                    id, 600, T0.plusSeconds(id));
+        }
+        jdbcTemplate.execute("alter sequence \"sensor_data_seq\" restart with 1");
+
+        idSequenceInitializer.alignSequences();
+        List<SensorData> readings = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            readings.add(reading(T0.plusHours(1).plusSeconds(i)));
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                sensorDataRepository.batchInsert(readings));
+
+        assertTrue(readings.stream().allMatch(reading -> reading.getId() > 120));
+        assertEquals(120, readings.stream().map(SensorData::getId).distinct().count());
+        assertEquals(240, sensorDataRepository.count());
+    }
+
+    private static SensorData reading(LocalDateTime timestamp) {
+        SensorData data = new SensorData();
+        data.setTimestamp(timestamp);
+        data.setTemperature(new BigDecimal("21.50"));
+        data.setCo2Level(600);
+        return data;
+    }
+}
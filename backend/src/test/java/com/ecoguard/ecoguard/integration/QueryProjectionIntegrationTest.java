@@ -0,0 +1,134 @@
+package com.ecoguard.ecoguard.integration;
+
+import com.ecoguard.ecoguard.dto.AlertSummary;
+import com.ecoguard.ecoguard.dto.DeviceCommandSummary;
+import com.ecoguard.ecoguard.dto.SensorDayCount;
+import com.ecoguard.ecoguard.entity.Alert;
+import com.ecoguard.ecoguard.entity.AlertType;
+import com.ecoguard.ecoguard.entity.DeviceCommand;
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.repository.AlertRepository;
+import com.ecoguard.ecoguard.repository.DeviceCommandRepository;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the projected status and polling queries.
+ * <p>
+ * Verifies that the projections return the expected rows from the real database
+ * and that the indexes backing them are created from the entity mappings.
+ */
+@SpringBootTest
+@Transactional
+class QueryProjectionIntegrationTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private DeviceCommandRepository deviceCommandRepository;
+
+    @Autowired
+    private SensorDataRepository sensorDataRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Clean up test data - @Transactional ensures rollback after each test
+        alertRepository.deleteAll();
+        deviceCommandRepository.deleteAll();
+        sensorDataRepository.deleteAll();
+    }
+
+    @Test
+    void testLatestAlertSummary() {
+        alertRepository.save(alert(AlertType.THRESHOLD, T0));
+        alertRepository.save(alert(AlertType.INTRUDER, T0.plusMinutes(5)));
+
+        AlertSummary latest = alertRepository.findTopByOrderByTimestampDesc(AlertSummary.class).orElseThrow();
+
+        assertEquals(AlertType.INTRUDER, latest.getAlertType());
+        assertEquals(T0.plusMinutes(5), latest.getTimestamp());
+    }
+
+    @Test
+    void testPendingCommandsAndLatestMessageSummary() {
+        deviceCommandRepository.save(command("DISPLAY_MESSAGE", "second", false, T0.plusMinutes(1)));
+        deviceCommandRepository.save(command("SET_LED_COLOR", "255,0,0", false, T0));
+        deviceCommandRepository.save(command("DISPLAY_MESSAGE", "done", true, T0.plusMinutes(2)));
+
+        List<DeviceCommand> pending = deviceCommandRepository
+                .findByDeviceKeyAndExecutedFalseOrderByCreatedAtAsc("demo-device-key");
+        DeviceCommandSummary message = deviceCommandRepository
+                .findTopByCommandTypeOrderByCommandTypeDescCreatedAtDesc("DISPLAY_MESSAGE", DeviceCommandSummary.class).orElseThrow();
+
+        assertEquals(List.of("255,0,0", "second"), pending.stream().map(DeviceCommand::getParameters).toList());
+        assertNotNull(pending.get(0).getId());
+        assertEquals("done", message.getParameters());
+    }
+
+    @Test
+    void testSensorDayCounts() {
+        sensorDataRepository.saveAll(List.of(reading(T0), reading(T0.plusHours(13).plusMinutes(59)),
+                reading(T0.plusHours(14))));
+
+        Map<LocalDate, Long> counts = sensorDataRepository.countByDay().stream()
+                .collect(Collectors.toMap(SensorDayCount::getReadingDay, SensorDayCount::getReadings));
+
+        assertEquals(Map.of(T0.toLocalDate(), 2L, T0.toLocalDate().plusDays(1), 1L), counts);
+    }
+
+    @Test
+    void testIndexesAreCreated() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "select index_name from information_schema.indexes where table_name in ('alerts', 'device_commands')",
+                String.class);
+
+        assertTrue(indexes.containsAll(List.of(
+                "idx_alerts_timestamp",
+                "idx_alerts_type_metric_timestamp",
+                "idx_device_commands_pending",
+                "idx_device_commands_type_created")));
+    }
+
+    private static Alert alert(AlertType type, LocalDateTime timestamp) {
+        Alert alert = new Alert();
+        alert.setAlertType(type);
+        alert.setTimestamp(timestamp);
+        return alert;
+    }
+
+    private static SensorData reading(LocalDateTime timestamp) {
+        SensorData data = new SensorData();
+        data.setTimestamp(timestamp);
+        data.setCo2Level(600);
+        return data;
+    }
+
+    private static DeviceCommand command(String type, String parameters, boolean executed, LocalDateTime createdAt) {
+        DeviceCommand command = new DeviceCommand();
+        command.setDeviceKey("demo-device-key");
+        command.setCommandType(type);
+        command.setParameters(parameters);
+        command.setExecuted(executed);
+        command.setCreatedAt(createdAt);
+        return command;
+    }
+}
@@ -0,0 +1,152 @@
+package com.ecoguard.ecoguard.integration;
+
+import com.ecoguard.ecoguard.entity.Alert;
+import com.ecoguard.ecoguard.entity.AlertType;
+import com.ecoguard.ecoguard.entity.DeviceCommand;
+import com.ecoguard.ecoguard.entity.Notification;
+import com.ecoguard.ecoguard.entity.Role;
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.entity.User;
+import com.ecoguard.ecoguard.repository.AlertRepository;
+import com.ecoguard.ecoguard.repository.DeviceCommandRepository;
+import com.ecoguard.ecoguard.repository.NotificationRepository;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import com.ecoguard.ecoguard.repository.UserRepository;
+import com.ecoguard.ecoguard.service.RetentionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the retention job.
+ * <p>
+ * Runs against a scratch in-memory database and archive directory, and checks that
+ * expired readings end up in the archive and expired alerts, notifications and
+ * commands are deleted while recent and unacknowledged rows are kept.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:retention-${random.uuid}",
+        "ecoguard.retention.batch-size=2"
+})
+class RetentionIntegrationTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 3, 30);
+
+    @Autowired
+    private RetentionService retentionService;
+
+    @Autowired
+    private SensorDataRepository sensorDataRepository;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private DeviceCommandRepository deviceCommandRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @TempDir
+    static Path archiveDirectory;
+
+    @DynamicPropertySource
+    static void archiveProperties(DynamicPropertyRegistry registry) {
+        registry.add("ecoguard.retention.archive-directory", archiveDirectory::toString);
+    }
+
+    @Test
+    void testRun_ArchivesReadingsAndPrunesAlertsAndCommands() throws IOException {
+        LocalDateTime oldDay = LocalDateTime.of(2025, 1, 10, 0, 0);
+        sensorDataRepository.saveAll(List.of(
+                reading(oldDay.plusHours(1), 600),
+                reading(oldDay.plusHours(2), 610),
+                reading(oldDay.plusDays(1), 620),
+                reading(NOW.minusDays(1), 700)));
+        User user = new User();
+        user.setUsername("retention-user");
+        user.setPasswordHash("hash");
+        user.setRole(Role.ADMIN);
+        userRepository.save(user);
+        Alert expired = alertRepository.save(alert(NOW.minusDays(200), true));
+        Alert unacknowledged = alertRepository.save(alert(NOW.minusDays(200), false));
+        Alert recent = alertRepository.save(alert(NOW.minusDays(10), true));
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setAlert(expired);
+        notificationRepository.save(notification);
+        DeviceCommand executed = command(NOW.minusDays(40), true);
+        DeviceCommand pending = command(NOW.minusDays(40), false);
+        deviceCommandRepository.saveAll(List.of(executed, pending));
+
+        RetentionService.Result result = retentionService.run(NOW);
+
+        assertEquals(3, result.archivedReadings());
+        assertEquals(3, result.deletedReadings());
+        assertEquals(1, result.deletedAlerts());
+        assertEquals(1, result.deletedCommands());
+        assertEquals(List.of(700), sensorDataRepository.findAll().stream().map(SensorData::getCo2Level).toList());
+        String firstDay = gunzip(archiveDirectory.resolve("sensor-data-2025-01-10.csv.gz"));
+        assertEquals(3, firstDay.lines().count());
+        assertTrue(firstDay.contains(",610,"));
+        assertTrue(gunzip(archiveDirectory.resolve("sensor-data-2025-01-11.csv.gz")).contains(",620,"));
+        assertEquals(0, notificationRepository.count());
+        assertFalse(alertRepository.existsById(expired.getId()));
+        assertTrue(alertRepository.existsById(unacknowledged.getId()));
+        assertTrue(alertRepository.existsById(recent.getId()));
+        assertEquals(List.of(pending.getId()),
+                deviceCommandRepository.findAll().stream().map(DeviceCommand::getId).toList());
+    }
+
+    private static SensorData reading(LocalDateTime timestamp, int co2Level) {
+        SensorData data = new SensorData();
+        data.setTimestamp(timestamp);
+        data.setTemperature(new BigDecimal("21.50"));
+        data.setCo2Level(co2Level);
+        return data;
+    }
+
+    private static Alert alert(LocalDateTime timestamp, boolean acknowledged) {
+        Alert alert = new Alert();
+        alert.setAlertType(AlertType.THRESHOLD);
+        alert.setMetricType("CO2");
+        alert.setValue(new BigDecimal("1500"));
+        alert.setTimestamp(timestamp);
+        alert.setAcknowledged(acknowledged);
+        return alert;
+    }
+
+    private static DeviceCommand command(LocalDateTime createdAt, boolean executed) {
+        DeviceCommand command = new DeviceCommand();
+        command.setDeviceKey("device-1");
+        command.setCommandType("REBOOT");
+        command.setCreatedAt(createdAt);
+        command.setExecuted(executed);
+        command.setExecutedAt(executed ? createdAt.plusMinutes(1) : null);
+        return command;
+    }
+
+    private static String gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
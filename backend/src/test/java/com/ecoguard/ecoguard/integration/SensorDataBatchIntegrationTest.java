@@ -0,0 +1,71 @@
+package com.ecoguard.ecoguard.integration;
+
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration test for the batch sensor ingestion endpoint.
+ * <p>
+ * Sends a batch of buffered readings through the full stack (device key check,
+ * controller, service, JDBC batch insert) and verifies that every reading is stored
+ * and reported back with its generated ID.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class SensorDataBatchIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SensorDataRepository sensorDataRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Clean up test data - @Transactional ensures rollback after each test
+        sensorDataRepository.deleteAll();
+    }
+
+    @Test
+    void testIngestBatch_PersistsAllReadings() throws Exception {
+        String body = """
+                [
+                  {"temperature": 21.5, "humidity": 40.0, "co2Level": 600, "timestamp": "2025-01-01T10:00:00"},
+                  {"temperature": 21.7, "lightLevel": 300, "timestamp": "2025-01-01T10:00:03"},
+                  {"co2Level": 650}
+                ]
+                """;
+
+        mockMvc.perform(post("/api/device/sensor-data/batch")
+                        .header("X-Device-Key", "demo-device-key")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(3))
+                .andExpect(jsonPath("$.results.length()").value(3))
+                .andExpect(jsonPath("$.results[0].sensorDataId").isNumber())
+                .andExpect(jsonPath("$.results[2].sensorDataId").isNumber());
+
+        assertEquals(3, sensorDataRepository.count());
+    }
+
+    @Test
+    void testIngestBatch_RequiresDeviceKey() throws Exception {
+        mockMvc.perform(post("/api/device/sensor-data/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"co2Level\": 650}]"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecoguard.ecoguard.integration;
+
+import com.ecoguard.ecoguard.dto.SensorDataFrame;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration test for readings posted as binary sensor data frames.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class SensorDataFrameIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testIngest_FrameAccepted() throws Exception {
+        byte[] frame = {1, 0b1100, 0x02, 0x58, 0x01, 0x2C};
+
+        mockMvc.perform(post("/api/device/sensor-data")
+                        .header("X-Device-Key", "demo-device-key")
+                        .contentType(SensorDataFrame.MEDIA_TYPE)
+                        .content(frame))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.message").value("Reading queued"));
+    }
+
+    @Test
+    void testIngest_MalformedFrameRejected() throws Exception {
+        mockMvc.perform(post("/api/device/sensor-data")
+                        .header("X-Device-Key", "demo-device-key")
+                        .contentType(SensorDataFrame.MEDIA_TYPE)
+                        .content(new byte[] {1, 0b1100, 0x02}))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testIngest_EmptyFrameRejected() throws Exception {
+        mockMvc.perform(post("/api/device/sensor-data")
+                        .header("X-Device-Key", "demo-device-key")
+                        .contentType(SensorDataFrame.MEDIA_TYPE)
+                        .content(new byte[] {1, 0}))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").exists());
+    }
+}
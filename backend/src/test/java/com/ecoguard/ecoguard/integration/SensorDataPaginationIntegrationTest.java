@@ -0,0 +1,90 @@
+package com.ecoguard.ecoguard.integration;
+
+import com.ecoguard.ecoguard.dto.SensorDataPage;
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import com.ecoguard.ecoguard.service.SensorDataQueryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for keyset-paginated sensor data listing.
+ * <p>
+ * Walks the stored readings page by page against the real database and verifies
+ * that every reading is returned exactly once, newest first, including readings
+ * that share a timestamp.
+ */
+@SpringBootTest
+@Transactional
+class SensorDataPaginationIntegrationTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    @Autowired
+    private SensorDataRepository sensorDataRepository;
+
+    @Autowired
+    private SensorDataQueryService sensorDataQueryService;
+
+    private List<Long> expectedOrder;
+
+    @BeforeEach
+    void setUp() {
+        // Clean up test data - @Transactional ensures rollback after each test
+        sensorDataRepository.deleteAll();
+        List<SensorData> saved = new ArrayList<>();
+        for (int second : new int[]{0, 3, 3, 3, 6}) {
+            SensorData data = new SensorData();
+            data.setCo2Level(500 + second);
+            data.setTimestamp(T0.plusSeconds(second));
+            saved.add(sensorDataRepository.save(data));
+        }
+        expectedOrder = List.of(saved.get(4).getId(), saved.get(3).getId(), saved.get(2).getId(),
+                saved.get(1).getId(), saved.get(0).getId());
+    }
+
+    @Test
+    void testGetPage_WalksAllReadingsOnce() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            SensorDataPage page = sensorDataQueryService.getPage(cursor, 2);
+            page.items().forEach(item -> seen.add(item.getId()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(expectedOrder, seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void testGetPage_ExactFitHasNoNextCursor() {
+        SensorDataPage page = sensorDataQueryService.getPage(null, 5);
+
+        assertEquals(5, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void testGetPage_ClampsPageSize() {
+        assertEquals(1, sensorDataQueryService.getPage(null, 0).items().size());
+        assertEquals(5, sensorDataQueryService.getPage(null, 1_000_000).items().size());
+    }
+
+    @Test
+    void testGetPage_RejectsInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> sensorDataQueryService.getPage("not-a-cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> sensorDataQueryService.getPage("!!", 10));
+    }
+}
@@ -0,0 +1,136 @@
+package com.ecoguard.ecoguard.integration;
+
+import com.ecoguard.ecoguard.dto.SensorBucket;
+import com.ecoguard.ecoguard.dto.SensorPoint;
+import com.ecoguard.ecoguard.entity.MetricType;
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import com.ecoguard.ecoguard.service.SensorDataQueryService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for streamed sensor data range reads.
+ * <p>
+ * Exports, downsamples and aggregates a range from the real database through the
+ * repository cursor and verifies the output.
+ */
+@SpringBootTest
+@Transactional
+class SensorDataRangeIntegrationTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    @Autowired
+    private SensorDataRepository sensorDataRepository;
+
+    @Autowired
+    private SensorDataQueryService sensorDataQueryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        // Clean up test data - @Transactional ensures rollback after each test
+        sensorDataRepository.deleteAll();
+        save(T0, new BigDecimal("21.50"), 600);
+        save(T0.plusSeconds(3), null, 610);
+        save(T0.plusHours(2), new BigDecimal("22.00"), 620);
+    }
+
+    @Test
+    void testExportRange_Ndjson() throws Exception {
+        String[] lines = export(SensorDataQueryService.ExportFormat.NDJSON).split("\n");
+
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(21.5, first.get("temperature").asDouble());
+        assertEquals(600, first.get("co2Level").asInt());
+        assertEquals("2025-01-01T10:00:00", first.get("timestamp").asText());
+        assertTrue(objectMapper.readTree(lines[1]).get("temperature").isNull());
+    }
+
+    @Test
+    void testExportRange_Csv() throws Exception {
+        String[] lines = export(SensorDataQueryService.ExportFormat.CSV).split("\n");
+
+        assertEquals(3, lines.length);
+        assertEquals("id,timestamp,temperature,humidity,co2Level,lightLevel", lines[0]);
+        assertTrue(lines[1].endsWith(",2025-01-01T10:00:00,21.50,,600,"));
+        assertTrue(lines[2].endsWith(",2025-01-01T10:00:03,,,610,"));
+    }
+
+    @Test
+    void testAggregate_BucketsPerMetric() {
+        Map<MetricType, List<SensorBucket>> result =
+                sensorDataQueryService.aggregate(T0, T0.plusHours(3), Duration.ofHours(1));
+
+        List<SensorBucket> co2 = result.get(MetricType.CO2);
+        assertEquals(2, co2.size());
+        assertEquals(T0, co2.get(0).start());
+        assertEquals(2, co2.get(0).count());
+        assertEquals(600, co2.get(0).min());
+        assertEquals(605, co2.get(0).avg());
+        assertEquals(610, co2.get(0).max());
+        assertEquals(1, result.get(MetricType.TEMP).get(0).count());
+        assertTrue(result.get(MetricType.LIGHT).isEmpty());
+    }
+
+    @Test
+    void testDownsample_KeepsEndpoints() {
+        Map<MetricType, List<SensorPoint>> result = sensorDataQueryService.downsample(T0, T0.plusHours(3), 3);
+
+        List<SensorPoint> co2 = result.get(MetricType.CO2);
+        assertEquals(3, co2.size());
+        assertEquals(T0, co2.get(0).timestamp());
+        assertEquals(620, co2.get(2).value());
+        assertThrows(IllegalArgumentException.class, () -> sensorDataQueryService.downsample(T0, T0, 2));
+    }
+
+    @Test
+    void testDownsample_LongRangeKeepsSpikeAndEndpoints() {
+        LocalDateTime start = T0.plusDays(1);
+        for (int i = 0; i < 200; i++) {
+            save(start.plusSeconds(3L * i), null, i == 137 ? 5000 : 600 + i % 7);
+        }
+
+        Map<MetricType, List<SensorPoint>> result = sensorDataQueryService.downsample(start, start.plusHours(1), 10);
+
+        List<SensorPoint> co2 = result.get(MetricType.CO2);
+        assertEquals(10, co2.size());
+        assertEquals(start, co2.get(0).timestamp());
+        assertEquals(start.plusSeconds(597), co2.get(9).timestamp());
+        assertTrue(co2.stream().anyMatch(point -> point.value() == 5000));
+        assertTrue(result.get(MetricType.TEMP).isEmpty());
+    }
+
+    private String export(SensorDataQueryService.ExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        sensorDataQueryService.exportRange(T0, T0.plusHours(1), format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private void save(LocalDateTime timestamp, BigDecimal temperature, int co2) {
+        SensorData data = new SensorData();
+        data.setTimestamp(timestamp);
+        data.setTemperature(temperature);
+        data.setCo2Level(co2);
+        sensorDataRepository.save(data);
+    }
+}
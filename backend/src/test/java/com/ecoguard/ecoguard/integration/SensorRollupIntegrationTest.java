@@ -0,0 +1,87 @@
+package com.ecoguard.ecoguard.integration;
+
+import com.ecoguard.ecoguard.dto.SensorBucket;
+import com.ecoguard.ecoguard.dto.SensorRollupSeries;
+import com.ecoguard.ecoguard.entity.MetricType;
+import com.ecoguard.ecoguard.entity.RollupResolution;
+import com.ecoguard.ecoguard.entity.SensorRollup;
+import com.ecoguard.ecoguard.repository.SensorRollupRepository;
+import com.ecoguard.ecoguard.service.SensorRollupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for sensor rollups.
+ * <p>
+ * Merges rollup deltas into the real database through the JDBC update-or-insert
+ * path and reads them back through the rollup service.
+ */
+@SpringBootTest
+@Transactional
+class SensorRollupIntegrationTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    @Autowired
+    private SensorRollupRepository sensorRollupRepository;
+
+    @Autowired
+    private SensorRollupService sensorRollupService;
+
+    @BeforeEach
+    void setUp() {
+        // Clean up test data - @Transactional ensures rollback after each test
+        sensorRollupRepository.deleteAll();
+    }
+
+    @Test
+    void testMergeAll_AddsToExistingBuckets() {
+        sensorRollupRepository.mergeAll(List.of(delta(T0, 2, 600, 610, 1210, 600 * 600 + 610 * 610)));
+        sensorRollupRepository.mergeAll(List.of(
+                delta(T0, 1, 590, 590, 590, 590 * 590),
+                delta(T0.plusHours(1), 1, 700, 700, 700, 700 * 700)));
+
+        assertEquals(2, sensorRollupRepository.count());
+        SensorRollupSeries series = sensorRollupService.query(T0, T0.plusHours(2), RollupResolution.HOUR);
+
+        List<SensorBucket> co2 = series.metrics().get(MetricType.CO2);
+        assertEquals(2, co2.size());
+        assertEquals(T0, co2.get(0).start());
+        assertEquals(3, co2.get(0).count());
+        assertEquals(590, co2.get(0).min());
+        assertEquals(610, co2.get(0).max());
+        assertEquals(600, co2.get(0).avg(), 1e-9);
+        assertEquals(700, co2.get(1).avg(), 1e-9);
+    }
+
+    @Test
+    void testQuery_IncludesBucketOverlappingStart() {
+        sensorRollupRepository.mergeAll(List.of(delta(T0, 1, 600, 600, 600, 600 * 600)));
+
+        SensorRollupSeries series = sensorRollupService.query(T0.plusMinutes(30), T0.plusHours(1), RollupResolution.HOUR);
+
+        assertEquals(1, series.metrics().get(MetricType.CO2).size());
+    }
+
+    private static SensorRollup delta(LocalDateTime bucketStart, long count, double min, double max,
+                                      double sum, double sumSquares) {
+        SensorRollup rollup = new SensorRollup();
+        rollup.setResolution(RollupResolution.HOUR);
+        rollup.setBucketStart(bucketStart);
+        rollup.setMetricType(MetricType.CO2);
+        rollup.setSampleCount(count);
+        rollup.setMinValue(min);
+        rollup.setMaxValue(max);
+        rollup.setSumValue(sum);
+        rollup.setSumSquares(sumSquares);
+        return rollup;
+    }
+}
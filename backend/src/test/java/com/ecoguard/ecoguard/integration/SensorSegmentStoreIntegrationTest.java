@@ -0,0 +1,84 @@
+package com.ecoguard.ecoguard.integration;
+
+import com.ecoguard.ecoguard.dto.SensorBucket;
+import com.ecoguard.ecoguard.dto.SensorDataPayload;
+import com.ecoguard.ecoguard.entity.MetricType;
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import com.ecoguard.ecoguard.service.SensorDataQueryService;
+import com.ecoguard.ecoguard.service.SensorDataService;
+import com.ecoguard.ecoguard.service.SensorSegmentStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for range queries served from the segment store.
+ * <p>
+ * Ingests readings through the regular path into a scratch in-memory database with
+ * the store enabled, then checks that raw ranges and aggregates read from the store
+ * match the database.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:segment-store-${random.uuid}",
+        "ecoguard.segment-store.enabled=true",
+        "ecoguard.segment-store.directory=${java.io.tmpdir}/ecoguard-segments-${random.uuid}",
+        "ecoguard.segment-store.block-size=2"
+})
+class SensorSegmentStoreIntegrationTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 23, 59, 50);
+
+    @Autowired
+    private SensorDataService sensorDataService;
+
+    @Autowired
+    private SensorDataQueryService sensorDataQueryService;
+
+    @Autowired
+    private SensorDataRepository sensorDataRepository;
+
+    @Autowired
+    private SensorSegmentStore sensorSegmentStore;
+
+    @Test
+    void testRangeQueries_ServedFromStore() {
+        sensorDataService.ingestBatch(List.of(
+                payload(T0, "21.50", 600),
+                payload(T0.plusSeconds(5), null, 610),
+                payload(T0.plusSeconds(10), "22.25", 620)));
+        assertTrue(sensorSegmentStore.getStoredBytes() > 0);
+
+        List<SensorData> fromStore = sensorDataQueryService.findRange(T0, T0.plusMinutes(1));
+        List<SensorData> fromDatabase = sensorDataRepository.findAllByTimestampBetween(T0, T0.plusMinutes(1)).stream()
+                .sorted(Comparator.comparing(SensorData::getTimestamp))
+                .toList();
+        assertEquals(fromDatabase, fromStore);
+
+        Map<MetricType, List<SensorBucket>> buckets =
+                sensorDataQueryService.aggregate(T0, T0.plusMinutes(1), Duration.ofDays(1));
+        assertEquals(2, buckets.get(MetricType.CO2).size());
+        assertEquals(2, buckets.get(MetricType.CO2).get(0).count());
+        assertEquals(605, buckets.get(MetricType.CO2).get(0).avg());
+        assertEquals(22.25, buckets.get(MetricType.TEMP).get(1).max());
+    }
+
+    private static SensorDataPayload payload(LocalDateTime timestamp, String temperature, int co2Level) {
+        SensorDataPayload payload = new SensorDataPayload();
+        payload.setTimestamp(timestamp);
+        payload.setTemperature(temperature == null ? null : new BigDecimal(temperature));
+        payload.setHumidity(new BigDecimal("45.00"));
+        payload.setCo2Level(co2Level);
+        payload.setLightLevel(300);
+        return payload;
+    }
+}
@@ -1,25 +1,216 @@
 package com.ecoguard.ecoguard.service;
 
+import com.ecoguard.ecoguard.entity.Alert;
+import com.ecoguard.ecoguard.entity.AlertType;
+import com.ecoguard.ecoguard.entity.MetricType;
+import com.ecoguard.ecoguard.repository.AlertRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
 
 /**
  * Unit tests for AlertService.
  */
+@ExtendWith(MockitoExtension.class)
 class AlertServiceTest {
 
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Mock
+    private AlertRepository alertRepository;
+
     private AlertService alertService;
 
     @BeforeEach
     void setUp() {
-        alertService = new AlertService();
+        alertService = new AlertService(alertRepository, 300);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testRecordBreach_FirstBreachOpensAlert() {
+        when(alertRepository.findTopByAlertTypeAndMetricTypeOrderByTimestampDesc(AlertType.THRESHOLD, "CO2"))
+                .thenReturn(Optional.empty());
+
+        AlertService.Breach breach = alertService.recordBreach(MetricType.CO2, new BigDecimal("1300"), T0);
+
+        assertTrue(breach.created());
+        assertEquals(AlertType.THRESHOLD, breach.alert().getAlertType());
+        assertEquals("CO2", breach.alert().getMetricType());
+        assertEquals(1, breach.alert().getOccurrences());
+        assertEquals(T0, breach.alert().getLastSeenAt());
     }
 
     @Test
-    void testAlertService_CanBeInstantiated() {
-        assertNotNull(alertService);
+    void testRecordBreach_SustainedBreachCoalesces() {
+        when(alertRepository.findTopByAlertTypeAndMetricTypeOrderByTimestampDesc(AlertType.THRESHOLD, "CO2"))
+                .thenReturn(Optional.empty());
+
+        Alert opened = alertService.recordBreach(MetricType.CO2, new BigDecimal("1300"), T0).alert();
+        AlertService.Breach second = alertService.recordBreach(MetricType.CO2, new BigDecimal("1350"), T0.plusSeconds(3));
+        AlertService.Breach third = alertService.recordBreach(MetricType.CO2, new BigDecimal("1400"), T0.plusSeconds(6));
+
+        assertFalse(second.created());
+        assertFalse(third.created());
+        assertSame(opened, third.alert());
+        assertEquals(3, opened.getOccurrences());
+        assertEquals(new BigDecimal("1300"), opened.getValue());
+        assertEquals(new BigDecimal("1400"), opened.getLastValue());
+        assertEquals(T0.plusSeconds(6), opened.getLastSeenAt());
+        verify(alertRepository, times(1)).findTopByAlertTypeAndMetricTypeOrderByTimestampDesc(any(), anyString());
     }
-}
 
+    @Test
+    void testRecordBreach_AfterSuppressionWindowOpensNewAlert() {
+        when(alertRepository.findTopByAlertTypeAndMetricTypeOrderByTimestampDesc(AlertType.THRESHOLD, "TEMP"))
+                .thenReturn(Optional.empty());
+
+        Alert first = alertService.recordBreach(MetricType.TEMP, new BigDecimal("35"), T0).alert();
+        AlertService.Breach later = alertService.recordBreach(MetricType.TEMP, new BigDecimal("36"), T0.plusSeconds(301));
+
+        assertTrue(later.created());
+        assertNotSame(first, later.alert());
+        assertEquals(1, first.getOccurrences());
+    }
+
+    @Test
+    void testRecordBreach_MetricsAreIndependent() {
+        when(alertRepository.findTopByAlertTypeAndMetricTypeOrderByTimestampDesc(eq(AlertType.THRESHOLD), anyString()))
+                .thenReturn(Optional.empty());
+
+        alertService.recordBreach(MetricType.TEMP, new BigDecimal("35"), T0);
+
+        assertTrue(alertService.recordBreach(MetricType.HUMIDITY, new BigDecimal("95"), T0).created());
+    }
+
+    @Test
+    void testRecordBreach_RestoresOpenAlertAfterRestart() {
+        Alert stored = new Alert();
+        stored.setId(42L);
+        stored.setAlertType(AlertType.THRESHOLD);
+        stored.setMetricType("CO2");
+        stored.setValue(new BigDecimal("1300"));
+        stored.setOccurrences(10);
+        stored.setLastValue(new BigDecimal("1320"));
+        stored.setLastSeenAt(T0);
+        when(alertRepository.findTopByAlertTypeAndMetricTypeOrderByTimestampDesc(AlertType.THRESHOLD, "CO2"))
+                .thenReturn(Optional.of(stored));
+
+        AlertService.Breach breach = alertService.recordBreach(MetricType.CO2, new BigDecimal("1310"), T0.plusSeconds(3));
+
+        assertFalse(breach.created());
+        assertEquals(42L, breach.alert().getId());
+        assertEquals(11, breach.alert().getOccurrences());
+        assertNotSame(stored, breach.alert());
+        assertEquals(10, stored.getOccurrences());
+    }
+
+    @Test
+    void testRecordBreach_AcknowledgedAlertIsNotRestored() {
+        Alert stored = new Alert();
+        stored.setId(42L);
+        stored.setAlertType(AlertType.THRESHOLD);
+        stored.setMetricType("CO2");
+        stored.setOccurrences(10);
+        stored.setLastValue(new BigDecimal("1320"));
+        stored.setLastSeenAt(T0);
+        stored.setAcknowledged(true);
+        when(alertRepository.findTopByAlertTypeAndMetricTypeOrderByTimestampDesc(AlertType.THRESHOLD, "CO2"))
+                .thenReturn(Optional.of(stored));
+
+        AlertService.Breach breach = alertService.recordBreach(MetricType.CO2, new BigDecimal("1310"), T0.plusSeconds(3));
+
+        assertTrue(breach.created());
+        assertNull(breach.alert().getId());
+        assertEquals(1, breach.alert().getOccurrences());
+    }
+
+    @Test
+    void testRecordBreach_OpenedAlertVisibleOnlyAfterCommit() {
+        when(alertRepository.findTopByAlertTypeAndMetricTypeOrderByTimestampDesc(AlertType.THRESHOLD, "CO2"))
+                .thenReturn(Optional.empty());
+
+        TransactionSynchronizationManager.initSynchronization();
+        Alert opened = alertService.recordBreach(MetricType.CO2, new BigDecimal("1300"), T0).alert();
+        AlertService.Breach sameTransaction = alertService.recordBreach(MetricType.CO2, new BigDecimal("1350"), T0.plusSeconds(3));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertFalse(sameTransaction.created());
+        assertSame(opened, alertService.recordBreach(MetricType.CO2, new BigDecimal("1400"), T0.plusSeconds(6)).alert());
+    }
+
+    @Test
+    void testRecordBreach_RollbackForgetsOpenAlert() {
+        Alert stored = new Alert();
+        stored.setId(42L);
+        stored.setAlertType(AlertType.THRESHOLD);
+        stored.setMetricType("CO2");
+        stored.setOccurrences(10);
+        stored.setLastSeenAt(T0);
+        when(alertRepository.findTopByAlertTypeAndMetricTypeOrderByTimestampDesc(AlertType.THRESHOLD, "CO2"))
+                .thenReturn(Optional.of(stored));
+
+        TransactionSynchronizationManager.initSynchronization();
+        alertService.recordBreach(MetricType.CO2, new BigDecimal("1310"), T0.plusSeconds(3));
+        alertService.recordBreach(MetricType.TEMP, new BigDecimal("35"), T0);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        AlertService.Breach retried = alertService.recordBreach(MetricType.CO2, new BigDecimal("1310"), T0.plusSeconds(3));
+
+        assertFalse(retried.created());
+        assertEquals(11, retried.alert().getOccurrences());
+        verify(alertRepository, times(2)).findTopByAlertTypeAndMetricTypeOrderByTimestampDesc(AlertType.THRESHOLD, "CO2");
+        assertFalse(TransactionSynchronizationManager.hasResource(alertService));
+    }
+
+    @Test
+    void testReopen_ReplacesMissingAlert() {
+        Alert missing = new Alert();
+        missing.setId(42L);
+        missing.setMetricType("CO2");
+        missing.setOccurrences(10);
+        missing.setLastValue(new BigDecimal("1320"));
+        missing.setLastSeenAt(T0);
+
+        Alert reopened = alertService.reopen(missing);
+
+        assertNull(reopened.getId());
+        assertEquals(1, reopened.getOccurrences());
+        assertEquals(new BigDecimal("1320"), reopened.getValue());
+        assertEquals(T0, reopened.getLastSeenAt());
+
+        AlertService.Breach next = alertService.recordBreach(MetricType.CO2, new BigDecimal("1330"), T0.plusSeconds(3));
+
+        assertSame(reopened, next.alert());
+        assertFalse(next.created());
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
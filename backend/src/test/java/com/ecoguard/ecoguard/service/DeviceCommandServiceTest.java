@@ -0,0 +1,417 @@
+package com.ecoguard.ecoguard.service;
+
+import com.ecoguard.ecoguard.dto.DeviceCommandResponse;
+import com.ecoguard.ecoguard.entity.DeviceCommand;
+import com.ecoguard.ecoguard.repository.DeviceCommandRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DeviceCommandService.
+ */
+@ExtendWith(MockitoExtension.class)
+class DeviceCommandServiceTest {
+
+    private static final String DEVICE_KEY = "demo-device-key";
+
+    @Mock
+    private DeviceCommandRepository deviceCommandRepository;
+
+    @Mock
+    private DevicePresenceRegistry devicePresenceRegistry;
+
+    @Mock
+    private LiveEventBroadcaster liveEventBroadcaster;
+
+    private DeviceCommandService deviceCommandService;
+
+    @BeforeEach
+    void setUp() {
+        deviceCommandService = new DeviceCommandService(deviceCommandRepository, devicePresenceRegistry, liveEventBroadcaster, 3600);
+    }
+
+    @Test
+    void testReload_SeedsQueuesFromUnexecutedRows() {
+        when(deviceCommandRepository.findByExecutedFalseOrderByCreatedAtAsc()).thenReturn(List.of(
+                command(1L, DEVICE_KEY, "SET_LED_COLOR", "255,0,0"),
+                command(2L, "other-device", "REFRESH_CONFIG", null),
+                command(3L, DEVICE_KEY, "DISPLAY_MESSAGE", "Hello")));
+
+        deviceCommandService.reload();
+
+        List<DeviceCommandResponse> result = deviceCommandService.getPending(DEVICE_KEY);
+        assertEquals(2, result.size());
+        assertEquals(1L, result.get(0).getId());
+        assertEquals("SET_LED_COLOR", result.get(0).getCommandType());
+        assertEquals("Hello", result.get(1).getParameters());
+        assertEquals(1, deviceCommandService.getPending("other-device").size());
+        assertTrue(deviceCommandService.getPending("unknown-device").isEmpty());
+    }
+
+    @Test
+    void testGetPending_ServedFromMemory() {
+        deviceCommandService.getPending(DEVICE_KEY);
+        deviceCommandService.getPending(DEVICE_KEY);
+        deviceCommandService.getPending("other-device");
+
+        verify(deviceCommandRepository, times(1)).findByExecutedFalseOrderByCreatedAtAsc();
+        verifyNoMoreInteractions(deviceCommandRepository);
+    }
+
+    @Test
+    void testEnqueue_SavesAndQueuesCommand() {
+        when(deviceCommandRepository.save(any(DeviceCommand.class))).thenAnswer(invocation -> withId(invocation.getArgument(0), 5L));
+
+        deviceCommandService.enqueue(DEVICE_KEY, "DISPLAY_MESSAGE", "Hello");
+
+        ArgumentCaptor<DeviceCommand> captor = ArgumentCaptor.forClass(DeviceCommand.class);
+        verify(deviceCommandRepository).save(captor.capture());
+        assertEquals(DEVICE_KEY, captor.getValue().getDeviceKey());
+        assertEquals("DISPLAY_MESSAGE", captor.getValue().getCommandType());
+        assertEquals("Hello", captor.getValue().getParameters());
+        assertFalse(captor.getValue().getExecuted());
+        assertEquals(List.of(5L), deviceCommandService.getPending(DEVICE_KEY).stream().map(DeviceCommandResponse::getId).toList());
+        verify(devicePresenceRegistry).recordAdminMessage(eq(DEVICE_KEY), eq("Hello"), any());
+        verify(liveEventBroadcaster).publish("command", Map.of("deviceKey", DEVICE_KEY, "action", "queued", "ids", List.of(5L)), true);
+    }
+
+    @Test
+    void testEnqueue_RolledBackCommandNotQueued() {
+        when(deviceCommandRepository.save(any(DeviceCommand.class))).thenAnswer(invocation -> withId(invocation.getArgument(0), 5L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            deviceCommandService.enqueue(DEVICE_KEY, "DISPLAY_MESSAGE", "Hello");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(deviceCommandService.getPending(DEVICE_KEY).isEmpty());
+        verifyNoInteractions(devicePresenceRegistry, liveEventBroadcaster);
+    }
+
+    @Test
+    void testAcknowledge_MarksExecutedAndDequeues() {
+        DeviceCommand command = command(1L, DEVICE_KEY, "SET_LED_COLOR", "255,0,0");
+        when(deviceCommandRepository.findByExecutedFalseOrderByCreatedAtAsc()).thenReturn(List.of(command));
+        when(deviceCommandRepository.findByIdAndDeviceKey(1L, DEVICE_KEY)).thenReturn(Optional.of(command));
+        deviceCommandService.reload();
+
+        assertTrue(deviceCommandService.acknowledge(DEVICE_KEY, 1L));
+
+        assertTrue(command.getExecuted());
+        assertNotNull(command.getExecutedAt());
+        verify(deviceCommandRepository, times(1)).save(command);
+        assertTrue(deviceCommandService.getPending(DEVICE_KEY).isEmpty());
+    }
+
+    @Test
+    void testAcknowledge_NotFound() {
+        when(deviceCommandRepository.findByIdAndDeviceKey(999L, DEVICE_KEY)).thenReturn(Optional.empty());
+
+        assertFalse(deviceCommandService.acknowledge(DEVICE_KEY, 999L));
+
+        verify(deviceCommandRepository, never()).save(any());
+    }
+
+    @Test
+    void testEnqueue_AppliesDefaultOrExplicitExpiry() {
+        AtomicLong ids = new AtomicLong();
+        when(deviceCommandRepository.save(any(DeviceCommand.class)))
+                .thenAnswer(invocation -> withId(invocation.getArgument(0), ids.incrementAndGet()));
+        LocalDateTime before = LocalDateTime.now();
+
+        DeviceCommand defaulted = deviceCommandService.enqueue(DEVICE_KEY, "REFRESH_CONFIG", null);
+        DeviceCommand explicit = deviceCommandService.enqueue(DEVICE_KEY, "DISPLAY_MESSAGE", "Hi", Duration.ofSeconds(30));
+        DeviceCommand unlimited = deviceCommandService.enqueue(DEVICE_KEY, "SET_LED_COLOR", "0,0,255", Duration.ZERO);
+
+        assertFalse(defaulted.getExpiresAt().isBefore(before.plusHours(1)));
+        assertTrue(explicit.getExpiresAt().isBefore(before.plusMinutes(1)));
+        assertNull(unlimited.getExpiresAt());
+    }
+
+    @Test
+    void testGetPending_SkipsExpiredCommands() {
+        DeviceCommand expired = command(1L, DEVICE_KEY, "REFRESH_CONFIG", null);
+        expired.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        DeviceCommand current = command(2L, DEVICE_KEY, "DISPLAY_MESSAGE", "Hello");
+        current.setExpiresAt(LocalDateTime.now().plusMinutes(1));
+        when(deviceCommandRepository.findByExecutedFalseOrderByCreatedAtAsc()).thenReturn(List.of(expired, current));
+
+        List<DeviceCommandResponse> result = deviceCommandService.getPending(DEVICE_KEY);
+
+        assertEquals(List.of(2L), result.stream().map(DeviceCommandResponse::getId).toList());
+    }
+
+    @Test
+    void testAcknowledgeAll_UsesOneUpdateAndDequeues() {
+        when(deviceCommandRepository.findByExecutedFalseOrderByCreatedAtAsc()).thenReturn(List.of(
+                command(1L, DEVICE_KEY, "REFRESH_CONFIG", null),
+                command(2L, DEVICE_KEY, "REFRESH_CONFIG", null),
+                command(3L, DEVICE_KEY, "DISPLAY_MESSAGE", "Hello")));
+        when(deviceCommandRepository.markExecuted(eq(DEVICE_KEY), eq(List.of(1L, 2L)), any(LocalDateTime.class))).thenReturn(2);
+        deviceCommandService.reload();
+
+        int acknowledged = deviceCommandService.acknowledgeAll(DEVICE_KEY, List.of(1L, 2L));
+
+        assertEquals(2, acknowledged);
+        assertEquals(List.of(3L), deviceCommandService.getPending(DEVICE_KEY).stream().map(DeviceCommandResponse::getId).toList());
+        verify(deviceCommandRepository, never()).findByIdAndDeviceKey(any(), any());
+        verify(deviceCommandRepository, never()).save(any());
+    }
+
+    @Test
+    void testPurgeExpired_DeletesAndDequeues() {
+        DeviceCommand expired = command(1L, DEVICE_KEY, "REFRESH_CONFIG", null);
+        expired.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        DeviceCommand current = command(2L, "other-device", "DISPLAY_MESSAGE", "Hello");
+        when(deviceCommandRepository.findByExecutedFalseOrderByCreatedAtAsc()).thenReturn(List.of(expired, current));
+        when(deviceCommandRepository.deleteExpired(any(LocalDateTime.class))).thenReturn(1);
+        deviceCommandService.reload();
+
+        assertEquals(1, deviceCommandService.purgeExpired());
+
+        assertTrue(deviceCommandService.getPending(DEVICE_KEY).isEmpty());
+        assertEquals(1, deviceCommandService.getPending("other-device").size());
+        verify(deviceCommandRepository, times(1)).findByExecutedFalseOrderByCreatedAtAsc();
+    }
+
+    @Test
+    void testEnqueueCoalesced_MergesIntoPendingCommand() {
+        DeviceCommand pending = command(4L, DEVICE_KEY, "REFRESH_CONFIG", "threshold_updated:TEMP");
+        pending.setExpiresAt(LocalDateTime.now().plusMinutes(5));
+        when(deviceCommandRepository.findFirstByDeviceKeyAndCommandTypeAndExecutedFalseOrderByCreatedAtDesc(DEVICE_KEY, "REFRESH_CONFIG"))
+                .thenReturn(Optional.of(pending));
+
+        DeviceCommand result = deviceCommandService.enqueueCoalesced(DEVICE_KEY, "REFRESH_CONFIG", "threshold_updated:CO2");
+
+        assertSame(pending, result);
+        assertEquals("threshold_updated:TEMP,CO2", pending.getParameters());
+        assertTrue(pending.getExpiresAt().isAfter(LocalDateTime.now().plusMinutes(59)));
+        verify(deviceCommandRepository, never()).save(any());
+        assertEquals(List.of("threshold_updated:TEMP,CO2"),
+                deviceCommandService.getPending(DEVICE_KEY).stream().map(DeviceCommandResponse::getParameters).toList());
+    }
+
+    @Test
+    void testEnqueueCoalesced_InsertsWhenNothingPending() {
+        when(deviceCommandRepository.findFirstByDeviceKeyAndCommandTypeAndExecutedFalseOrderByCreatedAtDesc(DEVICE_KEY, "REFRESH_CONFIG"))
+                .thenReturn(Optional.empty());
+        when(deviceCommandRepository.save(any(DeviceCommand.class))).thenAnswer(invocation -> withId(invocation.getArgument(0), 5L));
+
+        DeviceCommand result = deviceCommandService.enqueueCoalesced(DEVICE_KEY, "REFRESH_CONFIG", "threshold_updated:CO2");
+
+        assertEquals(5L, result.getId());
+        assertEquals("threshold_updated:CO2", result.getParameters());
+    }
+
+    @Test
+    void testEnqueueCoalesced_InsertsWhenPendingCommandExpired() {
+        DeviceCommand expired = command(4L, DEVICE_KEY, "REFRESH_CONFIG", "threshold_updated:TEMP");
+        expired.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        when(deviceCommandRepository.findFirstByDeviceKeyAndCommandTypeAndExecutedFalseOrderByCreatedAtDesc(DEVICE_KEY, "REFRESH_CONFIG"))
+                .thenReturn(Optional.of(expired));
+        when(deviceCommandRepository.save(any(DeviceCommand.class))).thenAnswer(invocation -> withId(invocation.getArgument(0), 5L));
+
+        DeviceCommand result = deviceCommandService.enqueueCoalesced(DEVICE_KEY, "REFRESH_CONFIG", "threshold_updated:CO2");
+
+        assertEquals(5L, result.getId());
+        assertEquals("threshold_updated:TEMP", expired.getParameters());
+    }
+
+    @Test
+    void testEnqueueCoalesced_InsertsWhenPendingCommandDelivered() {
+        DeviceCommand delivered = command(4L, DEVICE_KEY, "REFRESH_CONFIG", "threshold_updated:TEMP");
+        when(deviceCommandRepository.findByExecutedFalseOrderByCreatedAtAsc()).thenReturn(List.of());
+        when(deviceCommandRepository.save(any(DeviceCommand.class)))
+                .thenAnswer(invocation -> withId(invocation.getArgument(0), 4L))
+                .thenAnswer(invocation -> withId(invocation.getArgument(0), 5L));
+        deviceCommandService.enqueue(DEVICE_KEY, "REFRESH_CONFIG", "threshold_updated:TEMP");
+        assertEquals(1, deviceCommandService.getPending(DEVICE_KEY).size());
+        when(deviceCommandRepository.findFirstByDeviceKeyAndCommandTypeAndExecutedFalseOrderByCreatedAtDesc(DEVICE_KEY, "REFRESH_CONFIG"))
+                .thenReturn(Optional.of(delivered));
+
+        DeviceCommand result = deviceCommandService.enqueueCoalesced(DEVICE_KEY, "REFRESH_CONFIG", "threshold_updated:CO2");
+
+        assertEquals(5L, result.getId());
+        assertEquals("threshold_updated:TEMP", delivered.getParameters());
+        assertEquals(List.of(4L, 5L),
+                deviceCommandService.getPending(DEVICE_KEY).stream().map(DeviceCommandResponse::getId).toList());
+    }
+
+    @Test
+    void testEnqueueCoalesced_HoldsBackCommandUntilMergeCommits() {
+        DeviceCommand pending = command(4L, DEVICE_KEY, "REFRESH_CONFIG", "threshold_updated:TEMP");
+        when(deviceCommandRepository.findByExecutedFalseOrderByCreatedAtAsc()).thenReturn(List.of());
+        when(deviceCommandRepository.save(any(DeviceCommand.class))).thenAnswer(invocation -> withId(invocation.getArgument(0), 4L));
+        deviceCommandService.enqueue(DEVICE_KEY, "REFRESH_CONFIG", "threshold_updated:TEMP");
+        when(deviceCommandRepository.findFirstByDeviceKeyAndCommandTypeAndExecutedFalseOrderByCreatedAtDesc(DEVICE_KEY, "REFRESH_CONFIG"))
+                .thenReturn(Optional.of(pending));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            deviceCommandService.enqueueCoalesced(DEVICE_KEY, "REFRESH_CONFIG", "threshold_updated:CO2");
+            assertTrue(deviceCommandService.getPending(DEVICE_KEY).isEmpty());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of("threshold_updated:TEMP,CO2"),
+                deviceCommandService.getPending(DEVICE_KEY).stream().map(DeviceCommandResponse::getParameters).toList());
+    }
+
+    @Test
+    void testReload_TreatsLoadedCommandsAsDelivered() {
+        DeviceCommand loaded = command(4L, DEVICE_KEY, "REFRESH_CONFIG", "threshold_updated:TEMP");
+        when(deviceCommandRepository.findByExecutedFalseOrderByCreatedAtAsc()).thenReturn(List.of(loaded));
+        when(deviceCommandRepository.findFirstByDeviceKeyAndCommandTypeAndExecutedFalseOrderByCreatedAtDesc(DEVICE_KEY, "REFRESH_CONFIG"))
+                .thenReturn(Optional.of(loaded));
+        when(deviceCommandRepository.save(any(DeviceCommand.class))).thenAnswer(invocation -> withId(invocation.getArgument(0), 5L));
+        deviceCommandService.reload();
+
+        DeviceCommand result = deviceCommandService.enqueueCoalesced(DEVICE_KEY, "REFRESH_CONFIG", "threshold_updated:CO2");
+
+        assertEquals(5L, result.getId());
+        assertEquals("threshold_updated:TEMP", loaded.getParameters());
+    }
+
+    @Test
+    void testMergeParameters() {
+        assertEquals("threshold_updated:TEMP,CO2", DeviceCommandService.mergeParameters("threshold_updated:TEMP", "threshold_updated:CO2"));
+        assertEquals("threshold_updated:TEMP,CO2", DeviceCommandService.mergeParameters("threshold_updated:TEMP,CO2", "threshold_updated:TEMP"));
+        assertEquals("manual;threshold_updated:CO2", DeviceCommandService.mergeParameters("manual", "threshold_updated:CO2"));
+        assertEquals("manual", DeviceCommandService.mergeParameters("manual", "manual"));
+        assertEquals("manual", DeviceCommandService.mergeParameters(null, "manual"));
+        assertEquals("manual", DeviceCommandService.mergeParameters("manual", null));
+        String full = "x".repeat(499);
+        assertEquals(full, DeviceCommandService.mergeParameters(full, "more"));
+    }
+
+    @Test
+    void testAwaitPending_ReturnsImmediatelyWhenCommandsPending() {
+        when(deviceCommandRepository.findByExecutedFalseOrderByCreatedAtAsc())
+                .thenReturn(List.of(command(1L, DEVICE_KEY, "SET_LED_COLOR", "255,0,0")));
+
+        DeferredResult<List<DeviceCommandResponse>> result = deviceCommandService.awaitPending(DEVICE_KEY, 30);
+
+        assertTrue(result.hasResult());
+        assertEquals(1, ((List<?>) result.getResult()).size());
+    }
+
+    @Test
+    void testAwaitPending_ZeroWaitDoesNotPark() {
+        DeferredResult<List<DeviceCommandResponse>> result = deviceCommandService.awaitPending(DEVICE_KEY, 0);
+
+        assertTrue(result.hasResult());
+        assertEquals(List.of(), result.getResult());
+        assertEquals(0, deviceCommandService.getWaitingCount());
+    }
+
+    @Test
+    void testAwaitPending_CompletedByEnqueue() {
+        when(deviceCommandRepository.save(any(DeviceCommand.class))).thenAnswer(invocation -> withId(invocation.getArgument(0), 5L));
+
+        DeferredResult<List<DeviceCommandResponse>> result = deviceCommandService.awaitPending(DEVICE_KEY, 30);
+        assertFalse(result.hasResult());
+        assertEquals(1, deviceCommandService.getWaitingCount());
+
+        deviceCommandService.enqueue(DEVICE_KEY, "DISPLAY_MESSAGE", "Hello");
+
+        assertTrue(result.hasResult());
+        assertEquals(5L, ((List<?>) result.getResult()).stream()
+                .map(DeviceCommandResponse.class::cast).findFirst().orElseThrow().getId());
+        assertEquals(0, deviceCommandService.getWaitingCount());
+    }
+
+    @Test
+    void testAwaitPending_OtherDeviceNotWoken() {
+        when(deviceCommandRepository.save(any(DeviceCommand.class))).thenAnswer(invocation -> withId(invocation.getArgument(0), 5L));
+
+        DeferredResult<List<DeviceCommandResponse>> result = deviceCommandService.awaitPending(DEVICE_KEY, 30);
+        deviceCommandService.enqueue("other-device", "DISPLAY_MESSAGE", "Hello");
+
+        assertFalse(result.hasResult());
+        assertEquals(1, deviceCommandService.getWaitingCount());
+    }
+
+    @Test
+    void testEnqueue_WakesWaitersAfterCommit() {
+        when(deviceCommandRepository.save(any(DeviceCommand.class))).thenAnswer(invocation -> withId(invocation.getArgument(0), 5L));
+        DeferredResult<List<DeviceCommandResponse>> result = deviceCommandService.awaitPending(DEVICE_KEY, 30);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            deviceCommandService.enqueue(DEVICE_KEY, "DISPLAY_MESSAGE", "Hello");
+
+            assertFalse(result.hasResult());
+            assertTrue(deviceCommandService.getPending(DEVICE_KEY).isEmpty());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertTrue(result.hasResult());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testAddListener_CalledWithPendingAfterCommitUntilRemoved() {
+        when(deviceCommandRepository.save(any(DeviceCommand.class))).thenAnswer(invocation -> withId(invocation.getArgument(0), 5L));
+        List<List<DeviceCommandResponse>> pushed = new ArrayList<>();
+        Consumer<List<DeviceCommandResponse>> listener = pushed::add;
+        deviceCommandService.addListener(DEVICE_KEY, listener);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            deviceCommandService.enqueue(DEVICE_KEY, "DISPLAY_MESSAGE", "Hello");
+            assertTrue(pushed.isEmpty());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        deviceCommandService.enqueue("other-device", "DISPLAY_MESSAGE", "Hello");
+
+        assertEquals(1, pushed.size());
+        assertEquals(5L, pushed.get(0).get(0).getId());
+
+        deviceCommandService.removeListener(DEVICE_KEY, listener);
+        deviceCommandService.enqueue(DEVICE_KEY, "DISPLAY_MESSAGE", "Again");
+        assertEquals(1, pushed.size());
+    }
+
+    private static DeviceCommand command(Long id, String deviceKey, String commandType, String parameters) {
+        DeviceCommand command = new DeviceCommand();
+        command.setId(id);
+        command.setDeviceKey(deviceKey);
+        command.setCommandType(commandType);
+        command.setParameters(parameters);
+        command.setExecuted(false);
+        return command;
+    }
+
+    private static DeviceCommand withId(DeviceCommand command, Long id) {
+        command.setId(id);
+        return command;
+    }
+}
@@ -0,0 +1,209 @@
+package com.ecoguard.ecoguard.service;
+
+import com.ecoguard.ecoguard.dto.AlertSummary;
+import com.ecoguard.ecoguard.dto.DeviceCommandSummary;
+import com.ecoguard.ecoguard.dto.DeviceStatusResponse;
+import com.ecoguard.ecoguard.dto.SensorDataPayload;
+import com.ecoguard.ecoguard.entity.Alert;
+import com.ecoguard.ecoguard.entity.AlertType;
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.repository.AlertRepository;
+import com.ecoguard.ecoguard.repository.DeviceCommandRepository;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DevicePresenceRegistry.
+ */
+@ExtendWith(MockitoExtension.class)
+class DevicePresenceRegistryTest {
+
+    private static final String DEVICE_KEY = "demo-device-key";
+
+    @Mock
+    private SensorDataRepository sensorDataRepository;
+
+    @Mock
+    private AlertRepository alertRepository;
+
+    @Mock
+    private DeviceCommandRepository deviceCommandRepository;
+
+    @Mock
+    private LiveEventBroadcaster liveEventBroadcaster;
+
+    private DevicePresenceRegistry devicePresenceRegistry;
+
+    @BeforeEach
+    void setUp() {
+        devicePresenceRegistry = new DevicePresenceRegistry(sensorDataRepository, alertRepository, deviceCommandRepository, liveEventBroadcaster);
+    }
+
+    @Test
+    void testOnApplicationReady_SeedsFromLatestRows() {
+        LocalDateTime readingTime = LocalDateTime.now().minusMinutes(5);
+        SensorData data = new SensorData();
+        data.setTimestamp(readingTime);
+        data.setTemperature(new BigDecimal("21.5"));
+        data.setCo2Level(800);
+        AlertSummary alert = mock(AlertSummary.class);
+        when(alert.getTimestamp()).thenReturn(readingTime.minusMinutes(1));
+        when(alert.getAlertType()).thenReturn(AlertType.THRESHOLD);
+        DeviceCommandSummary message = mock(DeviceCommandSummary.class);
+        when(message.getDeviceKey()).thenReturn("other-device");
+        when(message.getParameters()).thenReturn("Hello");
+        when(message.getCreatedAt()).thenReturn(readingTime);
+        when(sensorDataRepository.findTopByOrderByTimestampDesc()).thenReturn(Optional.of(data));
+        when(alertRepository.findTopByOrderByTimestampDesc(AlertSummary.class)).thenReturn(Optional.of(alert));
+        when(deviceCommandRepository.findTopByCommandTypeOrderByCommandTypeDescCreatedAtDesc("DISPLAY_MESSAGE", DeviceCommandSummary.class))
+                .thenReturn(Optional.of(message));
+
+        devicePresenceRegistry.onApplicationReady();
+
+        DevicePresenceRegistry.Presence presence = devicePresenceRegistry.getPresence(DEVICE_KEY);
+        assertEquals(readingTime, presence.lastSeenAt());
+        assertEquals(readingTime, presence.lastReadingTime());
+        assertEquals(new BigDecimal("21.5"), presence.temperature());
+        assertEquals(800, presence.co2());
+        assertEquals("Hello", devicePresenceRegistry.getPresence("other-device").lastAdminMessage());
+        assertEquals(AlertType.THRESHOLD, devicePresenceRegistry.getLatestAlert().orElseThrow().alertType());
+    }
+
+    @Test
+    void testOnApplicationReady_DoesNotOverwriteNewerState() {
+        SensorData stale = new SensorData();
+        stale.setTimestamp(LocalDateTime.now().minusHours(1));
+        stale.setTemperature(new BigDecimal("18.0"));
+        when(sensorDataRepository.findTopByOrderByTimestampDesc()).thenReturn(Optional.of(stale));
+        SensorDataPayload fresh = payload(LocalDateTime.now(), "23.0");
+        devicePresenceRegistry.recordReadings(DEVICE_KEY, List.of(fresh));
+
+        devicePresenceRegistry.onApplicationReady();
+
+        assertEquals(new BigDecimal("23.0"), devicePresenceRegistry.getPresence(DEVICE_KEY).temperature());
+        assertTrue(devicePresenceRegistry.getPresence(DEVICE_KEY).lastSeenAt().isAfter(stale.getTimestamp()));
+    }
+
+    @Test
+    void testRecordReadings_KeepsNewestOfOutOfOrderBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        devicePresenceRegistry.recordReadings(DEVICE_KEY, List.of(
+                payload(now.minusMinutes(1), "22.0"),
+                payload(now.minusMinutes(3), "20.0")));
+        devicePresenceRegistry.recordReadings(DEVICE_KEY, List.of(payload(now.minusMinutes(10), "19.0")));
+
+        DevicePresenceRegistry.Presence presence = devicePresenceRegistry.getPresence(DEVICE_KEY);
+        assertEquals(now.minusMinutes(1), presence.lastReadingTime());
+        assertEquals(new BigDecimal("22.0"), presence.temperature());
+        assertNotNull(presence.lastSeenAt());
+    }
+
+    @Test
+    void testRecordSeen_TracksDevicesSeparately() {
+        devicePresenceRegistry.recordSeen("device-a");
+        devicePresenceRegistry.recordReadings("device-b", List.of(payload(LocalDateTime.now(), "24.0")));
+
+        assertNotNull(devicePresenceRegistry.getPresence("device-a").lastSeenAt());
+        assertNull(devicePresenceRegistry.getPresence("device-a").lastReadingTime());
+        assertEquals(new BigDecimal("24.0"), devicePresenceRegistry.getPresence("device-b").temperature());
+        assertNull(devicePresenceRegistry.getPresence("unknown-device").lastSeenAt());
+        assertEquals(2, devicePresenceRegistry.getDeviceKeys().size());
+    }
+
+    @Test
+    void testRecordAlerts_AppliedAfterCommitAndKeepsNewest() {
+        LocalDateTime now = LocalDateTime.now();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            devicePresenceRegistry.recordAlerts(List.of(alert(now, AlertType.INTRUDER), alert(now.minusMinutes(1), AlertType.THRESHOLD)));
+            assertTrue(devicePresenceRegistry.getLatestAlert().isEmpty());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(AlertType.INTRUDER, devicePresenceRegistry.getLatestAlert().orElseThrow().alertType());
+        assertEquals(now, devicePresenceRegistry.getLatestAlert().orElseThrow().timestamp());
+    }
+
+    @Test
+    void testRecordAdminMessage_IgnoresOlderMessage() {
+        LocalDateTime now = LocalDateTime.now();
+        devicePresenceRegistry.recordAdminMessage(DEVICE_KEY, "Newer", now);
+        devicePresenceRegistry.recordAdminMessage(DEVICE_KEY, "Older", now.minusSeconds(5));
+
+        assertEquals("Newer", devicePresenceRegistry.getPresence(DEVICE_KEY).lastAdminMessage());
+        assertNull(devicePresenceRegistry.getPresence(DEVICE_KEY).lastSeenAt());
+    }
+
+    @Test
+    void testGetStatus_OnlineWhenRecentlySeen() {
+        devicePresenceRegistry.recordReadings(DEVICE_KEY, List.of(payload(LocalDateTime.now(), "22.5")));
+
+        DeviceStatusResponse status = devicePresenceRegistry.getStatus(DEVICE_KEY);
+
+        assertEquals(DEVICE_KEY, status.deviceKey());
+        assertTrue(status.online());
+        assertEquals(new BigDecimal("22.5"), status.temperature());
+        assertFalse(devicePresenceRegistry.getStatus("unknown-device").online());
+        assertNull(devicePresenceRegistry.getStatus("unknown-device").secondsSinceLastSeen());
+    }
+
+    @Test
+    void testRecordSeen_PublishesStatusOnlyWhenComingOnline() {
+        devicePresenceRegistry.recordSeen(DEVICE_KEY);
+        devicePresenceRegistry.recordSeen(DEVICE_KEY);
+        devicePresenceRegistry.recordReadings(DEVICE_KEY, List.of(payload(LocalDateTime.now(), "22.0")));
+
+        verify(liveEventBroadcaster, times(1)).publish(eq("device-status"),
+                argThat(status -> ((DeviceStatusResponse) status).online()), eq(true));
+    }
+
+    @Test
+    void testCheckOnline_PublishesStatusWhenDeviceGoesOffline() {
+        devicePresenceRegistry.recordSeen(DEVICE_KEY);
+        clearInvocations(liveEventBroadcaster);
+
+        devicePresenceRegistry.checkOnline(LocalDateTime.now());
+        verifyNoInteractions(liveEventBroadcaster);
+
+        devicePresenceRegistry.checkOnline(LocalDateTime.now().plusMinutes(1));
+        devicePresenceRegistry.checkOnline(LocalDateTime.now().plusMinutes(2));
+        verify(liveEventBroadcaster, times(1)).publish(eq("device-status"), any(), eq(true));
+
+        devicePresenceRegistry.recordSeen(DEVICE_KEY);
+        verify(liveEventBroadcaster, times(2)).publish(eq("device-status"), any(), eq(true));
+    }
+
+    private static SensorDataPayload payload(LocalDateTime timestamp, String temperature) {
+        SensorDataPayload payload = new SensorDataPayload();
+        payload.setTimestamp(timestamp);
+        payload.setTemperature(new BigDecimal(temperature));
+        return payload;
+    }
+
+    private static Alert alert(LocalDateTime timestamp, AlertType alertType) {
+        Alert alert = new Alert();
+        alert.setTimestamp(timestamp);
+        alert.setAlertType(alertType);
+        return alert;
+    }
+}
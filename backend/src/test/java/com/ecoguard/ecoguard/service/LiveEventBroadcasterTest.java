@@ -0,0 +1,105 @@
+package com.ecoguard.ecoguard.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LiveEventBroadcaster.
+ * <p>
+ * Senders are either run inline or parked, so a client either keeps up with
+ * every event or never drains its queue, which makes eviction deterministic.
+ */
+class LiveEventBroadcasterTest {
+
+    private final List<Runnable> parkedSenders = new ArrayList<>();
+
+    @Test
+    void testSubscribe_RejectedAtClientLimit() {
+        LiveEventBroadcaster broadcaster = new LiveEventBroadcaster(new ObjectMapper(), 60000, 16, 2, Runnable::run);
+
+        assertNotNull(broadcaster.subscribe(false));
+        assertNotNull(broadcaster.subscribe(true));
+        assertNull(broadcaster.subscribe(false));
+        assertEquals(2, broadcaster.getStats().clients());
+    }
+
+    @Test
+    void testPublish_ClientKeepingUpIsNotEvicted() {
+        LiveEventBroadcaster broadcaster = new LiveEventBroadcaster(new ObjectMapper(), 60000, 1, 10, Runnable::run);
+        broadcaster.subscribe(false);
+
+        for (int i = 0; i < 50; i++) {
+            broadcaster.publish("reading", Map.of("co2Level", i), false);
+        }
+
+        assertEquals(new LiveEventBroadcaster.Stats(1, 50, 0), broadcaster.getStats());
+    }
+
+    @Test
+    void testPublish_SlowConsumerEvicted() {
+        LiveEventBroadcaster broadcaster = new LiveEventBroadcaster(new ObjectMapper(), 60000, 3, 10, parkedSenders::add);
+        broadcaster.subscribe(false);
+
+        broadcaster.publish("reading", Map.of("co2Level", 400), false);
+        broadcaster.publish("reading", Map.of("co2Level", 410), false);
+        assertEquals(1, broadcaster.getStats().clients());
+
+        broadcaster.publish("reading", Map.of("co2Level", 420), false);
+
+        assertEquals(0, broadcaster.getStats().clients());
+        assertEquals(1, broadcaster.getStats().evicted());
+        assertEquals(1, parkedSenders.size());
+    }
+
+    @Test
+    void testPublish_AdminOnlyEventsSkipUserClients() {
+        LiveEventBroadcaster broadcaster = new LiveEventBroadcaster(new ObjectMapper(), 60000, 2, 10, parkedSenders::add);
+        broadcaster.subscribe(false);
+        broadcaster.subscribe(true);
+
+        broadcaster.publish("command", Map.of("deviceKey", "demo-device-key"), true);
+        broadcaster.publish("command", Map.of("deviceKey", "demo-device-key"), true);
+
+        assertEquals(1, broadcaster.getStats().clients());
+        assertEquals(1, broadcaster.getStats().evicted());
+    }
+
+    @Test
+    void testSendHeartbeat_EvictsClientThatStoppedReading() {
+        LiveEventBroadcaster broadcaster = new LiveEventBroadcaster(new ObjectMapper(), 60000, 2, 10, parkedSenders::add);
+        broadcaster.subscribe(false);
+
+        broadcaster.sendHeartbeat();
+        assertEquals(1, broadcaster.getStats().clients());
+        broadcaster.sendHeartbeat();
+
+        assertEquals(0, broadcaster.getStats().clients());
+    }
+
+    @Test
+    void testPublish_NoClientsSkipsSerialization() {
+        LiveEventBroadcaster broadcaster = new LiveEventBroadcaster(new ObjectMapper(), 60000, 2, 10, Runnable::run);
+
+        broadcaster.publish("reading", new Object(), false);
+
+        assertEquals(0, broadcaster.getStats().published());
+    }
+
+    @Test
+    void testStop_CompletesStreams() {
+        LiveEventBroadcaster broadcaster = new LiveEventBroadcaster(new ObjectMapper(), 60000, 2, 10, Runnable::run);
+        SseEmitter emitter = broadcaster.subscribe(false);
+
+        broadcaster.stop();
+
+        assertEquals(0, broadcaster.getStats().clients());
+        assertThrows(IllegalStateException.class, () -> emitter.send("late"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecoguard.ecoguard.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Lttb.
+ */
+class LttbTest {
+
+    @Test
+    void testSelect_ReturnsAllPointsBelowThreshold() {
+        long[] x = {0, 1, 2, 3};
+        double[] y = {1, 2, 3, 4};
+
+        assertArrayEquals(new int[]{0, 1, 2, 3}, Lttb.select(x, y, 4, 10));
+    }
+
+    @Test
+    void testSelect_KeepsEndpointsAndThreshold() {
+        int size = 1000;
+        long[] x = new long[size];
+        double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            x[i] = i * 3000L;
+            y[i] = Math.sin(i / 50.0);
+        }
+
+        int[] selected = Lttb.select(x, y, size, 100);
+
+        assertEquals(100, selected.length);
+        assertEquals(0, selected[0]);
+        assertEquals(size - 1, selected[99]);
+        for (int i = 1; i < selected.length; i++) {
+            assertTrue(selected[i] > selected[i - 1]);
+        }
+    }
+
+    @Test
+    void testSelect_KeepsSpike() {
+        int size = 500;
+        long[] x = new long[size];
+        double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            x[i] = i;
+            y[i] = 400;
+        }
+        y[247] = 2000;
+
+        int[] selected = Lttb.select(x, y, size, 20);
+
+        boolean keptSpike = false;
+        for (int index : selected) {
+            keptSpike |= index == 247;
+        }
+        assertTrue(keptSpike);
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecoguard.ecoguard.service;
+
+import com.ecoguard.ecoguard.entity.Alert;
+import com.ecoguard.ecoguard.entity.User;
+import com.ecoguard.ecoguard.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for NotificationDispatcher.
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationDispatcherTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PushNotificationService pushNotificationService;
+
+    @Test
+    void testDispatch_SendsOneBatchAndRecordsStats() {
+        NotificationDispatcher dispatcher = new NotificationDispatcher(userRepository, pushNotificationService, 1, 10);
+        when(userRepository.findByDeviceTokenIsNotNull()).thenReturn(List.of(user("token-1"), user("token-2")));
+        when(pushNotificationService.sendToTokens(anyList(), anyString(), anyString()))
+                .thenReturn(new PushNotificationService.BatchResult(1, 0, 1));
+
+        dispatcher.dispatch(alert());
+        dispatcher.stop();
+
+        verify(pushNotificationService).sendToTokens(eq(List.of("token-1", "token-2")), eq("EcoGuard Alert: TEMP"), anyString());
+        NotificationDispatcher.Stats stats = dispatcher.getStats();
+        assertEquals(1L, stats.sent());
+        assertEquals(1L, stats.failed());
+        assertEquals(0L, stats.dropped());
+        assertEquals(0, stats.queueDepth());
+    }
+
+    @Test
+    void testDispatch_ReturnsImmediatelyAndDropsWhenBacklogFull() throws InterruptedException {
+        NotificationDispatcher dispatcher = new NotificationDispatcher(userRepository, pushNotificationService, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findByDeviceTokenIsNotNull()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        dispatcher.dispatch(alert());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        dispatcher.dispatch(alert());
+        dispatcher.dispatch(alert());
+
+        NotificationDispatcher.Stats stats = dispatcher.getStats();
+        assertEquals(1, stats.queueDepth());
+        assertEquals(1L, stats.dropped());
+
+        release.countDown();
+        dispatcher.stop();
+        assertEquals(0, dispatcher.getStats().queueDepth());
+    }
+
+    private static Alert alert() {
+        Alert alert = new Alert();
+        alert.setMetricType("TEMP");
+        alert.setValue(new BigDecimal("35.0"));
+        return alert;
+    }
+
+    private static User user(String token) {
+        User user = new User();
+        user.setDeviceToken(token);
+        return user;
+    }
+}
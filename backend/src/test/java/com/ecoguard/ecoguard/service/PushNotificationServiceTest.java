@@ -1,11 +1,20 @@
 package com.ecoguard.ecoguard.service;
 
+import com.ecoguard.ecoguard.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 /**
  * Unit tests for PushNotificationService.
@@ -13,42 +22,92 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 @ExtendWith(MockitoExtension.class)
 class PushNotificationServiceTest {
 
+    @Mock
+    private UserRepository userRepository;
+
+    private StubMessagingClient messagingClient;
     private PushNotificationService pushNotificationService;
 
     @BeforeEach
     void setUp() {
-        pushNotificationService = new PushNotificationService();
+        messagingClient = new StubMessagingClient();
+        pushNotificationService = new PushNotificationService(messagingClient, userRepository);
     }
 
     @Test
     void testSendPushNotification_WithValidToken() {
-        String deviceToken = "test-token-123";
-        String title = "Test Alert";
-        String body = "This is a test notification";
-
-        // Should not throw exception even if Firebase is not initialized in test
-        assertDoesNotThrow(() -> {
-            pushNotificationService.sendPushNotification(deviceToken, title, body);
-        });
+        assertTrue(pushNotificationService.sendPushNotification("test-token-123", "Test Alert", "This is a test notification"));
+        assertEquals(List.of(List.of("test-token-123")), messagingClient.requests);
     }
 
     @Test
     void testSendPushNotification_WithNullToken() {
-        // Should handle null token gracefully
-        assertDoesNotThrow(() -> {
-            pushNotificationService.sendPushNotification(null, "Title", "Body");
-        });
+        assertFalse(pushNotificationService.sendPushNotification(null, "Title", "Body"));
+        assertTrue(messagingClient.requests.isEmpty());
     }
 
     @Test
     void testSendPushNotification_WithBlankToken() {
-        // Should handle blank token gracefully
-        assertDoesNotThrow(() -> {
-            pushNotificationService.sendPushNotification("", "Title", "Body");
-        });
-        assertDoesNotThrow(() -> {
-            pushNotificationService.sendPushNotification("   ", "Title", "Body");
-        });
+        assertFalse(pushNotificationService.sendPushNotification("", "Title", "Body"));
+        assertFalse(pushNotificationService.sendPushNotification("   ", "Title", "Body"));
+        assertTrue(messagingClient.requests.isEmpty());
     }
-}
 
+    @Test
+    void testSendToTokens_ChunksAtFiveHundred() {
+        List<String> tokens = IntStream.range(0, 1201).mapToObj(i -> "token-" + i).toList();
+
+        PushNotificationService.BatchResult result = pushNotificationService.sendToTokens(tokens, "Title", "Body");
+
+        assertEquals(List.of(500, 500, 201), messagingClient.requests.stream().map(List::size).toList());
+        assertEquals(1201, result.sent());
+        assertEquals(0, result.failed());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testSendToTokens_ClearsUnregisteredTokens() {
+        messagingClient.outcome = token -> switch (token) {
+            case "dead" -> PushMessagingClient.Delivery.UNREGISTERED;
+            case "flaky" -> PushMessagingClient.Delivery.FAILED;
+            default -> PushMessagingClient.Delivery.SENT;
+        };
+        when(userRepository.clearDeviceTokens(any())).thenReturn(1);
+
+        PushNotificationService.BatchResult result =
+                pushNotificationService.sendToTokens(List.of("live", "dead", "flaky"), "Title", "Body");
+
+        assertEquals(new PushNotificationService.BatchResult(1, 1, 1), result);
+        verify(userRepository).clearDeviceTokens(List.of("dead"));
+    }
+
+    @Test
+    void testSendToTokens_RequestFailureCountsChunkAsFailed() {
+        messagingClient.failRequests = true;
+
+        PushNotificationService.BatchResult result =
+                pushNotificationService.sendToTokens(List.of("a", "b"), "Title", "Body");
+
+        assertEquals(new PushNotificationService.BatchResult(0, 2, 0), result);
+        verifyNoInteractions(userRepository);
+    }
+
+    /**
+     * Local stand-in for Firebase that records each request.
+     */
+    private static class StubMessagingClient implements PushMessagingClient {
+
+        private final List<List<String>> requests = new ArrayList<>();
+        private Function<String, Delivery> outcome = token -> Delivery.SENT;
+        private boolean failRequests;
+
+        @Override
+        public List<Delivery> sendEach(List<String> tokens, String title, String body) throws Exception {
+            requests.add(List.copyOf(tokens));
+            if (failRequests) {
+                throw new IllegalStateException("messaging unavailable");
+            }
+            return tokens.stream().map(outcome).toList();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.ecoguard.ecoguard.service;
+
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.repository.AlertRepository;
+import com.ecoguard.ecoguard.repository.DeviceCommandRepository;
+import com.ecoguard.ecoguard.repository.NotificationRepository;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import com.ecoguard.ecoguard.storage.StorageBackend;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RetentionService.
+ */
+@ExtendWith(MockitoExtension.class)
+class RetentionServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 3, 30);
+    private static final LocalDateTime OLD_DAY = LocalDateTime.of(2025, 1, 10, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private SensorDataRepository sensorDataRepository;
+
+    @Mock
+    private AlertRepository alertRepository;
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private DeviceCommandRepository deviceCommandRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private SensorSegmentStore sensorSegmentStore;
+
+    @Mock
+    private StorageBackend storageBackend;
+
+    private final StubTransactionManager transactionManager = new StubTransactionManager();
+
+    private SensorDataQueryService sensorDataQueryService;
+
+    @BeforeEach
+    void setUp() {
+        sensorDataQueryService = new SensorDataQueryService(sensorDataRepository, entityManager,
+                sensorSegmentStore, new ObjectMapper());
+    }
+
+    @Test
+    void testRun_ArchivesAndDeletesOldDays() throws IOException {
+        doReturn(Optional.of(reading(1, OLD_DAY.plusHours(1))), Optional.empty())
+                .when(sensorDataRepository).findTopByOrderByTimestampAsc();
+        when(sensorDataRepository.streamByTimestampBetween(OLD_DAY, OLD_DAY.plusDays(1).minusNanos(1)))
+                .thenAnswer(invocation -> Stream.of(reading(1, OLD_DAY.plusHours(1)),
+                        reading(2, OLD_DAY.plusHours(2)), reading(3, OLD_DAY.plusHours(3))));
+
+        RetentionService.Result result = service(true, 2).run(NOW);
+
+        assertEquals(3, result.archivedReadings());
+        assertEquals(3, result.deletedReadings());
+        verify(sensorDataRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(sensorDataRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(storageBackend).preparePartitions(NOW.toLocalDate());
+        verify(storageBackend).releaseSensorDataBefore(LocalDate.of(2025, 3, 3));
+        String csv = gunzip(directory.resolve("sensor-data-2025-01-10.csv.gz"));
+        assertEquals(4, csv.lines().count());
+        assertTrue(csv.startsWith("id,timestamp,"));
+        assertTrue(csv.contains("2,2025-01-10T02:00"));
+    }
+
+    @Test
+    void testRun_LateReadingsGetSeparateArchive() throws IOException {
+        Files.writeString(directory.resolve("sensor-data-2025-01-10.csv.gz"), "earlier");
+        doReturn(Optional.of(reading(7, OLD_DAY)), Optional.empty())
+                .when(sensorDataRepository).findTopByOrderByTimestampAsc();
+        when(sensorDataRepository.streamByTimestampBetween(any(), any()))
+                .thenAnswer(invocation -> Stream.of(reading(7, OLD_DAY)));
+
+        service(true, 10).run(NOW);
+
+        assertEquals("earlier", Files.readString(directory.resolve("sensor-data-2025-01-10.csv.gz")));
+        assertTrue(gunzip(directory.resolve("sensor-data-2025-01-10-2.csv.gz")).contains("7,2025-01-10T00:00"));
+    }
+
+    @Test
+    void testRun_FailedDeleteRemovesArchive() throws IOException {
+        when(sensorDataRepository.findTopByOrderByTimestampAsc()).thenReturn(Optional.of(reading(1, OLD_DAY)));
+        when(sensorDataRepository.streamByTimestampBetween(any(), any()))
+                .thenAnswer(invocation -> Stream.of(reading(1, OLD_DAY)));
+        doThrow(new IllegalStateException("locked")).when(sensorDataRepository).deleteAllByIdInBatch(any());
+
+        RetentionService service = service(true, 10);
+
+        assertThrows(IllegalStateException.class, () -> service.run(NOW));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testRun_RollbackOnCommitRemovesArchive() throws IOException {
+        when(sensorDataRepository.findTopByOrderByTimestampAsc()).thenReturn(Optional.of(reading(1, OLD_DAY)));
+        when(sensorDataRepository.streamByTimestampBetween(any(), any()))
+                .thenAnswer(invocation -> Stream.of(reading(1, OLD_DAY)));
+        transactionManager.failingCommit = 2;
+
+        RetentionService service = service(true, 10);
+
+        assertThrows(UnexpectedRollbackException.class, () -> service.run(NOW));
+        verify(sensorDataRepository).deleteAllByIdInBatch(List.of(1L));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testRun_ArchiveDisabled_DeletesWithoutWriting() throws IOException {
+        doReturn(Optional.of(reading(1, OLD_DAY)), Optional.empty())
+                .when(sensorDataRepository).findTopByOrderByTimestampAsc();
+        when(sensorDataRepository.findIdsByTimestampBetween(any(), any())).thenReturn(List.of(1L, 2L));
+
+        RetentionService.Result result = service(false, 10).run(NOW);
+
+        assertEquals(0, result.archivedReadings());
+        assertEquals(2, result.deletedReadings());
+        verify(sensorDataRepository, never()).streamByTimestampBetween(any(), any());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testRun_KeepsReadingsInsideRetention() {
+        when(sensorDataRepository.findTopByOrderByTimestampAsc())
+                .thenReturn(Optional.of(reading(1, NOW.minusDays(90))));
+
+        RetentionService.Result result = service(true, 10).run(NOW);
+
+        assertEquals(0, result.deletedReadings());
+        verify(sensorDataRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void testRun_DeletesNotificationsBeforeAlertsInChunks() {
+        when(sensorDataRepository.findTopByOrderByTimestampAsc()).thenReturn(Optional.empty());
+        doReturn(List.of(1L, 2L), List.of(3L))
+                .when(alertRepository).findAcknowledgedIdsBefore(NOW.minusDays(180), Limit.of(2));
+        when(deviceCommandRepository.findExecutedIdsBefore(NOW.minusDays(30), Limit.of(2)))
+                .thenReturn(List.of(5L));
+
+        RetentionService.Result result = service(true, 2).run(NOW);
+
+        assertEquals(3, result.deletedAlerts());
+        assertEquals(1, result.deletedCommands());
+        InOrder inOrder = inOrder(notificationRepository, alertRepository);
+        inOrder.verify(notificationRepository).deleteByAlertIdIn(List.of(1L, 2L));
+        inOrder.verify(alertRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        inOrder.verify(notificationRepository).deleteByAlertIdIn(List.of(3L));
+        inOrder.verify(alertRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(deviceCommandRepository).deleteAllByIdInBatch(List.of(5L));
+    }
+
+    @Test
+    void testRun_ZeroDaysDisablesCategory() {
+        RetentionService service = new RetentionService(sensorDataRepository, alertRepository,
+                notificationRepository, deviceCommandRepository, sensorDataQueryService, storageBackend,
+                transactionManager, 0, 0, 0, 10, true, directory.toString());
+
+        RetentionService.Result result = service.run(NOW);
+
+        assertEquals(new RetentionService.Result(0, 0, 0, 0), result);
+        verifyNoInteractions(sensorDataRepository, alertRepository, notificationRepository, deviceCommandRepository);
+        verify(storageBackend, never()).releaseSensorDataBefore(any());
+    }
+
+    private RetentionService service(boolean archiveEnabled, int batchSize) {
+        return new RetentionService(sensorDataRepository, alertRepository, notificationRepository,
+                deviceCommandRepository, sensorDataQueryService, storageBackend, transactionManager,
+                90, 180, 30, batchSize, archiveEnabled, directory.toString());
+    }
+
+    /**
+     * Transaction manager that only drives transaction synchronization, optionally
+     * failing one commit as rolled back.
+     */
+    private static final class StubTransactionManager extends AbstractPlatformTransactionManager {
+
+        private int commits;
+        private int failingCommit;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            if (++commits == failingCommit) {
+                throw new UnexpectedRollbackException("commit failed");
+            }
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    private static String gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static SensorData reading(long id, LocalDateTime timestamp) {
+        SensorData data = new SensorData();
+        data.setId(id);
+        data.setTimestamp(timestamp);
+        data.setTemperature(new BigDecimal("21.50"));
+        data.setCo2Level(600);
+        return data;
+    }
+}
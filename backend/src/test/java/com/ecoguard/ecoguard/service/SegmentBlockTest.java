@@ -0,0 +1,88 @@
+package com.ecoguard.ecoguard.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SegmentBlock.
+ */
+class SegmentBlockTest {
+
+    private static final long T0 = 1_735_725_600_000L;
+
+    @Test
+    void testEncode_RoundTripsAllColumns() {
+        SegmentBlock block = new SegmentBlock(4);
+        ScaledReading[] readings = {
+                new ScaledReading(T0, 2150, 4510, 600, 120),
+                new ScaledReading(T0 + 3_000, 2150, 4512, 612, ScaledReading.ABSENT),
+                new ScaledReading(T0 + 6_017, -375, ScaledReading.ABSENT, 65_535, 0),
+                new ScaledReading(T0 + 86_000_000, Integer.MAX_VALUE, 0, 0, 4095),
+        };
+        long[] ids = {7, 8, 11, 5_000_000_000L};
+        for (int i = 0; i < readings.length; i++) {
+            block.add(ids[i], readings[i]);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(block.encode());
+        SegmentBlock.Header header = SegmentBlock.readHeader(buffer, 0);
+        SegmentBlock decoded = SegmentBlock.decode(buffer, 0, header);
+
+        assertEquals(4, header.count());
+        assertEquals(T0, header.minTimestamp());
+        assertEquals(T0 + 86_000_000, header.maxTimestamp());
+        assertEquals(5_000_000_000L, header.maxId());
+        assertEquals(buffer.limit(), header.length());
+        assertTrue(SegmentBlock.isIntact(buffer, 0, header));
+        assertEquals(4, decoded.size());
+        for (int i = 0; i < readings.length; i++) {
+            assertEquals(ids[i], decoded.id(i));
+            assertEquals(readings[i], decoded.reading(i));
+        }
+    }
+
+    @Test
+    void testEncode_SortsByTimestampThenId() {
+        SegmentBlock block = new SegmentBlock(3);
+        block.add(3, new ScaledReading(T0 + 5_000, 1, 1, 1, 1));
+        block.add(2, new ScaledReading(T0, 2, 2, 2, 2));
+        block.add(1, new ScaledReading(T0, 3, 3, 3, 3));
+
+        ByteBuffer buffer = ByteBuffer.wrap(block.encode());
+        SegmentBlock decoded = SegmentBlock.decode(buffer, 0, SegmentBlock.readHeader(buffer, 0));
+
+        assertEquals(1, decoded.id(0));
+        assertEquals(2, decoded.id(1));
+        assertEquals(3, decoded.id(2));
+        assertEquals(3, decoded.reading(0).co2Level());
+    }
+
+    @Test
+    void testEncode_SteadyReadingsCompressWell() {
+        SegmentBlock block = new SegmentBlock(1024);
+        for (int i = 0; i < 1024; i++) {
+            block.add(100 + i, new ScaledReading(T0 + 3_000L * i, 2150 + i % 3, 4500, 600 + i % 7, 120));
+        }
+
+        byte[] encoded = block.encode();
+
+        assertTrue(encoded.length < 1024 * 4, "encoded " + encoded.length + " bytes");
+    }
+
+    @Test
+    void testReadHeader_RejectsTruncatedAndCorruptBlocks() {
+        SegmentBlock block = new SegmentBlock(2);
+        block.add(1, new ScaledReading(T0, 2150, 4510, 600, 120));
+        block.add(2, new ScaledReading(T0 + 3_000, 2160, 4520, 610, 130));
+        byte[] encoded = block.encode();
+
+        assertNull(SegmentBlock.readHeader(ByteBuffer.wrap(encoded, 0, encoded.length - 1).slice(), 0));
+
+        encoded[encoded.length - 1] ^= 1;
+        ByteBuffer corrupt = ByteBuffer.wrap(encoded);
+        assertFalse(SegmentBlock.isIntact(corrupt, 0, SegmentBlock.readHeader(corrupt, 0)));
+    }
+}
@@ -1,25 +1,257 @@
 package com.ecoguard.ecoguard.service;
 
+import com.ecoguard.ecoguard.dto.SensorDataPayload;
+import com.ecoguard.ecoguard.dto.SensorIngestResult;
+import com.ecoguard.ecoguard.entity.Alert;
+import com.ecoguard.ecoguard.entity.MetricType;
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.entity.Threshold;
+import com.ecoguard.ecoguard.repository.AlertRepository;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
 
 /**
  * Unit tests for SensorDataService.
  */
+@ExtendWith(MockitoExtension.class)
 class SensorDataServiceTest {
 
+    @Mock
+    private SensorDataRepository sensorDataRepository;
+
+    @Mock
+    private ThresholdService thresholdService;
+
+    @Mock
+    private AlertRepository alertRepository;
+
+    @Spy
+    private ThresholdEvaluator thresholdEvaluator = new ThresholdEvaluator();
+
+    @Mock
+    private AlertService alertService;
+
+    @Mock
+    private NotificationDispatcher notificationDispatcher;
+
+    @Mock
+    private SensorRollupService sensorRollupService;
+
+    @Mock
+    private SensorSegmentStore sensorSegmentStore;
+
+    @Mock
+    private DevicePresenceRegistry devicePresenceRegistry;
+
+    @Mock
+    private LiveEventBroadcaster liveEventBroadcaster;
+
+    @InjectMocks
     private SensorDataService sensorDataService;
 
+    private SensorDataPayload testPayload;
+    private Threshold tempThreshold;
+
     @BeforeEach
     void setUp() {
-        sensorDataService = new SensorDataService();
+        testPayload = new SensorDataPayload();
+        testPayload.setTemperature(new BigDecimal("25.5"));
+        testPayload.setHumidity(new BigDecimal("60.0"));
+        testPayload.setCo2Level(400);
+        testPayload.setLightLevel(500);
+
+        tempThreshold = new Threshold();
+        tempThreshold.setMetricType(MetricType.TEMP);
+        tempThreshold.setMinValue(new BigDecimal("10.0"));
+        tempThreshold.setMaxValue(new BigDecimal("30.0"));
     }
 
     @Test
-    void testSensorDataService_CanBeInstantiated() {
-        assertNotNull(sensorDataService);
+    void testIngestBatch_DefaultsTimestamp() {
+        when(sensorDataRepository.batchInsert(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(thresholdService.getScaledThresholds()).thenReturn(Map.of());
+
+        sensorDataService.ingestBatch(List.of(testPayload));
+
+        verify(sensorDataRepository).batchInsert(argThat(readings -> readings.get(0).getTimestamp() != null));
     }
-}
 
+    @Test
+    void testIngestBatch_UpdatesRollups() {
+        when(sensorDataRepository.batchInsert(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(thresholdService.getScaledThresholds()).thenReturn(Map.of());
+
+        sensorDataService.ingestBatch(List.of(testPayload, testPayload));
+
+        verify(sensorRollupService, times(1)).record(argThat(readings -> readings.size() == 2));
+    }
+
+    @Test
+    void testIngestBatch_ThresholdBreach_DispatchesNotification() {
+        SensorDataPayload breachPayload = new SensorDataPayload();
+        breachPayload.setTemperature(new BigDecimal("35.0")); // Above max threshold
+
+        when(sensorDataRepository.batchInsert(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(thresholdService.getScaledThresholds()).thenReturn(Map.of(MetricType.TEMP, ScaledThreshold.of(tempThreshold)));
+        stubNewAlerts();
+        when(alertRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        sensorDataService.ingestBatch(List.of(breachPayload));
+
+        verify(alertRepository, times(1)).saveAll(argThat(alerts -> alerts.iterator().hasNext()));
+        verify(notificationDispatcher, times(1)).dispatch(argThat(alert -> "TEMP".equals(alert.getMetricType())));
+        verify(devicePresenceRegistry, times(1)).recordAlerts(argThat(alerts -> alerts.size() == 1));
+        verify(liveEventBroadcaster, times(1)).publish(eq("reading"), any(SensorData.class), eq(false));
+        verify(liveEventBroadcaster, times(1)).publish(eq("alert"), argThat(alert -> "TEMP".equals(((Alert) alert).getMetricType())), eq(false));
+    }
+
+    @Test
+    void testIngestBatch_UsesBatchInsertAndThresholdSnapshot() {
+        SensorDataPayload breach = new SensorDataPayload();
+        breach.setTemperature(new BigDecimal("35.0"));
+        breach.setTimestamp(LocalDateTime.of(2025, 1, 1, 12, 0));
+
+        when(sensorDataRepository.batchInsert(anyList())).thenAnswer(invocation -> {
+            List<SensorData> readings = invocation.getArgument(0);
+            for (int i = 0; i < readings.size(); i++) {
+                readings.get(i).setId(10L + i);
+            }
+            return readings;
+        });
+        when(thresholdService.getScaledThresholds()).thenReturn(Map.of(MetricType.TEMP, ScaledThreshold.of(tempThreshold)));
+        stubNewAlerts();
+        when(alertRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Alert> alerts = invocation.getArgument(0);
+            alerts.forEach(alert -> alert.setId(99L));
+            return alerts;
+        });
+
+        List<SensorIngestResult> results = sensorDataService.ingestBatch(List.of(testPayload, breach));
+
+        assertEquals(2, results.size());
+        assertEquals(10L, results.get(0).sensorDataId());
+        assertTrue(results.get(0).alertsCreated().isEmpty());
+        assertEquals(11L, results.get(1).sensorDataId());
+        assertEquals(List.of(99L), results.get(1).alertsCreated());
+        verify(sensorDataRepository, never()).save(any());
+        verify(thresholdService, times(1)).getScaledThresholds();
+    }
+
+    @Test
+    void testIngestBatch_NoBreaches_SkipsAlertSave() {
+        when(sensorDataRepository.batchInsert(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(thresholdService.getScaledThresholds()).thenReturn(Map.of(MetricType.TEMP, ScaledThreshold.of(tempThreshold)));
+
+        List<SensorIngestResult> results = sensorDataService.ingestBatch(List.of(testPayload));
+
+        assertEquals(1, results.size());
+        verify(alertRepository, never()).saveAll(anyList());
+        verifyNoInteractions(notificationDispatcher);
+    }
+
+    @Test
+    void testIngestBatch_RepeatedBreach_UpdatesOpenAlertOnce() {
+        SensorDataPayload first = new SensorDataPayload();
+        first.setTemperature(new BigDecimal("35.0"));
+        SensorDataPayload second = new SensorDataPayload();
+        second.setTemperature(new BigDecimal("36.0"));
+
+        Alert open = new Alert();
+        open.setId(7L);
+        open.setMetricType("TEMP");
+        open.setOccurrences(5);
+        open.setLastValue(new BigDecimal("36.0"));
+        open.setLastSeenAt(LocalDateTime.of(2025, 1, 1, 12, 0));
+
+        when(sensorDataRepository.batchInsert(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(thresholdService.getScaledThresholds()).thenReturn(Map.of(MetricType.TEMP, ScaledThreshold.of(tempThreshold)));
+        when(alertService.recordBreach(eq(MetricType.TEMP), any(), any())).thenReturn(new AlertService.Breach(open, false));
+        when(alertRepository.updateCoalesced(any(), any(), any(), any())).thenReturn(1);
+
+        List<SensorIngestResult> results = sensorDataService.ingestBatch(List.of(first, second));
+
+        assertTrue(results.get(0).alertsCreated().isEmpty());
+        assertTrue(results.get(1).alertsCreated().isEmpty());
+        verify(alertRepository, never()).saveAll(anyList());
+        verify(alertRepository, times(1)).updateCoalesced(7L, 5, new BigDecimal("36.0"), LocalDateTime.of(2025, 1, 1, 12, 0));
+        verifyNoInteractions(notificationDispatcher);
+        verify(liveEventBroadcaster, times(1)).publish("alert", open, false);
+    }
+
+    @Test
+    void testIngestBatch_RoundsThreeDecimalsToStoredScale() {
+        tempThreshold.setMaxValue(new BigDecimal("25.00"));
+        SensorDataPayload payload = new SensorDataPayload();
+        payload.setTemperature(new BigDecimal("25.004"));
+        payload.setHumidity(new BigDecimal("60.125"));
+
+        when(sensorDataRepository.batchInsert(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(thresholdService.getScaledThresholds()).thenReturn(Map.of(MetricType.TEMP, ScaledThreshold.of(tempThreshold)));
+
+        sensorDataService.ingestBatch(List.of(payload));
+
+        verify(sensorDataRepository).batchInsert(argThat(readings -> {
+            SensorData stored = readings.get(0);
+            return new BigDecimal("25.00").equals(stored.getTemperature())
+                    && new BigDecimal("60.13").equals(stored.getHumidity());
+        }));
+        verifyNoInteractions(alertService);
+    }
+
+    @Test
+    void testIngestBatch_DeletedOpenAlertIsReopened() {
+        tempThreshold.setMaxValue(new BigDecimal("30.00"));
+        SensorDataPayload payload = new SensorDataPayload();
+        payload.setTemperature(new BigDecimal("35.0"));
+
+        Alert stale = new Alert();
+        stale.setId(7L);
+        stale.setMetricType("TEMP");
+        stale.setOccurrences(5);
+        Alert reopened = new Alert();
+        reopened.setMetricType("TEMP");
+
+        when(sensorDataRepository.batchInsert(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(thresholdService.getScaledThresholds()).thenReturn(Map.of(MetricType.TEMP, ScaledThreshold.of(tempThreshold)));
+        when(alertService.recordBreach(eq(MetricType.TEMP), any(), any())).thenReturn(new AlertService.Breach(stale, false));
+        when(alertRepository.updateCoalesced(eq(7L), any(), any(), any())).thenReturn(0);
+        when(alertService.reopen(stale)).thenReturn(reopened);
+        when(alertRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            reopened.setId(8L);
+            return invocation.getArgument(0);
+        });
+
+        List<SensorIngestResult> results = sensorDataService.ingestBatch(List.of(payload));
+
+        assertEquals(List.of(8L), results.get(0).alertsCreated());
+
+        verify(alertRepository).saveAll(List.of(reopened));
+        verify(notificationDispatcher).dispatch(reopened);
+        verify(devicePresenceRegistry).recordAlerts(List.of(reopened));
+    }
+
+    private void stubNewAlerts() {
+        when(alertService.recordBreach(any(), any(), any())).thenAnswer(invocation -> {
+            Alert alert = new Alert();
+            alert.setMetricType(invocation.getArgument(0, MetricType.class).name());
+            alert.setValue(invocation.getArgument(1));
+            return new AlertService.Breach(alert, true);
+        });
+    }
+}
@@ -0,0 +1,117 @@
+package com.ecoguard.ecoguard.service;
+
+import com.ecoguard.ecoguard.dto.SensorDataPayload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SensorIngestQueue.
+ * <p>
+ * The writer thread is not started; batches are drained explicitly.
+ */
+@ExtendWith(MockitoExtension.class)
+class SensorIngestQueueTest {
+
+    @Mock
+    private SensorDataService sensorDataService;
+
+    private SensorIngestQueue sensorIngestQueue;
+
+    @BeforeEach
+    void setUp() {
+        sensorIngestQueue = new SensorIngestQueue(sensorDataService, 3, 2, 5);
+    }
+
+    @Test
+    void testOffer_RejectsWhenFull() {
+        assertTrue(sensorIngestQueue.offer(reading(400)));
+        assertTrue(sensorIngestQueue.offer(reading(410)));
+        assertTrue(sensorIngestQueue.offer(reading(420)));
+
+        assertFalse(sensorIngestQueue.offer(reading(430)));
+        assertEquals(3, sensorIngestQueue.depth());
+        assertEquals(5, sensorIngestQueue.getRetryAfterSeconds());
+    }
+
+    @Test
+    void testOffer_StampsMissingTimestamp() {
+        SensorDataPayload payload = reading(400);
+
+        sensorIngestQueue.offer(payload);
+
+        assertNotNull(payload.getTimestamp());
+    }
+
+    @Test
+    void testDrainBatch_WritesGroupCommits() {
+        sensorIngestQueue.offer(reading(400));
+        sensorIngestQueue.offer(reading(410));
+        sensorIngestQueue.offer(reading(420));
+
+        assertEquals(2, sensorIngestQueue.drainBatch());
+        assertEquals(1, sensorIngestQueue.drainBatch());
+        assertEquals(0, sensorIngestQueue.drainBatch());
+
+        verify(sensorDataService, times(2)).ingestBatch(anyList());
+    }
+
+    @Test
+    void testDrainBatch_FailedCommitCountsDropped() {
+        when(sensorDataService.ingestBatch(anyList())).thenThrow(new RuntimeException("Database error"));
+        sensorIngestQueue.offer(reading(400));
+
+        sensorIngestQueue.drainBatch();
+
+        assertEquals(1, sensorIngestQueue.droppedReadings());
+        assertEquals(0, sensorIngestQueue.depth());
+    }
+
+    @Test
+    void testDrainBatch_FailedCommitRetriesReadingsOneAtATime() {
+        SensorDataPayload good = reading(400);
+        SensorDataPayload bad = reading(410);
+        when(sensorDataService.ingestBatch(anyList())).thenAnswer(invocation -> {
+            List<SensorDataPayload> batch = invocation.getArgument(0);
+            if (batch.contains(bad)) {
+                throw new RuntimeException("numeric value out of range");
+            }
+            return List.of();
+        });
+        sensorIngestQueue.offer(good);
+        sensorIngestQueue.offer(bad);
+
+        sensorIngestQueue.drainBatch();
+
+        assertEquals(1, sensorIngestQueue.droppedReadings());
+        verify(sensorDataService).ingestBatch(List.of(good, bad));
+        verify(sensorDataService).ingestBatch(List.of(good));
+        verify(sensorDataService).ingestBatch(List.of(bad));
+    }
+
+    @Test
+    void testStop_FlushesRemainingReadings() {
+        sensorIngestQueue.offer(reading(400));
+        sensorIngestQueue.offer(reading(410));
+        sensorIngestQueue.offer(reading(420));
+
+        sensorIngestQueue.stop();
+
+        assertEquals(0, sensorIngestQueue.depth());
+        verify(sensorDataService, times(2)).ingestBatch(anyList());
+    }
+
+    private SensorDataPayload reading(int co2) {
+        SensorDataPayload payload = new SensorDataPayload();
+        payload.setCo2Level(co2);
+        return payload;
+    }
+}
@@ -0,0 +1,184 @@
+package com.ecoguard.ecoguard.service;
+
+import com.ecoguard.ecoguard.dto.SensorBucket;
+import com.ecoguard.ecoguard.dto.SensorRollupSeries;
+import com.ecoguard.ecoguard.entity.MetricType;
+import com.ecoguard.ecoguard.entity.RollupResolution;
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.entity.SensorRollup;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import com.ecoguard.ecoguard.repository.SensorRollupRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SensorRollupService.
+ */
+@ExtendWith(MockitoExtension.class)
+class SensorRollupServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    @Mock
+    private SensorRollupRepository sensorRollupRepository;
+
+    @Mock
+    private SensorDataRepository sensorDataRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private SensorRollupService sensorRollupService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecord_MergesOneDeltaPerBucket() {
+        sensorRollupService.record(List.of(
+                reading(T0.plusSeconds(10), "20"),
+                reading(T0.plusSeconds(50), "22"),
+                reading(T0.plusSeconds(65), "24")));
+
+        ArgumentCaptor<Collection<SensorRollup>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(sensorRollupRepository).mergeAll(captor.capture());
+        List<SensorRollup> deltas = new ArrayList<>(captor.getValue());
+
+        assertEquals(4, deltas.size());
+        SensorRollup firstMinute = find(deltas, RollupResolution.MINUTE, T0);
+        assertEquals(MetricType.TEMP, firstMinute.getMetricType());
+        assertEquals(2, firstMinute.getSampleCount());
+        assertEquals(20, firstMinute.getMinValue());
+        assertEquals(22, firstMinute.getMaxValue());
+        assertEquals(42, firstMinute.getSumValue());
+        assertEquals(884, firstMinute.getSumSquares());
+        assertEquals(1, find(deltas, RollupResolution.MINUTE, T0.plusMinutes(1)).getSampleCount());
+        assertEquals(3, find(deltas, RollupResolution.HOUR, T0).getSampleCount());
+        assertEquals(3, find(deltas, RollupResolution.DAY, T0.toLocalDate().atStartOfDay()).getSampleCount());
+    }
+
+    @Test
+    void testRecord_WaitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            sensorRollupService.record(List.of(reading(T0, "20")));
+
+            verify(sensorRollupRepository, never()).mergeAll(any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(sensorRollupRepository, times(1)).mergeAll(any());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecord_KeepsFailedDeltasForNextMerge() {
+        doThrow(new IllegalStateException("lock timeout")).doNothing()
+                .when(sensorRollupRepository).mergeAll(any());
+
+        sensorRollupService.record(List.of(reading(T0.plusSeconds(10), "20")));
+        assertEquals(3, sensorRollupService.getFailedBuckets());
+
+        sensorRollupService.record(List.of(reading(T0.plusSeconds(20), "22")));
+
+        ArgumentCaptor<Collection<SensorRollup>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(sensorRollupRepository, times(2)).mergeAll(captor.capture());
+        List<SensorRollup> deltas = new ArrayList<>(captor.getAllValues().get(1));
+        assertEquals(3, deltas.size());
+        SensorRollup minute = find(deltas, RollupResolution.MINUTE, T0);
+        assertEquals(2, minute.getSampleCount());
+        assertEquals(20, minute.getMinValue());
+        assertEquals(22, minute.getMaxValue());
+        assertEquals(42, minute.getSumValue());
+        assertEquals(0, sensorRollupService.getFailedBuckets());
+    }
+
+    @Test
+    void testRetryFailed_MergesKeptDeltas() {
+        doThrow(new IllegalStateException("lock timeout")).doNothing()
+                .when(sensorRollupRepository).mergeAll(any());
+        sensorRollupService.record(List.of(reading(T0, "20")));
+
+        sensorRollupService.retryFailed();
+        sensorRollupService.retryFailed();
+
+        verify(sensorRollupRepository, times(2)).mergeAll(any());
+        assertEquals(0, sensorRollupService.getFailedBuckets());
+    }
+
+    @Test
+    void testChooseResolution_CoarsestThatFits() {
+        assertEquals(RollupResolution.MINUTE, SensorRollupService.chooseResolution(T0, T0.plusMinutes(10)));
+        assertEquals(RollupResolution.MINUTE, SensorRollupService.chooseResolution(T0, T0.plusHours(6)));
+        assertEquals(RollupResolution.HOUR, SensorRollupService.chooseResolution(T0, T0.plusDays(7)));
+        assertEquals(RollupResolution.HOUR, SensorRollupService.chooseResolution(T0, T0.plusDays(30)));
+        assertEquals(RollupResolution.DAY, SensorRollupService.chooseResolution(T0, T0.plusYears(1)));
+    }
+
+    @Test
+    void testQuery_DerivesBucketStatistics() {
+        SensorRollup rollup = new SensorRollup();
+        rollup.setResolution(RollupResolution.HOUR);
+        rollup.setBucketStart(T0);
+        rollup.setMetricType(MetricType.CO2);
+        rollup.setSampleCount(2);
+        rollup.setMinValue(600);
+        rollup.setMaxValue(620);
+        rollup.setSumValue(1220);
+        rollup.setSumSquares(600 * 600 + 620 * 620);
+        when(sensorRollupRepository.findByResolutionAndBucketStartBetweenOrderByBucketStartAsc(
+                RollupResolution.HOUR, T0, T0.plusDays(7))).thenReturn(List.of(rollup));
+
+        SensorRollupSeries series = sensorRollupService.query(T0.plusMinutes(30), T0.plusDays(7), null);
+
+        assertEquals(RollupResolution.HOUR, series.resolution());
+        SensorBucket bucket = series.metrics().get(MetricType.CO2).get(0);
+        assertEquals(610, bucket.avg());
+        assertEquals(10, bucket.stddev(), 1e-9);
+        assertTrue(series.metrics().get(MetricType.TEMP).isEmpty());
+    }
+
+    @Test
+    void testQuery_RejectsInvalidRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> sensorRollupService.query(T0, T0.minusMinutes(1), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> sensorRollupService.query(T0, T0.plusYears(1), RollupResolution.MINUTE));
+        verifyNoInteractions(sensorRollupRepository);
+    }
+
+    private static SensorData reading(LocalDateTime timestamp, String temperature) {
+        SensorData data = new SensorData();
+        data.setTimestamp(timestamp);
+        data.setTemperature(new BigDecimal(temperature));
+        return data;
+    }
+
+    private static SensorRollup find(List<SensorRollup> deltas, RollupResolution resolution, LocalDateTime start) {
+        return deltas.stream()
+                .filter(delta -> delta.getResolution() == resolution && delta.getBucketStart().equals(start))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,173 @@
+package com.ecoguard.ecoguard.service;
+
+import com.ecoguard.ecoguard.dto.SensorDayCount;
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.repository.SensorDataRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SensorSegmentStore.
+ */
+@ExtendWith(MockitoExtension.class)
+class SensorSegmentStoreTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 23, 59, 57);
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private SensorDataRepository sensorDataRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testScan_ReturnsBufferedAndWrittenReadingsInOrder() {
+        SensorSegmentStore store = open(2);
+
+        store.record(List.of(reading(3, T0.plusSeconds(6), 620)));
+        store.record(List.of(reading(1, T0, 600), reading(2, T0.plusSeconds(3), 610)));
+        store.record(List.of(reading(4, T0.plusSeconds(9), 630)));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(store, T0, T0.plusSeconds(9)));
+        assertEquals(List.of(2L, 3L), ids(store, T0.plusSeconds(1), T0.plusSeconds(6)));
+        assertTrue(Files.exists(directory.resolve("sensor-2025-01-01.seg")));
+        assertTrue(Files.exists(directory.resolve("sensor-2025-01-02.seg")));
+    }
+
+    @Test
+    void testScan_RestoresValues() {
+        SensorSegmentStore store = open(16);
+        SensorData data = reading(1, T0, 600);
+        data.setTemperature(new BigDecimal("-3.25"));
+        store.record(List.of(data));
+        store.flush();
+
+        List<ScaledReading> readings = new ArrayList<>();
+        store.scan(T0, T0, (id, reading) -> readings.add(reading));
+
+        assertEquals(List.of(ScaledReading.of(data)), readings);
+    }
+
+    @Test
+    void testOpen_CatchesUpReadingsMissingFromDay() {
+        SensorSegmentStore store = open(16);
+        store.record(List.of(reading(1, T0, 600), reading(3, T0.plusSeconds(1), 610)));
+        store.close();
+
+        LocalDate day = T0.toLocalDate();
+        when(sensorDataRepository.countByDay()).thenReturn(List.of(dayCount(day, 3), dayCount(day.plusDays(1), 1)));
+        when(sensorDataRepository.streamByTimestampBetween(day.atStartOfDay(), day.plusDays(1).atStartOfDay().minusNanos(1)))
+                .thenReturn(Stream.of(reading(1, T0, 600), reading(2, T0.plusNanos(1_000_000), 605),
+                        reading(3, T0.plusSeconds(1), 610)));
+        when(sensorDataRepository.streamByTimestampBetween(day.plusDays(1).atStartOfDay(),
+                day.plusDays(2).atStartOfDay().minusNanos(1)))
+                .thenReturn(Stream.of(reading(4, T0.plusSeconds(6), 620)));
+        SensorSegmentStore reopened = open(16);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(reopened, T0, T0.plusDays(1)));
+        reopened.close();
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(open(16), T0, T0.plusDays(1)));
+    }
+
+    @Test
+    void testOpen_SkipsDaysWithFullCoverage() {
+        SensorSegmentStore store = open(16);
+        store.record(List.of(reading(1, T0, 600), reading(2, T0.plusSeconds(1), 610)));
+        store.close();
+
+        when(sensorDataRepository.countByDay()).thenReturn(List.of(dayCount(T0.toLocalDate(), 2)));
+        open(16);
+
+        verify(sensorDataRepository, never()).streamByTimestampBetween(any(), any());
+    }
+
+    @Test
+    void testOpen_CutsOffTornBlock() throws IOException {
+        SensorSegmentStore store = open(1);
+        store.record(List.of(reading(1, T0, 600)));
+        Path segment = directory.resolve("sensor-2025-01-01.seg");
+        long intact = Files.size(segment);
+        Files.write(segment, new byte[] {0x45, 0x47, 0x53}, StandardOpenOption.APPEND);
+
+        SensorSegmentStore reopened = open(1);
+
+        assertEquals(intact, Files.size(segment));
+        assertEquals(intact, reopened.getStoredBytes());
+        assertEquals(List.of(1L), ids(reopened, T0, T0));
+    }
+
+    @Test
+    void testRecord_DisabledStoreIgnoresReadings() {
+        SensorSegmentStore store = new SensorSegmentStore(sensorDataRepository, entityManager, transactionManager,
+                false, directory.toString(), 1);
+        store.open();
+
+        store.record(List.of(reading(1, T0, 600)));
+
+        assertFalse(store.isEnabled());
+        assertEquals(0, store.getStoredBytes());
+        verify(sensorDataRepository, never()).countByDay();
+    }
+
+    private SensorSegmentStore open(int blockSize) {
+        SensorSegmentStore store = new SensorSegmentStore(sensorDataRepository, entityManager, transactionManager,
+                true, directory.toString(), blockSize);
+        store.open();
+        return store;
+    }
+
+    private static List<Long> ids(SensorSegmentStore store, LocalDateTime start, LocalDateTime end) {
+        List<Long> ids = new ArrayList<>();
+        store.scan(start, end, (id, reading) -> ids.add(id));
+        return ids;
+    }
+
+    private static SensorDayCount dayCount(LocalDate day, long readings) {
+        return new SensorDayCount() {
+            @Override
+            public LocalDate getReadingDay() {
+                return day;
+            }
+
+            @Override
+            public long getReadings() {
+                return readings;
+            }
+        };
+    }
+
+    private static SensorData reading(long id, LocalDateTime timestamp, int co2Level) {
+        SensorData data = new SensorData();
+        data.setId(id);
+        data.setTimestamp(timestamp);
+        data.setTemperature(new BigDecimal("21.50"));
+        data.setCo2Level(co2Level);
+        return data;
+    }
+}
@@ -0,0 +1,150 @@
+package com.ecoguard.ecoguard.service;
+
+import com.ecoguard.ecoguard.entity.MetricType;
+import com.ecoguard.ecoguard.entity.SensorData;
+import com.ecoguard.ecoguard.entity.Threshold;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ThresholdEvaluator.
+ */
+class ThresholdEvaluatorTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private ThresholdEvaluator evaluator;
+    private Threshold threshold;
+
+    @BeforeEach
+    void setUp() {
+        evaluator = new ThresholdEvaluator();
+        threshold = new Threshold();
+        threshold.setMetricType(MetricType.TEMP);
+        threshold.setMinValue(new BigDecimal("10.0"));
+        threshold.setMaxValue(new BigDecimal("30.0"));
+    }
+
+    @Test
+    void testEvaluate_PlainRangeWithoutRules() {
+        assertFalse(evaluate("25.0", 0));
+        assertTrue(evaluate("31.0", 3));
+        assertFalse(evaluate("29.9", 6));
+        assertEquals(ThresholdEvaluator.State.NORMAL, evaluator.stateOf(MetricType.TEMP));
+    }
+
+    @Test
+    void testEvaluate_HysteresisPreventsFlapping() {
+        threshold.setHysteresis(new BigDecimal("1.0"));
+
+        assertTrue(evaluate("30.5", 0));
+        assertFalse(evaluate("29.5", 3));
+        assertEquals(ThresholdEvaluator.State.ALARM, evaluator.stateOf(MetricType.TEMP));
+        assertTrue(evaluate("30.2", 6));
+        assertFalse(evaluate("28.9", 9));
+        assertEquals(ThresholdEvaluator.State.NORMAL, evaluator.stateOf(MetricType.TEMP));
+    }
+
+    @Test
+    void testEvaluate_MinDurationDebouncesShortExcursions() {
+        threshold.setMinDurationSeconds(10);
+
+        assertFalse(evaluate("31.0", 0));
+        assertEquals(ThresholdEvaluator.State.PENDING, evaluator.stateOf(MetricType.TEMP));
+        assertFalse(evaluate("31.0", 6));
+        assertFalse(evaluate("25.0", 9));
+        assertEquals(ThresholdEvaluator.State.NORMAL, evaluator.stateOf(MetricType.TEMP));
+
+        assertFalse(evaluate("31.0", 12));
+        assertFalse(evaluate("31.0", 18));
+        assertTrue(evaluate("31.0", 22));
+        assertEquals(ThresholdEvaluator.State.ALARM, evaluator.stateOf(MetricType.TEMP));
+    }
+
+    @Test
+    void testEvaluate_MetricsAreIndependent() {
+        Threshold humidity = new Threshold();
+        humidity.setMetricType(MetricType.HUMIDITY);
+        humidity.setMinValue(new BigDecimal("20.0"));
+        humidity.setMaxValue(new BigDecimal("80.0"));
+
+        assertTrue(evaluate("31.0", 0));
+        assertFalse(evaluator.evaluate(MetricType.HUMIDITY, new BigDecimal("50.0"), T0, humidity));
+        assertEquals(ThresholdEvaluator.State.ALARM, evaluator.stateOf(MetricType.TEMP));
+        assertEquals(ThresholdEvaluator.State.NORMAL, evaluator.stateOf(MetricType.HUMIDITY));
+    }
+
+    @Test
+    void testEvaluate_ScaledBoundsRoundTowardsRange() {
+        Threshold co2 = new Threshold();
+        co2.setMetricType(MetricType.CO2);
+        co2.setMinValue(new BigDecimal("400.50"));
+        co2.setMaxValue(new BigDecimal("1000.50"));
+        ScaledThreshold scaled = ScaledThreshold.of(co2);
+        long t0 = ScaledReading.toMillis(T0);
+
+        assertEquals(new ScaledThreshold(401, 1000, 401, 1000, 0), scaled);
+        assertTrue(evaluator.evaluate(MetricType.CO2, 400, t0, scaled));
+        assertFalse(evaluator.evaluate(MetricType.CO2, 401, t0, scaled));
+        assertFalse(evaluator.evaluate(MetricType.CO2, 1000, t0, scaled));
+        assertTrue(evaluator.evaluate(MetricType.CO2, 1001, t0, scaled));
+    }
+
+    @Test
+    void testEvaluate_ScaledHysteresisAndDuration() {
+        threshold.setHysteresis(new BigDecimal("0.25"));
+        threshold.setMinDurationSeconds(5);
+        ScaledThreshold scaled = ScaledThreshold.of(threshold);
+        long t0 = ScaledReading.toMillis(T0);
+
+        assertEquals(new ScaledThreshold(1000, 3000, 1025, 2975, 5000), scaled);
+        assertFalse(evaluator.evaluate(MetricType.TEMP, 3001, t0, scaled));
+        assertFalse(evaluator.evaluate(MetricType.TEMP, 3001, t0 + 4999, scaled));
+        assertTrue(evaluator.evaluate(MetricType.TEMP, 3001, t0 + 5000, scaled));
+        assertFalse(evaluator.evaluate(MetricType.TEMP, 2980, t0 + 6000, scaled));
+        assertEquals(ThresholdEvaluator.State.ALARM, evaluator.stateOf(MetricType.TEMP));
+        assertFalse(evaluator.evaluate(MetricType.TEMP, 2975, t0 + 7000, scaled));
+        assertEquals(ThresholdEvaluator.State.NORMAL, evaluator.stateOf(MetricType.TEMP));
+    }
+
+    @Test
+    void testScaledReading_ConvertsEntity() {
+        SensorData data = new SensorData();
+        data.setTimestamp(T0.plusNanos(250_000_000));
+        data.setTemperature(new BigDecimal("-3.75"));
+        data.setHumidity(new BigDecimal("45.10"));
+        data.setCo2Level(812);
+
+        ScaledReading reading = ScaledReading.of(data);
+
+        assertEquals(ScaledReading.toMillis(T0) + 250, reading.timestampMillis());
+        assertEquals(-375, reading.valueOf(MetricType.TEMP));
+        assertEquals(4510, reading.valueOf(MetricType.HUMIDITY));
+        assertEquals(812, reading.valueOf(MetricType.CO2));
+        assertEquals(ScaledReading.ABSENT, reading.valueOf(MetricType.LIGHT));
+    }
+
+    @Test
+    void testScaledReading_RoundsExtraDecimalsLikeTheDatabase() {
+        threshold.setMaxValue(new BigDecimal("25.00"));
+        ScaledThreshold scaled = ScaledThreshold.of(threshold);
+        long t0 = ScaledReading.toMillis(T0);
+
+        assertEquals(2500, ScaledReading.scale(MetricType.TEMP, new BigDecimal("25.004")));
+        assertEquals(2501, ScaledReading.scale(MetricType.TEMP, new BigDecimal("25.005")));
+        assertEquals(-376, ScaledReading.scale(MetricType.TEMP, new BigDecimal("-3.755")));
+        assertEquals(new BigDecimal("25.00"), ScaledReading.toStoredScale(new BigDecimal("25.004")));
+        assertEquals(new BigDecimal("25.5"), ScaledReading.toStoredScale(new BigDecimal("25.5")));
+        assertFalse(evaluator.evaluate(MetricType.TEMP, ScaledReading.scale(MetricType.TEMP, new BigDecimal("25.004")), t0, scaled));
+        assertTrue(evaluator.evaluate(MetricType.TEMP, ScaledReading.scale(MetricType.TEMP, new BigDecimal("25.006")), t0, scaled));
+    }
+
+    private boolean evaluate(String value, int secondsAfterStart) {
+        return evaluator.evaluate(MetricType.TEMP, new BigDecimal(value), T0.plusSeconds(secondsAfterStart), threshold);
+    }
+}
@@ -1,25 +1,114 @@
 package com.ecoguard.ecoguard.service;
 
+import com.ecoguard.ecoguard.entity.MetricType;
+import com.ecoguard.ecoguard.entity.Threshold;
+import com.ecoguard.ecoguard.repository.ThresholdRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 /**
  * Unit tests for ThresholdService.
  */
+@ExtendWith(MockitoExtension.class)
 class ThresholdServiceTest {
 
+    @Mock
+    private ThresholdRepository thresholdRepository;
+
+    @InjectMocks
     private ThresholdService thresholdService;
 
+    private Threshold tempThreshold;
+
     @BeforeEach
     void setUp() {
-        thresholdService = new ThresholdService();
+        tempThreshold = new Threshold();
+        tempThreshold.setId(1L);
+        tempThreshold.setMetricType(MetricType.TEMP);
+        tempThreshold.setMinValue(new BigDecimal("10.0"));
+        tempThreshold.setMaxValue(new BigDecimal("30.0"));
     }
 
     @Test
-    void testThresholdService_CanBeInstantiated() {
-        assertNotNull(thresholdService);
+    void testGetByMetric_LoadsSnapshotOnce() {
+        when(thresholdRepository.findAll()).thenReturn(List.of(tempThreshold));
+
+        assertTrue(thresholdService.getByMetric(MetricType.TEMP).isPresent());
+        assertTrue(thresholdService.getByMetric(MetricType.CO2).isEmpty());
+        assertEquals(1, thresholdService.getAll().size());
+
+        verify(thresholdRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testGetScaledThresholds_PreScalesSnapshot() {
+        tempThreshold.setHysteresis(new BigDecimal("0.5"));
+        when(thresholdRepository.findAll()).thenReturn(List.of(tempThreshold));
+
+        assertEquals(new ScaledThreshold(1000, 3000, 1050, 2950, 0),
+                thresholdService.getScaledThresholds().get(MetricType.TEMP));
+        assertNull(thresholdService.getScaledThresholds().get(MetricType.CO2));
+    }
+
+    @Test
+    void testSnapshot_IsDetachedFromEntities() {
+        when(thresholdRepository.findAll()).thenReturn(List.of(tempThreshold));
+        thresholdService.getAll();
+
+        tempThreshold.setMaxValue(new BigDecimal("99.0"));
+
+        assertEquals(new BigDecimal("30.0"), thresholdService.getByMetric(MetricType.TEMP).get().getMaxValue());
     }
-}
 
+    @Test
+    void testSnapshot_IsUnmodifiable() {
+        when(thresholdRepository.findAll()).thenReturn(List.of(tempThreshold));
+
+        assertThrows(UnsupportedOperationException.class, () -> thresholdService.getThresholds().remove(MetricType.TEMP));
+        assertThrows(UnsupportedOperationException.class, () -> thresholdService.getAll().clear());
+    }
+
+    @Test
+    void testRefresh_SwapsSnapshot() {
+        Threshold updated = new Threshold();
+        updated.setId(1L);
+        updated.setMetricType(MetricType.TEMP);
+        updated.setMinValue(new BigDecimal("15.0"));
+        updated.setMaxValue(new BigDecimal("35.0"));
+        doReturn(List.of(tempThreshold), List.of(updated)).when(thresholdRepository).findAll();
+
+        assertEquals(new BigDecimal("30.0"), thresholdService.getByMetric(MetricType.TEMP).get().getMaxValue());
+        thresholdService.refresh();
+
+        assertEquals(new BigDecimal("35.0"), thresholdService.getByMetric(MetricType.TEMP).get().getMaxValue());
+        verify(thresholdRepository, times(2)).findAll();
+    }
+
+    @Test
+    void testRefresh_NotifiesChangeListeners() {
+        when(thresholdRepository.findAll()).thenReturn(List.of(tempThreshold));
+        List<List<Threshold>> notified = new ArrayList<>();
+        thresholdService.addChangeListener(thresholds -> {
+            throw new IllegalStateException("listener failed");
+        });
+        thresholdService.addChangeListener(notified::add);
+
+        thresholdService.getAll();
+        assertTrue(notified.isEmpty());
+        thresholdService.refresh();
+
+        assertEquals(1, notified.size());
+        assertEquals(MetricType.TEMP, notified.get(0).get(0).getMetricType());
+    }
+}
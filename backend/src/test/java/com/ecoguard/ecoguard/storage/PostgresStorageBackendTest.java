@@ -0,0 +1,94 @@
+package com.ecoguard.ecoguard.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PostgresStorageBackend.
+ */
+@ExtendWith(MockitoExtension.class)
+class PostgresStorageBackendTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testPreparePartitions_CreatesCurrentAndUpcomingMonths() {
+        PostgresStorageBackend backend = new PostgresStorageBackend(jdbcTemplate, transactionManager, 2);
+
+        backend.preparePartitions(LocalDate.of(2025, 11, 20));
+
+        verify(jdbcTemplate).execute("create table if not exists \"sensor_data_y2025m11\" partition of "
+                + "\"sensor_data\" for values from ('2025-11-01') to ('2025-12-01')");
+        verify(jdbcTemplate).execute("create table if not exists \"sensor_data_y2025m12\" partition of "
+                + "\"sensor_data\" for values from ('2025-12-01') to ('2026-01-01')");
+        verify(jdbcTemplate).execute("create table if not exists \"sensor_data_y2026m01\" partition of "
+                + "\"sensor_data\" for values from ('2026-01-01') to ('2026-02-01')");
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testPreparePartitions_FailureSkipsMonth() {
+        doThrow(new DataIntegrityViolationException("default partition holds rows"))
+                .when(jdbcTemplate).execute(contains("sensor_data_y2025m11"));
+        PostgresStorageBackend backend = new PostgresStorageBackend(jdbcTemplate, transactionManager, 1);
+
+        backend.preparePartitions(LocalDate.of(2025, 11, 1));
+
+        verify(jdbcTemplate).execute(contains("sensor_data_y2025m12"));
+    }
+
+    @Test
+    void testReleaseSensorDataBefore_DropsOnlyExpiredEmptyMonths() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "sensor_data_default", "sensor_data_y2025m01", "sensor_data_y2025m02", "sensor_data_y2025m03"));
+        when(jdbcTemplate.queryForObject("select exists (select 1 from \"sensor_data_y2025m01\")", Boolean.class))
+                .thenReturn(false);
+        when(jdbcTemplate.queryForObject("select exists (select 1 from \"sensor_data_y2025m02\")", Boolean.class))
+                .thenReturn(true);
+        PostgresStorageBackend backend = new PostgresStorageBackend(jdbcTemplate, transactionManager, 3);
+
+        int dropped = backend.releaseSensorDataBefore(LocalDate.of(2025, 3, 1));
+
+        assertEquals(1, dropped);
+        verify(jdbcTemplate).execute("lock table \"sensor_data_y2025m01\" in access exclusive mode");
+        verify(jdbcTemplate).execute("drop table \"sensor_data_y2025m01\"");
+        verify(jdbcTemplate, never()).execute("drop table \"sensor_data_y2025m02\"");
+        verify(jdbcTemplate, never()).execute(contains("sensor_data_y2025m03"));
+        verify(jdbcTemplate, never()).execute(contains("sensor_data_default"));
+    }
+
+    @Test
+    void testPartitionNames_RoundTrip() {
+        assertEquals("sensor_data_y2026m01", PostgresStorageBackend.partitionName(YearMonth.of(2026, 1)));
+        assertEquals(YearMonth.of(2026, 1), PostgresStorageBackend.partitionMonth("sensor_data_y2026m01"));
+        assertNull(PostgresStorageBackend.partitionMonth("sensor_data_default"));
+        assertNull(PostgresStorageBackend.partitionMonth("alerts"));
+    }
+
+    @Test
+    void testCountSensorData_UsesStatistics() {
+        when(jdbcTemplate.queryForObject(contains("reltuples"), eq(Long.class))).thenReturn(1234L);
+        PostgresStorageBackend backend = new PostgresStorageBackend(jdbcTemplate, transactionManager, 3);
+
+        assertEquals(1234L, backend.countSensorData());
+        assertEquals("postgresql", backend.getName());
+    }
+}
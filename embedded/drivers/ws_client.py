@@ -0,0 +1,151 @@
+# ws_client.py — minimal MicroPython WebSocket client (RFC 6455, text frames, no TLS)
+
+import time
+import os
+import struct
+import socket
+import select
+import hashlib
+import binascii
+
+_GUID = b"258EAFA5-E914-47DA-95CA-C5AB0DC85B11"
+OP_CONT = 0x0
+OP_TEXT = 0x1
+OP_CLOSE = 0x8
+OP_PING = 0x9
+OP_PONG = 0xA
+
+class WebSocketClient:
+    def __init__(self, host, port, path, headers=None, timeout=5):
+        self.host = host
+        self.port = port
+        self.path = path
+        self.headers = headers or {}
+        self.timeout = timeout
+        self.sock = None
+        self._poller = None
+        self._fragments = None
+        self.last_rx = 0
+
+    def connect(self):
+        addr = socket.getaddrinfo(self.host, self.port)[0][-1]
+        sock = socket.socket()
+        sock.settimeout(self.timeout)
+        try:
+            sock.connect(addr)
+            key = binascii.b2a_base64(os.urandom(16)).strip()
+            request = "GET {} HTTP/1.1\r\nHost: {}:{}\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n" \
+                      "Sec-WebSocket-Key: {}\r\nSec-WebSocket-Version: 13\r\n".format(
+                          self.path, self.host, self.port, key.decode())
+            for name, value in self.headers.items():
+                request += "{}: {}\r\n".format(name, value)
+            sock.write((request + "\r\n").encode())
+
+            status = sock.readline()
+            if not status.startswith(b"HTTP/1.1 101"):
+                raise OSError("WebSocket handshake failed: " + status.decode().strip())
+            expected = binascii.b2a_base64(hashlib.sha1(key + _GUID).digest()).strip()
+            accepted = False
+            while True:
+                line = sock.readline()
+                if not line or line == b"\r\n":
+                    break
+                name, _, value = line.partition(b":")
+                if name.strip().lower() == b"sec-websocket-accept" and value.strip() == expected:
+                    accepted = True
+            if not accepted:
+                raise OSError("WebSocket handshake not accepted")
+        except Exception:
+            sock.close()
+            raise
+        self.sock = sock
+        self._poller = select.poll()
+        self._poller.register(sock, select.POLLIN)
+        self.last_rx = time.time()
+
+    def send(self, text):
+        self._send_frame(OP_TEXT, text.encode() if isinstance(text, str) else text)
+
+    def recv(self):
+        # Returns the next text message, or None if no complete message is waiting.
+        while self.sock is not None and self._poller.poll(0):
+            opcode, fin, payload = self._read_frame()
+            self.last_rx = time.time()
+            if opcode == OP_PING:
+                self._send_frame(OP_PONG, payload)
+            elif opcode == OP_CLOSE:
+                try:
+                    self._send_frame(OP_CLOSE, payload[:2])
+                except Exception:
+                    pass
+                self._drop()
+                raise OSError("WebSocket closed by server")
+            elif opcode == OP_TEXT or opcode == OP_CONT:
+                if opcode == OP_TEXT:
+                    self._fragments = bytearray()
+                if self._fragments is None:
+                    continue
+                self._fragments += payload
+                if fin:
+                    message = bytes(self._fragments).decode()
+                    self._fragments = None
+                    return message
+        return None
+
+    def idle_seconds(self):
+        return time.time() - self.last_rx
+
+    def close(self):
+        if self.sock is None:
+            return
+        try:
+            self._send_frame(OP_CLOSE, struct.pack(">H", 1000))
+        except Exception:
+            pass
+        self._drop()
+
+    def _drop(self):
+        try:
+            self.sock.close()
+        except Exception:
+            pass
+        self.sock = None
+        self._poller = None
+        self._fragments = None
+
+    def _send_frame(self, opcode, payload):
+        length = len(payload)
+        if length < 126:
+            header = struct.pack(">BB", 0x80 | opcode, 0x80 | length)
+        elif length < 65536:
+            header = struct.pack(">BBH", 0x80 | opcode, 0x80 | 126, length)
+        else:
+            header = struct.pack(">BBQ", 0x80 | opcode, 0x80 | 127, length)
+        mask = os.urandom(4)
+        masked = bytearray(payload)
+        for i in range(length):
+            masked[i] ^= mask[i & 3]
+        self.sock.write(header + mask + masked)
+
+    def _read_frame(self):
+        b0, b1 = self._read_exact(2)
+        length = b1 & 0x7F
+        if length == 126:
+            length = struct.unpack(">H", self._read_exact(2))[0]
+        elif length == 127:
+            length = struct.unpack(">Q", self._read_exact(8))[0]
+        mask = self._read_exact(4) if b1 & 0x80 else None
+        payload = bytearray(self._read_exact(length)) if length else bytearray()
+        if mask:
+            for i in range(length):
+                payload[i] ^= mask[i & 3]
+        return b0 & 0x0F, b0 & 0x80, payload
+
+    def _read_exact(self, n):
+        data = b""
+        while len(data) < n:
+            chunk = self.sock.read(n - len(data))
+            if not chunk:
+                raise OSError("WebSocket connection lost")
+            data += chunk
+        return data
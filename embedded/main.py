@@ -4,6 +4,7 @@ import network
 import json
 import asyncio
 import gc
+import struct
 from scd4x import SCD4X
 from ssd1306 import SSD1306_I2C
 import neopixel
@@ -35,6 +36,12 @@ BUTTON_DEBOUNCE_MS = 80
 BASE_URL = None
 THRESHOLD_URL = None
 COMMAND_URL = None
+FRAME_CONTENT_TYPE = "application/vnd.ecoguard.reading"
+WS_PATH = "/api/device/ws"
+WS_MIN_BACKOFF = 5
+WS_MAX_BACKOFF = 60
+WS_IDLE_TIMEOUT = 45
+WS_MAX_MESSAGES_PER_POLL = 5
 COMMAND_CHECK_INTERVAL = 10
 BLE_COMMAND_CHECK_INTERVAL = 15  
 SCD41_REINIT_TIMEOUT = 30
@@ -644,37 +651,158 @@ def send_webhook_notification(alert_type, message, data=None):
         print("Webhook error: " + str(e))
         return False
 
+ws = None
+ws_retry_at = 0
+ws_backoff = WS_MIN_BACKOFF
+
+def ensure_ws():
+    global ws, ws_retry_at, ws_backoff
+    if ws is not None:
+        return True
+    if ble_broadcasting or not wifi_ok or time.time() < ws_retry_at:
+        return False
+    gc.collect()
+    try:
+        from ws_client import WebSocketClient
+        client = WebSocketClient(BACKEND_IP, 8080, WS_PATH, headers={"X-Device-Key": DEVICE_KEY})
+        client.connect()
+        ws = client
+        ws_backoff = WS_MIN_BACKOFF
+        print("WebSocket connected")
+        return True
+    except Exception as e:
+        print("WebSocket connect error:", e)
+        ws_retry_at = time.time() + ws_backoff
+        ws_backoff = min(ws_backoff * 2, WS_MAX_BACKOFF)
+        gc.collect()
+        return False
+
+def close_ws(retry_delay=0):
+    global ws, ws_retry_at
+    if ws is not None:
+        try:
+            ws.close()
+        except Exception:
+            pass
+        ws = None
+        print("WebSocket closed")
+    if retry_delay:
+        ws_retry_at = time.time() + retry_delay
+    gc.collect()
+
+def ws_send(message):
+    if ws is None:
+        return False
+    try:
+        ws.send(json.dumps(message))
+        return True
+    except Exception as e:
+        print("WebSocket send error:", e)
+        close_ws(ws_backoff)
+        return False
+
+def poll_ws():
+    if ws is None:
+        return
+    try:
+        for _ in range(WS_MAX_MESSAGES_PER_POLL):
+            text = ws.recv()
+            if text is None:
+                break
+            handle_ws_message(json.loads(text))
+            if ws is None:
+                return
+        if ws.idle_seconds() > WS_IDLE_TIMEOUT:
+            print("WebSocket idle, reconnecting")
+            close_ws()
+    except Exception as e:
+        print("WebSocket receive error:", e)
+        close_ws(ws_backoff)
+
+def handle_ws_message(message):
+    kind = message.get("type")
+    if kind == "thresholds":
+        apply_thresholds(message.get("thresholds") or [])
+    elif kind == "commands":
+        acked = []
+        for cmd in message.get("commands") or []:
+            print("RAW CMD OBJ:", cmd)
+            cmd_id = get_cmd_id(cmd)
+            if cmd.get("commandType") == "BLE_BROADCAST":
+                # Ack first: the socket is closed while broadcasting.
+                if cmd_id and not ws_send({"type": "ack", "ids": [cmd_id]}):
+                    ack_command(cmd_id)
+                execute_command(cmd)
+            else:
+                execute_command(cmd)
+                if cmd_id:
+                    acked.append(cmd_id)
+            gc.collect()
+        if acked and not ws_send({"type": "ack", "ids": acked}):
+            for cmd_id in acked:
+                ack_command(cmd_id)
+    elif kind == "retry":
+        print("Backend busy, retry in", message.get("retryAfterSeconds"), "s")
+    elif kind == "error":
+        print("Backend rejected message:", message.get("message"))
+
+def build_reading(co2, temp, hum, light_level=None):
+    payload = {
+        "co2Level": int(co2),
+        "temperature": float(temp),
+        "humidity": float(hum)
+    }
+    if light_level is not None:
+        payload["lightLevel"] = int(light_level)
+    return payload
+
+def _clamp(value, low, high):
+    return max(low, min(int(value), high))
+
+def build_frame(co2, temp, hum, light_level=None):
+    # Binary reading frame: version, presence flags, then big-endian fields
+    # (temperature and humidity in hundredths, CO2, optional light).
+    flags = 0b0111 if light_level is None else 0b1111
+    frame = struct.pack(">BBhHH", 1, flags,
+                        _clamp(round(temp * 100), -32768, 32767),
+                        _clamp(round(hum * 100), 0, 65535),
+                        _clamp(co2, 0, 65535))
+    if light_level is not None:
+        frame += struct.pack(">H", _clamp(light_level, 0, 65535))
+    return frame
+
 def send_to_backend(co2, temp, hum, light_level=None):
     if ble_broadcasting:
         return False
     
+    if ws is not None:
+        message = build_reading(co2, temp, hum, light_level)
+        message["type"] = "reading"
+        if ws_send(message):
+            print("Reading sent over WebSocket")
+            return True
+    
     response = None
     gc.collect()
     time.sleep(0.05)
     try:
         import urequests
         
-        payload = {
-            "co2Level": int(co2),
-            "temperature": float(temp),
-            "humidity": float(hum)
-        }
-        if light_level is not None:
-            payload["lightLevel"] = int(light_level)
-        
-        json_data = json.dumps(payload)
+        frame = build_frame(co2, temp, hum, light_level)
         headers = {
-            "Content-Type": "application/json",
+            "Content-Type": FRAME_CONTENT_TYPE,
             "X-Device-Key": DEVICE_KEY
         }
         
         print("Sending to backend...")
-        response = urequests.post(BACKEND_URL, data=json_data, headers=headers)
+        response = urequests.post(BACKEND_URL, data=frame, headers=headers)
         
-        if response.status_code == 200:
-            result = response.json()
-            print("Success! ID: " + str(result.get("sensorDataId", "?")))
+        if response.status_code == 200 or response.status_code == 202:
+            print("Success! Reading accepted")
             return True
+        elif response.status_code == 429:
+            print("Backend busy (429)")
+            return False
         else:
             print("Error! Code: " + str(response.status_code))
             return False
@@ -721,11 +849,26 @@ def read_light():
         return None
     return light_sensor.read()
 
+def apply_thresholds(data):
+    global thresholds, last_threshold_fetch
+    updated = {}
+    for item in data:
+        metric = item.get("metricType")
+        if not metric:
+            continue
+        min_value = item.get("minValue")
+        max_value = item.get("maxValue")
+        updated[metric.upper()] = {
+            "min": float(min_value) if min_value is not None else None,
+            "max": float(max_value) if max_value is not None else None
+        }
+    thresholds = updated
+    last_threshold_fetch = time.time()
+
 def fetch_thresholds():
     if ble_broadcasting:
         return
     
-    global thresholds, last_threshold_fetch
     response = None
     gc.collect()
     time.sleep(0.05)
@@ -733,20 +876,7 @@ def fetch_thresholds():
         import urequests
         response = urequests.get(THRESHOLD_URL, headers={"X-Device-Key": DEVICE_KEY})
         if response.status_code == 200:
-            data = response.json()
-            updated = {}
-            for item in data:
-                metric = item.get("metricType")
-                if not metric:
-                    continue
-                min_value = item.get("minValue")
-                max_value = item.get("maxValue")
-                updated[metric.upper()] = {
-                    "min": float(min_value) if min_value is not None else None,
-                    "max": float(max_value) if max_value is not None else None
-                }
-            thresholds = updated
-            last_threshold_fetch = time.time()
+            apply_thresholds(response.json())
         else:
             print("Failed to fetch thresholds:", response.status_code)
     except Exception as e:
@@ -991,7 +1121,9 @@ def execute_command(cmd):
     elif cmd_type == "REFRESH_CONFIG":
         if params:
             print("Config refresh requested:", params)
-        if not ble_broadcasting and wifi_ok:
+        if ws is not None:
+            print("Config pushed over WebSocket")
+        elif not ble_broadcasting and wifi_ok:
             fetch_thresholds()
             if params:
                 print("Config refreshed -", params)
@@ -1110,9 +1242,13 @@ while True:
     try:
         handle_buttons()
         ensure_wifi()
+        if ble_broadcasting or not wifi_ok:
+            close_ws()
+        elif ensure_ws():
+            poll_ws()
         now = time.time()
         interval = BLE_COMMAND_CHECK_INTERVAL if ble_broadcasting else COMMAND_CHECK_INTERVAL
-        if wifi_ok and (now - last_command_check) >= interval:
+        if wifi_ok and ws is None and (now - last_command_check) >= interval:
             if ble_broadcasting:
                 fetch_ble_commands_only()
             else:
@@ -1130,7 +1266,7 @@ while True:
             last_sensor_poll = current_time
 
             if scd4x.data_ready:
-                if not ble_broadcasting and wifi_ok and (current_time - last_threshold_fetch) >= THRESHOLD_REFRESH_INTERVAL:
+                if not ble_broadcasting and wifi_ok and ws is None and (current_time - last_threshold_fetch) >= THRESHOLD_REFRESH_INTERVAL:
                     fetch_thresholds()
                 if thresholds and thresholds != last_printed_thresholds:
                     print("Thresholds changed:", format_thresholds(thresholds))
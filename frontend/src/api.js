@@ -44,12 +44,15 @@ export function getLatestSensor(role = 'user') {
   return request(`${rolePrefix(role)}/sensor-data/latest`);
 }
 
-export function getAllSensor(role = 'user') {
-  return request(`${rolePrefix(role)}/sensor-data`);
+export function getAllSensor(role = 'user', cursor = null, limit = 100) {
+  const params = new URLSearchParams({ limit: String(limit) });
+  if (cursor) params.set('cursor', cursor);
+  return request(`${rolePrefix(role)}/sensor-data?${params.toString()}`);
 }
 
-export function getSensorRange(startIso, endIso, role = 'user') {
+export function getSensorRange(startIso, endIso, role = 'user', maxPoints = null) {
   const params = new URLSearchParams({ start: startIso, end: endIso });
+  if (maxPoints) params.set('maxPoints', String(maxPoints));
   return request(`${rolePrefix(role)}/sensor-data/range?${params.toString()}`);
 }
 
@@ -94,6 +97,107 @@ export function getDeviceStatus() {
   return request('/api/admin/device/status')
 }
 
+// One live event stream per role, shared by every component that subscribes.
+const streams = {}
+const STREAM_RETRY_MS = 5000
+
+function parseStreamEvent(block) {
+  let name = 'message'
+  const data = []
+  for (const line of block.split('\n')) {
+    if (!line || line.startsWith(':')) continue
+    const sep = line.indexOf(':')
+    const field = sep < 0 ? line : line.slice(0, sep)
+    const value = sep < 0 ? '' : line.slice(sep + 1).replace(/^ /, '')
+    if (field === 'event') name = value
+    else if (field === 'data') data.push(value)
+  }
+  if (!data.length) return null
+  try {
+    return { name, data: JSON.parse(data.join('\n')) }
+  } catch {
+    return null
+  }
+}
+
+function openStream(role) {
+  const stream = { listeners: new Set(), controller: null, retryTimer: null, connects: 0 }
+
+  const emit = (name, data) => {
+    for (const handlers of stream.listeners) {
+      try {
+        handlers[name]?.(data)
+      } catch (e) {
+        console.error(e)
+      }
+    }
+  }
+
+  const connect = async () => {
+    const controller = new AbortController()
+    stream.controller = controller
+    const headers = { Accept: 'text/event-stream' }
+    const token = getToken()
+    if (token) headers.Authorization = `Bearer ${token}`
+    try {
+      const res = await fetch(`${BASE}${rolePrefix(role)}/stream`, { headers, signal: controller.signal })
+      if (res.status === 401) {
+        localStorage.removeItem('auth')
+        window.location.hash = '#/login'
+        return
+      }
+      if (!res.ok || !res.body) throw new Error(`Stream failed ${res.status}`)
+      emit('open', stream.connects++ > 0)
+      const reader = res.body.pipeThrough(new TextDecoderStream()).getReader()
+      let buffer = ''
+      for (;;) {
+        const { value, done } = await reader.read()
+        if (done) break
+        buffer += value.replace(/\r\n?/g, '\n')
+        let end
+        while ((end = buffer.indexOf('\n\n')) >= 0) {
+          const event = parseStreamEvent(buffer.slice(0, end))
+          buffer = buffer.slice(end + 2)
+          if (event) emit(event.name, event.data)
+        }
+      }
+    } catch (e) {
+      if (controller.signal.aborted) return
+      console.error(e)
+    }
+    if (!controller.signal.aborted && stream.listeners.size) {
+      stream.retryTimer = setTimeout(connect, STREAM_RETRY_MS)
+    }
+  }
+
+  stream.close = () => {
+    clearTimeout(stream.retryTimer)
+    stream.controller?.abort()
+    delete streams[role]
+  }
+  stream.connect = connect
+  return stream
+}
+
+// Subscribes to the live event stream (reading, alert, and for admins
+// device-status and command events). handlers.open(reconnected) is called
+// whenever the stream (re)connects; reload data then, since events sent while
+// disconnected are not replayed. Returns a function that unsubscribes.
+export function subscribeStream(role = 'user', handlers = {}) {
+  let stream = streams[role]
+  if (!stream) {
+    stream = streams[role] = openStream(role)
+    stream.listeners.add(handlers)
+    stream.connect()
+  } else {
+    stream.listeners.add(handlers)
+  }
+  return () => {
+    stream.listeners.delete(handlers)
+    if (!stream.listeners.size) stream.close()
+  }
+}
+
 export function getHealth() {
   return request('/api/health')
 }
@@ -107,8 +107,7 @@ class MainActivity : AppCompatActivity() {
                 progressBar.visibility = View.VISIBLE
             }
             try {
-                val sensorDataList = apiService.getSensorData()
-                    .sortedByDescending { it.timestamp }
+                val sensorDataList = apiService.getSensorData().items
                 sensorDataAdapter.updateData(sensorDataList)
             } catch (e: Exception) {
                 Toast.makeText(this@MainActivity, "Failed to load data: ${e.message}", Toast.LENGTH_LONG).show()
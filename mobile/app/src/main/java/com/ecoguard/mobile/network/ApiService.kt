@@ -5,12 +5,14 @@ import com.ecoguard.mobile.network.data.DeviceTokenRequest
 import com.ecoguard.mobile.network.data.LoginRequest
 import com.ecoguard.mobile.network.data.LoginResponse
 import com.ecoguard.mobile.network.data.SensorData
+import com.ecoguard.mobile.network.data.SensorDataPage
 import com.ecoguard.mobile.network.data.Threshold
 import retrofit2.http.Body
 import retrofit2.http.GET
 import retrofit2.http.POST
 import retrofit2.http.PUT
 import retrofit2.http.Path
+import retrofit2.http.Query
 
 interface ApiService {
 
@@ -18,7 +20,10 @@ interface ApiService {
     suspend fun login(@Body loginRequest: LoginRequest): LoginResponse
 
     @GET("api/user/sensor-data")
-    suspend fun getSensorData(): List<SensorData>
+    suspend fun getSensorData(
+        @Query("cursor") cursor: String? = null,
+        @Query("limit") limit: Int = 100
+    ): SensorDataPage
 
     @GET("api/user/sensor-data/latest")
     suspend fun getLatestSensorData(): SensorData
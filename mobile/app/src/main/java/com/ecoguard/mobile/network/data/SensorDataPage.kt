@@ -0,0 +1,6 @@
+package com.ecoguard.mobile.network.data
+
+data class SensorDataPage(
+    val items: List<SensorData>,
+    val nextCursor: String?
+)